@@ -19,6 +19,8 @@ import com.esotericsoftware.minlog.Log;
 import gnu.trove.list.TIntList;
 import gnu.trove.list.array.TIntArrayList;
 import org.scify.jedai.datamodel.*;
+import org.scify.jedai.utilities.metrics.PipelineMetrics;
+import org.scify.jedai.utilities.metrics.StageMetrics;
 
 import java.util.*;
 
@@ -30,9 +32,12 @@ public abstract class AbstractBlockBuilding implements IBlockBuilding {
     private static final long serialVersionUID = -1009041578742039220L;
 
     protected boolean isUsingEntropy;
+    protected boolean keysPartitioned;
 
+    protected int keyPartition;
     protected int noOfEntitiesD1;
     protected int noOfEntitiesD2;
+    protected int noOfKeyPartitions;
 
     protected List<AbstractBlock> blocks;
     protected List<EntityProfile> entityProfilesD1;
@@ -43,6 +48,8 @@ public abstract class AbstractBlockBuilding implements IBlockBuilding {
 
     public AbstractBlockBuilding() {
         isUsingEntropy = false;
+        keyPartition = 0;
+        noOfKeyPartitions = 1;
     }
 
     protected void buildBlocks() {
@@ -82,6 +89,7 @@ public abstract class AbstractBlockBuilding implements IBlockBuilding {
             return null;
         }
 
+        final StageMetrics stage = startStage(profilesD1, profilesD2);
         blocks = new ArrayList<>();
         schemaClusters = sClusters;
         invertedIndexD1 = new HashMap<>();
@@ -94,7 +102,22 @@ public abstract class AbstractBlockBuilding implements IBlockBuilding {
         }
 
         buildBlocks();
-        return readBlocks();
+        return finishStage(stage, readBlocks());
+    }
+
+    protected List<AbstractBlock> finishStage(StageMetrics stage, List<AbstractBlock> outputBlocks) {
+        if (1 < noOfKeyPartitions && !keysPartitioned) {
+            // the blocks are not derived from independent keys, so they are partitioned by their contents
+            outputBlocks.removeIf(block -> getPartition(getContentHash(block)) != keyPartition);
+        }
+        keysPartitioned = false;
+
+        if (stage.isEnabled()) {
+            stage.stop();
+            stage.setOutputComparisons(outputBlocks.stream().mapToLong(AbstractBlock::getNoOfComparisons).sum());
+            stage.finish(outputBlocks.size());
+        }
+        return outputBlocks;
     }
 
     public long getBruteForceComparisons() {
@@ -104,6 +127,30 @@ public abstract class AbstractBlockBuilding implements IBlockBuilding {
         return noOfEntitiesD1 * noOfEntitiesD2;
     }
 
+    private static int getContentHash(AbstractBlock block) {
+        if (block instanceof BilateralBlock) {
+            final BilateralBlock bBlock = (BilateralBlock) block;
+            return 31 * Arrays.hashCode(bBlock.getIndex1Entities()) + Arrays.hashCode(bBlock.getIndex2Entities());
+        }
+        return Arrays.hashCode(((UnilateralBlock) block).getEntities());
+    }
+
+    private int getPartition(int hash) {
+        int h = hash * 0x9E3779B9;
+        h ^= h >>> 16;
+        return Math.floorMod(h, noOfKeyPartitions);
+    }
+
+    protected StageMetrics startStage(List<EntityProfile> profilesD1, List<EntityProfile> profilesD2) {
+        final int noOfProfiles = profilesD1.size() + (profilesD2 == null ? 0 : profilesD2.size());
+        return PipelineMetrics.startStage(PipelineMetrics.BLOCK_BUILDING, this, noOfProfiles);
+    }
+
+    // the entropy of the schema cluster follows the last suffix of the key, which is not split as a regex, due to its "$"
+    private static float getKeyEntropy(String key) {
+        return Float.parseFloat(key.substring(key.lastIndexOf(CLUSTER_SUFFIX) + CLUSTER_SUFFIX.length()));
+    }
+
     public int getTotalNoOfEntities() {
         if (entityProfilesD2 == null) {
             return noOfEntitiesD1;
@@ -111,7 +158,27 @@ public abstract class AbstractBlockBuilding implements IBlockBuilding {
         return Math.addExact(noOfEntitiesD1, noOfEntitiesD2);
     }
 
+    /**
+     * @return true if every block is derived from a single blocking key,
+     * independently of the rest, so that the keys can be partitioned
+     */
+    protected boolean hasIndependentKeys() {
+        return true;
+    }
+
+    /**
+     * @return true if every worker of a partitioned execution indexes only
+     * the blocking keys of its partition, thus building a fraction of the
+     * blocks; otherwise, it builds all blocks and then retains those of its
+     * partition
+     */
+    public boolean isPartitionedByKeys() {
+        return hasIndependentKeys();
+    }
+
     protected void indexEntities(Map<String, TIntList> index, List<EntityProfile> entities) {
+        keysPartitioned = hasIndependentKeys();
+
         int counter = 0;
         for (EntityProfile profile : entities) {
             final Set<String> allKeys = new HashSet<>();
@@ -122,6 +189,10 @@ public abstract class AbstractBlockBuilding implements IBlockBuilding {
             });
 
             for (String key : allKeys) {
+                if (keysPartitioned && !isInKeyPartition(key)) {
+                    continue;
+                }
+
                 TIntList entityList = index.get(key);
                 if (entityList == null) {
                     entityList = new TIntArrayList();
@@ -135,6 +206,7 @@ public abstract class AbstractBlockBuilding implements IBlockBuilding {
 
     protected void indexEntities(Map<String, TIntList> index, List<EntityProfile> entities, AttributeClusters schemaClusters) {
         isUsingEntropy = true;
+        keysPartitioned = hasIndependentKeys();
 
         int counter = 0;
         for (EntityProfile profile : entities) {
@@ -142,11 +214,15 @@ public abstract class AbstractBlockBuilding implements IBlockBuilding {
             profile.getAttributes().forEach((attribute) -> {
                 int clusterId = schemaClusters.getClusterId(attribute.getName());
                 getBlockingKeys(attribute.getValue().toLowerCase()).stream().map((key) -> key.trim()).filter((normalizedKey) -> (0 < normalizedKey.length())).forEachOrdered((normalizedKey) -> {
-                    allKeys.add(normalizedKey + CLUSTER_PREFIX + clusterId + CLUSTER_PREFIX + schemaClusters.getClusterEntropy(clusterId));
+                    allKeys.add(normalizedKey + CLUSTER_PREFIX + clusterId + CLUSTER_SUFFIX + schemaClusters.getClusterEntropy(clusterId));
                 });
             });
 
             for (String key : allKeys) {
+                if (keysPartitioned && !isInKeyPartition(key)) {
+                    continue;
+                }
+
                 TIntList entityList = index.get(key);
                 if (entityList == null) {
                     entityList = new TIntArrayList();
@@ -158,14 +234,16 @@ public abstract class AbstractBlockBuilding implements IBlockBuilding {
         }
     }
 
+    protected boolean isInKeyPartition(String key) {
+        return noOfKeyPartitions <= 1 || getPartition(key.hashCode()) == keyPartition;
+    }
+
     protected void parseIndex() {
         if (!isUsingEntropy) {
             invertedIndexD1.values().stream().filter((entityList) -> (1 < entityList.size())).forEachOrdered((entityList) -> blocks.add(new UnilateralBlock(entityList.toArray())));
         } else {
             invertedIndexD1.forEach((key, value) -> {
-                final String[] entropyString = key.split(CLUSTER_SUFFIX);
-                float entropyValue = Float.parseFloat(entropyString[1]);
-                blocks.add(new UnilateralBlock(entropyValue, value.toArray()));
+                blocks.add(new UnilateralBlock(getKeyEntropy(key), value.toArray()));
             });
         }
     }
@@ -182,14 +260,32 @@ public abstract class AbstractBlockBuilding implements IBlockBuilding {
             invertedIndexD1.forEach((key, value) -> {
                 final TIntList entityIdsD2 = invertedIndexD2.get(key);
                 if (entityIdsD2 != null && !entityIdsD2.isEmpty()) {
-                    final String[] entropyString = key.split(CLUSTER_SUFFIX);
-                    float entropyValue = Float.parseFloat(entropyString[1]);
-                    blocks.add(new BilateralBlock(entropyValue, value.toArray(), entityIdsD2.toArray()));
+                    blocks.add(new BilateralBlock(getKeyEntropy(key), value.toArray(), entityIdsD2.toArray()));
                 }
             });
         }
     }
 
+    /**
+     * Restricts the blocks to a single partition, so that several workers
+     * build disjoint sets of blocks from the same profiles. Every blocking key
+     * is assigned to a partition through its hash; for methods whose blocks do
+     * not correspond to independent keys (e.g., Sorted Neighborhood), every
+     * block is assigned to a partition through the hash of its entities.
+     *
+     * @param partition the id of the partition, in [0, noOfPartitions)
+     * @param noOfPartitions the total number of partitions; 1 disables
+     * partitioning
+     */
+    public void setKeyPartition(int partition, int noOfPartitions) {
+        if (noOfPartitions < 1 || partition < 0 || noOfPartitions <= partition) {
+            Log.error("Invalid key partition " + partition + " out of " + noOfPartitions);
+            return;
+        }
+        keyPartition = partition;
+        noOfKeyPartitions = noOfPartitions;
+    }
+
     //read blocks from the inverted index
     public List<AbstractBlock> readBlocks() {
         if (entityProfilesD2 == null) { //Dirty ER
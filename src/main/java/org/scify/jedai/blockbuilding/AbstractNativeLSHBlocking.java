@@ -0,0 +1,418 @@
+/*
+* Copyright [2016-2020] [George Papadakis (gpapadis@yahoo.gr)]
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+*    http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+ */
+package org.scify.jedai.blockbuilding;
+
+import com.esotericsoftware.minlog.Log;
+import gnu.trove.list.array.TIntArrayList;
+import gnu.trove.map.hash.TLongObjectHashMap;
+import org.apache.jena.atlas.json.JsonArray;
+import org.apache.jena.atlas.json.JsonObject;
+import org.scify.jedai.configuration.gridsearch.IntGridSearchConfiguration;
+import org.scify.jedai.configuration.randomsearch.IntRandomSearchConfiguration;
+import org.scify.jedai.datamodel.AbstractBlock;
+import org.scify.jedai.datamodel.Attribute;
+import org.scify.jedai.datamodel.AttributeClusters;
+import org.scify.jedai.datamodel.BilateralBlock;
+import org.scify.jedai.datamodel.EntityProfile;
+import org.scify.jedai.datamodel.UnilateralBlock;
+import org.scify.jedai.utilities.HashUtils;
+import org.scify.jedai.utilities.metrics.ProgressCounter;
+import org.scify.jedai.utilities.metrics.StageMetrics;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * The common engine of the LSH blocking methods that hash the tokens of every
+ * entity directly, instead of building a text model and a corpus vocabulary.
+ *
+ * Every attribute value is split into tokens of ASCII letters and digits,
+ * which are lower-cased and hashed into 64-bit integers. The subclasses turn
+ * the sorted token hashes of every entity into the keys of its bands in a
+ * single pass, using random coefficients that are drawn from a seeded
+ * generator. Every band key is a long and every band is bucketed
+ * independently of the others into a primitive hash map, in parallel. Every
+ * bucket with at least two entities (from different datasets, in Clean-Clean
+ * ER) forms a block. Entities without any token are not placed in any block.
+ *
+ * With multi-probe LSH, every entity is additionally placed in the buckets of
+ * a number of keys that are close to its actual key in every band. Thus,
+ * similar entities that differ slightly in a band still co-occur in a block,
+ * and fewer bands are needed for the same recall.
+ *
+ * @author G.A.P. II
+ */
+public abstract class AbstractNativeLSHBlocking extends AbstractBlockBuilding {
+
+    private static final long serialVersionUID = 6584127840954370311L;
+
+    protected static final long GOLDEN_GAMMA = 0x9E3779B97F4A7C15L;
+
+    protected int bandSize;
+    protected int bandsNumber;
+    protected int noOfProbes;
+    protected long seed;
+
+    protected final IntGridSearchConfiguration gridBndNumber;
+    protected final IntGridSearchConfiguration gridBndSize;
+    protected final IntGridSearchConfiguration gridProbes;
+    protected final IntRandomSearchConfiguration randomBndNumber;
+    protected final IntRandomSearchConfiguration randomBndSize;
+    protected final IntRandomSearchConfiguration randomProbes;
+
+    // the coefficients of the universal hash functions h(x) = a * x + b
+    protected long[] coefficientsA;
+    protected long[] coefficientsB;
+
+    public AbstractNativeLSHBlocking(int bSize, int bandsNo, int probes) {
+        super();
+
+        bandSize = bSize;
+        bandsNumber = bandsNo;
+        noOfProbes = probes;
+        seed = 42;
+
+        gridBndNumber = new IntGridSearchConfiguration(100, 20, 10);
+        gridBndSize = new IntGridSearchConfiguration(10, 3, 1);
+        gridProbes = new IntGridSearchConfiguration(3, 0, 1);
+        randomBndNumber = new IntRandomSearchConfiguration(100, 20);
+        randomBndSize = new IntRandomSearchConfiguration(10, 2);
+        randomProbes = new IntRandomSearchConfiguration(4, 0);
+    }
+
+    // returns the blocks of the given band
+    private List<AbstractBlock> bucketBand(long[] keys, int keysPerBand, boolean[] noTokens) {
+        final TLongObjectHashMap<TIntArrayList> buckets = new TLongObjectHashMap<>();
+        for (int entityId = 0; entityId < noTokens.length; entityId++) {
+            if (noTokens[entityId]) {
+                continue;
+            }
+
+            for (int i = entityId * keysPerBand; i < (entityId + 1) * keysPerBand; i++) {
+                TIntArrayList bucket = buckets.get(keys[i]);
+                if (bucket == null) {
+                    bucket = new TIntArrayList(2);
+                    buckets.put(keys[i], bucket);
+                }
+                if (bucket.isEmpty() || bucket.get(bucket.size() - 1) != entityId) {
+                    bucket.add(entityId);
+                }
+            }
+        }
+
+        final List<AbstractBlock> bandBlocks = new ArrayList<>();
+        buckets.forEachValue(bucket -> {
+            if (bucket.size() < 2) {
+                return true;
+            }
+
+            final int[] entityIds = bucket.toArray();
+            if (entityProfilesD2 == null) {
+                bandBlocks.add(new UnilateralBlock(entityIds));
+                return true;
+            }
+
+            int splitPoint = Arrays.binarySearch(entityIds, noOfEntitiesD1);
+            if (splitPoint < 0) {
+                splitPoint = -splitPoint - 1;
+            }
+            if (0 < splitPoint && splitPoint < entityIds.length) {
+                final int[] entityIdsD2 = new int[entityIds.length - splitPoint];
+                for (int i = 0; i < entityIdsD2.length; i++) {
+                    entityIdsD2[i] = entityIds[splitPoint + i] - noOfEntitiesD1;
+                }
+                bandBlocks.add(new BilateralBlock(Arrays.copyOf(entityIds, splitPoint), entityIdsD2));
+            }
+            return true;
+        });
+        return bandBlocks;
+    }
+
+    /**
+     * Computes the keys of all bands of an entity.
+     *
+     * @param tokens the sorted token hashes of the entity
+     * @param noOfTokens the number of token hashes, including duplicates
+     * @param signature a scratch array with one position per hash function
+     * @param bandKeys the keys of every band, with keysPerBand positions per
+     * band: the actual key followed by the keys of the probes
+     */
+    protected abstract void computeBandKeys(long[] tokens, int noOfTokens, long[] signature, long[] bandKeys);
+
+    @Override
+    public List<AbstractBlock> getBlocks(List<EntityProfile> profilesD1, List<EntityProfile> profilesD2, AttributeClusters[] sClusters) {
+        Log.info("Applying " + getMethodName() + " with the following configuration : " + getMethodConfiguration());
+
+        if (profilesD1 == null) {
+            Log.error("First list of entity profiles is null! The first argument should always contain entities.");
+            return null;
+        }
+        if (!isValidConfiguration()) {
+            Log.error("Invalid LSH configuration : " + getMethodConfiguration());
+            return null;
+        }
+
+        // schema clusters are not used, as the signatures are computed over entire profiles
+        final StageMetrics stage = startStage(profilesD1, profilesD2);
+        final ProgressCounter signedProfiles = stage.getCounter("signed profiles");
+        blocks = new ArrayList<>();
+        entityProfilesD1 = profilesD1;
+        noOfEntitiesD1 = entityProfilesD1.size();
+        entityProfilesD2 = profilesD2;
+        noOfEntitiesD2 = profilesD2 == null ? 0 : profilesD2.size();
+        initializeHashFunctions();
+
+        // keys[band][entityId * keysPerBand + probe], with the entities of D2 following those of D1
+        final int keysPerBand = noOfProbes + 1;
+        final long[][] keys = new long[bandsNumber][Math.multiplyExact(getTotalNoOfEntities(), keysPerBand)];
+        final boolean[] noTokens = new boolean[getTotalNoOfEntities()];
+        final ThreadLocal<TokenHashes> tokensBuffer = ThreadLocal.withInitial(TokenHashes::new);
+        final ThreadLocal<long[]> keysBuffer = ThreadLocal.withInitial(() -> new long[bandsNumber * keysPerBand]);
+        final ThreadLocal<long[]> signatureBuffer = ThreadLocal.withInitial(() -> new long[bandsNumber * bandSize]);
+        IntStream.range(0, getTotalNoOfEntities()).parallel().forEach(entityId -> {
+            final EntityProfile profile = entityId < noOfEntitiesD1 ? profilesD1.get(entityId) : profilesD2.get(entityId - noOfEntitiesD1);
+
+            final TokenHashes tokens = tokensBuffer.get();
+            tokens.size = 0;
+            for (Attribute attribute : profile.getAttributes()) {
+                if (attribute.getValue() != null) {
+                    tokens.addTokens(attribute.getValue());
+                }
+            }
+            if (tokens.size == 0) {
+                noTokens[entityId] = true;
+                return;
+            }
+
+            final long[] bandKeys = keysBuffer.get();
+            Arrays.sort(tokens.hashes, 0, tokens.size);
+            computeBandKeys(tokens.hashes, tokens.size, signatureBuffer.get(), bandKeys);
+            for (int band = 0; band < bandsNumber; band++) {
+                System.arraycopy(bandKeys, band * keysPerBand, keys[band], entityId * keysPerBand, keysPerBand);
+            }
+            signedProfiles.increment();
+        });
+
+        final List<List<AbstractBlock>> bandBlocks = IntStream.range(0, bandsNumber).parallel()
+                .mapToObj(band -> bucketBand(keys[band], keysPerBand, noTokens))
+                .collect(Collectors.toList());
+        bandBlocks.forEach(blocks::addAll);
+        return finishStage(stage, blocks);
+    }
+
+    @Override
+    protected Set<String> getBlockingKeys(String attributeValue) {
+        throw new UnsupportedOperationException("Not supported by LSH, because it uses global information, not local (i.e., not a mere attribute value).");
+    }
+
+    @Override
+    public String getMethodConfiguration() {
+        return getParameterName(0) + "=" + bandSize + ",\t"
+                + getParameterName(1) + "=" + bandsNumber + ",\t"
+                + getParameterName(2) + "=" + noOfProbes;
+    }
+
+    @Override
+    public String getMethodParameters() {
+        return getMethodName() + " involves three parameters:\n"
+                + "1)" + getParameterDescription(0) + ".\n"
+                + "2)" + getParameterDescription(1) + ".\n"
+                + "3)" + getParameterDescription(2) + ".";
+    }
+
+    @Override
+    public int getNumberOfGridConfigurations() {
+        return gridBndSize.getNumberOfConfigurations() * gridBndNumber.getNumberOfConfigurations() * gridProbes.getNumberOfConfigurations();
+    }
+
+    @Override
+    public boolean isPartitionedByKeys() {
+        return false;
+    }
+
+    @Override
+    public JsonArray getParameterConfiguration() {
+        final JsonObject obj1 = new JsonObject();
+        obj1.put("class", "java.lang.Integer");
+        obj1.put("name", getParameterName(0));
+        obj1.put("defaultValue", "5");
+        obj1.put("minValue", "3");
+        obj1.put("maxValue", "10");
+        obj1.put("stepValue", "1");
+        obj1.put("description", getParameterDescription(0));
+
+        final JsonObject obj2 = new JsonObject();
+        obj2.put("class", "java.lang.Integer");
+        obj2.put("name", getParameterName(1));
+        obj2.put("defaultValue", "30");
+        obj2.put("minValue", "20");
+        obj2.put("maxValue", "100");
+        obj2.put("stepValue", "10");
+        obj2.put("description", getParameterDescription(1));
+
+        final JsonObject obj3 = new JsonObject();
+        obj3.put("class", "java.lang.Integer");
+        obj3.put("name", getParameterName(2));
+        obj3.put("defaultValue", "0");
+        obj3.put("minValue", "0");
+        obj3.put("maxValue", "3");
+        obj3.put("stepValue", "1");
+        obj3.put("description", getParameterDescription(2));
+
+        final JsonArray array = new JsonArray();
+        array.add(obj1);
+        array.add(obj2);
+        array.add(obj3);
+        return array;
+    }
+
+    @Override
+    public String getParameterDescription(int parameterId) {
+        switch (parameterId) {
+            case 0:
+                return "The " + getParameterName(0) + " determines the number of hash functions comprising every band.";
+            case 1:
+                return "The " + getParameterName(1) + " determines the number of bands, i.e., blocking keys, per entity.";
+            case 2:
+                return "The " + getParameterName(2) + " determines the number of additional keys per band and entity, which are close to the actual key (multi-probe LSH).";
+            default:
+                return "invalid parameter id";
+        }
+    }
+
+    @Override
+    public String getParameterName(int parameterId) {
+        switch (parameterId) {
+            case 0:
+                return "Band size";
+            case 1:
+                return "Number of bands";
+            case 2:
+                return "Number of probes";
+            default:
+                return "invalid parameter id";
+        }
+    }
+
+    protected void initializeHashFunctions() {
+        final Random random = new Random(seed);
+        coefficientsA = new long[bandSize * bandsNumber];
+        coefficientsB = new long[bandSize * bandsNumber];
+        for (int i = 0; i < coefficientsA.length; i++) {
+            coefficientsA[i] = random.nextLong() | 1L;
+            coefficientsB[i] = random.nextLong();
+        }
+    }
+
+    protected boolean isValidConfiguration() {
+        return 0 < bandSize && 0 < bandsNumber && 0 <= noOfProbes && noOfProbes <= bandSize;
+    }
+
+    public void setBandSize(int bandSize) {
+        this.bandSize = bandSize;
+    }
+
+    public void setBandsNumber(int bandsNumber) {
+        this.bandsNumber = bandsNumber;
+    }
+
+    @Override
+    public void setNextRandomConfiguration() {
+        bandSize = (Integer) randomBndSize.getNextRandomValue();
+        bandsNumber = (Integer) randomBndNumber.getNextRandomValue();
+        noOfProbes = Math.min(bandSize, (Integer) randomProbes.getNextRandomValue());
+    }
+
+    public void setNoOfProbes(int noOfProbes) {
+        this.noOfProbes = noOfProbes;
+    }
+
+    @Override
+    public void setNumberedGridConfiguration(int iterationNumber) {
+        final int noOfProbeConfigurations = gridProbes.getNumberOfConfigurations();
+        noOfProbes = (Integer) gridProbes.getNumberedValue(iterationNumber % noOfProbeConfigurations);
+        iterationNumber /= noOfProbeConfigurations;
+
+        int bandSizeIteration = iterationNumber / gridBndNumber.getNumberOfConfigurations();
+        bandSize = (Integer) gridBndSize.getNumberedValue(bandSizeIteration);
+
+        int msLengthIteration = iterationNumber % gridBndNumber.getNumberOfConfigurations();
+        bandsNumber = (Integer) gridBndNumber.getNumberedValue(msLengthIteration);
+    }
+
+    @Override
+    public void setNumberedRandomConfiguration(int iterationNumber) {
+        bandSize = (Integer) randomBndSize.getNumberedRandom(iterationNumber);
+        bandsNumber = (Integer) randomBndNumber.getNumberedRandom(iterationNumber);
+        noOfProbes = Math.min(bandSize, (Integer) randomProbes.getNumberedRandom(iterationNumber));
+    }
+
+    /**
+     * Sets the seed of the random coefficients of the hash functions, so that
+     * the blocks are reproducible.
+     *
+     * @param seed the seed of the random generator
+     */
+    public void setSeed(long seed) {
+        this.seed = seed;
+    }
+
+    /**
+     * The hashes of the tokens of an entity. Every token comprises the ASCII
+     * letters and digits between two other characters, lower-cased, and is
+     * hashed with FNV-1a, followed by the MurmurHash3 finalizer.
+     */
+    private static class TokenHashes {
+
+        private int size;
+        private long[] hashes;
+
+        TokenHashes() {
+            size = 0;
+            hashes = new long[64];
+        }
+
+        void addTokens(String text) {
+            long hash = 0;
+            boolean inToken = false;
+            for (int i = 0, length = text.length(); i <= length; i++) {
+                char c = i < length ? text.charAt(i) : ' ';
+                if ('A' <= c && c <= 'Z') {
+                    c += 'a' - 'A';
+                }
+
+                if (('a' <= c && c <= 'z') || ('0' <= c && c <= '9')) {
+                    if (!inToken) {
+                        hash = 0xCBF29CE484222325L;
+                        inToken = true;
+                    }
+                    hash = (hash ^ c) * 0x100000001B3L;
+                } else if (inToken) {
+                    if (size == hashes.length) {
+                        hashes = Arrays.copyOf(hashes, 2 * size);
+                    }
+                    hashes[size++] = HashUtils.mix(hash);
+                    inToken = false;
+                }
+            }
+        }
+    }
+}
@@ -16,8 +16,7 @@
 package org.scify.jedai.blockbuilding;
 
 import gnu.trove.list.TIntList;
-import gnu.trove.set.TIntSet;
-import gnu.trove.set.hash.TIntHashSet;
+import gnu.trove.list.array.TIntArrayList;
 import org.apache.jena.atlas.json.JsonArray;
 import org.apache.jena.atlas.json.JsonObject;
 import org.scify.jedai.configuration.gridsearch.IntGridSearchConfiguration;
@@ -26,8 +25,6 @@ import org.scify.jedai.datamodel.BilateralBlock;
 import org.scify.jedai.datamodel.UnilateralBlock;
 
 import java.util.Arrays;
-import java.util.HashSet;
-import java.util.Set;
 
 /**
  *
@@ -89,51 +86,62 @@ public class ExtendedSortedNeighborhoodBlocking extends SortedNeighborhoodBlocki
     
     @Override
     protected void parseIndex() {
-        final Set<String> blockingKeysSet = invertedIndexD1.keySet();
-        final String[] sortedTerms = blockingKeysSet.toArray(new String[0]);
-        Arrays.sort(sortedTerms);
+        final SortedNeighborhoodIndex sortedIndex = new SortedNeighborhoodIndex(invertedIndexD1, null, 0, random);
+        final int[] allEntityIds = sortedIndex.getSortedEntityIds();
 
         //slide window over the sorted list of blocking keys
-        int upperLimit = sortedTerms.length - windowSize;
+        final int[] flags = new int[noOfEntitiesD1];
+        Arrays.fill(flags, -1);
+        final TIntList windowIds = new TIntArrayList();
+        int upperLimit = sortedIndex.getNoOfKeys() - windowSize;
         for (int i = 0; i <= upperLimit; i++) {
-            final TIntSet entityIds = new TIntHashSet();
-            for (int j = 0; j < windowSize; j++) {
-                entityIds.addAll(invertedIndexD1.get(sortedTerms[i + j]));
+            windowIds.clear();
+            int lastPosition = sortedIndex.getKeyEnd(i + windowSize - 1);
+            for (int j = sortedIndex.getKeyStart(i); j < lastPosition; j++) {
+                if (flags[allEntityIds[j]] != i) {
+                    flags[allEntityIds[j]] = i;
+                    windowIds.add(allEntityIds[j]);
+                }
             }
 
-            if (1 < entityIds.size()) {
-                blocks.add(new UnilateralBlock(entityIds.toArray()));
+            if (1 < windowIds.size()) {
+                blocks.add(new UnilateralBlock(windowIds.toArray()));
             }
         }
     }
 
     @Override
     protected void parseIndices() {
-        final Set<String> blockingKeysSet = new HashSet<>();
-        blockingKeysSet.addAll(invertedIndexD1.keySet());
-        blockingKeysSet.addAll(invertedIndexD2.keySet());
-        final String[] sortedTerms = blockingKeysSet.toArray(new String[0]);
-        Arrays.sort(sortedTerms);
+        int datasetLimit = entityProfilesD1.size();
+        final SortedNeighborhoodIndex sortedIndex = new SortedNeighborhoodIndex(invertedIndexD1, invertedIndexD2, datasetLimit, random);
+        final int[] allEntityIds = sortedIndex.getSortedEntityIds();
 
         //slide window over the sorted list of blocking keys
-        int upperLimit = sortedTerms.length - windowSize;
+        final int[] flags = new int[datasetLimit + noOfEntitiesD2];
+        Arrays.fill(flags, -1);
+        final TIntList windowIds1 = new TIntArrayList();
+        final TIntList windowIds2 = new TIntArrayList();
+        int upperLimit = sortedIndex.getNoOfKeys() - windowSize;
         for (int i = 0; i <= upperLimit; i++) {
-            final TIntSet entityIds1 = new TIntHashSet();
-            final TIntSet entityIds2 = new TIntHashSet();
-            for (int j = 0; j < windowSize; j++) {
-                final TIntList d1Entities = invertedIndexD1.get(sortedTerms[i + j]);
-                if (d1Entities != null) {
-                    entityIds1.addAll(d1Entities);
+            windowIds1.clear();
+            windowIds2.clear();
+            int lastPosition = sortedIndex.getKeyEnd(i + windowSize - 1);
+            for (int j = sortedIndex.getKeyStart(i); j < lastPosition; j++) {
+                final int entityId = allEntityIds[j];
+                if (flags[entityId] == i) {
+                    continue;
                 }
 
-                final TIntList d2Entities = invertedIndexD2.get(sortedTerms[i + j]);
-                if (d2Entities != null) {
-                    entityIds2.addAll(d2Entities);
+                flags[entityId] = i;
+                if (entityId < datasetLimit) {
+                    windowIds1.add(entityId);
+                } else {
+                    windowIds2.add(entityId - datasetLimit);
                 }
             }
 
-            if (!entityIds1.isEmpty() && !entityIds2.isEmpty()) {
-                blocks.add(new BilateralBlock(entityIds1.toArray(), entityIds2.toArray()));
+            if (!windowIds1.isEmpty() && !windowIds2.isEmpty()) {
+                blocks.add(new BilateralBlock(windowIds1.toArray(), windowIds2.toArray()));
             }
         }
     }
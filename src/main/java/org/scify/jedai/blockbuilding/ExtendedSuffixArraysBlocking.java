@@ -15,6 +15,7 @@
  */
 package org.scify.jedai.blockbuilding;
 
+import gnu.trove.list.array.TIntArrayList;
 import java.util.HashSet;
 import java.util.Set;
 
@@ -22,6 +23,11 @@ import org.apache.jena.atlas.json.JsonArray;
 import org.apache.jena.atlas.json.JsonObject;
 
 /**
+ * Without schema clusters, the blocks correspond to the lcp-intervals of the
+ * suffix array of all distinct tokens, which are traversed bottom-up: all
+ * substrings whose occurrences form the same interval yield identical blocks.
+ * An interval whose entities exceed the maximum block size is pruned along
+ * with all enclosing intervals, without gathering their entities.
  *
  * @author gap2
  */
@@ -35,6 +41,58 @@ public class ExtendedSuffixArraysBlocking extends SuffixArraysBlocking {
         super(maxSize, minLength);
     }
 
+    // every substring with the minimum length forms a block
+    @Override
+    void addSuffixBlocks(TokenSuffixArray tokenSuffixArray) {
+        final int minimumLength = Math.max(1, minimumSuffixLength);
+        final int size = tokenSuffixArray.getSize();
+
+        // the stack of the open lcp-intervals, with the root interval at the bottom
+        final TIntArrayList intervalLcps = new TIntArrayList();
+        final TIntArrayList intervalStarts = new TIntArrayList();
+        intervalLcps.add(0);
+        intervalStarts.add(0);
+
+        int lastPrunedIndex = -1;
+        for (int i = 1; i <= size; i++) {
+            final int leafIndex = i - 1;
+            final int previousLcp = 0 < leafIndex ? tokenSuffixArray.getLcp(leafIndex - 1) : 0;
+            final int lcp = i < size ? tokenSuffixArray.getLcp(leafIndex) : 0;
+
+            // the substrings that occur only in the suffix at leafIndex
+            final int noOfLeafKeys = tokenSuffixArray.getSuffixLength(leafIndex) - Math.max(Math.max(previousLcp, lcp), minimumLength - 1);
+            if (0 < noOfLeafKeys) {
+                if (tokenSuffixArray.collectEntities(leafIndex, leafIndex, maximumBlockSize)) {
+                    addBlocks(tokenSuffixArray, noOfLeafKeys);
+                } else {
+                    lastPrunedIndex = leafIndex;
+                }
+            }
+
+            int start = leafIndex;
+            while (lcp < intervalLcps.get(intervalLcps.size() - 1)) {
+                final int intervalLcp = intervalLcps.removeAt(intervalLcps.size() - 1);
+                start = intervalStarts.removeAt(intervalStarts.size() - 1);
+                if (intervalLcp < minimumLength) {
+                    continue;
+                }
+
+                // an interval that encloses a pruned one is pruned, too
+                if (start <= lastPrunedIndex || !tokenSuffixArray.collectEntities(start, leafIndex, maximumBlockSize)) {
+                    lastPrunedIndex = Math.max(lastPrunedIndex, start);
+                } else {
+                    final int parentLcp = Math.max(lcp, intervalLcps.get(intervalLcps.size() - 1));
+                    addBlocks(tokenSuffixArray, intervalLcp - Math.max(parentLcp, minimumLength - 1));
+                }
+            }
+
+            if (intervalLcps.get(intervalLcps.size() - 1) < lcp) {
+                intervalLcps.add(lcp);
+                intervalStarts.add(start);
+            }
+        }
+    }
+
     @Override
     protected Set<String> getBlockingKeys(String attributeValue) {
         final Set<String> suffixes = new HashSet<>();
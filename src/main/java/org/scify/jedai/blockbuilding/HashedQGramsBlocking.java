@@ -0,0 +1,158 @@
+/*
+* Copyright [2016-2020] [George Papadakis (gpapadis@yahoo.gr)]
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+*    http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+ */
+package org.scify.jedai.blockbuilding;
+
+import gnu.trove.list.array.TIntArrayList;
+import gnu.trove.map.hash.TLongObjectHashMap;
+import java.util.List;
+import org.scify.jedai.datamodel.Attribute;
+import org.scify.jedai.datamodel.BilateralBlock;
+import org.scify.jedai.datamodel.EntityProfile;
+import org.scify.jedai.datamodel.UnilateralBlock;
+import org.scify.jedai.textmodels.RollingNGramHash;
+
+/**
+ * Q-Grams Blocking with every q-gram represented by its 64-bit id, as
+ * computed by RollingNGramHash, instead of a substring. The blocks are the
+ * same as those of QGramsBlocking, except for the extremely rare collisions
+ * of q-grams with more than 4 characters, which merely add some comparisons.
+ * When schema clusters are given, the blocking keys are extracted as
+ * strings, like in QGramsBlocking.
+ *
+ * @author G.A.P. II
+ */
+public class HashedQGramsBlocking extends QGramsBlocking {
+
+    private static final long serialVersionUID = 2406358812791468301L;
+
+    protected TLongObjectHashMap<TIntArrayList> hashedIndexD1;
+    protected TLongObjectHashMap<TIntArrayList> hashedIndexD2;
+
+    public HashedQGramsBlocking() {
+        this(6);
+    }
+
+    public HashedQGramsBlocking(int n) {
+        super(n);
+    }
+
+    @Override
+    protected void buildBlocks() {
+        hashedIndexD1 = null;
+        hashedIndexD2 = null;
+        if (schemaClusters != null) {
+            super.buildBlocks();
+            return;
+        }
+
+        hashedIndexD1 = indexHashedEntities(entityProfilesD1);
+        if (entityProfilesD2 != null) {
+            hashedIndexD2 = indexHashedEntities(entityProfilesD2);
+        }
+    }
+
+    private static void addToBucket(TLongObjectHashMap<TIntArrayList> index, long key, int entityId) {
+        TIntArrayList entityList = index.get(key);
+        if (entityList == null) {
+            entityList = new TIntArrayList(2);
+            index.put(key, entityList);
+        }
+        if (entityList.isEmpty() || entityList.get(entityList.size() - 1) != entityId) {
+            entityList.add(entityId);
+        }
+    }
+
+    @Override
+    public String getMethodInfo() {
+        return getMethodName() + ": it creates one block for every q-gram that is extracted from any token in the attribute values of any entity, "
+                + "representing it by a rolling hash.\n"
+                + "The q-gram must be shared by at least two entities.";
+    }
+
+    @Override
+    public String getMethodName() {
+        return "Hashed Q-Grams Blocking";
+    }
+
+    @Override
+    public boolean isPartitionedByKeys() {
+        // the hashed keys are not partitioned, unlike those of schema clusters
+        return false;
+    }
+
+    protected TLongObjectHashMap<TIntArrayList> indexHashedEntities(List<EntityProfile> entities) {
+        final TLongObjectHashMap<TIntArrayList> index = new TLongObjectHashMap<>();
+
+        int counter = 0;
+        for (EntityProfile profile : entities) {
+            final int entityId = counter++;
+            for (Attribute attribute : profile.getAttributes()) {
+                final String value = attribute.getValue().toLowerCase();
+
+                // the tokens are the maximal sequences of ASCII letters and digits, like in getTokens
+                int tokenStart = 0;
+                for (int i = 0; i <= value.length(); i++) {
+                    final char c = i < value.length() ? value.charAt(i) : ' ';
+                    if (('a' <= c && c <= 'z') || ('0' <= c && c <= '9')) {
+                        continue;
+                    }
+
+                    if (tokenStart < i) {
+                        if (i - tokenStart < nGramSize) {
+                            addToBucket(index, RollingNGramHash.hashRange(value, tokenStart, i), entityId);
+                        } else {
+                            RollingNGramHash.hashNGrams(value, tokenStart, i, nGramSize,
+                                    (nGramId, position) -> addToBucket(index, nGramId, entityId));
+                        }
+                    }
+                    tokenStart = i + 1;
+                }
+            }
+        }
+        return index;
+    }
+
+    @Override
+    protected void parseIndex() {
+        if (hashedIndexD1 == null) {
+            super.parseIndex();
+            return;
+        }
+
+        hashedIndexD1.forEachValue(entityList -> {
+            if (1 < entityList.size()) {
+                blocks.add(new UnilateralBlock(entityList.toArray()));
+            }
+            return true;
+        });
+    }
+
+    @Override
+    protected void parseIndices() {
+        if (hashedIndexD1 == null) {
+            super.parseIndices();
+            return;
+        }
+
+        hashedIndexD1.forEachEntry((key, entityIdsD1) -> {
+            final TIntArrayList entityIdsD2 = hashedIndexD2.get(key);
+            if (entityIdsD2 != null && !entityIdsD2.isEmpty()) {
+                blocks.add(new BilateralBlock(entityIdsD1.toArray(), entityIdsD2.toArray()));
+            }
+            return true;
+        });
+    }
+}
@@ -144,9 +144,14 @@ public class LSHSuperBitBlocking extends AbstractBlockBuilding {
     protected void indexEntities(Map<String, TIntList> index, List<EntityProfile> entities) {
         int datasetId = d1Indexed ? DATASET_2 : DATASET_1;
         d1Indexed = true;
+        keysPartitioned = true;
 
         for (int profileId = 0; profileId < entities.size(); profileId++) {
             for (String key : getBlockingKeys(datasetId, profileId)) {
+                if (!isInKeyPartition(key)) {
+                    continue;
+                }
+
                 TIntList entityList = index.get(key);
                 if (entityList == null) {
                     entityList = new TIntArrayList();
@@ -0,0 +1,89 @@
+/*
+* Copyright [2016-2020] [George Papadakis (gpapadis@yahoo.gr)]
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+*    http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+ */
+package org.scify.jedai.blockbuilding;
+
+import java.util.Arrays;
+import org.scify.jedai.utilities.HashUtils;
+
+/**
+ * MinHash LSH blocking over the hashes of the tokens of every entity. Like
+ * LSHMinHashBlocking, the repeated occurrences of a token in a profile are
+ * considered distinct elements of its set, but no vocabulary is built: every
+ * element is hashed directly by every MinHash function h(x) = (a * x + b) >>> 32.
+ * The rows of every band are combined into a 64-bit key.
+ *
+ * In multi-probe mode, the i-th probe of a band ignores its i-th row, so that
+ * two entities co-occur in a block when their signatures agree on all but one
+ * rows of a band.
+ *
+ * @author G.A.P. II
+ */
+public class NativeLSHMinHashBlocking extends AbstractNativeLSHBlocking {
+
+    private static final long serialVersionUID = -3390557186724611358L;
+
+    public NativeLSHMinHashBlocking() {
+        this(5, 5, 0);
+    }
+
+    public NativeLSHMinHashBlocking(int bSize, int bandsNo) {
+        this(bSize, bandsNo, 0);
+    }
+
+    public NativeLSHMinHashBlocking(int bSize, int bandsNo, int probes) {
+        super(bSize, bandsNo, probes);
+    }
+
+    @Override
+    protected void computeBandKeys(long[] tokens, int noOfTokens, long[] signature, long[] bandKeys) {
+        final int noOfFunctions = coefficientsA.length;
+        Arrays.fill(signature, Long.MAX_VALUE);
+
+        int occurrence = 0;
+        for (int i = 0; i < noOfTokens; i++) {
+            occurrence = (0 < i && tokens[i] == tokens[i - 1]) ? occurrence + 1 : 0;
+            final long element = occurrence == 0 ? tokens[i] : HashUtils.mix(tokens[i] + occurrence * GOLDEN_GAMMA);
+            for (int k = 0; k < noOfFunctions; k++) {
+                signature[k] = Math.min(signature[k], (coefficientsA[k] * element + coefficientsB[k]) >>> 32);
+            }
+        }
+
+        int counter = 0;
+        for (int band = 0; band < bandsNumber; band++) {
+            final int firstRow = band * bandSize;
+            for (int probe = 0; probe <= noOfProbes; probe++) {
+                long key = HashUtils.mix((band + 1) * GOLDEN_GAMMA + probe);
+                for (int row = 0; row < bandSize; row++) {
+                    if (row != probe - 1) {
+                        key = HashUtils.mix(key ^ signature[firstRow + row]);
+                    }
+                }
+                bandKeys[counter++] = key;
+            }
+        }
+    }
+
+    @Override
+    public String getMethodInfo() {
+        return getMethodName() + ": it creates one block for every band that appears in the MinHash signatures of at least two entities, "
+                + "hashing their tokens directly.";
+    }
+
+    @Override
+    public String getMethodName() {
+        return "Native LSH MinHash Blocking";
+    }
+}
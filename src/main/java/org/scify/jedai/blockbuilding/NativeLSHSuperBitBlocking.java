@@ -0,0 +1,111 @@
+/*
+* Copyright [2016-2020] [George Papadakis (gpapadis@yahoo.gr)]
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+*    http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+ */
+package org.scify.jedai.blockbuilding;
+
+import java.util.Arrays;
+
+/**
+ * Cosine LSH blocking over the hashes of the tokens of every entity. Every
+ * bit of a signature is the sign of a random projection of the term-frequency
+ * vector of the entity, where the coefficient of every token is +1 or -1,
+ * according to the sign of a * x + b for its hash x. As no vocabulary is
+ * built, the projections are not orthogonalized like in LSHSuperBitBlocking
+ * and the term frequencies are not weighted by IDF. The bits of every band,
+ * which cannot be more than 64, are packed into its key.
+ *
+ * In multi-probe mode, the i-th probe of a band flips the bit with the i-th
+ * smallest absolute projection, i.e., the i-th least certain bit.
+ *
+ * @author G.A.P. II
+ */
+public class NativeLSHSuperBitBlocking extends AbstractNativeLSHBlocking {
+
+    private static final long serialVersionUID = 4715906012278355629L;
+
+    public NativeLSHSuperBitBlocking() {
+        this(5, 5, 0);
+    }
+
+    public NativeLSHSuperBitBlocking(int bSize, int bandsNo) {
+        this(bSize, bandsNo, 0);
+    }
+
+    public NativeLSHSuperBitBlocking(int bSize, int bandsNo, int probes) {
+        super(bSize, bandsNo, probes);
+    }
+
+    @Override
+    protected void computeBandKeys(long[] tokens, int noOfTokens, long[] signature, long[] bandKeys) {
+        final int noOfFunctions = coefficientsA.length;
+        Arrays.fill(signature, 0);
+
+        int i = 0;
+        while (i < noOfTokens) {
+            final long token = tokens[i];
+            int frequency = 0;
+            while (i < noOfTokens && tokens[i] == token) {
+                frequency++;
+                i++;
+            }
+
+            for (int k = 0; k < noOfFunctions; k++) {
+                signature[k] += (coefficientsA[k] * token + coefficientsB[k]) < 0 ? -frequency : frequency;
+            }
+        }
+
+        int counter = 0;
+        for (int band = 0; band < bandsNumber; band++) {
+            final int firstRow = band * bandSize;
+            long key = 0;
+            for (int row = 0; row < bandSize; row++) {
+                if (0 < signature[firstRow + row]) {
+                    key |= 1L << row;
+                }
+            }
+            bandKeys[counter++] = key;
+
+            // the probes flip the bits with the smallest absolute projections
+            long flipped = 0;
+            for (int probe = 0; probe < noOfProbes; probe++) {
+                int leastCertain = -1;
+                for (int row = 0; row < bandSize; row++) {
+                    if ((flipped & (1L << row)) == 0
+                            && (leastCertain < 0 || Math.abs(signature[firstRow + row]) < Math.abs(signature[firstRow + leastCertain]))) {
+                        leastCertain = row;
+                    }
+                }
+                flipped |= 1L << leastCertain;
+                bandKeys[counter++] = key ^ (1L << leastCertain);
+            }
+        }
+    }
+
+    @Override
+    public String getMethodInfo() {
+        return getMethodName() + ": it creates one block for every band that appears in the random-projection signatures of at least two entities, "
+                + "hashing their tokens directly.";
+    }
+
+    @Override
+    public String getMethodName() {
+        return "Native LSH SuperBit Blocking";
+    }
+
+    @Override
+    protected boolean isValidConfiguration() {
+        return super.isValidConfiguration() && bandSize <= Long.SIZE;
+    }
+}
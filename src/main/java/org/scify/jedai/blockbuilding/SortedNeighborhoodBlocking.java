@@ -15,11 +15,6 @@
  */
 package org.scify.jedai.blockbuilding;
 
-import gnu.trove.iterator.TIntIterator;
-import gnu.trove.list.TIntList;
-import gnu.trove.list.array.TIntArrayList;
-import gnu.trove.set.TIntSet;
-import gnu.trove.set.hash.TIntHashSet;
 import org.apache.jena.atlas.json.JsonArray;
 import org.apache.jena.atlas.json.JsonObject;
 import org.scify.jedai.configuration.gridsearch.IntGridSearchConfiguration;
@@ -28,9 +23,7 @@ import org.scify.jedai.datamodel.BilateralBlock;
 import org.scify.jedai.datamodel.UnilateralBlock;
 
 import java.util.Arrays;
-import java.util.HashSet;
 import java.util.Random;
-import java.util.Set;
 
 /**
  *
@@ -85,36 +78,16 @@ public class SortedNeighborhoodBlocking extends StandardBlocking {
                 + "1)" + getParameterDescription(0) + ".\n";
     }
     
-    protected int[] getMixedSortedEntities(String[] sortedTerms) {
-        int datasetLimit = entityProfilesD1.size();
-        final TIntList sortedEntityIds = new TIntArrayList();
-
-        for (String blockingKey : sortedTerms) {
-            final TIntList sortedIds = new TIntArrayList();
-            final TIntList d1EntityIds = invertedIndexD1.get(blockingKey);
-            if (d1EntityIds != null) {
-                sortedIds.addAll(d1EntityIds);
-            }
-
-            final TIntList d2EntityIds = invertedIndexD2.get(blockingKey);
-            if (d2EntityIds != null) {
-                for (TIntIterator iterator = d2EntityIds.iterator(); iterator.hasNext();) {
-                    sortedIds.add(datasetLimit + iterator.next());
-                }
-            }
-
-            sortedIds.shuffle(random);
-            sortedEntityIds.addAll(sortedIds);
-        }
-
-        return sortedEntityIds.toArray();
-    }
-
     @Override
     public int getNumberOfGridConfigurations() {
         return gridWindow.getNumberOfConfigurations();
     }
     
+    @Override
+    protected boolean hasIndependentKeys() {
+        return false;
+    }
+
     @Override
     public JsonArray getParameterConfiguration() {
         final JsonObject obj1 = new JsonObject();
@@ -151,67 +124,61 @@ public class SortedNeighborhoodBlocking extends StandardBlocking {
         }
     }
     
-    protected int[] getSortedEntities(String[] sortedTerms) {
-        final TIntList sortedEntityIds = new TIntArrayList();
-
-        for (String blockingKey : sortedTerms) {
-            final TIntList sortedIds = invertedIndexD1.get(blockingKey);
-            sortedIds.shuffle(random);
-            sortedEntityIds.addAll(sortedIds);
-        }
-
-        return sortedEntityIds.toArray();
-    }
-    
     @Override
     protected void parseIndex() {
-        final Set<String> blockingKeysSet = invertedIndexD1.keySet();
-        final String[] sortedTerms = blockingKeysSet.toArray(new String[0]);
-        Arrays.sort(sortedTerms);
-
-        final int[] allEntityIds = getSortedEntities(sortedTerms);
+        final int[] allEntityIds = new SortedNeighborhoodIndex(invertedIndexD1, null, 0, random).getSortedEntityIds();
 
         //slide window over the sorted list of entity ids
+        final int[] flags = new int[noOfEntitiesD1];
+        Arrays.fill(flags, -1);
+        final int[] windowIds = new int[Math.max(0, windowSize)];
         int upperLimit = allEntityIds.length - windowSize;
         for (int i = 0; i <= upperLimit; i++) {
-            final TIntSet entityIds = new TIntHashSet();
+            int noOfIds = 0;
             for (int j = 0; j < windowSize; j++) {
-                entityIds.add(allEntityIds[i + j]);
+                final int entityId = allEntityIds[i + j];
+                if (flags[entityId] != i) {
+                    flags[entityId] = i;
+                    windowIds[noOfIds++] = entityId;
+                }
             }
 
-            if (1 < entityIds.size()) {
-                blocks.add(new UnilateralBlock(entityIds.toArray()));
+            if (1 < noOfIds) {
+                blocks.add(new UnilateralBlock(Arrays.copyOf(windowIds, noOfIds)));
             }
         }
     }
     
     @Override
     protected void parseIndices() {
-        final Set<String> blockingKeysSet = new HashSet<>();
-        blockingKeysSet.addAll(invertedIndexD1.keySet());
-        blockingKeysSet.addAll(invertedIndexD2.keySet());
-        
-        final String[] sortedTerms = blockingKeysSet.toArray(new String[0]);
-        Arrays.sort(sortedTerms);
-
-        final int[] allEntityIds = getMixedSortedEntities(sortedTerms);
-
         int datasetLimit = entityProfilesD1.size();
+        final int[] allEntityIds = new SortedNeighborhoodIndex(invertedIndexD1, invertedIndexD2, datasetLimit, random).getSortedEntityIds();
+
         //slide window over the sorted list of entity ids
+        final int[] flags = new int[datasetLimit + noOfEntitiesD2];
+        Arrays.fill(flags, -1);
+        final int[] windowIds1 = new int[Math.max(0, windowSize)];
+        final int[] windowIds2 = new int[Math.max(0, windowSize)];
         int upperLimit = allEntityIds.length - windowSize;
         for (int i = 0; i <= upperLimit; i++) {
-            final TIntSet entityIds1 = new TIntHashSet();
-            final TIntSet entityIds2 = new TIntHashSet();
+            int noOfIds1 = 0;
+            int noOfIds2 = 0;
             for (int j = 0; j < windowSize; j++) {
-                if (allEntityIds[i + j] < datasetLimit) {
-                    entityIds1.add(allEntityIds[i + j]);
+                final int entityId = allEntityIds[i + j];
+                if (flags[entityId] == i) {
+                    continue;
+                }
+
+                flags[entityId] = i;
+                if (entityId < datasetLimit) {
+                    windowIds1[noOfIds1++] = entityId;
                 } else {
-                    entityIds2.add(allEntityIds[i + j] - datasetLimit);
+                    windowIds2[noOfIds2++] = entityId - datasetLimit;
                 }
             }
 
-            if (!entityIds1.isEmpty() && !entityIds2.isEmpty()) {
-                blocks.add(new BilateralBlock(entityIds1.toArray(), entityIds2.toArray()));
+            if (0 < noOfIds1 && 0 < noOfIds2) {
+                blocks.add(new BilateralBlock(Arrays.copyOf(windowIds1, noOfIds1), Arrays.copyOf(windowIds2, noOfIds2)));
             }
         }
     }
@@ -0,0 +1,185 @@
+/*
+* Copyright [2016-2020] [George Papadakis (gpapadis@yahoo.gr)]
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+*    http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+ */
+package org.scify.jedai.blockbuilding;
+
+import gnu.trove.list.TIntList;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Random;
+import java.util.stream.IntStream;
+import org.scify.jedai.utilities.HashUtils;
+
+/**
+ * The sorted list of entities that is shared by all Sorted Neighborhood
+ * methods. The blocking keys are dictionary-encoded by their rank in
+ * alphabetical order, which is computed by sorting the entries of the
+ * inverted indices and merging them, without any further look-up. Then, every
+ * occurrence of an entity in a block is packed into a long, with the rank of
+ * the key in the upper 32 bits and a random permutation of the entity id in
+ * the lower ones, and all occurrences are sorted with a parallel sort. The
+ * permutation is different for every key, replacing the shuffling of the
+ * entities that share the same key.
+ *
+ * In the sorted list, the entities of the second dataset (if any) follow the
+ * entities of the first one, i.e., their ids are increased by datasetLimit.
+ *
+ * @author G.A.P. II
+ */
+public class SortedNeighborhoodIndex {
+
+    private final int noOfKeys;
+    private final int[] keyStarts;
+    private final int[] sortedEntityIds;
+
+    public SortedNeighborhoodIndex(Map<String, TIntList> invertedIndexD1, Map<String, TIntList> invertedIndexD2, int datasetLimit, Random random) {
+        final Entry<String, TIntList>[] entriesD1 = getSortedEntries(invertedIndexD1);
+        final Entry<String, TIntList>[] entriesD2 = getSortedEntries(invertedIndexD2);
+
+        // merge the sorted entries to assign the same rank to the same key
+        final int[] ranksD1 = new int[entriesD1.length];
+        final int[] ranksD2 = new int[entriesD2.length];
+        int rank = -1;
+        for (int i = 0, j = 0; i < entriesD1.length || j < entriesD2.length;) {
+            rank++;
+            if (j == entriesD2.length) {
+                ranksD1[i++] = rank;
+            } else if (i == entriesD1.length) {
+                ranksD2[j++] = rank;
+            } else {
+                int comparison = entriesD1[i].getKey().compareTo(entriesD2[j].getKey());
+                if (comparison <= 0) {
+                    ranksD1[i++] = rank;
+                }
+                if (0 <= comparison) {
+                    ranksD2[j++] = rank;
+                }
+            }
+        }
+        noOfKeys = rank + 1;
+
+        // the offsets of every entry in the array of occurrences
+        final int[] offsetsD1 = new int[entriesD1.length];
+        final int[] offsetsD2 = new int[entriesD2.length];
+        keyStarts = new int[noOfKeys + 1];
+        int noOfOccurrences = 0;
+        for (int i = 0; i < entriesD1.length; i++) {
+            offsetsD1[i] = noOfOccurrences;
+            noOfOccurrences += entriesD1[i].getValue().size();
+            keyStarts[ranksD1[i] + 1] += entriesD1[i].getValue().size();
+        }
+        for (int j = 0; j < entriesD2.length; j++) {
+            offsetsD2[j] = noOfOccurrences;
+            noOfOccurrences += entriesD2[j].getValue().size();
+            keyStarts[ranksD2[j] + 1] += entriesD2[j].getValue().size();
+        }
+        for (int i = 0; i < noOfKeys; i++) {
+            keyStarts[i + 1] += keyStarts[i];
+        }
+
+        // any odd multiplier is invertible modulo 2^32, so every permutation is a bijection
+        final long seed = random.nextLong();
+        final int multiplier1 = random.nextInt() | 1;
+        final int multiplier2 = random.nextInt() | 1;
+        final int inverseMultiplier1 = getInverse(multiplier1);
+        final int inverseMultiplier2 = getInverse(multiplier2);
+
+        final long[] occurrences = new long[noOfOccurrences];
+        IntStream.range(0, entriesD1.length + entriesD2.length).parallel().forEach(index -> {
+            final boolean isD1 = index < entriesD1.length;
+            final int entryId = isD1 ? index : index - entriesD1.length;
+            final int keyRank = isD1 ? ranksD1[entryId] : ranksD2[entryId];
+            final int keyMask = getKeyMask(keyRank, seed);
+            final int idOffset = isD1 ? 0 : datasetLimit;
+            final TIntList entityIds = isD1 ? entriesD1[entryId].getValue() : entriesD2[entryId].getValue();
+
+            int position = isD1 ? offsetsD1[entryId] : offsetsD2[entryId];
+            for (int i = 0; i < entityIds.size(); i++) {
+                final int permutedId = (((entityIds.get(i) + idOffset) * multiplier1) ^ keyMask) * multiplier2;
+                occurrences[position++] = ((long) keyRank << 32) | (permutedId & 0xFFFFFFFFL);
+            }
+        });
+        Arrays.parallelSort(occurrences);
+
+        sortedEntityIds = new int[noOfOccurrences];
+        IntStream.range(0, noOfOccurrences).parallel().forEach(i -> {
+            final int keyMask = getKeyMask((int) (occurrences[i] >>> 32), seed);
+            sortedEntityIds[i] = (((int) occurrences[i] * inverseMultiplier2) ^ keyMask) * inverseMultiplier1;
+        });
+    }
+
+    // the inverse of an odd number modulo 2^32, through Newton's iteration
+    private static int getInverse(int oddNumber) {
+        int inverse = oddNumber;
+        for (int i = 0; i < 4; i++) {
+            inverse *= 2 - oddNumber * inverse;
+        }
+        return inverse;
+    }
+
+    private static int getKeyMask(int keyRank, long seed) {
+        return (int) HashUtils.mix(keyRank + seed);
+    }
+
+    /**
+     * @return the number of distinct blocking keys
+     */
+    public int getNoOfKeys() {
+        return noOfKeys;
+    }
+
+    /**
+     * @param rank the rank of a blocking key in alphabetical order
+     * @return the position of the first entity with the given key in the
+     * sorted list of entities
+     */
+    public int getKeyStart(int rank) {
+        return keyStarts[rank];
+    }
+
+    /**
+     * @param rank the rank of a blocking key in alphabetical order
+     * @return the position after the last entity with the given key in the
+     * sorted list of entities
+     */
+    public int getKeyEnd(int rank) {
+        return keyStarts[rank + 1];
+    }
+
+    private static Entry<String, TIntList>[] getSortedEntries(Map<String, TIntList> invertedIndex) {
+        if (invertedIndex == null) {
+            return newEntryArray(0);
+        }
+
+        final Entry<String, TIntList>[] entries = invertedIndex.entrySet().toArray(newEntryArray(invertedIndex.size()));
+        Arrays.parallelSort(entries, Entry.comparingByKey());
+        return entries;
+    }
+
+    // the only way to create a generic array; it holds only entries of inverted indices
+    @SuppressWarnings("unchecked")
+    private static Entry<String, TIntList>[] newEntryArray(int size) {
+        return (Entry<String, TIntList>[]) new Entry<?, ?>[size];
+    }
+
+    /**
+     * @return the ids of all entities, sorted by their blocking keys; an
+     * entity appears once for every key
+     */
+    public int[] getSortedEntityIds() {
+        return sortedEntityIds;
+    }
+}
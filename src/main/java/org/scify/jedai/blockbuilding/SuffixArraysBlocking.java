@@ -27,6 +27,12 @@ import java.util.List;
 import java.util.Set;
 
 /**
+ * Without schema clusters, the blocks are derived from the suffix array of all
+ * distinct tokens, instead of materializing every suffix as a string: the
+ * occurrences of the same suffix form a consecutive range of the suffix array,
+ * whose entities are gathered until they exceed the maximum block size. The
+ * tokens that are shorter than the minimum suffix length are used as keys on
+ * their own, like in getSuffixes.
  *
  * @author gap2
  */
@@ -55,6 +61,54 @@ public class SuffixArraysBlocking extends StandardBlocking {
         randomMSLength = new IntRandomSearchConfiguration(6, 2);
     }
 
+    void addBlocks(TokenSuffixArray tokenSuffixArray, int noOfBlocks) {
+        for (int i = 0; i < noOfBlocks; i++) {
+            final AbstractBlock block = tokenSuffixArray.getBlock();
+            if (block == null) {
+                return;
+            }
+            blocks.add(block);
+        }
+    }
+
+    // every token suffix with the minimum length forms a block
+    void addSuffixBlocks(TokenSuffixArray tokenSuffixArray) {
+        final int minimumLength = Math.max(1, minimumSuffixLength);
+        final int size = tokenSuffixArray.getSize();
+        int firstIndex = 0;
+        while (firstIndex < size) {
+            final int suffixLength = tokenSuffixArray.getSuffixLength(firstIndex);
+            int lastIndex = firstIndex;
+            while (lastIndex + 1 < size && suffixLength <= tokenSuffixArray.getLcp(lastIndex)
+                    && tokenSuffixArray.getSuffixLength(lastIndex + 1) == suffixLength) {
+                lastIndex++;
+            }
+
+            if (minimumLength <= suffixLength && tokenSuffixArray.collectEntities(firstIndex, lastIndex, maximumBlockSize)) {
+                addBlocks(tokenSuffixArray, 1);
+            }
+            firstIndex = lastIndex + 1;
+        }
+    }
+
+    @Override
+    protected void buildBlocks() {
+        if (schemaClusters != null) {
+            super.buildBlocks();
+            return;
+        }
+
+        final TokenSuffixArray tokenSuffixArray = new TokenSuffixArray(entityProfilesD1, entityProfilesD2);
+        final int minimumLength = Math.max(1, minimumSuffixLength);
+        for (int tokenId = 0; tokenId < tokenSuffixArray.getNoOfTokens(); tokenId++) {
+            if (tokenSuffixArray.getTokenLength(tokenId) < minimumLength
+                    && tokenSuffixArray.collectTokenEntities(tokenId, maximumBlockSize)) {
+                addBlocks(tokenSuffixArray, 1);
+            }
+        }
+        addSuffixBlocks(tokenSuffixArray);
+    }
+
     public void setMaximumBlockSize(int maximumBlockSize) {
         this.maximumBlockSize = maximumBlockSize;
     }
@@ -107,6 +161,12 @@ public class SuffixArraysBlocking extends StandardBlocking {
     public int getNumberOfGridConfigurations() {
         return gridMBSize.getNumberOfConfigurations() * gridMSLength.getNumberOfConfigurations();
     }
+
+    @Override
+    public boolean isPartitionedByKeys() {
+        // the blocks of the suffix array are not partitioned, unlike those of schema clusters
+        return false;
+    }
     
     @Override
     public JsonArray getParameterConfiguration() {
@@ -0,0 +1,277 @@
+/*
+* Copyright [2016-2020] [George Papadakis (gpapadis@yahoo.gr)]
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+*    http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+ */
+package org.scify.jedai.blockbuilding;
+
+import gnu.trove.list.array.TIntArrayList;
+import gnu.trove.map.hash.TObjectIntHashMap;
+import java.util.ArrayList;
+import java.util.List;
+import org.scify.jedai.datamodel.AbstractBlock;
+import org.scify.jedai.datamodel.Attribute;
+import org.scify.jedai.datamodel.BilateralBlock;
+import org.scify.jedai.datamodel.EntityProfile;
+import org.scify.jedai.datamodel.UnilateralBlock;
+import org.scify.jedai.utilities.datastructures.SuffixArray;
+
+/**
+ * The suffix array of all distinct tokens in the attribute values of the input
+ * entities. Every token is stored once in a corpus, followed by a separator,
+ * along with the entities that contain it. The LCP array is capped at the
+ * separators, i.e., it gives the longest common prefix of the suffixes of two
+ * tokens, so the positions with the same token suffix, or the same substring,
+ * form consecutive ranges of the suffix array.
+ *
+ * The tokens are the maximal sequences of ASCII letters and digits in the
+ * lowercased attribute values, like in StandardBlocking.getTokens.
+ *
+ * @author G.A.P. II
+ */
+class TokenSuffixArray {
+
+    private static final int NO_OF_SYMBOLS = 62;
+
+    private final boolean isCleanCleanER;
+    private int noOfTokens;
+    private int stamp;
+
+    private final int[] cappedLcp;
+    private final int[][] entitiesD1;
+    private final int[][] entitiesD2;
+    private final int[] stampsD1;
+    private final int[] stampsD2;
+    private final int[] suffixArray;
+    private final int[] tokenIds;
+    private final int[] tokenEnds;
+    private final int[] tokenLengths;
+    private final TIntArrayList unionD1;
+    private final TIntArrayList unionD2;
+
+    TokenSuffixArray(List<EntityProfile> profilesD1, List<EntityProfile> profilesD2) {
+        isCleanCleanER = profilesD2 != null;
+
+        final TObjectIntHashMap<String> dictionary = new TObjectIntHashMap<>();
+        final List<TIntArrayList> postingsD1 = new ArrayList<>();
+        final List<TIntArrayList> postingsD2 = new ArrayList<>();
+        final StringBuilder tokenSymbols = new StringBuilder();
+        indexTokens(profilesD1, dictionary, postingsD1, postingsD2, tokenSymbols, true);
+        if (isCleanCleanER) {
+            indexTokens(profilesD2, dictionary, postingsD1, postingsD2, tokenSymbols, false);
+        }
+
+        entitiesD1 = new int[noOfTokens][];
+        entitiesD2 = isCleanCleanER ? new int[noOfTokens][] : null;
+        for (int i = 0; i < noOfTokens; i++) {
+            entitiesD1[i] = postingsD1.get(i).toArray();
+            if (isCleanCleanER) {
+                entitiesD2[i] = postingsD2.get(i).toArray();
+            }
+        }
+
+        // the corpus: every token followed by the separator 0
+        final int[] corpus = new int[tokenSymbols.length()];
+        tokenIds = new int[corpus.length];
+        tokenEnds = new int[noOfTokens];
+        tokenLengths = new int[noOfTokens];
+        int tokenId = 0;
+        int tokenStart = 0;
+        for (int i = 0; i < corpus.length; i++) {
+            corpus[i] = tokenSymbols.charAt(i);
+            if (corpus[i] == 0) {
+                tokenIds[i] = -1;
+                tokenEnds[tokenId] = i;
+                tokenLengths[tokenId] = i - tokenStart;
+                tokenId++;
+                tokenStart = i + 1;
+            } else {
+                tokenIds[i] = tokenId;
+            }
+        }
+
+        suffixArray = SuffixArray.getSuffixArray(corpus, NO_OF_SYMBOLS);
+        cappedLcp = SuffixArray.getLcpArray(corpus, suffixArray);
+        for (int i = 0; i < cappedLcp.length; i++) {
+            cappedLcp[i] = Math.min(cappedLcp[i], Math.min(getSuffixLength(i), getSuffixLength(i + 1)));
+        }
+
+        stamp = 0;
+        stampsD1 = new int[profilesD1.size()];
+        stampsD2 = isCleanCleanER ? new int[profilesD2.size()] : null;
+        unionD1 = new TIntArrayList();
+        unionD2 = new TIntArrayList();
+    }
+
+    private void addEntities(int[] entityIds, int[] stamps, TIntArrayList union) {
+        for (int entityId : entityIds) {
+            if (stamps[entityId] != stamp) {
+                stamps[entityId] = stamp;
+                union.add(entityId);
+            }
+        }
+    }
+
+    /**
+     * Gathers the entities of all tokens in the given range of the suffix
+     * array, stopping as soon as they exceed the maximum block size.
+     *
+     * @return false if the entities exceed the maximum block size
+     */
+    boolean collectEntities(int firstIndex, int lastIndex, int maximumBlockSize) {
+        stamp++;
+        unionD1.resetQuick();
+        unionD2.resetQuick();
+        for (int i = firstIndex; i <= lastIndex; i++) {
+            final int tokenId = tokenIds[suffixArray[i]];
+            addEntities(entitiesD1[tokenId], stampsD1, unionD1);
+            if (isCleanCleanER) {
+                addEntities(entitiesD2[tokenId], stampsD2, unionD2);
+            }
+
+            if (maximumBlockSize < unionD1.size() + unionD2.size()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Gathers the entities of the given token.
+     *
+     * @return false if the entities exceed the maximum block size
+     */
+    boolean collectTokenEntities(int tokenId, int maximumBlockSize) {
+        unionD1.resetQuick();
+        unionD2.resetQuick();
+        unionD1.add(entitiesD1[tokenId]);
+        if (isCleanCleanER) {
+            unionD2.add(entitiesD2[tokenId]);
+        }
+        return unionD1.size() + unionD2.size() <= maximumBlockSize;
+    }
+
+    /**
+     * @return the block of the last collected entities, or null if they do
+     * not involve any comparison
+     */
+    AbstractBlock getBlock() {
+        if (isCleanCleanER) {
+            if (unionD1.isEmpty() || unionD2.isEmpty()) {
+                return null;
+            }
+
+            unionD1.sort();
+            unionD2.sort();
+            return new BilateralBlock(unionD1.toArray(), unionD2.toArray());
+        }
+
+        if (unionD1.size() < 2) {
+            return null;
+        }
+
+        unionD1.sort();
+        return new UnilateralBlock(unionD1.toArray());
+    }
+
+    /**
+     * @return the length of the longest common prefix of the token suffixes
+     * at the given index of the suffix array and the next one
+     */
+    int getLcp(int index) {
+        return cappedLcp[index];
+    }
+
+    int getNoOfTokens() {
+        return noOfTokens;
+    }
+
+    int getSize() {
+        return suffixArray.length;
+    }
+
+    /**
+     * @return the number of characters from the given index of the suffix
+     * array to the end of its token, or 0 for separators
+     */
+    int getSuffixLength(int index) {
+        final int position = suffixArray[index];
+        final int tokenId = tokenIds[position];
+        if (tokenId < 0) {
+            return 0;
+        }
+        return tokenEnds[tokenId] - position;
+    }
+
+    int getTokenLength(int tokenId) {
+        return tokenLengths[tokenId];
+    }
+
+    private static char getSymbol(char c) {
+        if ('0' <= c && c <= '9') {
+            return (char) (c - '0' + 1);
+        }
+        if ('a' <= c && c <= 'z') {
+            return (char) (c - 'a' + 11);
+        }
+        if ('A' <= c && c <= 'Z') {
+            return (char) (c - 'A' + 37);
+        }
+        return 0;
+    }
+
+    private void indexTokens(List<EntityProfile> profiles, TObjectIntHashMap<String> dictionary, List<TIntArrayList> postingsD1,
+            List<TIntArrayList> postingsD2, StringBuilder tokenSymbols, boolean isFirstDataset) {
+        final List<TIntArrayList> postings = isFirstDataset ? postingsD1 : postingsD2;
+
+        int counter = 0;
+        for (EntityProfile profile : profiles) {
+            final int entityId = counter++;
+            for (Attribute attribute : profile.getAttributes()) {
+                final String value = attribute.getValue().toLowerCase();
+
+                int tokenStart = 0;
+                for (int i = 0; i <= value.length(); i++) {
+                    if (i < value.length() && 0 < getSymbol(value.charAt(i))) {
+                        continue;
+                    }
+
+                    if (tokenStart < i) {
+                        final String token = value.substring(tokenStart, i);
+                        int tokenId;
+                        if (dictionary.containsKey(token)) {
+                            tokenId = dictionary.get(token);
+                        } else {
+                            tokenId = noOfTokens++;
+                            dictionary.put(token, tokenId);
+                            postingsD1.add(new TIntArrayList(2));
+                            if (isCleanCleanER) {
+                                postingsD2.add(new TIntArrayList(2));
+                            }
+                            for (int j = tokenStart; j < i; j++) {
+                                tokenSymbols.append(getSymbol(value.charAt(j)));
+                            }
+                            tokenSymbols.append((char) 0);
+                        }
+
+                        final TIntArrayList entityList = postings.get(tokenId);
+                        if (entityList.isEmpty() || entityList.get(entityList.size() - 1) != entityId) {
+                            entityList.add(entityId);
+                        }
+                    }
+                    tokenStart = i + 1;
+                }
+            }
+        }
+    }
+}
@@ -17,6 +17,9 @@
 package org.scify.jedai.blockprocessing;
 
 import org.scify.jedai.datamodel.AbstractBlock;
+import org.scify.jedai.utilities.datastructures.IBlockStore;
+import org.scify.jedai.utilities.metrics.PipelineMetrics;
+import org.scify.jedai.utilities.metrics.StageMetrics;
 
 import com.esotericsoftware.minlog.Log;
 
@@ -30,10 +33,44 @@ import java.util.List;
 public abstract class AbstractBlockProcessing implements IBlockProcessing {
     private static final long serialVersionUID = 9065475597657477586L;
 
+    protected List<AbstractBlock> finishStage(StageMetrics stage, List<AbstractBlock> outputBlocks) {
+        if (stage.isEnabled()) {
+            stage.stop();
+            stage.setOutputComparisons(outputBlocks.stream().mapToLong(AbstractBlock::getNoOfComparisons).sum());
+            stage.finish(outputBlocks.size());
+        }
+        return outputBlocks;
+    }
+
+    protected void finishStage(StageMetrics stage, int noOfBlocks, long noOfComparisons) {
+        stage.stop();
+        stage.setOutputComparisons(noOfComparisons);
+        stage.finish(noOfBlocks);
+    }
+
     protected void printOriginalStatistics(List<AbstractBlock> inputBlocks) {
         long comparisons = inputBlocks.stream().mapToLong(AbstractBlock::getNoOfComparisons).sum();
         
         Log.info("Original blocks\t:\t" + inputBlocks.size());
         Log.info("Original comparisons\t:\t" + comparisons);
     }
+
+    protected void printOriginalStatistics(IBlockStore inputBlocks) {
+        Log.info("Original blocks\t:\t" + inputBlocks.size());
+        Log.info("Original comparisons\t:\t" + inputBlocks.getTotalComparisons());
+    }
+
+    protected StageMetrics startStage(List<AbstractBlock> inputBlocks) {
+        final StageMetrics stage = PipelineMetrics.startStage(PipelineMetrics.BLOCK_PROCESSING, this, inputBlocks.size());
+        if (stage.isEnabled()) {
+            stage.setInputComparisons(inputBlocks.stream().mapToLong(AbstractBlock::getNoOfComparisons).sum());
+        }
+        return stage;
+    }
+
+    protected StageMetrics startStage(IBlockStore inputBlocks) {
+        final StageMetrics stage = PipelineMetrics.startStage(PipelineMetrics.BLOCK_PROCESSING, this, inputBlocks.size());
+        stage.setInputComparisons(inputBlocks.getTotalComparisons());
+        return stage;
+    }
 }
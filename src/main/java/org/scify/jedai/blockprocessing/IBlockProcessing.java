@@ -19,9 +19,11 @@ import org.scify.jedai.configuration.IConfiguration;
 import org.scify.jedai.datamodel.AbstractBlock;
 import org.scify.jedai.utilities.IConstants;
 import org.scify.jedai.utilities.IDocumentation;
+import org.scify.jedai.utilities.datastructures.IBlockStore;
 
 import java.io.Serializable;
 import java.util.List;
+import java.util.function.Consumer;
 
 /**
  *
@@ -30,5 +32,15 @@ import java.util.List;
 public interface IBlockProcessing extends IConfiguration, IConstants, IDocumentation, Serializable {
 
     List<AbstractBlock> refineBlocks(List<AbstractBlock> blocks);
+
+    /**
+     * Refines the blocks of the given store, passing the retained blocks to
+     * the given consumer, e.g., a DiskBlockStore.Writer or the add method of
+     * a list. By default, all blocks are loaded in memory; the methods that
+     * override it process the store in a streaming fashion.
+     */
+    default void refineBlocks(IBlockStore blocks, Consumer<AbstractBlock> output) {
+        refineBlocks(blocks.getBlocks()).forEach(output);
+    }
     
 }
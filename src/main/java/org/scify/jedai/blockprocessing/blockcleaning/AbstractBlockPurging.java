@@ -18,12 +18,15 @@ package org.scify.jedai.blockprocessing.blockcleaning;
 
 import org.scify.jedai.blockprocessing.AbstractBlockProcessing;
 import org.scify.jedai.datamodel.AbstractBlock;
+import org.scify.jedai.utilities.datastructures.IBlockStore;
+import org.scify.jedai.utilities.metrics.StageMetrics;
 
 import com.esotericsoftware.minlog.Log;
 import java.util.ArrayList;
 
 import java.util.Iterator;
 import java.util.List;
+import java.util.function.Consumer;
 
 /**
  *
@@ -44,6 +47,7 @@ public abstract class AbstractBlockPurging extends AbstractBlockProcessing {
             return blocks;
         }
         
+        final StageMetrics stage = startStage(blocks);
         List<AbstractBlock> newBlocks = new ArrayList<>(blocks);
         printOriginalStatistics(newBlocks);
         setThreshold(newBlocks);
@@ -65,9 +69,48 @@ public abstract class AbstractBlockPurging extends AbstractBlockProcessing {
         Log.info("Retained blocks\t:\t" + blocks.size());
         Log.info("Retained comparisons\t:\t" + totalComparisons);
 
-        return newBlocks;
+        return finishStage(stage, newBlocks);
+    }
+
+    /**
+     * Passes the retained blocks to the given consumer in increasing number of
+     * comparisons, loading a single block at a time.
+     */
+    @Override
+    public void refineBlocks(IBlockStore blocks, Consumer<AbstractBlock> output) {
+        Log.info("Applying " + getMethodName() + " with the following configuration : " + getMethodConfiguration());
+
+        if (blocks.size() == 0) {
+            Log.warn("Empty set of blocks was given as input!");
+            return;
+        }
+
+        final StageMetrics stage = startStage(blocks);
+        printOriginalStatistics(blocks);
+        setThreshold(blocks);
+
+        int noOfRetainedBlocks = 0;
+        long totalComparisons = 0;
+        for (AbstractBlock aBlock : blocks) {
+            if (satisfiesThreshold(aBlock)) {
+                noOfRetainedBlocks++;
+                totalComparisons += aBlock.getNoOfComparisons();
+                output.accept(aBlock);
+            }
+        }
+
+        Log.info("Purged blocks\t:\t" + (blocks.size() - noOfRetainedBlocks));
+        Log.info("Retained blocks\t:\t" + noOfRetainedBlocks);
+        Log.info("Retained comparisons\t:\t" + totalComparisons);
+
+        finishStage(stage, noOfRetainedBlocks, totalComparisons);
     }
     
     protected abstract boolean satisfiesThreshold(AbstractBlock block);
     protected abstract void setThreshold(List<AbstractBlock> blocks);
+
+    // by default, all blocks are loaded in memory
+    protected void setThreshold(IBlockStore blocks) {
+        setThreshold(blocks.getBlocks());
+    }
 }
@@ -0,0 +1,109 @@
+/*
+* Copyright [2016-2020] [George Papadakis (gpapadis@yahoo.gr)]
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+*    http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+ */
+package org.scify.jedai.blockprocessing.blockcleaning;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.IntStream;
+import org.scify.jedai.datamodel.AbstractBlock;
+import org.scify.jedai.utilities.datastructures.IBlockStore;
+
+/**
+ * A compact table with a row per block, which is shared by the Block Cleaning
+ * methods. The rows are sorted in increasing number of comparisons, like with
+ * IncBlockCardinalityComparator, with ties broken by the original order of
+ * the blocks. Every row is described by primitive columns, i.e., the number
+ * of comparisons and of assignments of its block. The sorting is a parallel
+ * sort of longs that pack the number of comparisons, as a float, with the
+ * original index of every block. For a block store, which is already sorted
+ * in the same way, the columns are copied from its metadata and the blocks are
+ * loaded from the store on demand.
+ *
+ * @author G.A.P. II
+ */
+class BlockDescriptors {
+
+    private final int[] assignments;
+    private final float[] comparisons;
+    private final AbstractBlock[] sortedBlocks;
+    private final IBlockStore store;
+
+    BlockDescriptors(List<AbstractBlock> blocks) {
+        final AbstractBlock[] blocksArray = blocks.toArray(new AbstractBlock[0]);
+
+        // non-negative floats have the same order as their bits
+        final long[] keys = new long[blocksArray.length];
+        IntStream.range(0, blocksArray.length).parallel().forEach(i -> {
+            final float blockComparisons = blocksArray[i].getNoOfComparisons();
+            keys[i] = ((long) Float.floatToIntBits(blockComparisons) << 32) | i;
+        });
+        Arrays.parallelSort(keys);
+
+        assignments = new int[blocksArray.length];
+        comparisons = new float[blocksArray.length];
+        store = null;
+        sortedBlocks = new AbstractBlock[blocksArray.length];
+        IntStream.range(0, blocksArray.length).parallel().forEach(i -> {
+            sortedBlocks[i] = blocksArray[(int) keys[i]];
+            assignments[i] = sortedBlocks[i].getTotalBlockAssignments();
+            comparisons[i] = Float.intBitsToFloat((int) (keys[i] >>> 32));
+        });
+    }
+
+    BlockDescriptors(IBlockStore blocks) {
+        store = blocks;
+        sortedBlocks = null;
+        assignments = new int[blocks.size()];
+        comparisons = new float[blocks.size()];
+        for (int i = 0; i < blocks.size(); i++) {
+            assignments[i] = blocks.getInnerSize1(i) + blocks.getInnerSize2(i);
+            comparisons[i] = blocks.getNoOfComparisons(i);
+        }
+    }
+
+    /**
+     * @param position the position of a block in increasing number of
+     * comparisons
+     * @return the number of entities in the block
+     */
+    int getAssignments(int position) {
+        return assignments[position];
+    }
+
+    /**
+     * @param position the position of a block in increasing number of
+     * comparisons
+     */
+    AbstractBlock getBlock(int position) {
+        if (store != null) {
+            return store.getBlock(position);
+        }
+        return sortedBlocks[position];
+    }
+
+    /**
+     * @param position the position of a block in increasing number of
+     * comparisons
+     * @return the number of comparisons in the block, as a float
+     */
+    float getComparisons(int position) {
+        return comparisons[position];
+    }
+
+    int size() {
+        return assignments.length;
+    }
+}
@@ -28,9 +28,12 @@ import org.scify.jedai.datamodel.AbstractBlock;
 import org.scify.jedai.datamodel.BilateralBlock;
 import org.scify.jedai.datamodel.UnilateralBlock;
 import org.scify.jedai.utilities.comparators.IncBlockCardinalityComparator;
+import org.scify.jedai.utilities.datastructures.IBlockStore;
+import org.scify.jedai.utilities.metrics.StageMetrics;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.function.Consumer;
 
 /**
  *
@@ -95,19 +98,18 @@ public class BlockFiltering extends AbstractBlockProcessing {
         }
     }
 
-    protected void getBilateralLimits(List<AbstractBlock> blocks) {
+    protected void getBilateralLimits(Iterable<AbstractBlock> blocks) {
         limitsD1 = new int[entitiesD1];
         limitsD2 = new int[entitiesD2];
-        blocks.stream().map((block) -> (BilateralBlock) block).map((bilBlock) -> {
+        for (AbstractBlock block : blocks) {
+            final BilateralBlock bilBlock = (BilateralBlock) block;
             for (int id1 : bilBlock.getIndex1Entities()) {
                 limitsD1[id1]++;
             }
-            return bilBlock;
-        }).forEachOrdered((bilBlock) -> {
             for (int id2 : bilBlock.getIndex2Entities()) {
                 limitsD2[id2]++;
             }
-        });
+        }
 
         for (int i = 0; i < limitsD1.length; i++) {
             limitsD1[i] = Math.round(ratio * limitsD1[i]);
@@ -188,14 +190,14 @@ public class BlockFiltering extends AbstractBlockProcessing {
         }
     }
 
-    protected void getUnilateralLimits(List<AbstractBlock> blocks) {
+    protected void getUnilateralLimits(Iterable<AbstractBlock> blocks) {
         limitsD1 = new int[entitiesD1];
         limitsD2 = null;
-        blocks.stream().map((block) -> (UnilateralBlock) block).forEachOrdered((uniBlock) -> {
-            for (int id : uniBlock.getEntities()) {
+        for (AbstractBlock block : blocks) {
+            for (int id : ((UnilateralBlock) block).getEntities()) {
                 limitsD1[id]++;
             }
-        });
+        }
 
         for (int i = 0; i < limitsD1.length; i++) {
             limitsD1[i] = Math.round(ratio * limitsD1[i]);
@@ -219,17 +221,65 @@ public class BlockFiltering extends AbstractBlockProcessing {
             return blocks;
         }
         
+        final StageMetrics stage = startStage(blocks);
         printOriginalStatistics(blocks);
         countEntities(blocks);
         sortBlocks(blocks);
         getLimits(blocks);
         initializeCounters();
-        return restructureBlocks(blocks);
+        return finishStage(stage, restructureBlocks(blocks));
+    }
+
+    /**
+     * Passes the retained blocks to the given consumer in increasing number of
+     * comparisons. The store is scanned twice, once for the limits of the
+     * entities and once for restructuring its blocks, loading a single block
+     * at a time.
+     */
+    @Override
+    public void refineBlocks(IBlockStore blocks, Consumer<AbstractBlock> output) {
+        Log.info("Applying " + getMethodName() + " with the following configuration : " + getMethodConfiguration());
+
+        if (blocks.size() == 0) {
+            Log.warn("Empty set of blocks was given as input!");
+            return;
+        }
+
+        final StageMetrics stage = startStage(blocks);
+        printOriginalStatistics(blocks);
+        entitiesD1 = blocks.getNoOfEntitiesD1();
+        entitiesD2 = blocks.getNoOfEntitiesD2();
+        if (blocks.isCleanCleanER()) {
+            getBilateralLimits(blocks);
+        } else {
+            getUnilateralLimits(blocks);
+        }
+        initializeCounters();
+
+        final int[] noOfRetainedBlocks = new int[1];
+        final long[] totalComparisons = new long[1];
+        final Consumer<AbstractBlock> counter = block -> {
+            noOfRetainedBlocks[0]++;
+            totalComparisons[0] += block.getNoOfComparisons();
+            output.accept(block);
+        };
+        if (blocks.isCleanCleanER()) {
+            restructureBilateraBlocks(blocks, counter);
+        } else {
+            restructureUnilateraBlocks(blocks, counter);
+        }
+        finishStage(stage, noOfRetainedBlocks[0], totalComparisons[0]);
     }
 
     protected List<AbstractBlock> restructureBilateraBlocks(List<AbstractBlock> blocks) {
         final List<AbstractBlock> newBlocks = new ArrayList<>();
-        blocks.stream().map((block) -> (BilateralBlock) block).forEachOrdered((oldBlock) -> {
+        restructureBilateraBlocks(blocks, newBlocks::add);
+        return newBlocks;
+    }
+
+    protected void restructureBilateraBlocks(Iterable<AbstractBlock> blocks, Consumer<AbstractBlock> output) {
+        for (AbstractBlock block : blocks) {
+            final BilateralBlock oldBlock = (BilateralBlock) block;
             final TIntList retainedEntitiesD1 = new TIntArrayList();
             for (int entityId : oldBlock.getIndex1Entities()) {
                 if (counterD1[entityId] < limitsD1[entityId]) {
@@ -250,11 +300,9 @@ public class BlockFiltering extends AbstractBlockProcessing {
                 for (TIntIterator iterator2 = retainedEntitiesD2.iterator(); iterator2.hasNext();) {
                     counterD2[iterator2.next()]++;
                 }
-                newBlocks.add(new BilateralBlock(oldBlock.getEntropy(), retainedEntitiesD1.toArray(), retainedEntitiesD2.toArray()));
+                output.accept(new BilateralBlock(oldBlock.getEntropy(), retainedEntitiesD1.toArray(), retainedEntitiesD2.toArray()));
             }
-        });
-
-        return newBlocks;
+        }
     }
 
     protected List<AbstractBlock> restructureBlocks(List<AbstractBlock> blocks) {
@@ -267,7 +315,13 @@ public class BlockFiltering extends AbstractBlockProcessing {
 
     protected List<AbstractBlock> restructureUnilateraBlocks(List<AbstractBlock> blocks) {
         final List<AbstractBlock> newBlocks = new ArrayList<>();
-        blocks.stream().map((block) -> (UnilateralBlock) block).forEachOrdered((oldBlock) -> {
+        restructureUnilateraBlocks(blocks, newBlocks::add);
+        return newBlocks;
+    }
+
+    protected void restructureUnilateraBlocks(Iterable<AbstractBlock> blocks, Consumer<AbstractBlock> output) {
+        for (AbstractBlock block : blocks) {
+            final UnilateralBlock oldBlock = (UnilateralBlock) block;
             final TIntList retainedEntities = new TIntArrayList();
             for (int entityId : oldBlock.getEntities()) {
                 if (counterD1[entityId] < limitsD1[entityId]) {
@@ -278,11 +332,9 @@ public class BlockFiltering extends AbstractBlockProcessing {
                 for (TIntIterator iterator = retainedEntities.iterator(); iterator.hasNext();) {
                     counterD1[iterator.next()]++;
                 }
-                newBlocks.add(new UnilateralBlock(oldBlock.getEntropy(), retainedEntities.toArray()));
+                output.accept(new UnilateralBlock(oldBlock.getEntropy(), retainedEntities.toArray()));
             }
-        });
-
-        return newBlocks;
+        }
     }
 
     @Override
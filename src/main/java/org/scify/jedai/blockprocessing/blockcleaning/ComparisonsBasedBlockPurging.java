@@ -16,14 +16,12 @@
 package org.scify.jedai.blockprocessing.blockcleaning;
 
 import com.esotericsoftware.minlog.Log;
-import gnu.trove.set.TFloatSet;
-import gnu.trove.set.hash.TFloatHashSet;
 import org.apache.jena.atlas.json.JsonArray;
 import org.apache.jena.atlas.json.JsonObject;
 import org.scify.jedai.configuration.gridsearch.DblGridSearchConfiguration;
 import org.scify.jedai.configuration.randomsearch.DblRandomSearchConfiguration;
 import org.scify.jedai.datamodel.AbstractBlock;
-import org.scify.jedai.utilities.comparators.IncBlockCardinalityComparator;
+import org.scify.jedai.utilities.datastructures.IBlockStore;
 
 import java.util.List;
 
@@ -140,29 +138,53 @@ public class ComparisonsBasedBlockPurging extends AbstractBlockPurging {
 
     @Override
     protected void setThreshold(List<AbstractBlock> blocks) {
-        blocks.sort(new IncBlockCardinalityComparator());
-        final TFloatSet distinctComparisonsLevel = new TFloatHashSet();
-        blocks.forEach((block) -> distinctComparisonsLevel.add(block.getNoOfComparisons()));
+        final BlockDescriptors descriptors = new BlockDescriptors(blocks);
+        // the descriptors are already sorted, so the blocks are reordered without sorting them again
+        for (int i = 0; i < descriptors.size(); i++) {
+            blocks.set(i, descriptors.getBlock(i));
+        }
+        setThreshold(descriptors);
+    }
+
+    @Override
+    protected void setThreshold(IBlockStore blocks) {
+        setThreshold(new BlockDescriptors(blocks));
+    }
+
+    /**
+     * Estimates the maximum number of comparisons per block from the
+     * cumulative number of assignments and comparisons up to every level of
+     * block cardinality, i.e., every distinct number of comparisons.
+     *
+     * @param descriptors the blocks in increasing number of comparisons
+     */
+    protected void setThreshold(BlockDescriptors descriptors) {
+        int noOfLevels = 0;
+        for (int i = 0; i < descriptors.size(); i++) {
+            if (i == 0 || descriptors.getComparisons(i) != descriptors.getComparisons(i - 1)) {
+                noOfLevels++;
+            }
+        }
 
         int index = -1;
-        float[] blockAssignments = new float[distinctComparisonsLevel.size()];
-        float[] comparisonsLevel = new float[distinctComparisonsLevel.size()];
-        float[] totalComparisonsPerLevel = new float[distinctComparisonsLevel.size()];
-        for (AbstractBlock block : blocks) {
+        float[] blockAssignments = new float[noOfLevels];
+        float[] comparisonsLevel = new float[noOfLevels];
+        float[] totalComparisonsPerLevel = new float[noOfLevels];
+        for (int i = 0; i < descriptors.size(); i++) {
             if (index == -1) {
                 index++;
-                comparisonsLevel[index] = block.getNoOfComparisons();
+                comparisonsLevel[index] = descriptors.getComparisons(i);
                 blockAssignments[index] = 0;
                 totalComparisonsPerLevel[index] = 0;
-            } else if (block.getNoOfComparisons() != comparisonsLevel[index]) {
+            } else if (descriptors.getComparisons(i) != comparisonsLevel[index]) {
                 index++;
-                comparisonsLevel[index] = block.getNoOfComparisons();
+                comparisonsLevel[index] = descriptors.getComparisons(i);
                 blockAssignments[index] = blockAssignments[index - 1];
                 totalComparisonsPerLevel[index] = totalComparisonsPerLevel[index - 1];
             }
 
-            blockAssignments[index] += block.getTotalBlockAssignments();
-            totalComparisonsPerLevel[index] += block.getNoOfComparisons();
+            blockAssignments[index] += descriptors.getAssignments(i);
+            totalComparisonsPerLevel[index] += descriptors.getComparisons(i);
         }
 
         float currentBC = 0;
@@ -0,0 +1,221 @@
+/*
+* Copyright [2016-2020] [George Papadakis (gpapadis@yahoo.gr)]
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+*    http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+ */
+package org.scify.jedai.blockprocessing.blockcleaning;
+
+import com.esotericsoftware.minlog.Log;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.IntStream;
+import org.scify.jedai.datamodel.AbstractBlock;
+import org.scify.jedai.datamodel.BilateralBlock;
+import org.scify.jedai.datamodel.UnilateralBlock;
+import org.scify.jedai.utilities.metrics.StageMetrics;
+
+/**
+ * Block Filtering over a table of block descriptors, which is sorted with a
+ * parallel sort. The positions of the blocks of every entity in the sorted
+ * table are gathered into a single array through counting sort. Thus, the
+ * blocks of every entity are consecutive, in increasing number of comparisons,
+ * and every entity selects its top-ratio blocks in parallel, by storing the
+ * position of its last retained block.
+ *
+ * In BlockFiltering, an entity is counted only in the blocks that are not
+ * discarded for having too few retained entities, so it is retained in
+ * another block instead. This is resolved by a single sequential pass over the
+ * blocks that goes through the entities of the discarded blocks only: every
+ * entity of a discarded block moves its last retained block to its next one.
+ * Finally, the retained entities of every block are gathered in parallel into
+ * new arrays. The resulting blocks and their order are the same as in
+ * BlockFiltering, but the input list of blocks is not modified.
+ *
+ * @author G.A.P. II
+ */
+public class ParallelBlockFiltering extends BlockFiltering {
+
+    private static final long serialVersionUID = 5238306071965925482L;
+
+    public ParallelBlockFiltering() {
+        this(0.8f);
+    }
+
+    public ParallelBlockFiltering(float r) {
+        super(r);
+    }
+
+    @Override
+    public String getMethodName() {
+        return "Parallel Block Filtering";
+    }
+
+    @Override
+    public List<AbstractBlock> refineBlocks(List<AbstractBlock> blocks) {
+        Log.info("Applying " + getMethodName() + " with the following configuration : " + getMethodConfiguration());
+
+        if (blocks.isEmpty()) {
+            Log.warn("Empty set of blocks was given as input!");
+            return blocks;
+        }
+
+        final StageMetrics stage = startStage(blocks);
+        printOriginalStatistics(blocks);
+        final boolean isCleanCleanER = blocks.get(0) instanceof BilateralBlock;
+        final BlockDescriptors descriptors = new BlockDescriptors(blocks);
+        final int noOfBlocks = descriptors.size();
+
+        // the entities of the second dataset follow those of the first one
+        entitiesD1 = IntStream.range(0, noOfBlocks).parallel()
+                .map(i -> getMaxEntityId(getEntitiesD1(descriptors.getBlock(i))) + 1)
+                .max().getAsInt();
+        entitiesD2 = isCleanCleanER ? IntStream.range(0, noOfBlocks).parallel()
+                .map(i -> getMaxEntityId(getEntitiesD2(descriptors.getBlock(i))) + 1)
+                .max().getAsInt() : 0;
+        final int noOfEntities = entitiesD1 + entitiesD2;
+
+        // the positions of the blocks of every entity, in increasing order, through counting sort
+        final int[] entityOffsets = new int[noOfEntities + 1];
+        for (int position = 0; position < noOfBlocks; position++) {
+            for (int entityId : getEntitiesD1(descriptors.getBlock(position))) {
+                entityOffsets[entityId + 1]++;
+            }
+            for (int entityId : getEntitiesD2(descriptors.getBlock(position))) {
+                entityOffsets[entityId + entitiesD1 + 1]++;
+            }
+        }
+        for (int entityId = 0; entityId < noOfEntities; entityId++) {
+            entityOffsets[entityId + 1] += entityOffsets[entityId];
+        }
+
+        final int[] assignments = new int[entityOffsets[noOfEntities]];
+        final int[] nextIndices = Arrays.copyOf(entityOffsets, noOfEntities);
+        for (int position = 0; position < noOfBlocks; position++) {
+            for (int entityId : getEntitiesD1(descriptors.getBlock(position))) {
+                assignments[nextIndices[entityId]++] = position;
+            }
+            for (int entityId : getEntitiesD2(descriptors.getBlock(position))) {
+                assignments[nextIndices[entityId + entitiesD1]++] = position;
+            }
+        }
+
+        // the top-ratio blocks of every entity, assuming that no block is discarded
+        final int[] entityLimits = new int[noOfEntities];
+        final int[] lastPositions = new int[noOfEntities];
+        IntStream.range(0, noOfEntities).parallel().forEach(entityId -> {
+            entityLimits[entityId] = Math.round(ratio * (entityOffsets[entityId + 1] - entityOffsets[entityId]));
+            lastPositions[entityId] = entityLimits[entityId] == 0 ? -1 : assignments[entityOffsets[entityId] + entityLimits[entityId] - 1];
+        });
+
+        final int[] retainedD1 = new int[noOfBlocks];
+        final int[] retainedD2 = new int[noOfBlocks];
+        IntStream.range(0, noOfBlocks).parallel().forEach(position -> {
+            retainedD1[position] = countRetainedEntities(getEntitiesD1(descriptors.getBlock(position)), 0, position, lastPositions);
+            retainedD2[position] = countRetainedEntities(getEntitiesD2(descriptors.getBlock(position)), entitiesD1, position, lastPositions);
+        });
+
+        // the blocks with too few retained entities are discarded
+        final int[] noOfDiscardedBlocks = new int[noOfEntities];
+        final boolean[] isRetained = new boolean[noOfBlocks];
+        for (int position = 0; position < noOfBlocks; position++) {
+            isRetained[position] = isCleanCleanER ? 0 < retainedD1[position] && 0 < retainedD2[position] : 1 < retainedD1[position];
+            if (!isRetained[position]) {
+                for (int entityId : getEntitiesD1(descriptors.getBlock(position))) {
+                    moveLastPosition(entityId, position, assignments, entityOffsets, entityLimits, lastPositions, noOfDiscardedBlocks, retainedD1);
+                }
+                for (int entityId : getEntitiesD2(descriptors.getBlock(position))) {
+                    moveLastPosition(entityId + entitiesD1, position, assignments, entityOffsets, entityLimits, lastPositions, noOfDiscardedBlocks, retainedD2);
+                }
+            }
+        }
+
+        final AbstractBlock[] newBlocks = new AbstractBlock[noOfBlocks];
+        IntStream.range(0, noOfBlocks).parallel().filter(position -> isRetained[position]).forEach(position -> {
+            final AbstractBlock oldBlock = descriptors.getBlock(position);
+            final int[] entityIds1 = getRetainedEntities(getEntitiesD1(oldBlock), 0, retainedD1[position], position, lastPositions);
+            if (isCleanCleanER) {
+                final int[] entityIds2 = getRetainedEntities(getEntitiesD2(oldBlock), entitiesD1, retainedD2[position], position, lastPositions);
+                newBlocks[position] = new BilateralBlock(oldBlock.getEntropy(), entityIds1, entityIds2);
+            } else {
+                newBlocks[position] = new UnilateralBlock(oldBlock.getEntropy(), entityIds1);
+            }
+        });
+
+        final List<AbstractBlock> retainedBlocks = new ArrayList<>();
+        for (AbstractBlock block : newBlocks) {
+            if (block != null) {
+                retainedBlocks.add(block);
+            }
+        }
+        return finishStage(stage, retainedBlocks);
+    }
+
+    private static int countRetainedEntities(int[] entityIds, int idOffset, int position, int[] lastPositions) {
+        int counter = 0;
+        for (int entityId : entityIds) {
+            if (position <= lastPositions[entityId + idOffset]) {
+                counter++;
+            }
+        }
+        return counter;
+    }
+
+    private static int[] getEntitiesD1(AbstractBlock block) {
+        if (block instanceof BilateralBlock) {
+            return ((BilateralBlock) block).getIndex1Entities();
+        }
+        return ((UnilateralBlock) block).getEntities();
+    }
+
+    private static int[] getEntitiesD2(AbstractBlock block) {
+        if (block instanceof BilateralBlock) {
+            return ((BilateralBlock) block).getIndex2Entities();
+        }
+        return new int[0];
+    }
+
+    private static int getMaxEntityId(int[] entityIds) {
+        int maxId = -1;
+        for (int entityId : entityIds) {
+            maxId = Math.max(maxId, entityId);
+        }
+        return maxId;
+    }
+
+    private static int[] getRetainedEntities(int[] entityIds, int idOffset, int noOfRetained, int position, int[] lastPositions) {
+        int index = 0;
+        final int[] retainedIds = new int[noOfRetained];
+        for (int entityId : entityIds) {
+            if (position <= lastPositions[entityId + idOffset]) {
+                retainedIds[index++] = entityId;
+            }
+        }
+        return retainedIds;
+    }
+
+    // an entity that was retained in a discarded block is retained in its next block instead
+    private static void moveLastPosition(int entityId, int position, int[] assignments, int[] entityOffsets, int[] entityLimits,
+            int[] lastPositions, int[] noOfDiscardedBlocks, int[] retainedEntities) {
+        if (lastPositions[entityId] < position) {
+            return;
+        }
+
+        noOfDiscardedBlocks[entityId]++;
+        final int nextIndex = entityOffsets[entityId] + entityLimits[entityId] + noOfDiscardedBlocks[entityId] - 1;
+        if (nextIndex < entityOffsets[entityId + 1]) {
+            lastPositions[entityId] = assignments[nextIndex];
+            retainedEntities[lastPositions[entityId]]++;
+        }
+    }
+}
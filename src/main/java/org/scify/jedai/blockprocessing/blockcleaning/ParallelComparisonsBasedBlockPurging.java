@@ -0,0 +1,91 @@
+/*
+* Copyright [2016-2020] [George Papadakis (gpapadis@yahoo.gr)]
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+*    http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+ */
+package org.scify.jedai.blockprocessing.blockcleaning;
+
+import com.esotericsoftware.minlog.Log;
+import java.util.ArrayList;
+import java.util.List;
+import org.scify.jedai.datamodel.AbstractBlock;
+import org.scify.jedai.utilities.metrics.StageMetrics;
+
+/**
+ * Comparison-based Block Purging over a table of block descriptors, which is
+ * sorted with a parallel sort. The levels of block cardinality are computed
+ * from its primitive columns, and since the blocks are sorted in increasing
+ * number of comparisons, the retained ones form a prefix of the table, which
+ * is located through binary search. The input list of blocks is not modified.
+ * The retained blocks and their order are the same as in
+ * ComparisonsBasedBlockPurging.
+ *
+ * @author G.A.P. II
+ */
+public class ParallelComparisonsBasedBlockPurging extends ComparisonsBasedBlockPurging {
+
+    private static final long serialVersionUID = -3851496024312287310L;
+
+    public ParallelComparisonsBasedBlockPurging(boolean isCleanCleanER) {
+        super(isCleanCleanER);
+    }
+
+    public ParallelComparisonsBasedBlockPurging(float sf) {
+        super(sf);
+    }
+
+    @Override
+    public String getMethodName() {
+        return "Parallel Comparison-based Block Purging";
+    }
+
+    @Override
+    public List<AbstractBlock> refineBlocks(List<AbstractBlock> blocks) {
+        Log.info("Applying " + getMethodName() + " with the following configuration : " + getMethodConfiguration());
+
+        if (blocks.isEmpty()) {
+            Log.warn("Empty set of blocks was given as input!");
+            return blocks;
+        }
+
+        final StageMetrics stage = startStage(blocks);
+        printOriginalStatistics(blocks);
+        final BlockDescriptors descriptors = new BlockDescriptors(blocks);
+        setThreshold(descriptors);
+
+        // the number of blocks that satisfy the threshold
+        int low = 0;
+        int high = descriptors.size();
+        while (low < high) {
+            final int middle = (low + high) >>> 1;
+            if (satisfiesThreshold(descriptors.getBlock(middle))) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+
+        long totalComparisons = 0;
+        final List<AbstractBlock> newBlocks = new ArrayList<>(low);
+        for (int i = 0; i < low; i++) {
+            newBlocks.add(descriptors.getBlock(i));
+            totalComparisons += descriptors.getBlock(i).getNoOfComparisons();
+        }
+
+        Log.info("Purged blocks\t:\t" + (descriptors.size() - low));
+        Log.info("Retained blocks\t:\t" + newBlocks.size());
+        Log.info("Retained comparisons\t:\t" + totalComparisons);
+
+        return finishStage(stage, newBlocks);
+    }
+}
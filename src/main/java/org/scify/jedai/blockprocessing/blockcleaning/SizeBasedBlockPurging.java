@@ -31,6 +31,7 @@ import org.apache.jena.atlas.json.JsonArray;
 import org.apache.jena.atlas.json.JsonObject;
 import org.scify.jedai.configuration.gridsearch.DblGridSearchConfiguration;
 import org.scify.jedai.configuration.randomsearch.DblRandomSearchConfiguration;
+import org.scify.jedai.utilities.datastructures.IBlockStore;
 
 /**
  *
@@ -61,24 +62,23 @@ public class SizeBasedBlockPurging extends AbstractBlockPurging {
         this.purgingFactor = purgingFactor;
     }
 
-    private int getMaxBlockSize(List<AbstractBlock> blocks) {
+    private int getMaxBlockSize(Iterable<AbstractBlock> blocks) {
         final TIntSet entities = new TIntHashSet();
-        blocks.stream().map((aBlock) -> (UnilateralBlock) aBlock).forEachOrdered((uBlock) -> {
-            entities.addAll(uBlock.getEntities());
-        });
+        for (AbstractBlock aBlock : blocks) {
+            entities.addAll(((UnilateralBlock) aBlock).getEntities());
+        }
         
         return Math.round(entities.size()*purgingFactor);
     }
     
-    private int getMaxInnerBlockSize(List<AbstractBlock> blocks) {
+    private int getMaxInnerBlockSize(Iterable<AbstractBlock> blocks) {
         final TIntSet d1Entities = new TIntHashSet();
         final TIntSet d2Entities = new TIntHashSet();
-        blocks.stream().map((aBlock) -> (BilateralBlock) aBlock).map((bBlock) -> {
+        for (AbstractBlock aBlock : blocks) {
+            final BilateralBlock bBlock = (BilateralBlock) aBlock;
             d1Entities.addAll(bBlock.getIndex1Entities());
-            return bBlock;
-        }).forEachOrdered((bBlock) -> {
             d2Entities.addAll(bBlock.getIndex2Entities());
-        });
+        }
         
         return Math.round(Math.min(d1Entities.size(), d2Entities.size())*purgingFactor);
     }
@@ -172,7 +172,16 @@ public class SizeBasedBlockPurging extends AbstractBlockPurging {
     
     @Override
     protected void setThreshold(List<AbstractBlock> blocks) {
-        if (blocks.get(0) instanceof UnilateralBlock) {
+        setThreshold(blocks, blocks.get(0) instanceof BilateralBlock);
+    }
+
+    @Override
+    protected void setThreshold(IBlockStore blocks) {
+        setThreshold(blocks, blocks.isCleanCleanER());
+    }
+
+    private void setThreshold(Iterable<AbstractBlock> blocks, boolean cleanCleanER) {
+        if (!cleanCleanER) {
             isCleanCleanER = false;
             maxEntities = getMaxBlockSize(blocks);
             Log.info("Maximum entities per block\t:\t"+ maxEntities);
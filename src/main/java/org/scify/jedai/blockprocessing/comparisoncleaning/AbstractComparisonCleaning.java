@@ -16,12 +16,13 @@
 
 package org.scify.jedai.blockprocessing.comparisoncleaning;
 
-import org.scify.jedai.blockprocessing.IBlockProcessing;
+import org.scify.jedai.blockprocessing.AbstractBlockProcessing;
 import org.scify.jedai.datamodel.AbstractBlock;
 import org.scify.jedai.datamodel.BilateralBlock;
 import org.scify.jedai.datamodel.DecomposedBlock;
 import org.scify.jedai.datamodel.UnilateralBlock;
 import org.scify.jedai.utilities.datastructures.EntityIndex;
+import org.scify.jedai.utilities.metrics.StageMetrics;
 
 import com.esotericsoftware.minlog.Log;
 
@@ -37,7 +38,7 @@ import java.util.List;
  * @author gap2
  */
 
-public abstract class AbstractComparisonCleaning implements IBlockProcessing {
+public abstract class AbstractComparisonCleaning extends AbstractBlockProcessing {
     private static final long serialVersionUID = -215890142305328575L;
 
     protected boolean cleanCleanER;
@@ -84,6 +85,7 @@ public abstract class AbstractComparisonCleaning implements IBlockProcessing {
             return blocks;
         }
         
+        final StageMetrics stage = startStage(blocks);
         entityIndex = new EntityIndex(blocks);
         
         cleanCleanER = entityIndex.isCleanCleanER();
@@ -93,7 +95,7 @@ public abstract class AbstractComparisonCleaning implements IBlockProcessing {
         bBlocks = entityIndex.getBilateralBlocks();
         uBlocks = entityIndex.getUnilateralBlocks();
 
-        return applyMainProcessing();
+        return finishStage(stage, applyMainProcessing());
     }
     
     protected int[] replicateId(int entityId, int times) {
@@ -168,21 +168,29 @@ public abstract class AbstractMetablocking extends AbstractComparisonCleaning im
     }
 
     protected float getWeight(int entityId, int neighborId) {
+        return getWeight(entityId, neighborId, counters);
+    }
+
+    /**
+     * @param entityCounters the co-occurrence counters of the given entity,
+     * which may belong to a single worker of a parallel method
+     */
+    protected float getWeight(int entityId, int neighborId, float[] entityCounters) {
         switch (weightingScheme) {
             case ARCS:
-                return counters[neighborId];
+                return entityCounters[neighborId];
             case CBS:
-                return counters[neighborId];
+                return entityCounters[neighborId];
             case ECBS:
-                return (float) (counters[neighborId] * Math.log10((float) noOfBlocks / entityIndex.getNoOfEntityBlocks(entityId, 0)) * Math.log10((float) noOfBlocks / entityIndex.getNoOfEntityBlocks(neighborId, 0)));
+                return (float) (entityCounters[neighborId] * Math.log10((float) noOfBlocks / entityIndex.getNoOfEntityBlocks(entityId, 0)) * Math.log10((float) noOfBlocks / entityIndex.getNoOfEntityBlocks(neighborId, 0)));
             case JS:
-                return counters[neighborId] / (entityIndex.getNoOfEntityBlocks(entityId, 0) + entityIndex.getNoOfEntityBlocks(neighborId, 0) - counters[neighborId]);
+                return entityCounters[neighborId] / (entityIndex.getNoOfEntityBlocks(entityId, 0) + entityIndex.getNoOfEntityBlocks(neighborId, 0) - entityCounters[neighborId]);
             case EJS:
-                float probability = counters[neighborId] / (entityIndex.getNoOfEntityBlocks(entityId, 0) + entityIndex.getNoOfEntityBlocks(neighborId, 0) - counters[neighborId]);
+                float probability = entityCounters[neighborId] / (entityIndex.getNoOfEntityBlocks(entityId, 0) + entityIndex.getNoOfEntityBlocks(neighborId, 0) - entityCounters[neighborId]);
                 return (float)(probability * Math.log10(distinctComparisons / comparisonsPerEntity[entityId]) * Math.log10(distinctComparisons / comparisonsPerEntity[neighborId]));
             case PEARSON_X2:
                 long[] v = new long[2];
-                v[0] = (long) counters[neighborId];
+                v[0] = (long) entityCounters[neighborId];
                 v[1] = entityIndex.getNoOfEntityBlocks(entityId, 0) - v[0];
 
                 long[] v_ = new long[2];
@@ -194,6 +202,50 @@ public abstract class AbstractMetablocking extends AbstractComparisonCleaning im
         return -1;
     }
 
+    /**
+     * The thread-safe counterpart of processEntity and processArcsEntity in
+     * the parallel methods: the co-occurrence counters of the given entity
+     * with all its neighbors are stored in the given arrays, which belong to a
+     * single worker, and its distinct neighbors are stored in the given list,
+     * in the order of their first appearance. The flags of the previous
+     * neighbors in the list are reset, so the arrays can be reused for any
+     * entity.
+     *
+     * @param entityId the id of the entity
+     * @param entityCounters the counters of the worker, one per entity
+     * @param entityFlags the flags of the worker, one per entity, initially -1
+     * @param entityNeighbors the neighbors of the previous entity of the worker
+     */
+    protected void setNeighborhood(int entityId, float[] entityCounters, int[] entityFlags, TIntList entityNeighbors) {
+        for (int i = 0; i < entityNeighbors.size(); i++) {
+            entityFlags[entityNeighbors.get(i)] = -1;
+        }
+        entityNeighbors.clear();
+
+        final boolean isArcs = weightingScheme.equals(WeightingScheme.ARCS);
+        for (int blockIndex : entityIndex.getEntityBlocks(entityId, 0)) {
+            float increment = 1;
+            if (isArcs) {
+                final float blockComparisons = cleanCleanER ? bBlocks[blockIndex].getNoOfComparisons() : uBlocks[blockIndex].getNoOfComparisons();
+                increment = 1 / blockComparisons;
+            }
+            final int idOffset = cleanCleanER && entityId < datasetLimit ? datasetLimit : 0;
+            for (int neighborId : getNeighborEntities(blockIndex, entityId)) {
+                neighborId += idOffset;
+                if (neighborId == entityId) {
+                    continue;
+                }
+
+                if (entityFlags[neighborId] != entityId) {
+                    entityCounters[neighborId] = 0;
+                    entityFlags[neighborId] = entityId;
+                    entityNeighbors.add(neighborId);
+                }
+                entityCounters[neighborId] += increment;
+            }
+        }
+    }
+
     protected void setNormalizedNeighborEntities(int blockIndex, int entityId) {
         neighbors.clear();
         if (cleanCleanER) {
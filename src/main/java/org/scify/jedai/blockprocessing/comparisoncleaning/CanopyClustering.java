@@ -40,6 +40,7 @@ public class CanopyClustering extends CardinalityNodePruning {
     protected float exclusiveThreshold;
     
     protected TIntSet excludedEntities;
+    protected final Random random;
 
     public CanopyClustering() {
         this(0.5f, 0.75f, WeightingScheme.ARCS);
@@ -54,6 +55,7 @@ public class CanopyClustering extends CardinalityNodePruning {
         nodeCentric = true;
         exclusiveThreshold = outThr;
         inclusiveThreshold = inThr;
+        random = new Random();
         if (exclusiveThreshold < inclusiveThreshold) {
             throw new IllegalStateException(
                 "The " + getParameterName(1) + " cannot be smaller than the " + getParameterName(0));
@@ -68,6 +70,16 @@ public class CanopyClustering extends CardinalityNodePruning {
         this.exclusiveThreshold = exclusiveThreshold;
     }
 
+    /**
+     * Sets the seed of the random order in which the entities are processed,
+     * so that the canopies are reproducible.
+     *
+     * @param seed the seed of the random generator
+     */
+    public void setSeed(long seed) {
+        random.setSeed(seed);
+    }
+
     public void setWeightingScheme(WeightingScheme weightingScheme) {
         this.weightingScheme = weightingScheme;
     }
@@ -155,7 +167,7 @@ public class CanopyClustering extends CardinalityNodePruning {
         for (int i = 0; i < noOfEntities; i++) {
             entityIds.add(i);
         }
-        entityIds.shuffle(new Random());
+        entityIds.shuffle(random);
         final TIntIterator iterator = entityIds.iterator();
 
         excludedEntities = new TIntHashSet();
@@ -17,18 +17,23 @@ package org.scify.jedai.blockprocessing.comparisoncleaning;
 
 import org.scify.jedai.datamodel.AbstractBlock;
 import org.scify.jedai.datamodel.Comparison;
+import org.scify.jedai.datamodel.DecomposedBlock;
 import org.scify.jedai.utilities.comparators.IncComparisonWeightComparator;
 import org.scify.jedai.utilities.enumerations.WeightingScheme;
 
 import com.esotericsoftware.minlog.Log;
 
 import gnu.trove.iterator.TIntIterator;
+import gnu.trove.list.TIntList;
+import gnu.trove.list.array.TIntArrayList;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashSet;
 import java.util.List;
 import java.util.PriorityQueue;
 import java.util.Set;
+import java.util.stream.IntStream;
 
 /**
  *
@@ -116,6 +121,87 @@ public class CardinalityNodePruning extends CardinalityEdgePruning {
         return newBlocks;
     }
 
+    /**
+     * The primitive counterpart of retainValidComparisons for the parallel
+     * methods: the comparisons of all workers are grouped by entity, with their
+     * neighbors sorted in increasing id, and a comparison that is retained by
+     * both its entities is placed only in the block of the smallest one.
+     *
+     * @param workerComparisons the retained comparisons of every worker
+     * @return a decomposed block per entity with retained comparisons
+     */
+    protected List<AbstractBlock> retainValidComparisons(List<RetainedComparisons> workerComparisons) {
+        final int[] offsets = new int[noOfEntities + 1];
+        for (RetainedComparisons comparisons : workerComparisons) {
+            for (int i = 0; i < comparisons.size(); i++) {
+                offsets[comparisons.getEntityId(i) + 1]++;
+            }
+        }
+        for (int i = 0; i < noOfEntities; i++) {
+            offsets[i + 1] += offsets[i];
+        }
+
+        final int[] positions = Arrays.copyOf(offsets, noOfEntities);
+        final long[] sortedNeighbors = new long[offsets[noOfEntities]];
+        for (RetainedComparisons comparisons : workerComparisons) {
+            for (int i = 0; i < comparisons.size(); i++) {
+                sortedNeighbors[positions[comparisons.getEntityId(i)]++] = comparisons.getNeighbor(i);
+            }
+        }
+        IntStream.range(0, noOfEntities).parallel().forEach(i -> Arrays.sort(sortedNeighbors, offsets[i], offsets[i + 1]));
+
+        final List<AbstractBlock> newBlocks = new ArrayList<>();
+        final TIntList entityIds1 = new TIntArrayList();
+        final TIntList entityIds2 = new TIntArrayList();
+        final TIntList weights = new TIntArrayList();
+        for (int i = 0; i < noOfEntities; i++) {
+            entityIds1.clear();
+            entityIds2.clear();
+            weights.clear();
+            for (int j = offsets[i]; j < offsets[i + 1]; j++) {
+                final int neighborId = RetainedComparisons.getNeighborId(sortedNeighbors[j]);
+                if (neighborId < i && isRetained(neighborId, i, sortedNeighbors, offsets)) {
+                    continue;
+                }
+
+                if (!cleanCleanER) {
+                    entityIds1.add(Math.min(i, neighborId));
+                    entityIds2.add(Math.max(i, neighborId));
+                } else if (i < datasetLimit) {
+                    entityIds1.add(i);
+                    entityIds2.add(neighborId - datasetLimit);
+                } else {
+                    entityIds1.add(neighborId);
+                    entityIds2.add(i - datasetLimit);
+                }
+                weights.add(discretizeComparisonWeight(RetainedComparisons.getWeight(sortedNeighbors[j])));
+            }
+
+            if (!weights.isEmpty()) {
+                newBlocks.add(new DecomposedBlock(cleanCleanER, entityIds1.toArray(), entityIds2.toArray(), weights.toArray()));
+            }
+        }
+        return newBlocks;
+    }
+
+    // true if the given neighbor is among the sorted neighbors of the given entity
+    private static boolean isRetained(int entityId, int neighborId, long[] sortedNeighbors, int[] offsets) {
+        int low = offsets[entityId];
+        int high = offsets[entityId + 1] - 1;
+        while (low <= high) {
+            final int middle = (low + high) >>> 1;
+            final int middleId = RetainedComparisons.getNeighborId(sortedNeighbors[middle]);
+            if (middleId < neighborId) {
+                low = middle + 1;
+            } else if (neighborId < middleId) {
+                high = middle - 1;
+            } else {
+                return true;
+            }
+        }
+        return false;
+    }
+
     protected void setLimits() {
         firstId = 0;
         lastId = noOfEntities;
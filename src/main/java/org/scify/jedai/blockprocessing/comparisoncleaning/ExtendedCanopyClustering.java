@@ -25,6 +25,7 @@ import gnu.trove.list.TIntList;
 import gnu.trove.list.array.TIntArrayList;
 import gnu.trove.set.TIntSet;
 import gnu.trove.set.hash.TIntHashSet;
+import java.util.ArrayList;
 import java.util.HashSet;
 
 import java.util.List;
@@ -44,6 +45,7 @@ public class ExtendedCanopyClustering extends CardinalityNodePruning {
     protected int exclusiveThreshold;
     
     protected TIntSet excludedEntities;
+    protected final Random random;
     
     public ExtendedCanopyClustering() {
         this(10, 1, WeightingScheme.ARCS);
@@ -58,6 +60,7 @@ public class ExtendedCanopyClustering extends CardinalityNodePruning {
         nodeCentric = true;
         exclusiveThreshold = outThr;
         inclusiveThreshold = inThr;
+        random = new Random();
         if (inclusiveThreshold < exclusiveThreshold) {
             throw new IllegalStateException("The Exclusive Threshold cannot be larger than the Inclusive one.");
         }
@@ -71,6 +74,16 @@ public class ExtendedCanopyClustering extends CardinalityNodePruning {
         this.exclusiveThreshold = exclusiveThreshold;
     }
 
+    /**
+     * Sets the seed of the random order in which the entities are processed,
+     * so that the canopies are reproducible.
+     *
+     * @param seed the seed of the random generator
+     */
+    public void setSeed(long seed) {
+        random.setSeed(seed);
+    }
+
     public void setWeightingScheme(WeightingScheme weightingScheme) {
         this.weightingScheme = weightingScheme;
     }
@@ -138,7 +151,7 @@ public class ExtendedCanopyClustering extends CardinalityNodePruning {
         for (int i = 0; i < noOfEntities; i++) {
             entityIds.add(i);
         }
-        entityIds.shuffle(new Random());
+        entityIds.shuffle(random);
         final TIntIterator iterator = entityIds.iterator();
         
         excludedEntities = new TIntHashSet();
@@ -191,10 +204,14 @@ public class ExtendedCanopyClustering extends CardinalityNodePruning {
             }
         }
 
+        // the most similar entities are excluded, i.e., the last ones in increasing weight
+        final List<Comparison> nearestComparisons = new ArrayList<>(topKEdges);
+        nearestComparisons.sort(new IncComparisonWeightComparator());
+
         int counter = 0;
         int freedEntities = inclusiveThreshold - exclusiveThreshold;
         nearestEntities[entityId] = new HashSet<>(topKEdges);
-        for (Comparison comparison : topKEdges) {
+        for (Comparison comparison : nearestComparisons) {
             counter++;
             if (freedEntities < counter) {
                 excludedEntities.add(comparison.getEntityId2());
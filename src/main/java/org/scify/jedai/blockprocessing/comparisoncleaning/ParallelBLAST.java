@@ -0,0 +1,148 @@
+/*
+* Copyright [2016-2020] [George Papadakis (gpapadis@yahoo.gr)]
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+*    http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+ */
+package org.scify.jedai.blockprocessing.comparisoncleaning;
+
+import gnu.trove.list.TFloatList;
+import gnu.trove.list.TIntList;
+import gnu.trove.list.array.TFloatArrayList;
+import gnu.trove.list.array.TIntArrayList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import org.scify.jedai.datamodel.AbstractBlock;
+import org.scify.jedai.utilities.enumerations.WeightingScheme;
+
+/**
+ * BLAST with the weight of every edge computed once per direction. The first
+ * pass goes through the neighborhoods of all entities in parallel and
+ * computes the maximum edge weight of every entity. In the same pass, the
+ * edges that may be retained by an entity, i.e., those that exceed 1/4 of its
+ * own maximum weight, are stored along with their weights in primitive
+ * buffers. The second pass prunes these edges in parallel against the sum of
+ * the maximum weights of their entities, without computing any weight.
+ *
+ * The entities are split into chunks, each with its own counters and flags.
+ * The retained comparisons are the same as in BLAST.
+ *
+ * @author G.A.P. II
+ */
+public class ParallelBLAST extends BLAST {
+
+    private static final long serialVersionUID = 2471583929657740528L;
+
+    private static final int ENTITIES_PER_CHUNK = 256;
+
+    private List<RetainedComparisons> candidates;
+
+    public ParallelBLAST() {
+        this(WeightingScheme.PEARSON_X2);
+    }
+
+    public ParallelBLAST(WeightingScheme scheme) {
+        super(scheme);
+    }
+
+    @Override
+    public String getMethodName() {
+        return "Parallel BLAST";
+    }
+
+    @Override
+    protected List<AbstractBlock> pruneEdges() {
+        final List<List<AbstractBlock>> chunkBlocks = candidates.parallelStream()
+                .map(chunkCandidates -> {
+                    final List<AbstractBlock> newBlocks = new ArrayList<>();
+                    final TIntList neighborIds = new TIntArrayList();
+                    final TIntList neighborWeights = new TIntArrayList();
+                    for (int i = 0; i < chunkCandidates.size(); i++) {
+                        final int entityId = chunkCandidates.getEntityId(i);
+                        final long neighbor = chunkCandidates.getNeighbor(i);
+                        final int neighborId = RetainedComparisons.getNeighborId(neighbor);
+                        final float weight = RetainedComparisons.getWeight(neighbor);
+                        if ((averageWeight[entityId] + averageWeight[neighborId]) / 4 <= weight) {
+                            neighborIds.add(cleanCleanER ? neighborId - datasetLimit : neighborId);
+                            neighborWeights.add(discretizeComparisonWeight(weight));
+                        }
+
+                        if (i + 1 == chunkCandidates.size() || chunkCandidates.getEntityId(i + 1) != entityId) {
+                            addDecomposedBlock(entityId, neighborIds, neighborWeights, newBlocks);
+                            neighborIds.clear();
+                            neighborWeights.clear();
+                        }
+                    }
+                    return newBlocks;
+                })
+                .collect(Collectors.toList());
+        averageWeight = null;
+        candidates = null;
+
+        final List<AbstractBlock> newBlocks = new ArrayList<>();
+        chunkBlocks.forEach(newBlocks::addAll);
+        return newBlocks;
+    }
+
+    @Override
+    protected void setThreshold() {
+        // every worker uses its own counters, which are released along with their ThreadLocal
+        counters = null;
+        averageWeight = new float[noOfEntities];
+
+        final ThreadLocal<float[]> workerCounters = ThreadLocal.withInitial(() -> new float[noOfEntities]);
+        final ThreadLocal<int[]> workerFlags = ThreadLocal.withInitial(() -> {
+            final int[] flagsArray = new int[noOfEntities];
+            Arrays.fill(flagsArray, -1);
+            return flagsArray;
+        });
+        final ThreadLocal<TIntList> workerNeighbors = ThreadLocal.withInitial(TIntArrayList::new);
+        final ThreadLocal<TFloatList> workerWeights = ThreadLocal.withInitial(TFloatArrayList::new);
+
+        final int noOfChunks = (noOfEntities + ENTITIES_PER_CHUNK - 1) / ENTITIES_PER_CHUNK;
+        candidates = IntStream.range(0, noOfChunks).parallel()
+                .mapToObj(chunk -> {
+                    final float[] chunkCounters = workerCounters.get();
+                    final int[] chunkFlags = workerFlags.get();
+                    final TIntList chunkNeighbors = workerNeighbors.get();
+                    final TFloatList chunkWeights = workerWeights.get();
+                    final RetainedComparisons chunkCandidates = new RetainedComparisons();
+
+                    final int lastEntity = Math.min(noOfEntities, (chunk + 1) * ENTITIES_PER_CHUNK);
+                    for (int entityId = chunk * ENTITIES_PER_CHUNK; entityId < lastEntity; entityId++) {
+                        setNeighborhood(entityId, chunkCounters, chunkFlags, chunkNeighbors);
+
+                        float maxWeight = 0;
+                        chunkWeights.clear();
+                        for (int i = 0; i < chunkNeighbors.size(); i++) {
+                            final float weight = getWeight(entityId, chunkNeighbors.get(i), chunkCounters);
+                            maxWeight = Math.max(maxWeight, weight);
+                            chunkWeights.add(weight);
+                        }
+                        averageWeight[entityId] = maxWeight;
+
+                        // every edge is retained by its smallest entity, if it exceeds 1/4 of the sum of the maxima
+                        for (int i = 0; i < chunkNeighbors.size(); i++) {
+                            final int neighborId = chunkNeighbors.get(i);
+                            if (entityId < neighborId && maxWeight / 4 <= chunkWeights.get(i)) {
+                                chunkCandidates.add(entityId, neighborId, chunkWeights.get(i));
+                            }
+                        }
+                    }
+                    return chunkCandidates;
+                })
+                .collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,146 @@
+/*
+* Copyright [2016-2020] [George Papadakis (gpapadis@yahoo.gr)]
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+*    http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+ */
+package org.scify.jedai.blockprocessing.comparisoncleaning;
+
+import gnu.trove.list.TIntList;
+import gnu.trove.list.array.TIntArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import org.scify.jedai.datamodel.AbstractBlock;
+import org.scify.jedai.utilities.enumerations.WeightingScheme;
+
+/**
+ * Canopy Clustering with all canopies formed in parallel. An entity is
+ * excluded from the canopies of all seeds that follow the first seed that
+ * excludes it in the random order. Thus, the canopy of every seed is formed
+ * speculatively, as if no entity was excluded, and the exclusions are
+ * recorded concurrently as the earliest rank of an excluding seed per entity.
+ * Then, a conflict-resolution pass removes from every canopy the entities that
+ * were excluded by an earlier seed. For the same seed of the random order, the
+ * canopies are the same as in the sequential method.
+ *
+ * The entities are split into chunks, which are processed in parallel, each
+ * with its own counters and flags, and the retained comparisons of every chunk
+ * are stored in primitive buffers.
+ *
+ * @author G.A.P. II
+ */
+public class ParallelCanopyClustering extends CanopyClustering {
+
+    private static final long serialVersionUID = 6392548305841730871L;
+
+    private static final int ENTITIES_PER_CHUNK = 256;
+
+    public ParallelCanopyClustering() {
+        this(0.5f, 0.75f, WeightingScheme.ARCS);
+    }
+
+    public ParallelCanopyClustering(float inThr, float outThr) {
+        this(inThr, outThr, WeightingScheme.ARCS);
+    }
+
+    public ParallelCanopyClustering(float inThr, float outThr, WeightingScheme scheme) {
+        super(inThr, outThr, scheme);
+    }
+
+    @Override
+    public String getMethodName() {
+        return "Parallel Canopy Clustering";
+    }
+
+    @Override
+    protected List<AbstractBlock> pruneEdges() {
+        final TIntList entityIds = new TIntArrayList(noOfEntities);
+        for (int i = 0; i < noOfEntities; i++) {
+            entityIds.add(i);
+        }
+        entityIds.shuffle(random);
+
+        final int[] ranks = new int[noOfEntities];
+        for (int i = 0; i < noOfEntities; i++) {
+            ranks[entityIds.get(i)] = i;
+        }
+
+        // the rank of the first seed that excludes every entity
+        final AtomicIntegerArray firstExclusions = new AtomicIntegerArray(noOfEntities);
+        for (int i = 0; i < noOfEntities; i++) {
+            firstExclusions.set(i, noOfEntities);
+        }
+
+        final ThreadLocal<float[]> workerCounters = ThreadLocal.withInitial(() -> new float[noOfEntities]);
+        final ThreadLocal<int[]> workerFlags = ThreadLocal.withInitial(() -> {
+            final int[] flagsArray = new int[noOfEntities];
+            Arrays.fill(flagsArray, -1);
+            return flagsArray;
+        });
+        final ThreadLocal<TIntList> workerNeighbors = ThreadLocal.withInitial(TIntArrayList::new);
+
+        // speculative canopies
+        final int noOfChunks = (noOfEntities + ENTITIES_PER_CHUNK - 1) / ENTITIES_PER_CHUNK;
+        final List<RetainedComparisons> candidates = IntStream.range(0, noOfChunks).parallel()
+                .mapToObj(chunk -> {
+                    final float[] chunkCounters = workerCounters.get();
+                    final int[] chunkFlags = workerFlags.get();
+                    final TIntList chunkNeighbors = workerNeighbors.get();
+                    final RetainedComparisons chunkCandidates = new RetainedComparisons();
+
+                    final int lastEntity = Math.min(noOfEntities, (chunk + 1) * ENTITIES_PER_CHUNK);
+                    for (int entityId = chunk * ENTITIES_PER_CHUNK; entityId < lastEntity; entityId++) {
+                        setNeighborhood(entityId, chunkCounters, chunkFlags, chunkNeighbors);
+                        for (int i = 0; i < chunkNeighbors.size(); i++) {
+                            final int neighborId = chunkNeighbors.get(i);
+                            final float weight = getWeight(entityId, neighborId, chunkCounters);
+                            if (inclusiveThreshold < weight) {
+                                if (exclusiveThreshold < weight) {
+                                    updateFirstExclusion(neighborId, ranks[entityId], firstExclusions);
+                                }
+                                chunkCandidates.add(entityId, neighborId, weight);
+                            }
+                        }
+                    }
+                    return chunkCandidates;
+                })
+                .collect(Collectors.toList());
+
+        // conflict resolution: an entity remains in the canopies up to the seed that excludes it
+        final List<RetainedComparisons> canopies = candidates.parallelStream()
+                .map(chunkCandidates -> {
+                    final RetainedComparisons chunkCanopies = new RetainedComparisons();
+                    for (int i = 0; i < chunkCandidates.size(); i++) {
+                        final int entityId = chunkCandidates.getEntityId(i);
+                        final long neighbor = chunkCandidates.getNeighbor(i);
+                        final int neighborId = RetainedComparisons.getNeighborId(neighbor);
+                        if (ranks[entityId] <= firstExclusions.get(neighborId)) {
+                            chunkCanopies.add(entityId, neighborId, RetainedComparisons.getWeight(neighbor));
+                        }
+                    }
+                    return chunkCanopies;
+                })
+                .collect(Collectors.toList());
+
+        return retainValidComparisons(canopies);
+    }
+
+    private static void updateFirstExclusion(int entityId, int rank, AtomicIntegerArray firstExclusions) {
+        int currentRank = firstExclusions.get(entityId);
+        while (rank < currentRank && !firstExclusions.compareAndSet(entityId, currentRank, rank)) {
+            currentRank = firstExclusions.get(entityId);
+        }
+    }
+}
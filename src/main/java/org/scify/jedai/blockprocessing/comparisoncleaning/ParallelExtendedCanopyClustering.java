@@ -0,0 +1,162 @@
+/*
+* Copyright [2016-2020] [George Papadakis (gpapadis@yahoo.gr)]
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+*    http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+ */
+package org.scify.jedai.blockprocessing.comparisoncleaning;
+
+import gnu.trove.list.TIntList;
+import gnu.trove.list.array.TIntArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.IntStream;
+import org.scify.jedai.datamodel.AbstractBlock;
+import org.scify.jedai.prioritization.utilities.TopComparisonsHeap;
+import org.scify.jedai.utilities.enumerations.WeightingScheme;
+
+/**
+ * Extended Canopy Clustering with the canopies of several seeds formed at
+ * once. The seeds are processed in batches that follow the random order. The
+ * canopies of all seeds in a batch are formed in parallel, taking into account
+ * only the entities that were excluded by the previous batches. Then, a
+ * conflict-resolution pass goes through the seeds of the batch in the random
+ * order: if an entity in the canopy of a seed was excluded by an earlier seed
+ * of the same batch, the canopy is formed again; otherwise, it is the same as
+ * in sequential processing, since the excluded entities were not among its
+ * top-InclusiveThreshold neighbors anyway. Finally, the ExclusiveThreshold-most
+ * similar entities of the canopy are excluded. Every entity stores the rank of
+ * the seed that excluded it, so the exclusions of a batch are recognized
+ * without any further structure.
+ *
+ * Ties in weight are broken in favor of the smallest neighbor ids, so for the
+ * same seed of the random order, the canopies are the same for any number of
+ * workers.
+ *
+ * @author G.A.P. II
+ */
+public class ParallelExtendedCanopyClustering extends ExtendedCanopyClustering {
+
+    private static final long serialVersionUID = -5603420734938015263L;
+
+    private static final int SEEDS_PER_BATCH = 1024;
+
+    // the structures of a worker, which are reused by all seeds it processes
+    private static final class CanopyWorker {
+
+        private final float[] counters;
+        private final int[] flags;
+        private final TopComparisonsHeap heap;
+        private final TIntList neighbors;
+
+        CanopyWorker(int noOfEntities, int inclusiveThreshold) {
+            counters = new float[noOfEntities];
+            flags = new int[noOfEntities];
+            Arrays.fill(flags, -1);
+            heap = new TopComparisonsHeap(inclusiveThreshold);
+            neighbors = new TIntArrayList();
+        }
+    }
+
+    public ParallelExtendedCanopyClustering() {
+        this(10, 1, WeightingScheme.ARCS);
+    }
+
+    public ParallelExtendedCanopyClustering(int inThr, int outThr) {
+        this(inThr, outThr, WeightingScheme.ARCS);
+    }
+
+    public ParallelExtendedCanopyClustering(int inThr, int outThr, WeightingScheme scheme) {
+        super(inThr, outThr, scheme);
+    }
+
+    @Override
+    public String getMethodName() {
+        return "Parallel Extended Canopy Clustering";
+    }
+
+    @Override
+    protected List<AbstractBlock> pruneEdges() {
+        final TIntList entityIds = new TIntArrayList(noOfEntities);
+        for (int i = 0; i < noOfEntities; i++) {
+            entityIds.add(i);
+        }
+        entityIds.shuffle(random);
+        final int[] seeds = entityIds.toArray();
+
+        // the rank of the seed that excluded every entity
+        final int[] exclusions = new int[noOfEntities];
+        Arrays.fill(exclusions, noOfEntities);
+
+        final ThreadLocal<CanopyWorker> workers = ThreadLocal.withInitial(() -> new CanopyWorker(noOfEntities, inclusiveThreshold));
+
+        final int canopySize = Math.max(0, inclusiveThreshold);
+        final int freedEntities = inclusiveThreshold - exclusiveThreshold;
+        final int[] canopySizes = new int[SEEDS_PER_BATCH];
+        final long[] canopyPairs = new long[SEEDS_PER_BATCH * canopySize];
+        final float[] canopyWeights = new float[SEEDS_PER_BATCH * canopySize];
+        final RetainedComparisons canopies = new RetainedComparisons();
+        for (int batchStart = 0; batchStart < noOfEntities; batchStart += SEEDS_PER_BATCH) {
+            final int firstRank = batchStart;
+            final int lastRank = Math.min(noOfEntities, batchStart + SEEDS_PER_BATCH);
+
+            // speculative canopies
+            IntStream.range(firstRank, lastRank).parallel().forEach(rank -> {
+                final int slot = rank - firstRank;
+                canopySizes[slot] = formCanopy(workers.get(), seeds[rank], firstRank, exclusions, canopyPairs, canopyWeights, slot * canopySize);
+            });
+
+            // conflict resolution
+            for (int rank = firstRank; rank < lastRank; rank++) {
+                final int slot = rank - firstRank;
+                final int offset = slot * canopySize;
+                for (int i = offset; i < offset + canopySizes[slot]; i++) {
+                    if (exclusions[(int) canopyPairs[i]] < rank) {
+                        canopySizes[slot] = formCanopy(workers.get(), seeds[rank], rank, exclusions, canopyPairs, canopyWeights, offset);
+                        break;
+                    }
+                }
+
+                for (int i = 0; i < canopySizes[slot]; i++) {
+                    final int neighborId = (int) canopyPairs[offset + i];
+                    canopies.add(seeds[rank], neighborId, canopyWeights[offset + i]);
+                    if (i < canopySizes[slot] - freedEntities) {
+                        exclusions[neighborId] = rank;
+                    }
+                }
+            }
+        }
+
+        return retainValidComparisons(Collections.singletonList(canopies));
+    }
+
+    // the top-InclusiveThreshold neighbors of the given seed that were not excluded before the given rank, in decreasing weight
+    private int formCanopy(CanopyWorker worker, int seedId, int rank, int[] exclusions, long[] canopyPairs, float[] canopyWeights, int offset) {
+        final float[] seedCounters = worker.counters;
+        final TopComparisonsHeap seedHeap = worker.heap;
+        final TIntList seedNeighbors = worker.neighbors;
+        setNeighborhood(seedId, seedCounters, worker.flags, seedNeighbors);
+        for (int i = 0; i < seedNeighbors.size(); i++) {
+            final int neighborId = seedNeighbors.get(i);
+            if (exclusions[neighborId] < rank) {
+                continue;
+            }
+
+            final float weight = getWeight(seedId, neighborId, seedCounters);
+            if (!(weight < Float.MIN_VALUE)) {
+                seedHeap.add(seedId, neighborId, weight);
+            }
+        }
+        return seedHeap.getSortedComparisons(canopyPairs, canopyWeights, offset);
+    }
+}
@@ -0,0 +1,68 @@
+/*
+* Copyright [2016-2020] [George Papadakis (gpapadis@yahoo.gr)]
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+*    http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+ */
+package org.scify.jedai.blockprocessing.comparisoncleaning;
+
+import gnu.trove.list.array.TIntArrayList;
+import gnu.trove.list.array.TLongArrayList;
+
+/**
+ * The comparisons that are retained by a single worker of a parallel
+ * node-centric method, stored as primitives instead of Comparison objects:
+ * the id of the entity whose neighborhood contains the comparison and the id
+ * of the neighbor, packed in a long along with the bits of the weight.
+ *
+ * @author G.A.P. II
+ */
+class RetainedComparisons {
+
+    private final TIntArrayList entityIds;
+    private final TLongArrayList neighbors;
+
+    RetainedComparisons() {
+        entityIds = new TIntArrayList();
+        neighbors = new TLongArrayList();
+    }
+
+    void add(int entityId, int neighborId, float weight) {
+        entityIds.add(entityId);
+        neighbors.add(pack(neighborId, weight));
+    }
+
+    int getEntityId(int index) {
+        return entityIds.getQuick(index);
+    }
+
+    long getNeighbor(int index) {
+        return neighbors.getQuick(index);
+    }
+
+    static int getNeighborId(long neighbor) {
+        return (int) (neighbor >>> 32);
+    }
+
+    static float getWeight(long neighbor) {
+        return Float.intBitsToFloat((int) neighbor);
+    }
+
+    // the neighbor id occupies the upper bits, so the packed neighbors are sorted by id
+    static long pack(int neighborId, float weight) {
+        return ((long) neighborId << 32) | (Float.floatToRawIntBits(weight) & 0xFFFFFFFFL);
+    }
+
+    int size() {
+        return entityIds.size();
+    }
+}
@@ -29,6 +29,14 @@ public abstract class AbstractBlock implements Serializable {
     
     private static final long serialVersionUID = 7526443743449L;
     
+    /**
+     * Receives the entity ids of every comparison in a block, as primitives.
+     */
+    public interface IntIntConsumer {
+
+        void accept(int entityId1, int entityId2);
+    }
+    
     protected int blockIndex;
     
     protected long comparisons;
@@ -41,10 +49,29 @@ public abstract class AbstractBlock implements Serializable {
         utilityMeasure = -1;
     }
     
+    /**
+     * Passes the entity ids of every comparison in the block to the given
+     * consumer, without creating any Comparison object.
+     * 
+     * @param consumer the procedure that is applied to every comparison
+     */
+    public void forEachPair(IntIntConsumer consumer) {
+        final ComparisonCursor cursor = getComparisonCursor();
+        while (cursor.next()) {
+            consumer.accept(cursor.entityId1(), cursor.entityId2());
+        }
+    }
+    
     public int getBlockIndex() {
         return blockIndex;
     }
     
+    /**
+     * @return a new cursor over the comparisons of the block, in the same
+     * order as the ComparisonIterator
+     */
+    public abstract ComparisonCursor getComparisonCursor();
+    
     public ComparisonIterator getComparisonIterator() {
         return new ComparisonIterator(this);
     }
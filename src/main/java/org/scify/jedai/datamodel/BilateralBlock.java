@@ -57,6 +57,20 @@ public class BilateralBlock extends AbstractBlock implements Serializable {
         return Arrays.equals(this.index2Entities, other.index2Entities);
     }
 
+    @Override
+    public void forEachPair(IntIntConsumer consumer) {
+        for (int entityId1 : index1Entities) {
+            for (int entityId2 : index2Entities) {
+                consumer.accept(entityId1, entityId2);
+            }
+        }
+    }
+
+    @Override
+    public ComparisonCursor getComparisonCursor() {
+        return new BilateralCursor(index1Entities, index2Entities);
+    }
+
     public int[] getIndex1Entities() {
         return index1Entities;
     }
@@ -90,4 +104,42 @@ public class BilateralBlock extends AbstractBlock implements Serializable {
                 ", entities D1 : " + Arrays.toString(index1Entities) +
                 ", entities D2 : " + Arrays.toString(index2Entities);
     }
+
+    private static class BilateralCursor extends ComparisonCursor {
+
+        private int innerIndex;
+        private int outerIndex;
+        private final int[] entities1;
+        private final int[] entities2;
+
+        BilateralCursor(int[] entities1, int[] entities2) {
+            this.entities1 = entities1;
+            this.entities2 = entities2;
+            innerIndex = -1;
+            outerIndex = 0;
+        }
+
+        @Override
+        public boolean isCleanCleanER() {
+            return true;
+        }
+
+        @Override
+        public boolean next() {
+            if (entities2.length <= ++innerIndex) {
+                innerIndex = 0;
+                outerIndex++;
+            }
+
+            if (entities1.length <= outerIndex || entities2.length == 0) {
+                innerIndex = entities2.length - 1;
+                outerIndex = entities1.length;
+                return false;
+            }
+
+            entityId1 = entities1[outerIndex];
+            entityId2 = entities2[innerIndex];
+            return true;
+        }
+    }
 }
\ No newline at end of file
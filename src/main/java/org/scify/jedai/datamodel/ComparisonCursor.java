@@ -0,0 +1,66 @@
+/*
+* Copyright [2016-2020] [George Papadakis (gpapadis@yahoo.gr)]
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+*    http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+ */
+package org.scify.jedai.datamodel;
+
+/**
+ * A cursor over the comparisons of a block, which moves from one comparison
+ * to the next one through next() and exposes the entity ids and the weight of
+ * the current comparison as primitives. Unlike ComparisonIterator, no
+ * Comparison object is created, unless it is requested through toComparison().
+ * Every type of block returns a cursor that is specialized for its structure.
+ *
+ * @author G.A.P. II
+ */
+public abstract class ComparisonCursor {
+
+    protected int entityId1;
+    protected int entityId2;
+
+    public int entityId1() {
+        return entityId1;
+    }
+
+    public int entityId2() {
+        return entityId2;
+    }
+
+    public abstract boolean isCleanCleanER();
+
+    /**
+     * Moves the cursor to the next comparison of the block.
+     *
+     * @return false if all comparisons have already been visited
+     */
+    public abstract boolean next();
+
+    /**
+     * @return a new Comparison object with the entity ids and the weight of
+     * the current comparison
+     */
+    public Comparison toComparison() {
+        final Comparison comparison = new Comparison(isCleanCleanER(), entityId1, entityId2);
+        comparison.setUtilityMeasure(weight());
+        return comparison;
+    }
+
+    /**
+     * @return the weight of the current comparison, or -1, if the block does
+     * not assign weights to its comparisons
+     */
+    public float weight() {
+        return -1;
+    }
+}
@@ -16,49 +16,27 @@
 package org.scify.jedai.datamodel;
 
 import com.esotericsoftware.minlog.Log;
-import org.scify.jedai.utilities.IConstants;
-
 import java.util.Iterator;
 
 /**
+ * Iterates over the comparisons of a block, creating a new Comparison object
+ * for each one. It relies on the cursor of the block; the consumers that only
+ * need the entity ids or the weights of the comparisons should use the cursor
+ * directly, instead.
  *
  * @author G.A.P. II
  */
-public class ComparisonIterator implements IConstants, Iterator<Comparison> {
+public class ComparisonIterator implements Iterator<Comparison> {
 
     private long executedComparisons;
     private final long totalComparisons;
 
-    private int innerLoop;
-    private int innerLimit;
-    private int outerLoop;
-    private int outerLimit;
-
-    private final AbstractBlock block;
+    private final ComparisonCursor cursor;
 
     ComparisonIterator(AbstractBlock block) {
-        this.block = block;
+        cursor = block.getComparisonCursor();
         executedComparisons = 0;
         totalComparisons = block.getNoOfComparisons();
-
-        if (block instanceof BilateralBlock) {
-            BilateralBlock bilBlock = (BilateralBlock) block;
-            innerLoop = -1; // so that counting in function next() starts from 0
-            innerLimit = bilBlock.getIndex2Entities().length - 1;
-            outerLoop = 0;
-            outerLimit = bilBlock.getIndex1Entities().length - 1;
-        } else if (block instanceof UnilateralBlock) {
-            UnilateralBlock uniBlock = (UnilateralBlock) block;
-            innerLoop = 0;
-            innerLimit = uniBlock.getEntities().length - 1;
-            outerLoop = 0;
-            outerLimit = uniBlock.getEntities().length - 1;
-        } else if (block instanceof DecomposedBlock) {
-            innerLoop = -1;
-            innerLimit = -1;
-            outerLoop = -1; // so that counting in function next() starts from 0
-            outerLimit = -1;
-        }
     }
 
     @Override
@@ -68,59 +46,12 @@ public class ComparisonIterator implements IConstants, Iterator<Comparison> {
 
     @Override
     public Comparison next() {
-        if (totalComparisons <= executedComparisons) {
+        if (totalComparisons <= executedComparisons || !cursor.next()) {
             Log.error("All comparisons were already executed!");
             return null;
         }
 
         executedComparisons++;
-        if (block instanceof BilateralBlock) {
-            BilateralBlock bilBlock = (BilateralBlock) block;
-            innerLoop++;
-            if (innerLimit < innerLoop) {
-                innerLoop = 0;
-                outerLoop++;
-                if (outerLimit < outerLoop) {
-                    Log.error("All comparisons were already executed!");
-                    return null;
-                }
-            }
-
-            return new Comparison(true, bilBlock.getIndex1Entities()[outerLoop], bilBlock.getIndex2Entities()[innerLoop]);
-        } else if (block instanceof UnilateralBlock) {
-            UnilateralBlock uniBlock = (UnilateralBlock) block;
-            innerLoop++;
-            if (innerLimit < innerLoop) {
-                outerLoop++;
-                if (outerLimit < outerLoop) {
-                    Log.error("All comparisons were already executed!");
-                    return null;
-                }
-                innerLoop = outerLoop + 1;
-            }
-
-            if (uniBlock.getEntities()[outerLoop] < uniBlock.getEntities()[innerLoop]) {
-                return new Comparison(false, uniBlock.getEntities()[outerLoop], uniBlock.getEntities()[innerLoop]);
-            } else if (uniBlock.getEntities()[innerLoop] < uniBlock.getEntities()[outerLoop]) {
-                return new Comparison(false, uniBlock.getEntities()[innerLoop], uniBlock.getEntities()[outerLoop]);
-            }
-        } else if (block instanceof DecomposedBlock) {
-            DecomposedBlock deBlock = (DecomposedBlock) block;
-            outerLoop++;
-            Comparison c = null;
-            if (deBlock.isCleanCleanER()) {
-                c = new Comparison(deBlock.isCleanCleanER(), deBlock.getEntities1()[outerLoop], deBlock.getEntities2()[outerLoop]);
-            } else {
-                if (deBlock.getEntities1()[outerLoop] < deBlock.getEntities2()[outerLoop]) {
-                    c = new Comparison(deBlock.isCleanCleanER(), deBlock.getEntities1()[outerLoop], deBlock.getEntities2()[outerLoop]);
-                } else if (deBlock.getEntities2()[outerLoop] < deBlock.getEntities1()[outerLoop]) {
-                    c = new Comparison(deBlock.isCleanCleanER(), deBlock.getEntities2()[outerLoop], deBlock.getEntities1()[outerLoop]);
-                }
-            }
-            c.setUtilityMeasure(deBlock.getWeights()[outerLoop] / DISCRETIZATION_FACTOR);
-            return c;
-        }
-
-        return null;
+        return cursor.toComparison();
     }
 }
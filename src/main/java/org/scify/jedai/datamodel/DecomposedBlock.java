@@ -16,6 +16,8 @@
 
 package org.scify.jedai.datamodel;
 
+import org.scify.jedai.utilities.IConstants;
+
 /**
  *
  * @author G.A.P. II
@@ -47,10 +49,26 @@ public class DecomposedBlock extends AbstractBlock {
         blockIndices = null;
     }
     
+    @Override
+    public void forEachPair(IntIntConsumer consumer) {
+        for (int i = 0; i < entities1.length; i++) {
+            if (cleanCleanER || entities1[i] < entities2[i]) {
+                consumer.accept(entities1[i], entities2[i]);
+            } else {
+                consumer.accept(entities2[i], entities1[i]);
+            }
+        }
+    }
+    
     public int[] getBlockIndices() {
         return blockIndices;
     }
     
+    @Override
+    public ComparisonCursor getComparisonCursor() {
+        return new DecomposedCursor();
+    }
+    
     public int[] getEntities1() {
         return entities1;
     }
@@ -90,4 +108,36 @@ public class DecomposedBlock extends AbstractBlock {
     public void setUtilityMeasure() {
         throw new UnsupportedOperationException("Not supported yet."); //To change body of generated methods, choose Tools | Templates.
     }
+
+    private class DecomposedCursor extends ComparisonCursor {
+
+        private int index = -1;
+
+        @Override
+        public boolean isCleanCleanER() {
+            return cleanCleanER;
+        }
+
+        @Override
+        public boolean next() {
+            if (entities1.length <= ++index) {
+                index = entities1.length;
+                return false;
+            }
+
+            if (cleanCleanER || entities1[index] < entities2[index]) {
+                entityId1 = entities1[index];
+                entityId2 = entities2[index];
+            } else {
+                entityId1 = entities2[index];
+                entityId2 = entities1[index];
+            }
+            return true;
+        }
+
+        @Override
+        public float weight() {
+            return weights[index] / IConstants.DISCRETIZATION_FACTOR;
+        }
+    }
 }
\ No newline at end of file
@@ -44,9 +44,25 @@ public class RepModelSimMetricCombo {
     }
     
     public static List<RepModelSimMetricCombo> getAllValidCombos() {
+        return getAllValidCombos(false);
+    }
+
+    /**
+     * @param includeHashedModels true if the hashed n-gram models should be
+     * combined, too; their combinations mirror those of the exact models
+     * @return all combinations of representation models and similarity metrics
+     */
+    public static List<RepModelSimMetricCombo> getAllValidCombos(boolean includeHashedModels) {
         final List<RepModelSimMetricCombo> validCombos = new ArrayList<>();
         for (RepresentationModel rModel : RepresentationModel.values()) {
+            if (!includeHashedModels && RepresentationModel.isHashedModel(rModel)) {
+                continue;
+            }
+
             final List<SimilarityMetric> metrics = SimilarityMetric.getModelCompatibleSimMetrics(rModel);
+            if (metrics == null) { // unsupported models, e.g., pretrained embeddings
+                continue;
+            }
             metrics.forEach((sMetric) -> {
                 validCombos.add(new RepModelSimMetricCombo(rModel, sMetric));
             });
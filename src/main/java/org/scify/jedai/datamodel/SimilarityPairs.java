@@ -16,6 +16,7 @@
 package org.scify.jedai.datamodel;
 
 import java.io.Serializable;
+import java.util.Arrays;
 import java.util.List;
 import org.scify.jedai.utilities.IConstants;
 
@@ -56,6 +57,12 @@ public class SimilarityPairs implements IConstants, Serializable {
         similarities[currentIndex++] = comparison.getUtilityMeasure();
     }
 
+    public void addComparison(int entityId1, int entityId2, float similarity) {
+        entityIds1[currentIndex] = entityId1;
+        entityIds2[currentIndex] = entityId2;
+        similarities[currentIndex++] = similarity;
+    }
+
     private long countComparisons(List<AbstractBlock> blocks) {
         long comparisons = blocks.stream().mapToLong(AbstractBlock::getNoOfComparisons).sum();
 
@@ -78,6 +85,45 @@ public class SimilarityPairs implements IConstants, Serializable {
         return currentIndex;
     }
 
+    /**
+     * Returns the positions of all pairs with a similarity higher than the
+     * given threshold, sorted in decreasing similarity (ties are broken in
+     * favor of the earlier position). Every position is packed together with
+     * its similarity into a primitive long key, which are sorted in parallel.
+     * 
+     * @param threshold the similarity that the retained pairs should exceed
+     * @return the sorted positions of the retained pairs
+     */
+    public int[] getPairIndicesByDecreasingSimilarity(float threshold) {
+        int retainedPairs = 0;
+        for (int i = 0; i < currentIndex; i++) {
+            if (threshold < similarities[i]) {
+                retainedPairs++;
+            }
+        }
+
+        int counter = 0;
+        final long[] sortingKeys = new long[retainedPairs];
+        for (int i = 0; i < currentIndex; i++) {
+            if (threshold < similarities[i]) {
+                sortingKeys[counter++] = ((long) getDecreasingKey(similarities[i])) << 32 | i;
+            }
+        }
+        Arrays.parallelSort(sortingKeys);
+
+        final int[] sortedIndices = new int[retainedPairs];
+        for (int i = 0; i < retainedPairs; i++) {
+            sortedIndices[i] = (int) sortingKeys[i];
+        }
+        return sortedIndices;
+    }
+
+    // maps a float to an int, whose (signed) natural order is the reverse of the floats' order
+    private static int getDecreasingKey(float similarity) {
+        int bits = Float.floatToIntBits(similarity);
+        return ~(bits ^ ((bits >> 31) & 0x7FFFFFFF));
+    }
+
     public PairIterator getPairIterator() {
         return new PairIterator(this);
     }
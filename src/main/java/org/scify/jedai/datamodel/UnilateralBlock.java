@@ -52,6 +52,24 @@ public class UnilateralBlock extends AbstractBlock implements Serializable {
         return Arrays.equals(this.entities, other.entities);
     }
 
+    @Override
+    public void forEachPair(IntIntConsumer consumer) {
+        for (int i = 0; i < entities.length; i++) {
+            for (int j = i + 1; j < entities.length; j++) {
+                if (entities[i] < entities[j]) {
+                    consumer.accept(entities[i], entities[j]);
+                } else {
+                    consumer.accept(entities[j], entities[i]);
+                }
+            }
+        }
+    }
+    
+    @Override
+    public ComparisonCursor getComparisonCursor() {
+        return new UnilateralCursor(entities);
+    }
+    
     public int[] getEntities() {
         return entities;
     }
@@ -79,4 +97,39 @@ public class UnilateralBlock extends AbstractBlock implements Serializable {
                 utilityMeasure + ", #comparisons : " + getNoOfComparisons() + 
                 ", entities : " + Arrays.toString(entities);
     }
+
+    // the entity ids of every comparison are given in increasing order, like in ComparisonIterator
+    private static class UnilateralCursor extends ComparisonCursor {
+
+        private int innerIndex;
+        private int outerIndex;
+        private final int[] entities;
+
+        UnilateralCursor(int[] entities) {
+            this.entities = entities;
+            innerIndex = 0;
+            outerIndex = 0;
+        }
+
+        @Override
+        public boolean isCleanCleanER() {
+            return false;
+        }
+
+        @Override
+        public boolean next() {
+            if (entities.length <= ++innerIndex) {
+                if (entities.length <= ++outerIndex + 1) {
+                    innerIndex = entities.length;
+                    outerIndex = entities.length;
+                    return false;
+                }
+                innerIndex = outerIndex + 1;
+            }
+
+            entityId1 = Math.min(entities[outerIndex], entities[innerIndex]);
+            entityId2 = Math.max(entities[outerIndex], entities[innerIndex]);
+            return true;
+        }
+    }
 }
\ No newline at end of file
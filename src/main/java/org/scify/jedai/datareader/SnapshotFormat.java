@@ -0,0 +1,279 @@
+/*
+* Copyright [2016-2020] [George Papadakis (gpapadis@yahoo.gr)]
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+*    http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+ */
+package org.scify.jedai.datareader;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The constants and the primitive encodings shared by the readers and writers
+ * of binary snapshots, i.e., of entity profiles and ground-truth duplicates
+ * stored without Java serialization.
+ *
+ * Every snapshot starts with a magic number and a format version. Integers
+ * are stored either in big-endian order, when they have a fixed position, or
+ * as variable-length quantities (7 bits per byte, least significant group
+ * first). Strings are stored as their UTF-8 bytes, prefixed by their length
+ * plus one, so that a zero length denotes a null string. The records of a
+ * snapshot are grouped into blocks, which can be decoded independently of
+ * each other.
+ *
+ * @author G.A.P. II
+ */
+public final class SnapshotFormat {
+
+    public static final int ENTITIES_MAGIC = 0x4A454450; // "JEDP"
+    public static final int DUPLICATES_MAGIC = 0x4A454447; // "JEDG"
+    public static final int VERSION = 1;
+
+    private SnapshotFormat() {
+    }
+
+    /**
+     * Maps the given region of a file into memory. Regions larger than 2GB
+     * cannot be mapped by a single buffer.
+     *
+     * @param channel the channel of the snapshot file
+     * @param position the first byte of the region
+     * @param size the length of the region in bytes
+     * @return the read-only buffer of the region
+     * @throws IOException if the region cannot be mapped
+     */
+    public static MappedByteBuffer map(FileChannel channel, long position, long size) throws IOException {
+        if (Integer.MAX_VALUE < size) {
+            throw new IOException("Snapshot region exceeds the maximum mapping size: " + size);
+        }
+        return channel.map(FileChannel.MapMode.READ_ONLY, position, size);
+    }
+
+    /**
+     * The blocks of a snapshot, mapped into memory. Consecutive blocks are
+     * grouped into segments that fit into a single mapping, i.e., at most 2GB,
+     * so that every block is accessed through a view of its segment.
+     */
+    public static class MappedBlocks {
+
+        private final int[] blockSegment;
+        private final long[] blockOffsets;
+        private final long[] segmentStart;
+        private final MappedByteBuffer[] segments;
+
+        /**
+         * @param channel the channel of the snapshot file
+         * @param offsets the offset of every block plus the end of the last one
+         * @throws IOException if the blocks cannot be mapped
+         */
+        public MappedBlocks(FileChannel channel, long[] offsets) throws IOException {
+            blockOffsets = offsets;
+
+            final int noOfBlocks = offsets.length - 1;
+            final List<MappedByteBuffer> mappedSegments = new ArrayList<>();
+            final List<Long> segmentOffsets = new ArrayList<>();
+            blockSegment = new int[noOfBlocks];
+            long start = offsets[0];
+            for (int blockId = 0; blockId < noOfBlocks; blockId++) {
+                if (Integer.MAX_VALUE < offsets[blockId + 1] - start) {
+                    mappedSegments.add(map(channel, start, offsets[blockId] - start));
+                    segmentOffsets.add(start);
+                    start = offsets[blockId];
+                }
+                blockSegment[blockId] = mappedSegments.size();
+            }
+            mappedSegments.add(map(channel, start, offsets[noOfBlocks] - start));
+            segmentOffsets.add(start);
+
+            segmentStart = segmentOffsets.stream().mapToLong(Long::longValue).toArray();
+            segments = mappedSegments.toArray(new MappedByteBuffer[0]);
+        }
+
+        /**
+         * @param blockId the id of the block
+         * @return a view of the bytes of the block, which is independent of
+         * the views returned to other threads
+         */
+        public ByteBuffer getBlock(int blockId) {
+            final int segmentId = blockSegment[blockId];
+            final int start = (int) (blockOffsets[blockId] - segmentStart[segmentId]);
+            final int end = (int) (blockOffsets[blockId + 1] - segmentStart[segmentId]);
+
+            final ByteBuffer buffer = segments[segmentId].duplicate();
+            buffer.limit(end);
+            buffer.position(start);
+            return buffer;
+        }
+
+        public int getNoOfBlocks() {
+            return blockSegment.length;
+        }
+    }
+
+    /**
+     * Decodes variable-length integers and strings from a buffer, reusing the
+     * same array for the bytes of all strings.
+     */
+    public static class ByteSource {
+
+        private final ByteBuffer buffer;
+        private byte[] scratch;
+
+        public ByteSource(ByteBuffer buffer) {
+            this.buffer = buffer;
+            scratch = new byte[256];
+        }
+
+        public int readInt() {
+            return buffer.getInt();
+        }
+
+        public long readLong() {
+            return buffer.getLong();
+        }
+
+        /**
+         * @return the decoded string, or null if its length prefix is zero
+         */
+        public String readString() {
+            final int length = readVarInt() - 1;
+            if (length < 0) {
+                return null;
+            }
+            if (scratch.length < length) {
+                scratch = new byte[Math.max(length, 2 * scratch.length)];
+            }
+            buffer.get(scratch, 0, length);
+            return new String(scratch, 0, length, StandardCharsets.UTF_8);
+        }
+
+        public int readVarInt() {
+            int value = 0;
+            int shift = 0;
+            byte b;
+            do {
+                b = buffer.get();
+                value |= (b & 0x7F) << shift;
+                shift += 7;
+            } while (b < 0);
+            return value;
+        }
+
+        /**
+         * Skips a length-prefixed string without decoding it.
+         */
+        public void skipString() {
+            final int length = readVarInt() - 1;
+            if (0 < length) {
+                buffer.position(buffer.position() + length);
+            }
+        }
+    }
+
+    /**
+     * A growable byte array that encodes variable-length integers and strings.
+     */
+    public static class ByteSink {
+
+        private byte[] bytes;
+        private int size;
+
+        public ByteSink(int capacity) {
+            bytes = new byte[capacity];
+            size = 0;
+        }
+
+        private void ensureCapacity(int extra) {
+            if (bytes.length < size + extra) {
+                final byte[] newBytes = new byte[Math.max(size + extra, 2 * bytes.length)];
+                System.arraycopy(bytes, 0, newBytes, 0, size);
+                bytes = newBytes;
+            }
+        }
+
+        public void clear() {
+            size = 0;
+        }
+
+        public int size() {
+            return size;
+        }
+
+        /**
+         * Appends the encoded bytes to the current position of the channel.
+         *
+         * @param channel the channel of the snapshot file
+         * @throws IOException if the bytes cannot be written
+         */
+        public void writeTo(FileChannel channel) throws IOException {
+            final ByteBuffer buffer = ByteBuffer.wrap(bytes, 0, size);
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+        }
+
+        /**
+         * Writes the encoded bytes at the given position of the channel.
+         *
+         * @param channel the channel of the snapshot file
+         * @param position the offset of the first byte
+         * @throws IOException if the bytes cannot be written
+         */
+        public void writeTo(FileChannel channel, long position) throws IOException {
+            final ByteBuffer buffer = ByteBuffer.wrap(bytes, 0, size);
+            while (buffer.hasRemaining()) {
+                position += channel.write(buffer, position);
+            }
+        }
+
+        public void writeInt(int value) {
+            ensureCapacity(4);
+            bytes[size++] = (byte) (value >>> 24);
+            bytes[size++] = (byte) (value >>> 16);
+            bytes[size++] = (byte) (value >>> 8);
+            bytes[size++] = (byte) value;
+        }
+
+        public void writeLong(long value) {
+            writeInt((int) (value >>> 32));
+            writeInt((int) value);
+        }
+
+        public void writeString(String value) {
+            if (value == null) {
+                writeVarInt(0);
+                return;
+            }
+
+            final byte[] encoded = value.getBytes(StandardCharsets.UTF_8);
+            writeVarInt(encoded.length + 1);
+            ensureCapacity(encoded.length);
+            System.arraycopy(encoded, 0, bytes, size, encoded.length);
+            size += encoded.length;
+        }
+
+        public void writeVarInt(int value) {
+            ensureCapacity(5);
+            while ((value & ~0x7F) != 0) {
+                bytes[size++] = (byte) ((value & 0x7F) | 0x80);
+                value >>>= 7;
+            }
+            bytes[size++] = (byte) value;
+        }
+    }
+}
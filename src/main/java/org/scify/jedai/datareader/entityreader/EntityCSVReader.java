@@ -35,11 +35,11 @@ import java.util.List;
  */
 public class EntityCSVReader extends AbstractEntityReader {
 
-    private boolean attributeNamesInFirstRow;
-    private int idIndex;
-    private char separator;
-    private String[] attributeNames;
-    private final TIntSet attributesToExclude;
+    protected boolean attributeNamesInFirstRow;
+    protected int idIndex;
+    protected char separator;
+    protected String[] attributeNames;
+    protected final TIntSet attributesToExclude;
 
     public EntityCSVReader(String filePath) {
         super(filePath);
@@ -251,6 +251,10 @@ public class EntityCSVReader extends AbstractEntityReader {
     }
 
     private void readEntity(int index, String[] currentLine) {
+        entityProfiles.add(getEntityProfile(index, currentLine));
+    }
+
+    protected EntityProfile getEntityProfile(int index, String[] currentLine) {
         String entityId;
         if (idIndex < 0) {
             entityId = "id" + index;
@@ -267,7 +271,7 @@ public class EntityCSVReader extends AbstractEntityReader {
                 newProfile.addAttribute(attributeNames[i], currentLine[i]);
             }
         }
-        entityProfiles.add(newProfile);
+        return newProfile;
     }
 
     public void setAttributesToExclude(int[] attributesIndicesToExclude) {
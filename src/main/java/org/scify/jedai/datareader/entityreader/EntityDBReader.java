@@ -22,8 +22,20 @@ import org.scify.jedai.datamodel.EntityProfile;
 import org.scify.jedai.utilities.DBUtils;
 import java.sql.*;
 import java.util.*;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Consumer;
+import java.util.function.IntFunction;
 
 /**
+ * Converts the rows of a database table into entity profiles, with the first
+ * selected column as the entity URL and the rest as attributes. The rows are
+ * streamed through forward-only, read-only cursors with the given fetch size,
+ * so that the driver does not buffer the entire table. Optionally, only the
+ * given columns are selected, and the table is split into ranges of an integer
+ * key column, which are read in parallel over separate connections.
  *
  * @author G.A.P. II
  */
@@ -31,19 +43,30 @@ public class EntityDBReader extends AbstractEntityReader {
 
     private boolean ssl;
 
+    private int fetchSize;
+    private int noOfPartitions;
+
+    private String idColumn;
+    private String partitionColumn;
     private String password;
     private String table;
     private String user;
+    private String[] attributeColumns;
 
     private final Set<String> attributesToExclude;
 
     public EntityDBReader(String dbURL) {
         super(dbURL);
 
+        fetchSize = 1000;
+        noOfPartitions = 1;
+        idColumn = null;
+        partitionColumn = null;
         password = null;
         ssl = true;
         table = null;
         user = null;
+        attributeColumns = null;
 
         attributesToExclude = new HashSet<>();
     }
@@ -54,62 +77,55 @@ public class EntityDBReader extends AbstractEntityReader {
             return entityProfiles;
         }
 
-        if (inputFilePath == null) {
-            Log.error("Database url has not been set!");
-            return null;
+        // the profiles of every partition are kept apart, so that their order does not depend on the threads
+        final List<List<EntityProfile>> partitions = new ArrayList<>();
+        for (int i = 0; i < Math.max(1, noOfPartitions); i++) {
+            partitions.add(new ArrayList<>());
         }
-
-        if (user == null) {
-            Log.error("Database user has not been set!");
+        if (!readPartitionedProfiles(partitionId -> partitions.get(partitionId)::add)) {
             return null;
         }
-        if (password == null) {
-            Log.error("Database password has not been set!");
-            return null;
+
+        partitions.forEach(entityProfiles::addAll);
+        return entityProfiles;
+    }
+
+    private Connection getConnection() throws SQLException {
+        //inputFilePath is assigned the Database URL
+        final Connection conn = DBUtils.getDBConnection(inputFilePath, user, password, ssl);
+        if (inputFilePath.startsWith("postgresql")) {
+            conn.setAutoCommit(false); // otherwise, PostgreSQL ignores the fetch size
         }
-        if (table == null) {
-            Log.error("Database table has not been set!");
-            return null;
+        return conn;
+    }
+
+    // ends the read-only transaction of connections without autocommit, so that they are closed cleanly
+    private void endTransaction(Connection conn) throws SQLException {
+        if (!conn.getAutoCommit()) {
+            conn.commit();
         }
+    }
 
-        //inputFilePath is assigned the Database URL
-        try (Connection conn = DBUtils.getDBConnection(inputFilePath, user, password, ssl);
+    private long[] getKeyRange() throws SQLException {
+        try (Connection conn = getConnection();
             Statement stmt = conn.createStatement();
-            ResultSet rs = stmt.executeQuery("SELECT * FROM " + table);//retrieve the appropriate table
-            ) {
-          
-            final ResultSetMetaData rsmd = rs.getMetaData();
-            int columnsNum = rsmd.getColumnCount();
-            String[] columns = new String[columnsNum];
-            for (int i = 0; i < columnsNum; i++) {
-                columns[i] = rsmd.getColumnName(i + 1);//get attribute names
+            ResultSet rs = stmt.executeQuery("SELECT MIN(" + partitionColumn + "), MAX(" + partitionColumn + ") FROM " + table)) {
+            switch (rs.getMetaData().getColumnType(1)) {
+                case Types.BIGINT:
+                case Types.INTEGER:
+                case Types.SMALLINT:
+                case Types.TINYINT:
+                    break;
+                default: // the ranges of the other types cannot be split into long keys without truncation
+                    throw new SQLException("The partition column " + partitionColumn + " is not an integer column!");
             }
 
-            //Extract data from result set
-            while (rs.next()) {
-                //Retrieve by column name
-                final String id = rs.getString(columns[0]);
-                final EntityProfile newProfile = new EntityProfile(id);//create a new profile for each record
-                entityProfiles.add(newProfile);
-                for (int i = 1; i < columnsNum; i++) {
-                    final String attributeName = columns[i];
-                    if (attributesToExclude.contains(attributeName)) {
-                        continue;
-                    }
-
-                    final String value = rs.getString(columns[i]);
-                    if (!rs.wasNull()) {
-                        newProfile.addAttribute(attributeName, value);
-                    }
-                }
-            }
-            rs.close();
-        } catch (SQLException ex) {
-            Log.error("Error in entities reading!", ex);
-            return null;
+            rs.next();
+            final long minKey = rs.getLong(1);
+            final long[] keyRange = rs.wasNull() ? null : new long[]{minKey, rs.getLong(2)};
+            endTransaction(conn);
+            return keyRange;
         }
-
-        return entityProfiles;
     }
 
     @Override
@@ -129,7 +145,7 @@ public class EntityDBReader extends AbstractEntityReader {
 
     @Override
     public String getMethodInfo() {
-        return getMethodName() + ": it converts a relational database (MySQL or PostgreSQL) into a set of entity profiles.";
+        return getMethodName() + ": it converts a relational database (MySQL, PostgreSQL, H2, Derby or SQLite) into a set of entity profiles, streaming the rows of a table.";
     }
 
     @Override
@@ -254,10 +270,178 @@ public class EntityDBReader extends AbstractEntityReader {
         }
     }
 
+    private String getSelectQuery() {
+        if (idColumn == null) {
+            return "SELECT * FROM " + table;
+        }
+
+        final StringBuilder query = new StringBuilder("SELECT ").append(idColumn);
+        for (String column : attributeColumns) {
+            query.append(", ").append(column);
+        }
+        return query.append(" FROM ").append(table).toString();
+    }
+
+    // reads the given range of keys, or the entire table if the range is null
+    private void readPartition(long[] keyRange, Consumer<EntityProfile> consumer) throws SQLException {
+        String query = getSelectQuery();
+        if (keyRange != null) {
+            query += " WHERE " + partitionColumn + " >= ?";
+            if (1 < keyRange.length) {
+                query += " AND " + partitionColumn + " < ?";
+            }
+        }
+
+        try (Connection conn = getConnection();
+            PreparedStatement stmt = conn.prepareStatement(query, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY)) {
+            stmt.setFetchSize(fetchSize);
+            if (keyRange != null) {
+                for (int i = 0; i < keyRange.length; i++) {
+                    stmt.setLong(i + 1, keyRange[i]);
+                }
+            }
+
+            try (ResultSet rs = stmt.executeQuery()) {
+                final ResultSetMetaData rsmd = rs.getMetaData();
+                int columnsNum = rsmd.getColumnCount();
+                String[] columns = new String[columnsNum];
+                for (int i = 0; i < columnsNum; i++) {
+                    columns[i] = rsmd.getColumnName(i + 1);//get attribute names
+                }
+
+                //Extract data from result set
+                while (rs.next()) {
+                    final String id = rs.getString(1);
+                    final EntityProfile newProfile = new EntityProfile(id);//create a new profile for each record
+                    for (int i = 1; i < columnsNum; i++) {
+                        final String attributeName = columns[i];
+                        if (attributesToExclude.contains(attributeName)) {
+                            continue;
+                        }
+
+                        final String value = rs.getString(i + 1);
+                        if (!rs.wasNull()) {
+                            newProfile.addAttribute(attributeName, value);
+                        }
+                    }
+                    consumer.accept(newProfile);
+                }
+            }
+            endTransaction(conn);
+        }
+    }
+
+    /**
+     * Reads the selected table and passes every entity profile to the given
+     * consumer, without storing it. With several partitions, the consumer is
+     * called by one thread at a time, but the profiles of different partitions
+     * are interleaved.
+     *
+     * @param consumer the receiver of the entity profiles
+     * @return true if the entire table was read successfully
+     */
+    public boolean readEntityProfiles(Consumer<EntityProfile> consumer) {
+        final Consumer<EntityProfile> synchronizedConsumer = profile -> {
+            synchronized (consumer) {
+                consumer.accept(profile);
+            }
+        };
+        return readPartitionedProfiles(partitionId -> synchronizedConsumer);
+    }
+
+    private boolean readPartitionedProfiles(IntFunction<Consumer<EntityProfile>> partitionConsumers) {
+        if (inputFilePath == null) {
+            Log.error("Database url has not been set!");
+            return false;
+        }
+
+        if (user == null) {
+            Log.error("Database user has not been set!");
+            return false;
+        }
+        if (password == null) {
+            Log.error("Database password has not been set!");
+            return false;
+        }
+        if (table == null) {
+            Log.error("Database table has not been set!");
+            return false;
+        }
+
+        try {
+            if (partitionColumn == null || noOfPartitions < 2) {
+                readPartition(null, partitionConsumers.apply(0));
+            } else {
+                readPartitions(partitionConsumers);
+            }
+        } catch (SQLException | InterruptedException | ExecutionException ex) {
+            Log.error("Error in entities reading!", ex);
+            return false;
+        }
+        return true;
+    }
+
+    private void readPartitions(IntFunction<Consumer<EntityProfile>> partitionConsumers) throws SQLException, InterruptedException, ExecutionException {
+        final long[] keyRange = getKeyRange();
+        if (keyRange == null) { // empty table
+            return;
+        }
+
+        // the difference of the keys is treated as unsigned, so that it does not overflow
+        final long width = Long.divideUnsigned(keyRange[1] - keyRange[0], noOfPartitions) + 1;
+        final ExecutorService readers = Executors.newFixedThreadPool(noOfPartitions);
+        try {
+            final List<Future<?>> partitions = new ArrayList<>();
+            for (int i = 0; i < noOfPartitions; i++) {
+                final long lowerKey = keyRange[0] + i * width;
+                final long[] partitionRange = i < noOfPartitions - 1 ? new long[]{lowerKey, lowerKey + width} : new long[]{lowerKey};
+                final Consumer<EntityProfile> consumer = partitionConsumers.apply(i);
+                partitions.add(readers.submit(() -> {
+                    readPartition(partitionRange, consumer);
+                    return null;
+                }));
+            }
+
+            for (Future<?> partition : partitions) {
+                partition.get();
+            }
+        } finally {
+            readers.shutdownNow();
+        }
+    }
+
     public void setAttributesToExclude(String[] attributesNamesToExclude) {
         attributesToExclude.addAll(Arrays.asList(attributesNamesToExclude));
     }
 
+    /**
+     * Selects only the given columns, instead of the entire table.
+     *
+     * @param idColumn the column with the entity URLs
+     * @param attributeColumns the columns with the attributes used for resolution
+     */
+    public void setColumns(String idColumn, String[] attributeColumns) {
+        this.idColumn = idColumn;
+        this.attributeColumns = attributeColumns == null ? new String[0] : attributeColumns;
+    }
+
+    public void setFetchSize(int fetchSize) {
+        this.fetchSize = fetchSize;
+    }
+
+    /**
+     * Splits the table into the given number of ranges over the values of an
+     * integer key column, which are read in parallel over separate
+     * connections. The rows with a null key are not read.
+     *
+     * @param keyColumn the integer column that is used for the partitioning
+     * @param noOfPartitions the number of ranges, i.e., of parallel connections
+     */
+    public void setPartitioning(String keyColumn, int noOfPartitions) {
+        this.partitionColumn = keyColumn;
+        this.noOfPartitions = noOfPartitions;
+    }
+
     public void setPassword(String password) {
         this.password = password;
     }
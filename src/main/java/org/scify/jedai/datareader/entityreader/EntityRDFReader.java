@@ -18,26 +18,39 @@ package org.scify.jedai.datareader.entityreader;
 import com.esotericsoftware.minlog.Log;
 import org.apache.jena.atlas.json.JsonArray;
 import org.apache.jena.atlas.json.JsonObject;
-import org.apache.jena.rdf.model.*;
+import org.apache.jena.graph.Node;
+import org.apache.jena.graph.Triple;
+import org.apache.jena.rdf.model.Model;
+import org.apache.jena.rdf.model.ModelFactory;
 import org.apache.jena.riot.RDFDataMgr;
+import org.apache.jena.riot.system.StreamRDFBase;
 import org.scify.jedai.datamodel.EntityProfile;
 
 import java.util.*;
+import java.util.function.Consumer;
 
 /**
+ * Converts an RDF file into entity profiles, parsing it as a stream of
+ * triples, without loading it into a Jena Model. If the triples are grouped
+ * by subject, as in sorted N-Triples dumps, every profile is emitted as soon
+ * as its triples are over, so that readEntityProfiles can process files that
+ * do not fit into main memory.
  *
  * @author G.A.P. II
  */
 public class EntityRDFReader extends AbstractEntityReader {
 
+    // wraps the parsed nodes, so that they are converted to strings like the statements of a Model
+    private static final Model NODE_WRAPPER = ModelFactory.createDefaultModel();
+
+    private boolean groupedBySubject;
     private final Set<String> attributesToExclude;
-    private final Map<String, EntityProfile> urlToEntity;
     private String prefix = "";
 
     public EntityRDFReader(String filePath) {
         super(filePath);
         
-        urlToEntity = new HashMap<>();
+        groupedBySubject = false;
         attributesToExclude = new HashSet<>();
         attributesToExclude.add("owl:sameAs");
     }
@@ -53,12 +66,8 @@ public class EntityRDFReader extends AbstractEntityReader {
             return null;
         }
 
-        //load the rdf model from the input file
-        try {
-            final Model model = RDFDataMgr.loadModel(inputFilePath);
-            readModel(model);
-        } catch (Exception ex) {
-            Log.error("Error in entities reading!", ex);
+        if (!readEntityProfiles(entityProfiles::add)) {
+            entityProfiles.clear();
             return null;
         }
 
@@ -78,7 +87,7 @@ public class EntityRDFReader extends AbstractEntityReader {
 
     @Override
     public String getMethodInfo() {
-        return getMethodName() + ": it converts an RDF file of any format into a set of entity profiles.";
+        return getMethodName() + ": it converts an RDF file of any format into a set of entity profiles, parsing it as a stream of triples.";
     }
 
     @Override
@@ -143,48 +152,61 @@ public class EntityRDFReader extends AbstractEntityReader {
         }
     }
 
-    private void readModel(Model m) {
+    /**
+     * Parses the input file and passes every entity profile to the given
+     * consumer, without storing it.
+     *
+     * @param consumer the receiver of the entity profiles
+     * @return true if the entire file was parsed successfully
+     */
+    public boolean readEntityProfiles(Consumer<EntityProfile> consumer) {
+        if (inputFilePath == null) {
+            Log.error("Input file path has not been set!");
+            return false;
+        }
+
         //read each ntriples
         //get spo, create a separate profile for each separate subject,
         //with Attribute=predicate and Value=object
-        final StmtIterator iter = m.listStatements();
-        while (iter.hasNext()) {
-            final Statement stmt = iter.nextStatement();
-
-            final Property predicate = stmt.getPredicate();
-            final String pred = predicate.toString();
-            if (attributesToExclude.contains(pred)) {
-                continue;
-            }
-
-            final Resource subject = stmt.getSubject();
-            String sub = subject.toString();
-            if (!prefix.equals(""))
-            {
-            	sub= sub.replace(prefix, "");
-            }
-
-            final RDFNode object = stmt.getObject();
-            final String obj = object.toString();
-
-            //if already exists a profile for the subject, simply add po as <Att>-<Value>
-            EntityProfile entityProfile = urlToEntity.get(sub);
-            if (entityProfile == null) {
-                entityProfile = new EntityProfile(sub);
-                entityProfiles.add(entityProfile);
-                urlToEntity.put(sub, entityProfile);
-            }
-
-            if (!obj.isEmpty()) {
-                entityProfile.addAttribute(pred, obj);
-            }
+        final TriplesToEntityProfiles profilesBuilder = new TriplesToEntityProfiles(attributesToExclude, groupedBySubject, consumer);
+        try {
+            RDFDataMgr.parse(new StreamRDFBase() {
+                @Override
+                public void triple(Triple triple) {
+                    String sub = toString(triple.getSubject());
+                    if (!prefix.equals("")) {
+                        sub = sub.replace(prefix, "");
+                    }
+                    profilesBuilder.addTriple(sub, toString(triple.getPredicate()), toString(triple.getObject()));
+                }
+
+                private String toString(Node node) {
+                    return NODE_WRAPPER.asRDFNode(node).toString();
+                }
+            }, inputFilePath);
+        } catch (Exception ex) {
+            Log.error("Error in entities reading!", ex);
+            return false;
         }
+        profilesBuilder.finish();
+        return true;
     }
 
     public void setAttributesToExclude(String[] attributesNamesToExclude) {
         attributesToExclude.addAll(Arrays.asList(attributesNamesToExclude));
     }
     
+    /**
+     * Declares that all triples of every subject are contiguous in the input
+     * file, e.g., because it is a sorted N-Triples dump. Then, the subjects are
+     * not indexed and every profile is emitted as soon as it is complete.
+     *
+     * @param groupedBySubject true if the triples are grouped by subject
+     */
+    public void setGroupedBySubject(boolean groupedBySubject) {
+        this.groupedBySubject = groupedBySubject;
+    }
+
     public void setPrefixOmission(String prefix) {
         this.prefix= prefix ;
     }
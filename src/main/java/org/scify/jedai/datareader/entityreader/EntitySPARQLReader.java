@@ -19,12 +19,18 @@ import org.scify.jedai.datamodel.EntityProfile;
 
 import com.esotericsoftware.minlog.Log;
 
+import java.util.ArrayDeque;
+import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
-import java.util.Map;
+import java.util.Queue;
 import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Consumer;
 
 import org.apache.jena.atlas.json.JsonArray;
 import org.apache.jena.atlas.json.JsonObject;
@@ -35,21 +41,36 @@ import org.apache.jena.query.QueryFactory;
 import org.apache.jena.query.QuerySolution;
 import org.apache.jena.query.ResultSet;
 
+/**
+ * Converts the triples of a SPARQL endpoint into entity profiles. By default,
+ * the triples are retrieved in pages, which are ordered by subject and are
+ * requested with LIMIT and OFFSET by several parallel fetchers. The pages are
+ * processed in order, so every profile is emitted as soon as its triples are
+ * over and readEntityProfiles can process endpoints that do not fit into
+ * main memory. With a non-positive page size, all triples are retrieved by a
+ * single query.
+ *
+ * @author G.A.P. II
+ */
 public class EntitySPARQLReader extends AbstractEntityReader {
 
+    private static final String TRIPLES_QUERY = "select ?a ?b ?c where {?a ?b ?c}";
+
+    private int noOfFetchers;
+    private int pageSize;
     private String password;
     private String user;
 
     private final Set<String> attributesToExclude;
-    private final Map<String, EntityProfile> urlToEntity;
 
     public EntitySPARQLReader(String endpointUrl) {
         super(endpointUrl);
 
+        noOfFetchers = 1;
+        pageSize = 10000;
         password = null;
         user = null;
 
-        urlToEntity = new HashMap<>();
         attributesToExclude = new HashSet<>();
         attributesToExclude.add("owl:sameAs");
     }
@@ -65,11 +86,8 @@ public class EntitySPARQLReader extends AbstractEntityReader {
             return null;
         }
 
-        //load the rdf model from the input file
-        try {
-            readEndpoint(inputFilePath);
-        } catch (Exception ex) {
-            Log.error("Error in data reading", ex);
+        if (!readEntityProfiles(entityProfiles::add)) {
+            entityProfiles.clear();
             return null;
         }
 
@@ -93,7 +111,7 @@ public class EntitySPARQLReader extends AbstractEntityReader {
 
     @Override
     public String getMethodInfo() {
-        return getMethodName() + ": it converts a SPARQL endpoint into a set of entity profiles.";
+        return getMethodName() + ": it converts a SPARQL endpoint into a set of entity profiles, retrieving its triples in pages.";
     }
 
     @Override
@@ -188,49 +206,119 @@ public class EntitySPARQLReader extends AbstractEntityReader {
         }
     }
 
-    private void readEndpoint(String endpointUrl) {
+    /**
+     * Creates the execution of the given query. It can be overridden in order
+     * to query a local dataset instead of a remote endpoint.
+     *
+     * @param query the query to execute
+     * @return the execution of the query
+     */
+    protected QueryExecution getQueryExecution(Query query) {
+        return QueryExecutionFactory.sparqlService(inputFilePath, query);
+    }
+
+    // returns the subject, predicate and object of every triple in the given page
+    private List<String[]> getPage(long pageId) {
+        final Query query = QueryFactory.create(TRIPLES_QUERY + " order by ?a ?b ?c limit " + pageSize + " offset " + pageId * pageSize);
+        try (QueryExecution qexec = getQueryExecution(query)) {
+            final List<String[]> triples = new ArrayList<>(pageSize);
+            final ResultSet results = qexec.execSelect();
+            while (results.hasNext()) {
+                final QuerySolution qs = results.next();
+                triples.add(new String[]{qs.get("a").toString(), qs.get("b").toString(), qs.get("c").toString()});
+            }
+            return triples;
+        }
+    }
+
+    /**
+     * Retrieves the triples of the endpoint and passes every entity profile to
+     * the given consumer, without storing it.
+     *
+     * @param consumer the receiver of the entity profiles
+     * @return true if all triples were retrieved successfully
+     */
+    public boolean readEntityProfiles(Consumer<EntityProfile> consumer) {
+        if (inputFilePath == null) {
+            Log.error("Input file path has not been set!");
+            return false;
+        }
+
         //read each ntriples
         //get spo, create a separate profile for each separate subject,
         //with Attribute=predicate and Value=object
-        final String sparqlQueryString1 = "select ?a ?b ?c where {?a ?b ?c}";
+        try {
+            if (pageSize <= 0) {
+                readEndpoint(new TriplesToEntityProfiles(attributesToExclude, false, consumer));
+            } else {
+                readPages(new TriplesToEntityProfiles(attributesToExclude, true, consumer));
+            }
+        } catch (Exception ex) {
+            Log.error("Error in data reading", ex);
+            return false;
+        }
+        return true;
+    }
 
-        final Query query = QueryFactory.create(sparqlQueryString1);
-        try (QueryExecution qexec = QueryExecutionFactory.sparqlService(endpointUrl, query)) {
+    private void readEndpoint(TriplesToEntityProfiles profilesBuilder) {
+        final Query query = QueryFactory.create(TRIPLES_QUERY);
+        try (QueryExecution qexec = getQueryExecution(query)) {
             final ResultSet results = qexec.execSelect();
-            //ResultSetFormatter.out(System.out, results, query);
-            //results = qexec.execSelect();
-            
             while (results.hasNext()) {
                 final QuerySolution qs = results.next();
-                
-                final String sub = qs.get("a").toString();
-                final String pred = qs.get("b").toString();
-                final String obj = qs.get("c").toString();
-                if (attributesToExclude.contains(pred)) {
-                    continue;
-                }
-                
-                //if already exists a profile for the subject, simply add po as <Att>-<Value>
-                EntityProfile entityProfile = urlToEntity.get(sub);
-                if (entityProfile == null) {
-                    entityProfile = new EntityProfile(sub);
-                    entityProfiles.add(entityProfile);
-                    urlToEntity.put(sub, entityProfile);
+                profilesBuilder.addTriple(qs.get("a").toString(), qs.get("b").toString(), qs.get("c").toString());
+            }
+        }
+        profilesBuilder.finish();
+    }
+
+    // every fetcher retrieves one page ahead, so at most noOfFetchers pages are kept in memory
+    private void readPages(TriplesToEntityProfiles profilesBuilder) throws InterruptedException, ExecutionException {
+        final ExecutorService fetchers = Executors.newFixedThreadPool(noOfFetchers);
+        try {
+            long nextPageId = 0;
+            final Queue<Future<List<String[]>>> pendingPages = new ArrayDeque<>();
+            for (int i = 0; i < noOfFetchers; i++) {
+                final long pageId = nextPageId++;
+                pendingPages.add(fetchers.submit(() -> getPage(pageId)));
+            }
+
+            while (!pendingPages.isEmpty()) {
+                final List<String[]> triples = pendingPages.poll().get();
+                for (String[] triple : triples) {
+                    profilesBuilder.addTriple(triple[0], triple[1], triple[2]);
                 }
-                
-                if (!obj.isEmpty()) {
-                    entityProfile.addAttribute(pred, obj);
+
+                if (triples.size() < pageSize) { // last page
+                    pendingPages.forEach(page -> page.cancel(true));
+                    break;
                 }
+
+                final long pageId = nextPageId++;
+                pendingPages.add(fetchers.submit(() -> getPage(pageId)));
             }
+        } finally {
+            fetchers.shutdownNow();
         }
-        //ResultSetFormatter.out(System.out, results, query);
-        //results = qexec.execSelect();
+        profilesBuilder.finish();
     }
 
     public void setAttributesToExclude(String[] attributesNamesToExclude) {
         attributesToExclude.addAll(Arrays.asList(attributesNamesToExclude));
     }
 
+    public void setNoOfFetchers(int noOfFetchers) {
+        this.noOfFetchers = Math.max(1, noOfFetchers);
+    }
+
+    /**
+     * @param pageSize the number of triples per query, or a non-positive value
+     * for retrieving all triples with a single query
+     */
+    public void setPageSize(int pageSize) {
+        this.pageSize = pageSize;
+    }
+
     public void setPassword(String password) {
         this.password = password;
     }
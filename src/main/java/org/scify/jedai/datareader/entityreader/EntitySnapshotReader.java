@@ -0,0 +1,253 @@
+/*
+* Copyright [2016-2020] [George Papadakis (gpapadis@yahoo.gr)]
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+*    http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+ */
+package org.scify.jedai.datareader.entityreader;
+
+import com.esotericsoftware.minlog.Log;
+import org.scify.jedai.datamodel.EntityProfile;
+import org.scify.jedai.datareader.SnapshotFormat;
+import org.scify.jedai.datareader.SnapshotFormat.ByteSource;
+import org.scify.jedai.datareader.SnapshotFormat.MappedBlocks;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import org.apache.jena.atlas.json.JsonArray;
+import org.apache.jena.atlas.json.JsonObject;
+
+/**
+ * Reads entity profiles from a binary snapshot, as stored by the
+ * EntitySnapshotWriter. The snapshot is mapped into memory and its blocks
+ * are decoded directly from the mapped buffers in parallel. Single profiles and blocks can also be accessed randomly, without
+ * decoding the rest of the snapshot.
+ *
+ * @author G.A.P. II
+ */
+public class EntitySnapshotReader extends AbstractEntityReader {
+
+    private int noOfBlocks;
+    private int noOfProfiles;
+    private int profilesPerBlock;
+
+    private String[] attributeNames;
+    private MappedBlocks blocks;
+
+    public EntitySnapshotReader(String filePath) {
+        super(filePath);
+    }
+
+    private EntityProfile decodeProfile(ByteSource source) {
+        final EntityProfile profile = new EntityProfile(source.readString());
+        final int noOfAttributes = source.readVarInt();
+        for (int i = 0; i < noOfAttributes; i++) {
+            final String name = attributeNames[source.readVarInt()];
+            profile.addAttribute(name, source.readString());
+        }
+        return profile;
+    }
+
+    /**
+     * Decodes a single block of the snapshot.
+     *
+     * @param blockId the id of the block, ranging from 0 to getNoOfBlocks()-1
+     * @return the profiles of the block, or null if the snapshot is invalid
+     */
+    public List<EntityProfile> getBlockProfiles(int blockId) {
+        if (!openSnapshot()) {
+            return null;
+        }
+
+        final EntityProfile[] profiles = new EntityProfile[getBlockSize(blockId)];
+        readBlock(blockId, profiles, 0);
+        return Arrays.asList(profiles);
+    }
+
+    private int getBlockSize(int blockId) {
+        return Math.min(profilesPerBlock, noOfProfiles - blockId * profilesPerBlock);
+    }
+
+    @Override
+    public List<EntityProfile> getEntityProfiles() {
+        if (!entityProfiles.isEmpty()) {
+            return entityProfiles;
+        }
+
+        if (!openSnapshot()) {
+            return null;
+        }
+
+        final EntityProfile[] profiles = new EntityProfile[noOfProfiles];
+        IntStream.range(0, noOfBlocks).parallel().forEach(blockId -> readBlock(blockId, profiles, blockId * profilesPerBlock));
+        entityProfiles.addAll(Arrays.asList(profiles));
+        return entityProfiles;
+    }
+
+    /**
+     * Decodes a single profile of the snapshot, skipping the profiles that
+     * precede it in its block.
+     *
+     * @param index the position of the profile in the snapshot
+     * @return the profile, or null if the snapshot is invalid
+     */
+    public EntityProfile getEntityProfile(int index) {
+        if (!openSnapshot()) {
+            return null;
+        }
+        if (index < 0 || noOfProfiles <= index) {
+            Log.error("Invalid profile index: " + index);
+            return null;
+        }
+
+        final ByteSource source = new ByteSource(blocks.getBlock(index / profilesPerBlock));
+        for (int i = index % profilesPerBlock; 0 < i; i--) {
+            source.skipString();
+            final int noOfAttributes = source.readVarInt();
+            for (int j = 0; j < noOfAttributes; j++) {
+                source.readVarInt();
+                source.skipString();
+            }
+        }
+        return decodeProfile(source);
+    }
+
+    @Override
+    public String getMethodConfiguration() {
+        return getParameterName(0) + "=" + inputFilePath;
+    }
+
+    @Override
+    public String getMethodInfo() {
+        return getMethodName() + ": it loads a binary snapshot of EntityProfile objects into memory, decoding its blocks in parallel.";
+    }
+
+    @Override
+    public String getMethodName() {
+        return "Snapshot Reader";
+    }
+
+    @Override
+    public String getMethodParameters() {
+        return getMethodName() + " involves a single parameter:\n"
+                + "1)" + getParameterDescription(0) + ".";
+    }
+
+    public int getNoOfBlocks() {
+        return openSnapshot() ? noOfBlocks : 0;
+    }
+
+    public int getNoOfProfiles() {
+        return openSnapshot() ? noOfProfiles : 0;
+    }
+
+    @Override
+    public JsonArray getParameterConfiguration() {
+        final JsonObject obj1 = new JsonObject();
+        obj1.put("class", "java.lang.String");
+        obj1.put("name", getParameterName(0));
+        obj1.put("defaultValue", "-");
+        obj1.put("minValue", "-");
+        obj1.put("maxValue", "-");
+        obj1.put("stepValue", "-");
+        obj1.put("description", getParameterDescription(0));
+
+        final JsonArray array = new JsonArray();
+        array.add(obj1);
+        return array;
+    }
+
+    @Override
+    public String getParameterDescription(int parameterId) {
+        switch (parameterId) {
+            case 0:
+                return "The " + getParameterName(0) + " determines the absolute path to the snapshot file that will be read into main memory.";
+            default:
+                return "invalid parameter id";
+        }
+    }
+
+    @Override
+    public String getParameterName(int parameterId) {
+        switch (parameterId) {
+            case 0:
+                return "File Path";
+            default:
+                return "invalid parameter id";
+        }
+    }
+
+    // reads the header, the dictionary and the block index and maps the blocks into memory
+    private synchronized boolean openSnapshot() {
+        if (blocks != null) {
+            return true;
+        }
+
+        if (inputFilePath == null) {
+            Log.error("Input file path has not been set!");
+            return false;
+        }
+
+        try (FileChannel channel = FileChannel.open(Paths.get(inputFilePath), StandardOpenOption.READ)) {
+            if (channel.size() < EntitySnapshotWriter.HEADER_SIZE) {
+                Log.error("Invalid entity snapshot: " + inputFilePath);
+                return false;
+            }
+
+            final ByteSource header = new ByteSource(SnapshotFormat.map(channel, 0, EntitySnapshotWriter.HEADER_SIZE));
+            if (header.readInt() != SnapshotFormat.ENTITIES_MAGIC) {
+                Log.error("Invalid entity snapshot: " + inputFilePath);
+                return false;
+            }
+            final int version = header.readInt();
+            if (version != SnapshotFormat.VERSION) {
+                Log.error("Unsupported snapshot version: " + version);
+                return false;
+            }
+            noOfProfiles = header.readInt();
+            profilesPerBlock = header.readInt();
+            noOfBlocks = header.readInt();
+            final int noOfNames = header.readInt();
+            final long dictionaryOffset = header.readLong();
+            final long indexOffset = header.readLong();
+
+            final ByteSource dictionary = new ByteSource(SnapshotFormat.map(channel, dictionaryOffset, indexOffset - dictionaryOffset));
+            attributeNames = new String[noOfNames];
+            for (int i = 0; i < noOfNames; i++) {
+                attributeNames[i] = dictionary.readString();
+            }
+
+            final long[] blockOffsets = new long[noOfBlocks + 1];
+            SnapshotFormat.map(channel, indexOffset, 8L * blockOffsets.length).asLongBuffer().get(blockOffsets);
+
+            blocks = new MappedBlocks(channel, blockOffsets);
+            return true;
+        } catch (IOException ioex) {
+            Log.error("Error in entity snapshot reading", ioex);
+            return false;
+        }
+    }
+
+    private void readBlock(int blockId, EntityProfile[] profiles, int firstIndex) {
+        final ByteSource source = new ByteSource(blocks.getBlock(blockId));
+        final int blockSize = getBlockSize(blockId);
+        for (int i = 0; i < blockSize; i++) {
+            profiles[firstIndex + i] = decodeProfile(source);
+        }
+    }
+}
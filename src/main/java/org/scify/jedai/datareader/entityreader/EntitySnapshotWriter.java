@@ -0,0 +1,154 @@
+/*
+* Copyright [2016-2020] [George Papadakis (gpapadis@yahoo.gr)]
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+*    http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+ */
+package org.scify.jedai.datareader.entityreader;
+
+import com.esotericsoftware.minlog.Log;
+import gnu.trove.list.TLongList;
+import gnu.trove.list.array.TLongArrayList;
+import gnu.trove.map.TObjectIntMap;
+import gnu.trove.map.hash.TObjectIntHashMap;
+import org.scify.jedai.datamodel.Attribute;
+import org.scify.jedai.datamodel.EntityProfile;
+import org.scify.jedai.datareader.SnapshotFormat;
+import org.scify.jedai.datareader.SnapshotFormat.ByteSink;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Stores entity profiles in the binary snapshot format that is read by the
+ * EntitySnapshotReader. The file comprises:
+ * <ol>
+ * <li>a header with the magic number, the format version, the number of
+ * profiles, the number of profiles per block, the number of blocks, the
+ * number of attribute names and the offsets of the dictionary and the block
+ * index,</li>
+ * <li>the blocks of profiles, each one encoded as its URL, its number of
+ * attributes and, for every attribute, the dictionary id of its name and its
+ * value,</li>
+ * <li>the dictionary of attribute names, in the order of their ids,</li>
+ * <li>the block index, i.e., the offset of every block plus the end of the
+ * last one.</li>
+ * </ol>
+ * The profiles are written in a single pass, so that they can be streamed
+ * from any reader without keeping them all in main memory.
+ *
+ * @author G.A.P. II
+ */
+public class EntitySnapshotWriter {
+
+    public static final int HEADER_SIZE = 40;
+
+    private int profilesPerBlock;
+
+    private final String outputFilePath;
+
+    public EntitySnapshotWriter(String outputPath) {
+        outputFilePath = outputPath;
+        profilesPerBlock = 4096;
+    }
+
+    public void setProfilesPerBlock(int profilesPerBlock) {
+        this.profilesPerBlock = profilesPerBlock;
+    }
+
+    /**
+     * Stores the given entity profiles in the order they are returned.
+     *
+     * @param profiles the entity profiles, e.g., a list or the profiles of a
+     * streaming reader
+     */
+    public void storeEntityProfiles(Iterable<EntityProfile> profiles) {
+        if (outputFilePath == null) {
+            Log.error("Output file path has not been set!");
+            return;
+        }
+        if (profilesPerBlock < 1) {
+            Log.error("The number of profiles per block should be positive!");
+            return;
+        }
+
+        try (FileChannel channel = FileChannel.open(Paths.get(outputFilePath), StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            final List<String> attributeNames = new ArrayList<>();
+            final TObjectIntMap<String> nameIds = new TObjectIntHashMap<>(64, 0.5f, -1);
+            final TLongList blockOffsets = new TLongArrayList();
+            final ByteSink sink = new ByteSink(1 << 16);
+
+            long offset = HEADER_SIZE;
+            channel.position(offset);
+
+            int noOfProfiles = 0;
+            for (EntityProfile profile : profiles) {
+                if (noOfProfiles % profilesPerBlock == 0) {
+                    if (0 < noOfProfiles) {
+                        sink.writeTo(channel);
+                        offset += sink.size();
+                        sink.clear();
+                    }
+                    blockOffsets.add(offset);
+                }
+                noOfProfiles++;
+
+                sink.writeString(profile.getEntityUrl());
+                sink.writeVarInt(profile.getProfileSize());
+                for (Attribute attribute : profile.getAttributes()) {
+                    int nameId = nameIds.get(attribute.getName());
+                    if (nameId < 0) {
+                        nameId = attributeNames.size();
+                        nameIds.put(attribute.getName(), nameId);
+                        attributeNames.add(attribute.getName());
+                    }
+                    sink.writeVarInt(nameId);
+                    sink.writeString(attribute.getValue());
+                }
+            }
+            sink.writeTo(channel);
+            offset += sink.size();
+            sink.clear();
+
+            final long dictionaryOffset = offset;
+            attributeNames.forEach(sink::writeString);
+            sink.writeTo(channel);
+            offset += sink.size();
+            sink.clear();
+
+            final long indexOffset = offset;
+            blockOffsets.add(indexOffset);
+            for (int i = 0; i < blockOffsets.size(); i++) {
+                sink.writeLong(blockOffsets.get(i));
+            }
+            sink.writeTo(channel);
+            sink.clear();
+
+            sink.writeInt(SnapshotFormat.ENTITIES_MAGIC);
+            sink.writeInt(SnapshotFormat.VERSION);
+            sink.writeInt(noOfProfiles);
+            sink.writeInt(profilesPerBlock);
+            sink.writeInt(blockOffsets.size() - 1);
+            sink.writeInt(attributeNames.size());
+            sink.writeLong(dictionaryOffset);
+            sink.writeLong(indexOffset);
+            sink.writeTo(channel, 0);
+        } catch (IOException ioex) {
+            Log.error("Error in storing entity snapshot", ioex);
+        }
+    }
+}
@@ -0,0 +1,464 @@
+/*
+* Copyright [2016-2020] [George Papadakis (gpapadis@yahoo.gr)]
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+*    http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+ */
+package org.scify.jedai.datareader.entityreader;
+
+import com.esotericsoftware.minlog.Log;
+import org.scify.jedai.datamodel.EntityProfile;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Queue;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * A CSV reader that splits the input file into byte ranges (chunks), which
+ * are parsed concurrently by a custom parser that follows RFC 4180: fields
+ * may be enclosed in double quotes, which are escaped by doubling them, and
+ * quoted fields may span multiple lines. Unlike opencsv, backslashes have no
+ * special meaning. The separator must be an ASCII character and the file is
+ * decoded as UTF-8.
+ *
+ * Every chunk comprises the records that begin inside its byte range. To find
+ * the first of them, a chunk needs to know whether it starts inside a quoted
+ * field, i.e., the parity of the quotes before it. Thus, every chunk first
+ * counts its own quotes and passes the quote state at its end to the next
+ * chunk, before parsing its records. In the same way, it passes the number
+ * of records read so far, which is needed for auto-incremented ids.
+ *
+ * The entity profiles can be retrieved either as a list, or as a stream
+ * through an iterator (or spliterator) that returns the profiles of every
+ * chunk as soon as it has been parsed, keeping a bounded number of chunks in
+ * memory.
+ *
+ * @author G.A.P. II
+ */
+public class ParallelEntityCSVReader extends EntityCSVReader {
+
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    private int noOfThreads;
+    private long chunkSize;
+
+    private long dataStart; // the offset of the first entity profile
+    private long fileSize;
+
+    public ParallelEntityCSVReader(String filePath) {
+        super(filePath);
+        noOfThreads = Runtime.getRuntime().availableProcessors();
+        chunkSize = 64 * 1024 * 1024;
+    }
+
+    @Override
+    public List<EntityProfile> getEntityProfiles() {
+        if (!entityProfiles.isEmpty()) {
+            return entityProfiles;
+        }
+
+        final Iterator<EntityProfile> iterator = getEntityProfilesIterator();
+        if (iterator == null) {
+            return null;
+        }
+
+        while (iterator.hasNext()) {
+            entityProfiles.add(iterator.next());
+        }
+        return entityProfiles;
+    }
+
+    /**
+     * Returns the entity profiles in the order of the input file, as soon as
+     * the chunk they belong to has been parsed. The input file and the
+     * parsing threads are released when the iterator is exhausted.
+     *
+     * @return an iterator over the entity profiles, or null if the input is invalid
+     */
+    public Iterator<EntityProfile> getEntityProfilesIterator() {
+        if (inputFilePath == null) {
+            Log.error("Input file path has not been set!");
+            return null;
+        }
+        if (127 < separator) {
+            Log.error("Only ASCII characters are supported as separators!");
+            return null;
+        }
+
+        try {
+            final FileChannel channel = FileChannel.open(Paths.get(inputFilePath), StandardOpenOption.READ);
+            if (!readAttributeNames(channel)) {
+                channel.close();
+                return null;
+            }
+            return new ProfileIterator(channel);
+        } catch (IOException e) {
+            Log.error("Error in entities reading!", e);
+            return null;
+        }
+    }
+
+    /**
+     * @return a spliterator over the entity profiles, or null if the input is invalid
+     * @see #getEntityProfilesIterator()
+     */
+    public Spliterator<EntityProfile> getEntityProfilesSpliterator() {
+        final Iterator<EntityProfile> iterator = getEntityProfilesIterator();
+        if (iterator == null) {
+            return null;
+        }
+        return Spliterators.spliteratorUnknownSize(iterator, Spliterator.ORDERED | Spliterator.NONNULL);
+    }
+
+    @Override
+    public String getMethodInfo() {
+        return getMethodName() + ": it converts a CSV file into a set of entity profiles, parsing its parts in parallel.";
+    }
+
+    @Override
+    public String getMethodName() {
+        return "Parallel CSV Reader";
+    }
+
+    // parses the first record to determine the attribute names and the start of the entity profiles
+    private boolean readAttributeNames(FileChannel channel) throws IOException {
+        fileSize = channel.size();
+        final RecordParser parser = new RecordParser(channel, 0);
+        final String[] firstRecord = parser.nextRecord();
+        if (firstRecord == null) {
+            Log.error("Empty file given as input.");
+            return false;
+        }
+
+        int noOfAttributes = firstRecord.length;
+        if (noOfAttributes - 1 < idIndex) {
+            Log.error("Id index does not correspond to a valid column index! Counting starts from 0.");
+            return false;
+        }
+
+        if (attributeNamesInFirstRow) {
+            attributeNames = Arrays.copyOf(firstRecord, noOfAttributes);
+            dataStart = parser.getPosition();
+        } else { // no attribute names in csv file
+            attributeNames = new String[noOfAttributes];
+            for (int i = 0; i < noOfAttributes; i++) {
+                attributeNames[i] = "attribute" + (i + 1);
+            }
+            dataStart = 0;
+        }
+        return true;
+    }
+
+    private List<EntityProfile> readChunk(FileChannel channel, long start, long end,
+            ChunkState previous, ChunkState current) throws IOException, ExecutionException, InterruptedException {
+        try {
+            final boolean quoteParity = new RecordParser(channel, start).countQuotes(end);
+            final boolean startsInQuotes = previous.endsInQuotes.get();
+            current.endsInQuotes.complete(startsInQuotes ^ quoteParity);
+
+            final List<String[]> records = new ArrayList<>();
+            final RecordParser parser = new RecordParser(channel, start);
+            if (start == dataStart || parser.skipToRecordStart(startsInQuotes)) {
+                while (parser.getPosition() < end) {
+                    final String[] record = parser.nextRecord();
+                    if (record == null) {
+                        break;
+                    }
+                    records.add(record);
+                }
+            }
+
+            final int firstIndex = previous.recordsRead.get() + 1;
+            current.recordsRead.complete(firstIndex - 1 + records.size());
+
+            final List<EntityProfile> profiles = new ArrayList<>(records.size());
+            for (int i = 0; i < records.size(); i++) {
+                if (records.get(i).length != attributeNames.length) {
+                    Log.warn("Line with wrong number of attributes : " + Arrays.toString(records.get(i)));
+                    continue;
+                }
+                profiles.add(getEntityProfile(firstIndex + i, records.get(i)));
+            }
+            return profiles;
+        } catch (IOException | ExecutionException | InterruptedException | RuntimeException e) {
+            current.endsInQuotes.completeExceptionally(e);
+            current.recordsRead.completeExceptionally(e);
+            throw e;
+        }
+    }
+
+    public void setChunkSize(long chunkSize) {
+        this.chunkSize = chunkSize;
+    }
+
+    public void setNoOfThreads(int noOfThreads) {
+        this.noOfThreads = noOfThreads;
+    }
+
+    // the state that every chunk passes to the next one
+    private static class ChunkState {
+
+        private final CompletableFuture<Boolean> endsInQuotes = new CompletableFuture<>();
+        private final CompletableFuture<Integer> recordsRead = new CompletableFuture<>();
+    }
+
+    private class ProfileIterator implements Iterator<EntityProfile> {
+
+        private long nextChunkStart;
+
+        private ChunkState lastState;
+        private Iterator<EntityProfile> currentProfiles;
+        private final ExecutorService executor;
+        private final FileChannel channel;
+        private final Queue<Future<List<EntityProfile>>> pendingChunks;
+
+        ProfileIterator(FileChannel channel) {
+            this.channel = channel;
+            nextChunkStart = dataStart;
+            currentProfiles = Collections.emptyIterator();
+            pendingChunks = new ArrayDeque<>();
+
+            lastState = new ChunkState();
+            lastState.endsInQuotes.complete(false);
+            lastState.recordsRead.complete(0);
+
+            final int threads = Math.max(1, noOfThreads);
+            executor = Executors.newFixedThreadPool(threads, runnable -> {
+                final Thread thread = new Thread(runnable, "csv-reader");
+                thread.setDaemon(true);
+                return thread;
+            });
+            for (int i = 0; i < 2 * threads; i++) {
+                submitNextChunk();
+            }
+        }
+
+        private void close() {
+            executor.shutdownNow();
+            try {
+                channel.close();
+            } catch (IOException e) {
+                Log.error("Error in closing the input file", e);
+            }
+        }
+
+        @Override
+        public boolean hasNext() {
+            while (!currentProfiles.hasNext()) {
+                if (pendingChunks.isEmpty()) {
+                    close();
+                    return false;
+                }
+
+                try {
+                    currentProfiles = pendingChunks.remove().get().iterator();
+                } catch (ExecutionException | InterruptedException e) {
+                    close();
+                    throw new IllegalStateException("Error in entities reading!", e);
+                }
+                submitNextChunk();
+            }
+            return true;
+        }
+
+        @Override
+        public EntityProfile next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            return currentProfiles.next();
+        }
+
+        private void submitNextChunk() {
+            if (fileSize <= nextChunkStart) {
+                return;
+            }
+
+            final long start = nextChunkStart;
+            final long end = Math.min(fileSize, start + chunkSize);
+            final ChunkState previous = lastState;
+            final ChunkState current = new ChunkState();
+            nextChunkStart = end;
+            lastState = current;
+            pendingChunks.add(executor.submit(() -> readChunk(channel, start, end, previous, current)));
+        }
+    }
+
+    // a byte-level parser that reads the file from the given position onwards
+    private class RecordParser {
+
+        private int bufferLength;
+        private int bufferPosition;
+        private long bufferStart;
+
+        private final byte[] buffer;
+        private final FileChannel channel;
+        private final FieldBuilder field;
+
+        RecordParser(FileChannel channel, long start) {
+            this.channel = channel;
+            bufferStart = start;
+            buffer = new byte[BUFFER_SIZE];
+            field = new FieldBuilder();
+        }
+
+        // returns true if the range up to the given position contains an odd number of quotes
+        boolean countQuotes(long end) throws IOException {
+            boolean parity = false;
+            while (getPosition() < end && fill()) {
+                int last = (int) Math.min(bufferLength, end - bufferStart);
+                for (int i = bufferPosition; i < last; i++) {
+                    if (buffer[i] == '"') {
+                        parity = !parity;
+                    }
+                }
+                bufferPosition = last;
+            }
+            return parity;
+        }
+
+        // ensures that the buffer contains at least one unread byte; returns false at the end of the file
+        private boolean fill() throws IOException {
+            if (bufferPosition < bufferLength) {
+                return true;
+            }
+
+            bufferStart += bufferLength;
+            bufferPosition = 0;
+            bufferLength = 0;
+            final ByteBuffer byteBuffer = ByteBuffer.wrap(buffer);
+            while (byteBuffer.hasRemaining() && 0 <= channel.read(byteBuffer, bufferStart + byteBuffer.position())) {
+                // keep reading until the buffer is full or the file ends
+            }
+            bufferLength = byteBuffer.position();
+            return 0 < bufferLength;
+        }
+
+        long getPosition() {
+            return bufferStart + bufferPosition;
+        }
+
+        private int nextByte() throws IOException {
+            return fill() ? buffer[bufferPosition++] & 0xFF : -1;
+        }
+
+        private int peekByte() throws IOException {
+            return fill() ? buffer[bufferPosition] & 0xFF : -1;
+        }
+
+        String[] nextRecord() throws IOException {
+            final List<String> fields = new ArrayList<>(attributeNames == null ? 16 : attributeNames.length);
+            if (peekByte() < 0) {
+                return null;
+            }
+
+            boolean inQuotes = false;
+            field.reset();
+            while (true) {
+                int b = nextByte();
+                if (inQuotes) {
+                    if (b < 0) { // unterminated quoted field
+                        fields.add(field.toString());
+                        return fields.toArray(new String[0]);
+                    } else if (b != '"') {
+                        field.append(b);
+                    } else if (peekByte() == '"') { // escaped quote
+                        field.append(nextByte());
+                    } else {
+                        inQuotes = false;
+                    }
+                } else if (b == '"') {
+                    inQuotes = true;
+                } else if (b == separator) {
+                    fields.add(field.toString());
+                    field.reset();
+                } else if (b == '\n' || b < 0) {
+                    field.removeTrailingCarriageReturn();
+                    fields.add(field.toString());
+                    return fields.toArray(new String[0]);
+                } else {
+                    field.append(b);
+                }
+            }
+        }
+
+        // moves to the first record that starts at or after the current position, given the quote state before it
+        boolean skipToRecordStart(boolean startsInQuotes) throws IOException {
+            if (0 < bufferStart && !startsInQuotes) {
+                final ByteBuffer previous = ByteBuffer.allocate(1);
+                channel.read(previous, bufferStart - 1);
+                if (previous.get(0) == '\n') {
+                    return true;
+                }
+            }
+
+            boolean inQuotes = startsInQuotes;
+            while (true) {
+                int b = nextByte();
+                if (b < 0) {
+                    return false;
+                } else if (b == '"') {
+                    inQuotes = !inQuotes;
+                } else if (b == '\n' && !inQuotes) {
+                    return true;
+                }
+            }
+        }
+    }
+
+    // a growable byte array that is decoded as UTF-8
+    private static class FieldBuilder {
+
+        private int length;
+        private byte[] bytes = new byte[256];
+
+        void append(int b) {
+            if (length == bytes.length) {
+                bytes = Arrays.copyOf(bytes, 2 * length);
+            }
+            bytes[length++] = (byte) b;
+        }
+
+        void removeTrailingCarriageReturn() {
+            if (0 < length && bytes[length - 1] == '\r') {
+                length--;
+            }
+        }
+
+        void reset() {
+            length = 0;
+        }
+
+        @Override
+        public String toString() {
+            return new String(bytes, 0, length, StandardCharsets.UTF_8);
+        }
+    }
+}
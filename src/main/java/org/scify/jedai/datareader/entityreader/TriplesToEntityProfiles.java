@@ -0,0 +1,102 @@
+/*
+* Copyright [2016-2020] [George Papadakis (gpapadis@yahoo.gr)]
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+*    http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+ */
+package org.scify.jedai.datareader.entityreader;
+
+import org.scify.jedai.datamodel.EntityProfile;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
+
+/**
+ * Groups a stream of triples into entity profiles, with one profile per
+ * subject, the predicates as attribute names and the objects as values.
+ *
+ * When the triples are sorted (or simply grouped) by subject, every profile is
+ * passed to the consumer as soon as the next subject appears, without indexing
+ * the subjects. Otherwise, the profiles are indexed by subject and passed to
+ * the consumer at the end of the stream, in the order of their first triple.
+ *
+ * @author G.A.P. II
+ */
+final class TriplesToEntityProfiles {
+
+    private final boolean groupedBySubject;
+
+    private final Consumer<EntityProfile> consumer;
+    private EntityProfile currentProfile;
+    private final List<EntityProfile> pendingProfiles;
+    private final Map<String, EntityProfile> urlToEntity;
+    private final Set<String> attributesToExclude;
+
+    TriplesToEntityProfiles(Set<String> attributesToExclude, boolean groupedBySubject, Consumer<EntityProfile> consumer) {
+        this.attributesToExclude = attributesToExclude;
+        this.consumer = consumer;
+        this.groupedBySubject = groupedBySubject;
+
+        currentProfile = null;
+        pendingProfiles = groupedBySubject ? null : new ArrayList<>();
+        urlToEntity = groupedBySubject ? null : new HashMap<>();
+    }
+
+    void addTriple(String subject, String predicate, String object) {
+        if (attributesToExclude.contains(predicate)) {
+            return;
+        }
+
+        //if already exists a profile for the subject, simply add po as <Att>-<Value>
+        EntityProfile entityProfile;
+        if (groupedBySubject) {
+            if (currentProfile == null || !currentProfile.getEntityUrl().equals(subject)) {
+                if (currentProfile != null) {
+                    consumer.accept(currentProfile);
+                }
+                currentProfile = new EntityProfile(subject);
+            }
+            entityProfile = currentProfile;
+        } else {
+            entityProfile = urlToEntity.get(subject);
+            if (entityProfile == null) {
+                entityProfile = new EntityProfile(subject);
+                pendingProfiles.add(entityProfile);
+                urlToEntity.put(subject, entityProfile);
+            }
+        }
+
+        if (!object.isEmpty()) {
+            entityProfile.addAttribute(predicate, object);
+        }
+    }
+
+    /**
+     * Passes the remaining profiles to the consumer, at the end of the stream.
+     */
+    void finish() {
+        if (groupedBySubject) {
+            if (currentProfile != null) {
+                consumer.accept(currentProfile);
+                currentProfile = null;
+            }
+        } else {
+            pendingProfiles.forEach(consumer);
+            pendingProfiles.clear();
+            urlToEntity.clear();
+        }
+    }
+}
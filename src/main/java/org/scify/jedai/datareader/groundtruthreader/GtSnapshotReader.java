@@ -0,0 +1,166 @@
+/*
+* Copyright [2016-2020] [George Papadakis (gpapadis@yahoo.gr)]
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+*    http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+ */
+package org.scify.jedai.datareader.groundtruthreader;
+
+import com.esotericsoftware.minlog.Log;
+import org.scify.jedai.datamodel.EntityProfile;
+import org.scify.jedai.datamodel.IdDuplicates;
+import org.scify.jedai.datareader.SnapshotFormat;
+import org.scify.jedai.datareader.SnapshotFormat.ByteSource;
+import org.scify.jedai.datareader.SnapshotFormat.MappedBlocks;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.IntStream;
+
+import org.apache.jena.atlas.json.JsonArray;
+import org.apache.jena.atlas.json.JsonObject;
+
+/**
+ * Reads ground-truth duplicates from a binary snapshot, as stored by the
+ * GtSnapshotWriter. The snapshot is mapped into memory and its blocks are
+ * decoded directly from the mapped buffers in parallel.
+ *
+ * @author G.A.P. II
+ */
+public class GtSnapshotReader extends AbstractGtReader {
+
+    public GtSnapshotReader(String filePath) {
+        super(filePath);
+    }
+
+    @Override
+    public Set<IdDuplicates> getDuplicatePairs(List<EntityProfile> profilesD1,
+            List<EntityProfile> profilesD2) {
+        if (!idDuplicates.isEmpty()) {
+            return idDuplicates;
+        }
+
+        if (inputFilePath == null) {
+            Log.error("Input file path has not been set!");
+            return null;
+        }
+
+        try (FileChannel channel = FileChannel.open(Paths.get(inputFilePath), StandardOpenOption.READ)) {
+            if (channel.size() < GtSnapshotWriter.HEADER_SIZE) {
+                Log.error("Invalid ground-truth snapshot: " + inputFilePath);
+                return null;
+            }
+
+            final ByteSource header = new ByteSource(SnapshotFormat.map(channel, 0, GtSnapshotWriter.HEADER_SIZE));
+            if (header.readInt() != SnapshotFormat.DUPLICATES_MAGIC) {
+                Log.error("Invalid ground-truth snapshot: " + inputFilePath);
+                return null;
+            }
+            final int version = header.readInt();
+            if (version != SnapshotFormat.VERSION) {
+                Log.error("Unsupported snapshot version: " + version);
+                return null;
+            }
+            final int noOfPairs = header.readInt();
+            final int pairsPerBlock = header.readInt();
+            final int noOfBlocks = header.readInt();
+            final long indexOffset = header.readLong();
+
+            final long[] blockOffsets = new long[noOfBlocks + 1];
+            SnapshotFormat.map(channel, indexOffset, 8L * blockOffsets.length).asLongBuffer().get(blockOffsets);
+            final MappedBlocks blocks = new MappedBlocks(channel, blockOffsets);
+
+            final IdDuplicates[] pairs = new IdDuplicates[noOfPairs];
+            IntStream.range(0, noOfBlocks).parallel().forEach(blockId -> {
+                final ByteSource source = new ByteSource(blocks.getBlock(blockId));
+                final int blockEnd = Math.min(noOfPairs, (blockId + 1) * pairsPerBlock);
+
+                int id1 = 0;
+                int id2 = 0;
+                for (int i = blockId * pairsPerBlock; i < blockEnd; i++) {
+                    final int delta1 = source.readVarInt();
+                    final int value2 = source.readVarInt();
+                    id1 += delta1;
+                    id2 = delta1 == 0 ? id2 + value2 : value2;
+                    pairs[i] = new IdDuplicates(id1, id2);
+                }
+            });
+            idDuplicates.addAll(Arrays.asList(pairs));
+        } catch (IOException ioex) {
+            Log.error("Error in ground-truth snapshot reading", ioex);
+            return null;
+        }
+        return idDuplicates;
+    }
+
+    @Override
+    public String getMethodConfiguration() {
+        return getParameterName(0) + "=" + inputFilePath;
+    }
+
+    @Override
+    public String getMethodInfo() {
+        return getMethodName() + ": it loads a binary snapshot of IdDuplicates objects into memory, decoding its blocks in parallel.";
+    }
+
+    @Override
+    public String getMethodName() {
+        return "Snapshot Ground-truth Reader";
+    }
+
+    @Override
+    public String getMethodParameters() {
+        return getMethodName() + " involves a single parameter:\n"
+                + "1)" + getParameterDescription(0) + ".";
+    }
+
+    @Override
+    public JsonArray getParameterConfiguration() {
+        final JsonObject obj1 = new JsonObject();
+        obj1.put("class", "java.lang.String");
+        obj1.put("name", getParameterName(0));
+        obj1.put("defaultValue", "-");
+        obj1.put("minValue", "-");
+        obj1.put("maxValue", "-");
+        obj1.put("stepValue", "-");
+        obj1.put("description", getParameterDescription(0));
+
+        final JsonArray array = new JsonArray();
+        array.add(obj1);
+        return array;
+    }
+
+    @Override
+    public String getParameterDescription(int parameterId) {
+        switch (parameterId) {
+            case 0:
+                return "The " + getParameterName(0) + " determines the absolute path to the snapshot file that will be read into main memory.";
+            default:
+                return "invalid parameter id";
+        }
+    }
+
+    @Override
+    public String getParameterName(int parameterId) {
+        switch (parameterId) {
+            case 0:
+                return "File Path";
+            default:
+                return "invalid parameter id";
+        }
+    }
+}
@@ -0,0 +1,127 @@
+/*
+* Copyright [2016-2020] [George Papadakis (gpapadis@yahoo.gr)]
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+*    http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+ */
+package org.scify.jedai.datareader.groundtruthreader;
+
+import com.esotericsoftware.minlog.Log;
+import org.scify.jedai.datamodel.IdDuplicates;
+import org.scify.jedai.datareader.SnapshotFormat;
+import org.scify.jedai.datareader.SnapshotFormat.ByteSink;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Collection;
+
+/**
+ * Stores ground-truth duplicates in the binary snapshot format that is read by
+ * the GtSnapshotReader. The pairs are sorted by their first and then by their
+ * second entity id and are grouped into blocks. In every block, the first
+ * pair is stored as it is, while every subsequent pair is stored as the
+ * difference of its first id from the previous pair, followed either by the
+ * difference of its second id, if the first ids are equal, or by its second
+ * id. The file comprises a header with the magic number, the format version,
+ * the number of pairs, the number of pairs per block, the number of blocks
+ * and the offset of the block index, followed by the blocks and the block
+ * index, i.e., the offset of every block plus the end of the last one.
+ *
+ * @author G.A.P. II
+ */
+public class GtSnapshotWriter {
+
+    public static final int HEADER_SIZE = 28;
+
+    private int pairsPerBlock;
+
+    private final String outputFilePath;
+
+    public GtSnapshotWriter(String outputPath) {
+        outputFilePath = outputPath;
+        pairsPerBlock = 65536;
+    }
+
+    public void setPairsPerBlock(int pairsPerBlock) {
+        this.pairsPerBlock = pairsPerBlock;
+    }
+
+    public void storeDuplicatePairs(Collection<IdDuplicates> duplicates) {
+        if (outputFilePath == null) {
+            Log.error("Output file path has not been set!");
+            return;
+        }
+        if (pairsPerBlock < 1) {
+            Log.error("The number of pairs per block should be positive!");
+            return;
+        }
+
+        final long[] pairs = new long[duplicates.size()];
+        int counter = 0;
+        for (IdDuplicates duplicate : duplicates) {
+            if (duplicate.getEntityId1() < 0 || duplicate.getEntityId2() < 0) {
+                Log.error("Negative entity ids cannot be stored: " + duplicate.getEntityId1() + ", " + duplicate.getEntityId2());
+                return;
+            }
+            pairs[counter++] = ((long) duplicate.getEntityId1()) << 32 | duplicate.getEntityId2();
+        }
+        Arrays.parallelSort(pairs);
+
+        final int noOfBlocks = (pairs.length + pairsPerBlock - 1) / pairsPerBlock;
+        final long[] blockOffsets = new long[noOfBlocks + 1];
+        try (FileChannel channel = FileChannel.open(Paths.get(outputFilePath), StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            final ByteSink sink = new ByteSink(1 << 16);
+
+            long offset = HEADER_SIZE;
+            channel.position(offset);
+            for (int blockId = 0; blockId < noOfBlocks; blockId++) {
+                blockOffsets[blockId] = offset;
+
+                int previousId1 = 0;
+                int previousId2 = 0;
+                final int blockEnd = Math.min(pairs.length, (blockId + 1) * pairsPerBlock);
+                for (int i = blockId * pairsPerBlock; i < blockEnd; i++) {
+                    final int id1 = (int) (pairs[i] >>> 32);
+                    final int id2 = (int) pairs[i];
+                    sink.writeVarInt(id1 - previousId1);
+                    sink.writeVarInt(id1 == previousId1 ? id2 - previousId2 : id2);
+                    previousId1 = id1;
+                    previousId2 = id2;
+                }
+                sink.writeTo(channel);
+                offset += sink.size();
+                sink.clear();
+            }
+
+            blockOffsets[noOfBlocks] = offset;
+            for (long blockOffset : blockOffsets) {
+                sink.writeLong(blockOffset);
+            }
+            sink.writeTo(channel);
+            sink.clear();
+
+            sink.writeInt(SnapshotFormat.DUPLICATES_MAGIC);
+            sink.writeInt(SnapshotFormat.VERSION);
+            sink.writeInt(pairs.length);
+            sink.writeInt(pairsPerBlock);
+            sink.writeInt(noOfBlocks);
+            sink.writeLong(offset);
+            sink.writeTo(channel, 0);
+        } catch (IOException ioex) {
+            Log.error("Error in storing ground-truth snapshot", ioex);
+        }
+    }
+}
@@ -29,6 +29,7 @@ import org.rdfhdt.hdt.hdt.HDTManager;
 import org.rdfhdt.hdt.options.HDTSpecification;
 import org.scify.jedai.blockprocessing.comparisoncleaning.ComparisonPropagation;
 import org.scify.jedai.datamodel.*;
+import org.scify.jedai.datawriter.DetailedResultsExporter.Format;
 import org.scify.jedai.utilities.DBUtils;
 import org.scify.jedai.utilities.datastructures.AbstractDuplicatePropagation;
 import org.scify.jedai.utilities.datastructures.GroundTruthIndex;
@@ -39,6 +40,7 @@ import java.io.IOException;
 import java.io.PrintWriter;
 import java.sql.Connection;
 import java.sql.Statement;
+import java.util.BitSet;
 import java.util.List;
 
 /**
@@ -69,6 +71,7 @@ public class BlocksPerformanceWriter {
     private String dbtable;
     private String dbuser;
     private boolean ssl;
+    private int sparqlBatchSize;
     private String endpointURL;
     private String endpointGraph;
 
@@ -76,6 +79,7 @@ public class BlocksPerformanceWriter {
         abstractDP = adp;
         abstractDP.resetDuplicates();
         blocks = bl;
+        sparqlBatchSize = 5000; // the triples of 1000 pairs
     }
 
     public void setPassword(String password) {
@@ -102,6 +106,13 @@ public class BlocksPerformanceWriter {
         this.endpointGraph = endpointGraph;
     }
 
+    /**
+     * @param sparqlBatchSize the maximum number of triples per SPARQL update
+     */
+    public void setSPARQLBatchSize(int sparqlBatchSize) {
+        this.sparqlBatchSize = sparqlBatchSize;
+    }
+
     private boolean areCooccurring(boolean cleanCleanER, IdDuplicates pairOfDuplicates) {
         final int[] blocks1 = entityIndex.getEntityBlocks(pairOfDuplicates.getEntityId1(), 0);
         if (blocks1 == null) {
@@ -171,22 +182,20 @@ public class BlocksPerformanceWriter {
         if (isCleanCleanER) {
             final TIntSet entitiesD2 = new TIntHashSet((int) aggregateCardinality);
             for (AbstractBlock block : blocks) {
-                final ComparisonIterator iterator = block.getComparisonIterator();
-                while (iterator.hasNext()) {
-                    Comparison comparison = iterator.next();
-                    entitiesD1.add(comparison.getEntityId1());
-                    entitiesD2.add(comparison.getEntityId2());
+                final ComparisonCursor cursor = block.getComparisonCursor();
+                while (cursor.next()) {
+                    entitiesD1.add(cursor.entityId1());
+                    entitiesD2.add(cursor.entityId2());
                 }
             }
             noOfD1Entities = entitiesD1.size();
             noOfD2Entities = entitiesD2.size();
         } else {
             for (AbstractBlock block : blocks) {
-                final ComparisonIterator iterator = block.getComparisonIterator();
-                while (iterator.hasNext()) {
-                    Comparison comparison = iterator.next();
-                    entitiesD1.add(comparison.getEntityId1());
-                    entitiesD1.add(comparison.getEntityId2());
+                final ComparisonCursor cursor = block.getComparisonCursor();
+                while (cursor.next()) {
+                    entitiesD1.add(cursor.entityId1());
+                    entitiesD1.add(cursor.entityId2());
                 }
             }
             noOfD1Entities = entitiesD1.size();
@@ -199,11 +208,7 @@ public class BlocksPerformanceWriter {
 
     private void getDuplicatesOfDecomposedBlocks() {
         for (AbstractBlock block : blocks) {
-            ComparisonIterator iterator = block.getComparisonIterator();
-            while (iterator.hasNext()) {
-                final Comparison comp = iterator.next();
-                abstractDP.isSuperfluous(comp.getEntityId1(), comp.getEntityId2());
-            }
+            block.forEachPair(abstractDP::isSuperfluous);
         }
 
         detectedDuplicates = abstractDP.getNoOfDuplicates();
@@ -274,14 +279,13 @@ public class BlocksPerformanceWriter {
 
         abstractDP.resetDuplicates();
         for (AbstractBlock block : blocksToUse) {
-            final ComparisonIterator iterator = block.getComparisonIterator();
-            while (iterator.hasNext()) {
-                final Comparison currentComparison = iterator.next();
-                final EntityProfile profile1 = profilesD1.get(currentComparison.getEntityId1());
-                final EntityProfile profile2 = isCleanCleanER ? profilesD2.get(currentComparison.getEntityId2()) : profilesD1.get(currentComparison.getEntityId2());
+            final ComparisonCursor cursor = block.getComparisonCursor();
+            while (cursor.next()) {
+                final EntityProfile profile1 = profilesD1.get(cursor.entityId1());
+                final EntityProfile profile2 = isCleanCleanER ? profilesD2.get(cursor.entityId2()) : profilesD1.get(cursor.entityId2());
 
                 final int originalDuplicates = abstractDP.getNoOfDuplicates();
-                abstractDP.isSuperfluous(currentComparison.getEntityId1(), currentComparison.getEntityId2());
+                abstractDP.isSuperfluous(cursor.entityId1(), cursor.entityId2());
                 final int newDuplicates = abstractDP.getNoOfDuplicates();
 
                 System.out.print(profile1.getEntityUrl() + ",");
@@ -327,66 +331,8 @@ public class BlocksPerformanceWriter {
             return;
         }
 
-        setType();
-
-        List<AbstractBlock> blocksToUse = blocks;
-        if (!(blocks.get(0) instanceof DecomposedBlock)) {
-            final ComparisonPropagation cp = new ComparisonPropagation();
-            blocksToUse = cp.refineBlocks(blocks);
-        }
-
-        StringBuilder sb = new StringBuilder();
         final PrintWriter printWriter = new PrintWriter(new File(outputFile));
-
-        abstractDP.resetDuplicates();
-        for (AbstractBlock block : blocksToUse) {
-            final ComparisonIterator iterator = block.getComparisonIterator();
-            while (iterator.hasNext()) {
-                final Comparison currentComparison = iterator.next();
-                final EntityProfile profile1 = profilesD1.get(currentComparison.getEntityId1());
-                final EntityProfile profile2 = isCleanCleanER ? profilesD2.get(currentComparison.getEntityId2()) : profilesD1.get(currentComparison.getEntityId2());
-
-                final int originalDuplicates = abstractDP.getNoOfDuplicates();
-                abstractDP.isSuperfluous(currentComparison.getEntityId1(), currentComparison.getEntityId2());
-                final int newDuplicates = abstractDP.getNoOfDuplicates();
-
-                sb.append(profile1.getEntityUrl()).append(",");
-                sb.append(profile2.getEntityUrl()).append(",");
-                if (originalDuplicates == newDuplicates) {
-                    sb.append("FP,"); //false positive
-                } else { // originalDuplicates < newDuplicates
-                    sb.append("TP,"); // true positive
-                }
-                sb.append("Profile 1:[").append(profile1).append("]");
-                sb.append("Profile 2:[").append(profile2).append("]").append("\n");
-            }
-        }
-
-        for (IdDuplicates duplicatesPair : abstractDP.getFalseNegatives()) {
-            final EntityProfile profile1 = profilesD1.get(duplicatesPair.getEntityId1());
-            final EntityProfile profile2 = isCleanCleanER ? profilesD2.get(duplicatesPair.getEntityId2()) : profilesD1.get(duplicatesPair.getEntityId2());
-
-            sb.append(profile1.getEntityUrl()).append(",");
-            sb.append(profile2.getEntityUrl()).append(",");
-            sb.append("FN,"); // false negative
-            sb.append("Profile 1:[").append(profile1).append("]");
-            sb.append("Profile 2:[").append(profile2).append("]").append("\n");
-        }
-
-        detectedDuplicates = abstractDP.getNoOfDuplicates();
-        pc = ((float) abstractDP.getNoOfDuplicates()) / abstractDP.getExistingDuplicates();
-        pq = abstractDP.getNoOfDuplicates() / aggregateCardinality;
-        if (0 < pc && 0 < pq) {
-            fMeasure = 2 * pc * pq / (pc + pq);
-        } else {
-            fMeasure = 0;
-        }
-
-        printWriter.println("Pairs Quality (Precision)\t:\t" + pq);
-        printWriter.println("Pairs Completentess (Recall)\t:\t" + pc);
-        printWriter.println("F-Measure\t:\t" + fMeasure);
-        printWriter.write(sb.toString());
-        printWriter.close();
+        exportDetailedResults(profilesD1, profilesD2, Format.CSV, new DetailedResultsExporter.FileSink(printWriter));
     }
 
     public void printDetailedResultsToRDFXML(List<EntityProfile> profilesD1, List<EntityProfile> profilesD2, String outputFile) throws FileNotFoundException {
@@ -412,14 +358,13 @@ public class BlocksPerformanceWriter {
 
         abstractDP.resetDuplicates();
         for (AbstractBlock block : blocksToUse) {
-            final ComparisonIterator iterator = block.getComparisonIterator();
-            while (iterator.hasNext()) {
-                final Comparison currentComparison = iterator.next();
-                final EntityProfile profile1 = profilesD1.get(currentComparison.getEntityId1());
-                final EntityProfile profile2 = isCleanCleanER ? profilesD2.get(currentComparison.getEntityId2()) : profilesD1.get(currentComparison.getEntityId2());
+            final ComparisonCursor cursor = block.getComparisonCursor();
+            while (cursor.next()) {
+                final EntityProfile profile1 = profilesD1.get(cursor.entityId1());
+                final EntityProfile profile2 = isCleanCleanER ? profilesD2.get(cursor.entityId2()) : profilesD1.get(cursor.entityId2());
 
                 final int originalDuplicates = abstractDP.getNoOfDuplicates();
-                abstractDP.isSuperfluous(currentComparison.getEntityId1(), currentComparison.getEntityId2());
+                abstractDP.isSuperfluous(cursor.entityId1(), cursor.entityId2());
                 final int newDuplicates = abstractDP.getNoOfDuplicates();
 
                 printWriter.println();
@@ -523,133 +468,8 @@ public class BlocksPerformanceWriter {
             return;
         }
 
-        setType();
-
-        List<AbstractBlock> blocksToUse = blocks;
-        if (!(blocks.get(0) instanceof DecomposedBlock)) {
-            final ComparisonPropagation cp = new ComparisonPropagation();
-            blocksToUse = cp.refineBlocks(blocks);
-        }
-
         final PrintWriter printWriter = new PrintWriter(new File(outputFile));
-
-        printWriter.println("{\"triples\":\n");
-        printWriter.println("[");
-
-        String subString = "{Subject: \"";
-        String predString = "\", Predicate: \"";
-        String objString = "\", Object: \"";
-
-        abstractDP.resetDuplicates();
-        for (AbstractBlock block : blocksToUse) {
-            final ComparisonIterator iterator = block.getComparisonIterator();
-            while (iterator.hasNext()) {
-                final Comparison currentComparison = iterator.next();
-                final EntityProfile profile1 = profilesD1.get(currentComparison.getEntityId1());
-                final EntityProfile profile2 = isCleanCleanER ? profilesD2.get(currentComparison.getEntityId2()) : profilesD1.get(currentComparison.getEntityId2());
-
-                final int originalDuplicates = abstractDP.getNoOfDuplicates();
-                abstractDP.isSuperfluous(currentComparison.getEntityId1(), currentComparison.getEntityId2());
-                final int newDuplicates = abstractDP.getNoOfDuplicates();
-
-                printWriter.print(subString + block.toString());
-                printWriter.print(predString + "url1");
-                printWriter.print(objString + profile1.getEntityUrl().replace("&", "").replace("\\", "") + "");
-                printWriter.println("\"},");
-
-                printWriter.print(subString + block.toString());
-                printWriter.print(predString + "url2");
-                printWriter.print(objString + profile2.getEntityUrl().replace("&", "").replace("\\", "") + "");
-                printWriter.println("\"},");
-
-                printWriter.print(subString + block.toString());
-                printWriter.print(predString + "pairType");
-                printWriter.print(objString);
-                if (originalDuplicates == newDuplicates) {
-                    printWriter.print("FP"); //false positive
-                } else { // originalDuplicates < newDuplicates
-                    printWriter.print("TP"); // true positive
-                }
-                printWriter.println("\"},");
-
-                printWriter.print(subString + block.toString());
-                printWriter.print(predString + "Profile1");
-                printWriter.print(objString);
-                printWriter.print((profile1 + "").replace("&", "").replace("\\", ""));
-                printWriter.println("\"},");
-
-                printWriter.print(subString + block.toString());
-                printWriter.print(predString + "Profile2");
-                printWriter.print(objString);
-                printWriter.print((profile2 + "").replace("&", "").replace("\\", ""));
-                printWriter.println("\"},");
-            }
-        }
-
-        for (IdDuplicates duplicatesPair : abstractDP.getFalseNegatives()) {
-            final EntityProfile profile1 = profilesD1.get(duplicatesPair.getEntityId1());
-            final EntityProfile profile2 = isCleanCleanER ? profilesD2.get(duplicatesPair.getEntityId2()) : profilesD1.get(duplicatesPair.getEntityId2());
-
-            printWriter.print(subString + duplicatesPair.toString());
-            printWriter.print(predString + "url1");
-            printWriter.print(objString + profile1.getEntityUrl().replace("&", "").replace("\\", "") + "");
-            printWriter.println("\"},");
-
-            printWriter.print(subString + duplicatesPair.toString());
-            printWriter.print(predString + "url2");
-            printWriter.print(objString + profile2.getEntityUrl().replace("&", "").replace("\\", "") + "");
-            printWriter.println("\"},");
-
-            printWriter.print(subString + duplicatesPair.toString());
-            printWriter.print(predString + "pairType");
-            printWriter.print(objString);
-            printWriter.print("FN"); //false negative
-            printWriter.println("\"},");
-
-            printWriter.print(subString + duplicatesPair.toString());
-            printWriter.print(predString + "Profile1");
-            printWriter.print(objString);
-            printWriter.print((profile1 + "").replace("&", "").replace("\\", ""));
-            printWriter.println("\"},");
-
-            printWriter.print(subString + duplicatesPair.toString());
-            printWriter.print(predString + "Profile2");
-            printWriter.print(objString);
-            printWriter.print((profile2 + "").replace("&", "").replace("\\", ""));
-            printWriter.println("\"},");
-        }
-
-        detectedDuplicates = abstractDP.getNoOfDuplicates();
-        pc = ((float) abstractDP.getNoOfDuplicates()) / abstractDP.getExistingDuplicates();
-        pq = abstractDP.getNoOfDuplicates() / aggregateCardinality;
-        if (0 < pc && 0 < pq) {
-            fMeasure = 2 * pc * pq / (pc + pq);
-        } else {
-            fMeasure = 0;
-        }
-
-        printWriter.print(subString + "STATS");
-        printWriter.print(predString + "PairsQuality");
-        printWriter.print(objString);
-        printWriter.print(pq + "");
-        printWriter.println("\"},");
-
-        printWriter.print(subString + "STATS");
-        printWriter.print(predString + "PairsCompletentess");
-        printWriter.print(objString);
-        printWriter.print(pc + "");
-        printWriter.println("\"},");
-
-        printWriter.print(subString + "STATS");
-        printWriter.print(predString + "F-Measure");
-        printWriter.print(objString);
-        printWriter.print(fMeasure + "");
-        printWriter.println("\"}");
-
-        printWriter.println("]");
-        printWriter.println("}");
-        printWriter.close();
-
+        exportDetailedResults(profilesD1, profilesD2, Format.JSON, new DetailedResultsExporter.FileSink(printWriter));
     }
 
     public void printDetailedResultsToRDFNT(List<EntityProfile> profilesD1, List<EntityProfile> profilesD2, String outputFile) throws FileNotFoundException {
@@ -658,147 +478,24 @@ public class BlocksPerformanceWriter {
             return;
         }
 
-        setType();
-
-        List<AbstractBlock> blocksToUse = blocks;
-        if (!(blocks.get(0) instanceof DecomposedBlock)) {
-            final ComparisonPropagation cp = new ComparisonPropagation();
-            blocksToUse = cp.refineBlocks(blocks);
-        }
-
         final PrintWriter printWriter = new PrintWriter(new File(outputFile));
-
-        String xmlnsrdf = "http://www.w3.org/1999/02/22/";
-        String xmlnsobj = "https://www.w3schools.com/rdf/";
-
-        abstractDP.resetDuplicates();
-        for (AbstractBlock block : blocksToUse) {
-            final ComparisonIterator iterator = block.getComparisonIterator();
-            while (iterator.hasNext()) {
-                final Comparison currentComparison = iterator.next();
-                final EntityProfile profile1 = profilesD1.get(currentComparison.getEntityId1());
-                final EntityProfile profile2 = isCleanCleanER ? profilesD2.get(currentComparison.getEntityId2()) : profilesD1.get(currentComparison.getEntityId2());
-
-                final int originalDuplicates = abstractDP.getNoOfDuplicates();
-                abstractDP.isSuperfluous(currentComparison.getEntityId1(), currentComparison.getEntityId2());
-                final int newDuplicates = abstractDP.getNoOfDuplicates();
-
-                printWriter.print("<" + xmlnsrdf + block.toString() + "> ");
-                printWriter.print("<" + xmlnsobj + "url1" + "> \"");
-                printWriter.print(profile1.getEntityUrl().replace("&", "").replace("\\", "") + "");
-                printWriter.println("\"^^<http://www.w3.org/2001/XMLSchema#string>");
-
-                printWriter.print("<" + xmlnsrdf + block.toString() + "> ");
-                printWriter.print("<" + xmlnsobj + "url2" + "> \"");
-                printWriter.print(profile2.getEntityUrl().replace("&", "").replace("\\", "") + "");
-                printWriter.println("\"^^<http://www.w3.org/2001/XMLSchema#string>");
-
-                printWriter.print("<" + xmlnsrdf + block.toString() + "> ");
-                printWriter.print("<" + xmlnsobj + "pairType" + "> \"");
-                if (originalDuplicates == newDuplicates) {
-                    printWriter.print("FP"); //false positive
-                } else { // originalDuplicates < newDuplicates
-                    printWriter.print("TP"); // true positive
-                }
-                printWriter.println("\"^^<http://www.w3.org/2001/XMLSchema#string>");
-
-                printWriter.print("<" + xmlnsrdf + block.toString() + "> ");
-                printWriter.print("<" + xmlnsobj + "Profile1" + "> \"");
-                printWriter.print((profile1 + "").replace("&", "").replace("\\", ""));
-                printWriter.println("\"^^<http://www.w3.org/2001/XMLSchema#string>");
-
-                printWriter.print("<" + xmlnsrdf + block.toString() + "> ");
-                printWriter.print("<" + xmlnsobj + "Profile2" + "> \"");
-                printWriter.print((profile2 + "").replace("&", "").replace("\\", ""));
-                printWriter.println("\"^^<http://www.w3.org/2001/XMLSchema#string>");
-            }
-        }
-
-        for (IdDuplicates duplicatesPair : abstractDP.getFalseNegatives()) {
-            final EntityProfile profile1 = profilesD1.get(duplicatesPair.getEntityId1());
-            final EntityProfile profile2 = isCleanCleanER ? profilesD2.get(duplicatesPair.getEntityId2()) : profilesD1.get(duplicatesPair.getEntityId2());
-
-            printWriter.print("<" + xmlnsrdf + duplicatesPair.toString() + "> ");
-            printWriter.print("<" + xmlnsobj + "url1" + "> \"");
-            printWriter.print(profile1.getEntityUrl().replace("&", "").replace("\\", "") + "");
-            printWriter.println("\"^^<http://www.w3.org/2001/XMLSchema#string>");
-
-            printWriter.print("<" + xmlnsrdf + duplicatesPair.toString() + "> ");
-            printWriter.print("<" + xmlnsobj + "url2" + "> \"");
-            printWriter.print(profile2.getEntityUrl().replace("&", "").replace("\\", "") + "");
-            printWriter.println("\"^^<http://www.w3.org/2001/XMLSchema#string>");
-
-            printWriter.print("<" + xmlnsrdf + duplicatesPair.toString() + "> ");
-            printWriter.print("<" + xmlnsobj + "pairType" + "> \"");
-            printWriter.print("FN"); //false positive
-
-            printWriter.println("\"^^<http://www.w3.org/2001/XMLSchema#string>");
-
-            printWriter.print("<" + xmlnsrdf + duplicatesPair.toString() + "> ");
-            printWriter.print("<" + xmlnsobj + "Profile1" + "> \"");
-            printWriter.print((profile1 + "").replace("&", "").replace("\\", ""));
-            printWriter.println("\"^^<http://www.w3.org/2001/XMLSchema#string>");
-
-            printWriter.print("<" + xmlnsrdf + duplicatesPair.toString() + "> ");
-            printWriter.print("<" + xmlnsobj + "Profile2" + "> \"");
-            printWriter.print((profile2 + "").replace("&", "").replace("\\", ""));
-            printWriter.println("\"^^<http://www.w3.org/2001/XMLSchema#string>");
-        }
-
-        detectedDuplicates = abstractDP.getNoOfDuplicates();
-        pc = ((float) abstractDP.getNoOfDuplicates()) / abstractDP.getExistingDuplicates();
-        pq = abstractDP.getNoOfDuplicates() / aggregateCardinality;
-        if (0 < pc && 0 < pq) {
-            fMeasure = 2 * pc * pq / (pc + pq);
-        } else {
-            fMeasure = 0;
-        }
-
-        printWriter.print("<" + xmlnsrdf + "STATS" + "> ");
-        printWriter.print("<" + xmlnsobj + "PairsQuality" + "> \"");
-        printWriter.print(pq + "");
-        printWriter.println("\"^^<http://www.w3.org/2001/XMLSchema#string>");
-
-        printWriter.print("<" + xmlnsrdf + "STATS" + "> ");
-        printWriter.print("<" + xmlnsobj + "PairsCompletentess" + "> \"");
-        printWriter.print(pc + "");
-        printWriter.println("\"^^<http://www.w3.org/2001/XMLSchema#string>");
-
-        printWriter.print("<" + xmlnsrdf + "STATS" + "> ");
-        printWriter.print("<" + xmlnsobj + "F-Measure" + "> \"");
-        printWriter.print(fMeasure + "");
-        printWriter.println("\"^^<http://www.w3.org/2001/XMLSchema#string>");
-
-        printWriter.close();
-
+        exportDetailedResults(profilesD1, profilesD2, Format.NTRIPLES, new DetailedResultsExporter.FileSink(printWriter));
     }
 
     public void printDetailedResultsToHDTrdf(List<EntityProfile> profilesD1, List<EntityProfile> profilesD2, String outputFile) throws IOException, ParserException {
+        if (blocks.isEmpty()) {
+            Log.warn("Empty set of blocks was given as input!");
+            return;
+        }
 
-        this.printDetailedResultsToRDFNT(profilesD1, profilesD2, outputFile + "help.nt");
-        String baseURI = "http://www.w3.org/";
-        //String rdfInput = "data//minExample.nt";
-        String rdfInput = outputFile + "help.nt";
-        String inputType = "ntriples";
-        String hdtOutput = outputFile;
-
-        // Create HDT from RDF file
-        HDT hdt = HDTManager.generateHDT(
-                rdfInput, // Input RDF File
-                baseURI, // Base URI
-                RDFNotation.parse(inputType), // Input Type
-                new HDTSpecification(), // HDT Options
-                null // Progress Listener
-        );
-
-        // OPTIONAL: Add additional domain-specific properties to the header:
-        //Header header = hdt.getHeader();
-        //header.insert("myResource1", "property" , "value");
-        // Save generated HDT to a file
-        hdt.saveToHDT(hdtOutput, null);
-
-        // IMPORTANT: Close hdt when no longer needed
-        hdt.close();
+        // the N-Triples are passed directly to the construction of the HDT file
+        final DetailedResultsExporter.HDTSink hdtSink = new DetailedResultsExporter.HDTSink(outputFile, "http://www.w3.org/");
+        try {
+            exportDetailedResults(profilesD1, profilesD2, Format.NTRIPLES, hdtSink);
+            hdtSink.awaitHDT();
+        } finally {
+            hdtSink.abort();
+        }
     }
 
     public void printDetailedResultsToXML(List<EntityProfile> profilesD1, List<EntityProfile> profilesD2, String outputFile) throws FileNotFoundException {
@@ -823,14 +520,13 @@ public class BlocksPerformanceWriter {
 
         abstractDP.resetDuplicates();
         for (AbstractBlock block : blocksToUse) {
-            final ComparisonIterator iterator = block.getComparisonIterator();
-            while (iterator.hasNext()) {
-                final Comparison currentComparison = iterator.next();
-                final EntityProfile profile1 = profilesD1.get(currentComparison.getEntityId1());
-                final EntityProfile profile2 = isCleanCleanER ? profilesD2.get(currentComparison.getEntityId2()) : profilesD1.get(currentComparison.getEntityId2());
+            final ComparisonCursor cursor = block.getComparisonCursor();
+            while (cursor.next()) {
+                final EntityProfile profile1 = profilesD1.get(cursor.entityId1());
+                final EntityProfile profile2 = isCleanCleanER ? profilesD2.get(cursor.entityId2()) : profilesD1.get(cursor.entityId2());
 
                 final int originalDuplicates = abstractDP.getNoOfDuplicates();
-                abstractDP.isSuperfluous(currentComparison.getEntityId1(), currentComparison.getEntityId2());
+                abstractDP.isSuperfluous(cursor.entityId1(), cursor.entityId2());
                 final int newDuplicates = abstractDP.getNoOfDuplicates();
 
                 printWriter.println();
@@ -937,167 +633,7 @@ public class BlocksPerformanceWriter {
             return;
         }
 
-        setType();
-
-        List<AbstractBlock> blocksToUse = blocks;
-        if (!(blocks.get(0) instanceof DecomposedBlock)) {
-            final ComparisonPropagation cp = new ComparisonPropagation();
-            blocksToUse = cp.refineBlocks(blocks);
-        }
-        StringBuilder sb = new StringBuilder();
-
-        String sparqlQueryString1 = "INSERT DATA { "
-                + "GRAPH " + GraphName + " { ";
-        sb.append(sparqlQueryString1);
-
-        abstractDP.resetDuplicates();
-        int counter0 = 0;
-        for (AbstractBlock block : blocksToUse) {
-            final ComparisonIterator iterator = block.getComparisonIterator();
-            while (iterator.hasNext()) {
-                final Comparison currentComparison = iterator.next();
-                final EntityProfile profile1 = profilesD1.get(currentComparison.getEntityId1());
-                final EntityProfile profile2 = isCleanCleanER ? profilesD2.get(currentComparison.getEntityId2()) : profilesD1.get(currentComparison.getEntityId2());
-
-                final int originalDuplicates = abstractDP.getNoOfDuplicates();
-                abstractDP.isSuperfluous(currentComparison.getEntityId1(), currentComparison.getEntityId2());
-                final int newDuplicates = abstractDP.getNoOfDuplicates();
-
-                counter0++;
-
-                sb.append("<obj/" + "record/").append(block.toString()).append("> ");
-                sb.append("<url1> ");
-                sb.append("\"").append(profile1.getEntityUrl().replace("&", "")).append("\".\n");
-
-                sb.append("<obj/" + "record/").append(block.toString()).append("> ");
-                sb.append("<url2> ");
-                sb.append("\"").append(profile2.getEntityUrl().replace("&", "")).append("\".\n");
-
-                sb.append("<obj/" + "record/").append(block.toString()).append("> ");
-                sb.append("<pairType> ");
-                if (originalDuplicates == newDuplicates) {
-                    sb.append("\"" + "FP" + "\".\n");//false positive
-                } else { // originalDuplicates < newDuplicates
-                    sb.append("\"" + "TP" + "\".\n"); // true positive
-                }
-
-                sb.append("<obj/" + "record/").append(block.toString()).append("> ");
-                sb.append("<Profile1> ");
-                sb.append("\"").append((profile1 + "").replace("&", "")).append("\".\n");
-
-                sb.append("<obj/" + "record/").append(block.toString()).append("> ");
-                sb.append("<Profile2> ");
-                sb.append("\"").append((profile2 + "").replace("&", "")).append("\".\n");
-
-                //execute query every 1000 steps
-                if (counter0 % 1000 == 0) {
-                    sb.append("}\n }");
-                    String sparqlQueryString = sb.toString();
-
-                    //System.out.println(sparqlQueryString);
-                    UpdateRequest update = UpdateFactory.create(sparqlQueryString);
-                    UpdateProcessor qexec = UpdateExecutionFactory.createRemote(update, endpointURL);
-                    qexec.execute();
-                    sb.setLength(0);
-                    sb.append(sparqlQueryString1);
-                }
-
-            }
-        }
-        if (counter0 % 1000 != 0) {
-            sb.append("}\n }");
-            String sparqlQueryString = sb.toString();
-
-            //System.out.println(sparqlQueryString);
-            UpdateRequest update = UpdateFactory.create(sparqlQueryString);
-            UpdateProcessor qexec = UpdateExecutionFactory.createRemote(update, endpointURL);
-            qexec.execute();
-            sb.setLength(0);
-            sb.append(sparqlQueryString1);
-        }
-
-        int counter1 = 0;
-        for (IdDuplicates duplicatesPair : abstractDP.getFalseNegatives()) {
-            final EntityProfile profile1 = profilesD1.get(duplicatesPair.getEntityId1());
-            final EntityProfile profile2 = isCleanCleanER ? profilesD2.get(duplicatesPair.getEntityId2()) : profilesD1.get(duplicatesPair.getEntityId2());
-
-            counter1++;
-
-            sb.append("<obj/" + "record/").append(duplicatesPair.toString()).append("> ");
-            sb.append("<url1> ");
-            sb.append("\"").append(profile1.getEntityUrl().replace("&", "")).append("\".\n");
-
-            sb.append("<obj/" + "record/").append(duplicatesPair.toString()).append("> ");
-            sb.append("<url2> ");
-            sb.append("\"").append(profile2.getEntityUrl().replace("&", "")).append("\".\n");
-
-            sb.append("<obj/" + "record/").append(duplicatesPair.toString()).append("> ");
-            sb.append("<pairType> ");
-            sb.append("\"" + "FN" + "\".\n"); // false negative
-
-            sb.append("<obj/" + "record/").append(duplicatesPair.toString()).append("> ");
-            sb.append("<Profile1> ");
-            sb.append("\"").append((profile1 + "").replace("&", "")).append("\".\n");
-
-            sb.append("<obj/" + "record/").append(duplicatesPair.toString()).append("> ");
-            sb.append("<Profile2> ");
-            sb.append("\"").append((profile2 + "").replace("&", "")).append("\".\n");
-
-            //execute query every 1000 steps
-            if (counter1 % 1000 == 0) {
-                sb.append("}\n }");
-                String sparqlQueryString = sb.toString();
-
-                //System.out.println(sparqlQueryString);
-                UpdateRequest update = UpdateFactory.create(sparqlQueryString);
-                UpdateProcessor qexec = UpdateExecutionFactory.createRemote(update, endpointURL);
-                qexec.execute();
-                sb.setLength(0);
-                sb.append(sparqlQueryString1);
-            }
-        }
-
-        if (counter1 % 1000 != 0) {
-            sb.append("}\n }");
-            String sparqlQueryString = sb.toString();
-
-            //System.out.println(sparqlQueryString);
-            UpdateRequest update = UpdateFactory.create(sparqlQueryString);
-            UpdateProcessor qexec = UpdateExecutionFactory.createRemote(update, endpointURL);
-            qexec.execute();
-            sb.setLength(0);
-            sb.append(sparqlQueryString1);
-        }
-
-        detectedDuplicates = abstractDP.getNoOfDuplicates();
-        pc = ((float) abstractDP.getNoOfDuplicates()) / abstractDP.getExistingDuplicates();
-        pq = abstractDP.getNoOfDuplicates() / aggregateCardinality;
-        if (0 < pc && 0 < pq) {
-            fMeasure = 2 * pc * pq / (pc + pq);
-        } else {
-            fMeasure = 0;
-        }
-
-        sb.append("<obj/" + "record/" + "STATS" + "> ");
-        sb.append("<PairsQuality> ");
-        sb.append("\"").append(pq).append("\".\n");
-
-        sb.append("<obj/" + "record/" + "STATS" + "> ");
-        sb.append("<PairsCompletentess> ");
-        sb.append("\"").append(pc).append("\".\n");
-
-        sb.append("<obj/" + "record/" + "STATS" + "> ");
-        sb.append("<F-Measure> ");
-        sb.append("\"").append(fMeasure).append("\".\n");
-
-        sb.append("}\n }");
-        String sparqlQueryString = sb.toString();
-
-        //System.out.println(sparqlQueryString);
-        UpdateRequest update = UpdateFactory.create(sparqlQueryString);
-        UpdateProcessor qexec = UpdateExecutionFactory.createRemote(update, endpointURL);
-        qexec.execute();
-
+        exportDetailedResults(profilesD1, profilesD2, Format.SPARQL, new DetailedResultsExporter.SPARQLSink(endpointURL, GraphName, sparqlBatchSize));
     }
 
     public void printDetailedResultsToDB(List<EntityProfile> profilesD1, List<EntityProfile> profilesD2, String dbURL) {
@@ -1119,14 +655,13 @@ public class BlocksPerformanceWriter {
         sb.append(dbquery1);
         abstractDP.resetDuplicates();
         for (AbstractBlock block : blocksToUse) {
-            final ComparisonIterator iterator = block.getComparisonIterator();
-            while (iterator.hasNext()) {
-                final Comparison currentComparison = iterator.next();
-                final EntityProfile profile1 = profilesD1.get(currentComparison.getEntityId1());
-                final EntityProfile profile2 = isCleanCleanER ? profilesD2.get(currentComparison.getEntityId2()) : profilesD1.get(currentComparison.getEntityId2());
+            final ComparisonCursor cursor = block.getComparisonCursor();
+            while (cursor.next()) {
+                final EntityProfile profile1 = profilesD1.get(cursor.entityId1());
+                final EntityProfile profile2 = isCleanCleanER ? profilesD2.get(cursor.entityId2()) : profilesD1.get(cursor.entityId2());
 
                 final int originalDuplicates = abstractDP.getNoOfDuplicates();
-                abstractDP.isSuperfluous(currentComparison.getEntityId1(), currentComparison.getEntityId2());
+                abstractDP.isSuperfluous(cursor.entityId1(), cursor.entityId2());
                 final int newDuplicates = abstractDP.getNoOfDuplicates();
 
                 sb.append("('").append(profile1.getEntityUrl()).append("', ");
@@ -1207,11 +742,7 @@ public class BlocksPerformanceWriter {
 
         abstractDP.resetDuplicates();
         for (AbstractBlock block : blocksToUse) {
-            final ComparisonIterator iterator = block.getComparisonIterator();
-            while (iterator.hasNext()) {
-                final Comparison comp = iterator.next();
-                abstractDP.isSuperfluous(comp.getEntityId1(), comp.getEntityId2());
-            }
+            block.forEachPair(abstractDP::isSuperfluous);
         }
 
         for (IdDuplicates duplicatesPair : abstractDP.getFalseNegatives()) {
@@ -1248,11 +779,7 @@ public class BlocksPerformanceWriter {
 
         abstractDP.resetDuplicates();
         for (AbstractBlock block : blocksToUse) {
-            final ComparisonIterator iterator = block.getComparisonIterator();
-            while (iterator.hasNext()) {
-                final Comparison comp = iterator.next();
-                abstractDP.isSuperfluous(comp.getEntityId1(), comp.getEntityId2());
-            }
+            block.forEachPair(abstractDP::isSuperfluous);
         }
 
         for (IdDuplicates duplicatesPair : abstractDP.getFalseNegatives()) {
@@ -1307,11 +834,7 @@ public class BlocksPerformanceWriter {
 
         abstractDP.resetDuplicates();
         for (AbstractBlock block : blocksToUse) {
-            final ComparisonIterator iterator = block.getComparisonIterator();
-            while (iterator.hasNext()) {
-                final Comparison comp = iterator.next();
-                abstractDP.isSuperfluous(comp.getEntityId1(), comp.getEntityId2());
-            }
+            block.forEachPair(abstractDP::isSuperfluous);
         }
 
         for (IdDuplicates duplicatesPair : abstractDP.getFalseNegatives()) {
@@ -1373,11 +896,7 @@ public class BlocksPerformanceWriter {
 
         abstractDP.resetDuplicates();
         for (AbstractBlock block : blocksToUse) {
-            final ComparisonIterator iterator = block.getComparisonIterator();
-            while (iterator.hasNext()) {
-                final Comparison comp = iterator.next();
-                abstractDP.isSuperfluous(comp.getEntityId1(), comp.getEntityId2());
-            }
+            block.forEachPair(abstractDP::isSuperfluous);
         }
 
         int cntr = 0;
@@ -1442,11 +961,7 @@ public class BlocksPerformanceWriter {
 
         abstractDP.resetDuplicates();
         for (AbstractBlock block : blocksToUse) {
-            final ComparisonIterator iterator = block.getComparisonIterator();
-            while (iterator.hasNext()) {
-                final Comparison comp = iterator.next();
-                abstractDP.isSuperfluous(comp.getEntityId1(), comp.getEntityId2());
-            }
+            block.forEachPair(abstractDP::isSuperfluous);
         }
 
         for (IdDuplicates duplicatesPair : abstractDP.getFalseNegatives()) {
@@ -1530,11 +1045,7 @@ public class BlocksPerformanceWriter {
 
         abstractDP.resetDuplicates();
         for (AbstractBlock block : blocksToUse) {
-            final ComparisonIterator iterator = block.getComparisonIterator();
-            while (iterator.hasNext()) {
-                final Comparison comp = iterator.next();
-                abstractDP.isSuperfluous(comp.getEntityId1(), comp.getEntityId2());
-            }
+            block.forEachPair(abstractDP::isSuperfluous);
         }
 
         for (IdDuplicates duplicatesPair : abstractDP.getFalseNegatives()) {
@@ -1594,11 +1105,7 @@ public class BlocksPerformanceWriter {
 
         abstractDP.resetDuplicates();
         for (AbstractBlock block : blocksToUse) {
-            final ComparisonIterator iterator = block.getComparisonIterator();
-            while (iterator.hasNext()) {
-                final Comparison comp = iterator.next();
-                abstractDP.isSuperfluous(comp.getEntityId1(), comp.getEntityId2());
-            }
+            block.forEachPair(abstractDP::isSuperfluous);
         }
 
         int counter = 0;
@@ -1651,6 +1158,59 @@ public class BlocksPerformanceWriter {
         }
     }
 
+    private void exportDetailedResults(List<EntityProfile> profilesD1, List<EntityProfile> profilesD2, Format format, DetailedResultsExporter.Sink sink) {
+        setType();
+
+        List<AbstractBlock> blocksToUse = blocks;
+        if (!(blocks.get(0) instanceof DecomposedBlock)) {
+            final ComparisonPropagation cp = new ComparisonPropagation();
+            blocksToUse = cp.refineBlocks(blocks);
+        }
+
+        // the comparisons are labelled in advance, because the measures precede them in CSV
+        final BitSet truePositives = new BitSet();
+        abstractDP.resetDuplicates();
+        int comparisonId = 0;
+        for (AbstractBlock block : blocksToUse) {
+            final ComparisonCursor cursor = block.getComparisonCursor();
+            while (cursor.next()) {
+                final int originalDuplicates = abstractDP.getNoOfDuplicates();
+                abstractDP.isSuperfluous(cursor.entityId1(), cursor.entityId2());
+                if (originalDuplicates < abstractDP.getNoOfDuplicates()) {
+                    truePositives.set(comparisonId);
+                }
+                comparisonId++;
+            }
+        }
+
+        detectedDuplicates = abstractDP.getNoOfDuplicates();
+        pc = ((float) abstractDP.getNoOfDuplicates()) / abstractDP.getExistingDuplicates();
+        pq = abstractDP.getNoOfDuplicates() / aggregateCardinality;
+        if (0 < pc && 0 < pq) {
+            fMeasure = 2 * pc * pq / (pc + pq);
+        } else {
+            fMeasure = 0;
+        }
+
+        final String[] statisticNames = format == Format.CSV
+                ? new String[]{"Pairs Quality (Precision)", "Pairs Completentess (Recall)", "F-Measure"}
+                : new String[]{"PairsQuality", "PairsCompletentess", "F-Measure"};
+        final DetailedResultsExporter exporter = new DetailedResultsExporter(format, statisticNames, new float[]{pq, pc, fMeasure},
+                profilesD1, isCleanCleanER ? profilesD2 : profilesD1, sink);
+        comparisonId = 0;
+        for (AbstractBlock block : blocksToUse) {
+            final ComparisonCursor cursor = block.getComparisonCursor();
+            while (cursor.next()) {
+                exporter.addPair(block, cursor.entityId1(), cursor.entityId2(),
+                        truePositives.get(comparisonId++) ? DetailedResultsExporter.TRUE_POSITIVE : DetailedResultsExporter.FALSE_POSITIVE);
+            }
+        }
+        for (IdDuplicates duplicatesPair : abstractDP.getFalseNegatives()) {
+            exporter.addPair(duplicatesPair, duplicatesPair.getEntityId1(), duplicatesPair.getEntityId2(), DetailedResultsExporter.FALSE_NEGATIVE);
+        }
+        exporter.close();
+    }
+
     public void printStatistics(float overheadTime, String methodConfiguration, String methodName) {
         if (blocks.isEmpty()) {
             return;
@@ -15,20 +15,13 @@
  */
 package org.scify.jedai.datawriter;
 
-import org.rdfhdt.hdt.enums.RDFNotation;
 import org.rdfhdt.hdt.exceptions.ParserException;
-import org.rdfhdt.hdt.hdt.HDT;
-import org.rdfhdt.hdt.hdt.HDTManager;
-import org.rdfhdt.hdt.options.HDTSpecification;
 import org.scify.jedai.utilities.datastructures.BilateralDuplicatePropagation;
 import org.scify.jedai.utilities.DBUtils;
 import org.scify.jedai.utilities.datastructures.AbstractDuplicatePropagation;
-import org.apache.jena.update.UpdateExecutionFactory;
-import org.apache.jena.update.UpdateFactory;
-import org.apache.jena.update.UpdateProcessor;
-import org.apache.jena.update.UpdateRequest;
 import org.scify.jedai.datamodel.Comparison;
 import org.scify.jedai.datamodel.EquivalenceCluster;
+import org.scify.jedai.datawriter.DetailedResultsExporter.Format;
 
 import com.esotericsoftware.minlog.Log;
 import gnu.trove.iterator.TIntIterator;
@@ -38,6 +31,7 @@ import java.io.IOException;
 import java.io.PrintWriter;
 import java.sql.Connection;
 import java.sql.Statement;
+import java.util.BitSet;
 import java.util.List;
 
 import org.scify.jedai.datamodel.EntityProfile;
@@ -49,6 +43,11 @@ import org.scify.jedai.datamodel.IdDuplicates;
  */
 public class ClustersPerformanceWriter {
 
+    private interface MatchedPairProcedure {
+
+        void execute(EquivalenceCluster cluster, int entityId1, int entityId2);
+    }
+
     private float fMeasure;
     private float precision;
     private float recall;
@@ -61,6 +60,7 @@ public class ClustersPerformanceWriter {
     private String dbtable;
     private String dbuser;
     private boolean ssl;
+    private int sparqlBatchSize;
     private String endpointURL;
     private String endpointGraph;
 
@@ -68,6 +68,7 @@ public class ClustersPerformanceWriter {
         abstractDP = adp;
         abstractDP.resetDuplicates();
         entityClusters = clusters;
+        sparqlBatchSize = 5000; // the triples of 1000 pairs
     }
 
     public void setPassword(String password) {
@@ -94,6 +95,13 @@ public class ClustersPerformanceWriter {
         this.endpointGraph = endpointGraph;
     }
 
+    /**
+     * @param sparqlBatchSize the maximum number of triples per SPARQL update
+     */
+    public void setSPARQLBatchSize(int sparqlBatchSize) {
+        this.sparqlBatchSize = sparqlBatchSize;
+    }
+
     public int getDetectedDuplicates() {
         return abstractDP.getNoOfDuplicates();
     }
@@ -143,108 +151,8 @@ public class ClustersPerformanceWriter {
             return;
         }
 
-        totalMatches = 0;
-        final PrintWriter pw = new PrintWriter(new File(outputFile));
-        StringBuilder sb = new StringBuilder();
-
-        abstractDP.resetDuplicates();
-        if (abstractDP instanceof BilateralDuplicatePropagation) { // Clean-Clean ER
-            for (EquivalenceCluster cluster : entityClusters) {
-                if (cluster.getEntityIdsD1().size() != 1
-                        || cluster.getEntityIdsD2().size() != 1) {
-                    continue;
-                }
-
-                totalMatches++;
-
-                final int entityId1 = cluster.getEntityIdsD1().get(0);
-                final EntityProfile profile1 = profilesD1.get(entityId1);
-
-                final int entityId2 = cluster.getEntityIdsD2().get(0);
-                final EntityProfile profile2 = profilesD2.get(entityId2);
-
-                final int originalDuplicates = abstractDP.getNoOfDuplicates();
-                abstractDP.isSuperfluous(entityId1, entityId2);
-                final int newDuplicates = abstractDP.getNoOfDuplicates();
-
-                sb.append(profile1.getEntityUrl()).append(",");
-                sb.append(profile2.getEntityUrl()).append(",");
-                if (originalDuplicates == newDuplicates) {
-                    sb.append("FP,"); //false positive
-                } else { // originalDuplicates < newDuplicates
-                    sb.append("TP,"); // true positive
-                }
-                sb.append("Profile 1:[").append(profile1).append("]");
-                sb.append("Profile 2:[").append(profile2).append("]").append("\n");
-            }
-
-            for (IdDuplicates duplicatesPair : abstractDP.getFalseNegatives()) {
-                final EntityProfile profile1 = profilesD1.get(duplicatesPair.getEntityId1());
-                final EntityProfile profile2 = profilesD2.get(duplicatesPair.getEntityId2());
-
-                sb.append(profile1.getEntityUrl()).append(",");
-                sb.append(profile2.getEntityUrl()).append(",");
-                sb.append("FN,"); // false negative
-                sb.append("Profile 1:[").append(profile1).append("]");
-                sb.append("Profile 2:[").append(profile2).append("]").append("\n");
-            }
-        } else { // Dirty ER
-            for (EquivalenceCluster cluster : entityClusters) {
-                final int[] duplicatesArray = cluster.getEntityIdsD1().toArray();
-
-                for (int i = 0; i < duplicatesArray.length; i++) {
-                    for (int j = i + 1; j < duplicatesArray.length; j++) {
-                        totalMatches++;
-
-                        final EntityProfile profile1 = profilesD1.get(duplicatesArray[i]);
-                        final EntityProfile profile2 = profilesD1.get(duplicatesArray[j]);
-
-                        final int originalDuplicates = abstractDP.getNoOfDuplicates();
-                        abstractDP.isSuperfluous(duplicatesArray[i], duplicatesArray[j]);
-                        final int newDuplicates = abstractDP.getNoOfDuplicates();
-
-                        sb.append(profile1.getEntityUrl()).append(",");
-                        sb.append(profile2.getEntityUrl()).append(",");
-                        if (originalDuplicates == newDuplicates) {
-                            sb.append("FP,"); //false positive
-                        } else { // originalDuplicates < newDuplicates
-                            sb.append("TP,"); // true positive
-                        }
-                        sb.append("Profile 1:[").append(profile1).append("]");
-                        sb.append("Profile 2:[").append(profile2).append("]").append("\n");
-                    }
-                }
-            }
-
-            for (IdDuplicates duplicatesPair : abstractDP.getFalseNegatives()) {
-                final EntityProfile profile1 = profilesD1.get(duplicatesPair.getEntityId1());
-                final EntityProfile profile2 = profilesD1.get(duplicatesPair.getEntityId2());
-
-                sb.append(profile1.getEntityUrl()).append(",");
-                sb.append(profile2.getEntityUrl()).append(",");
-                sb.append("FN,"); // false negative
-                sb.append("Profile 1:[").append(profile1).append("]");
-                sb.append("Profile 2:[").append(profile2).append("]").append("\n");
-            }
-        }
-
-        if (0 < totalMatches) {
-            precision = abstractDP.getNoOfDuplicates() / totalMatches;
-        } else {
-            precision = 0;
-        }
-        recall = ((float) abstractDP.getNoOfDuplicates()) / abstractDP.getExistingDuplicates();
-        if (0 < precision && 0 < recall) {
-            fMeasure = 2 * precision * recall / (precision + recall);
-        } else {
-            fMeasure = 0;
-        }
-
-        pw.write("Precision\t:\t" + precision + "\n");
-        pw.write("Recall\t:\t" + recall + "\n");
-        pw.write("F-Measure\t:\t" + fMeasure + "\n");
-        pw.write(sb.toString());
-        pw.close();
+        final PrintWriter printWriter = new PrintWriter(new File(outputFile));
+        exportDetailedResults(profilesD1, profilesD2, Format.CSV, new DetailedResultsExporter.FileSink(printWriter));
     }
 
     public void printDetailedResultsToRDF(List<EntityProfile> profilesD1, List<EntityProfile> profilesD2, String outputFile) throws FileNotFoundException {
@@ -464,220 +372,8 @@ public class ClustersPerformanceWriter {
             return;
         }
 
-        totalMatches = 0;
         final PrintWriter printWriter = new PrintWriter(new File(outputFile));
-
-        printWriter.println("{\"triples\":\n");
-        printWriter.println("[");
-
-        String subString = "{Subject: \"";
-        String predString = "\", Predicate: \"";
-        String objString = "\", Object: \"";
-
-        abstractDP.resetDuplicates();
-        if (abstractDP instanceof BilateralDuplicatePropagation) { // Clean-Clean ER
-            for (EquivalenceCluster cluster : entityClusters) {
-                if (cluster.getEntityIdsD1().size() != 1
-                        || cluster.getEntityIdsD2().size() != 1) {
-                    continue;
-                }
-
-                totalMatches++;
-
-                final int entityId1 = cluster.getEntityIdsD1().get(0);
-                final EntityProfile profile1 = profilesD1.get(entityId1);
-
-                final int entityId2 = cluster.getEntityIdsD2().get(0);
-                final EntityProfile profile2 = profilesD2.get(entityId2);
-
-                final int originalDuplicates = abstractDP.getNoOfDuplicates();
-                abstractDP.isSuperfluous(entityId1, entityId2);
-                final int newDuplicates = abstractDP.getNoOfDuplicates();
-
-                printWriter.print(subString + cluster.toString());
-                printWriter.print(predString + "url1");
-                printWriter.print(objString + profile1.getEntityUrl().replace("&", "").replace("\\", "") + "");
-                printWriter.println("\"},");
-
-                printWriter.print(subString + cluster.toString());
-                printWriter.print(predString + "url2");
-                printWriter.print(objString + profile2.getEntityUrl().replace("&", "").replace("\\", "") + "");
-                printWriter.println("\"},");
-
-                printWriter.print(subString + cluster.toString());
-                printWriter.print(predString + "pairType");
-                printWriter.print(objString);
-                if (originalDuplicates == newDuplicates) {
-                    printWriter.print("FP"); //false positive
-                } else { // originalDuplicates < newDuplicates
-                    printWriter.print("TP"); // true positive
-                }
-                printWriter.println("\"},");
-
-                printWriter.print(subString + cluster.toString());
-                printWriter.print(predString + "Profile1");
-                printWriter.print(objString);
-                printWriter.print((profile1 + "").replace("&", "").replace("\\", ""));
-                printWriter.println("\"},");
-
-                printWriter.print(subString + cluster.toString());
-                printWriter.print(predString + "Profile2");
-                printWriter.print(objString);
-                printWriter.print((profile2 + "").replace("&", "").replace("\\", ""));
-                printWriter.println("\"},");
-            }
-
-            for (IdDuplicates duplicatesPair : abstractDP.getFalseNegatives()) {
-                final EntityProfile profile1 = profilesD1.get(duplicatesPair.getEntityId1());
-                final EntityProfile profile2 = profilesD2.get(duplicatesPair.getEntityId2());
-
-                printWriter.print(subString + duplicatesPair.toString());
-                printWriter.print(predString + "url1");
-                printWriter.print(objString + profile1.getEntityUrl().replace("&", "").replace("\\", "") + "");
-                printWriter.println("\"},");
-
-                printWriter.print(subString + duplicatesPair.toString());
-                printWriter.print(predString + "url2");
-                printWriter.print(objString + profile2.getEntityUrl().replace("&", "").replace("\\", "") + "");
-                printWriter.println("\"},");
-
-                printWriter.print(subString + duplicatesPair.toString());
-                printWriter.print(predString + "pairType");
-                printWriter.print(objString);
-                printWriter.print("FN"); //false negative
-
-                printWriter.println("\"},");
-
-                printWriter.print(subString + duplicatesPair.toString());
-                printWriter.print(predString + "Profile1");
-                printWriter.print(objString);
-                printWriter.print((profile1 + "").replace("&", "").replace("\\", ""));
-                printWriter.println("\"},");
-
-                printWriter.print(subString + duplicatesPair.toString());
-                printWriter.print(predString + "Profile2");
-                printWriter.print(objString);
-                printWriter.print((profile2 + "").replace("&", "").replace("\\", ""));
-                printWriter.println("\"},");
-            }
-        } else { // Dirty ER
-            for (EquivalenceCluster cluster : entityClusters) {
-                final int[] duplicatesArray = cluster.getEntityIdsD1().toArray();
-
-                for (int i = 0; i < duplicatesArray.length; i++) {
-                    for (int j = i + 1; j < duplicatesArray.length; j++) {
-                        totalMatches++;
-
-                        final EntityProfile profile1 = profilesD1.get(duplicatesArray[i]);
-                        final EntityProfile profile2 = profilesD1.get(duplicatesArray[j]);
-
-                        final int originalDuplicates = abstractDP.getNoOfDuplicates();
-                        abstractDP.isSuperfluous(duplicatesArray[i], duplicatesArray[j]);
-                        final int newDuplicates = abstractDP.getNoOfDuplicates();
-
-                        printWriter.print(subString + cluster.toString());
-                        printWriter.print(predString + "url1");
-                        printWriter.print(objString + profile1.getEntityUrl().replace("&", "").replace("\\", "") + "");
-                        printWriter.println("\"},");
-
-                        printWriter.print(subString + cluster.toString());
-                        printWriter.print(predString + "url2");
-                        printWriter.print(objString + profile2.getEntityUrl().replace("&", "").replace("\\", "") + "");
-                        printWriter.println("\"},");
-
-                        printWriter.print(subString + cluster.toString());
-                        printWriter.print(predString + "pairType");
-                        printWriter.print(objString);
-                        if (originalDuplicates == newDuplicates) {
-                            printWriter.print("FP"); //false positive
-                        } else { // originalDuplicates < newDuplicates
-                            printWriter.print("TP"); // true positive
-                        }
-                        printWriter.println("\"},");
-
-                        printWriter.print(subString + cluster.toString());
-                        printWriter.print(predString + "Profile1");
-                        printWriter.print(objString);
-                        printWriter.print((profile1 + "").replace("&", "").replace("\\", ""));
-                        printWriter.println("\"},");
-
-                        printWriter.print(subString + cluster.toString());
-                        printWriter.print(predString + "Profile2");
-                        printWriter.print(objString);
-                        printWriter.print((profile2 + "").replace("&", "").replace("\\", ""));
-                        printWriter.println("\"},");
-                    }
-                }
-            }
-
-            for (IdDuplicates duplicatesPair : abstractDP.getFalseNegatives()) {
-                final EntityProfile profile1 = profilesD1.get(duplicatesPair.getEntityId1());
-                final EntityProfile profile2 = profilesD1.get(duplicatesPair.getEntityId2());
-
-                printWriter.print(subString + duplicatesPair.toString());
-                printWriter.print(predString + "url1");
-                printWriter.print(objString + profile1.getEntityUrl().replace("&", "").replace("\\", "") + "");
-                printWriter.println("\"},");
-
-                printWriter.print(subString + duplicatesPair.toString());
-                printWriter.print(predString + "url2");
-                printWriter.print(objString + profile2.getEntityUrl().replace("&", "").replace("\\", "") + "");
-                printWriter.println("\"},");
-
-                printWriter.print(subString + duplicatesPair.toString());
-                printWriter.print(predString + "pairType");
-                printWriter.print(objString);
-                printWriter.print("FN"); //false negative
-
-                printWriter.println("\"},");
-
-                printWriter.print(subString + duplicatesPair.toString());
-                printWriter.print(predString + "Profile1");
-                printWriter.print(objString);
-                printWriter.print((profile1 + "").replace("&", "").replace("\\", ""));
-                printWriter.println("\"},");
-
-                printWriter.print(subString + duplicatesPair.toString());
-                printWriter.print(predString + "Profile2");
-                printWriter.print(objString);
-                printWriter.print((profile2 + "").replace("&", "").replace("\\", ""));
-                printWriter.println("\"},");
-            }
-
-        }
-
-        if (0 < totalMatches) {
-            precision = abstractDP.getNoOfDuplicates() / totalMatches;
-        } else {
-            precision = 0;
-        }
-        recall = ((float) abstractDP.getNoOfDuplicates()) / abstractDP.getExistingDuplicates();
-        if (0 < precision && 0 < recall) {
-            fMeasure = 2 * precision * recall / (precision + recall);
-        } else {
-            fMeasure = 0;
-        }
-        printWriter.print(subString + "STATS");
-        printWriter.print(predString + "Precision");
-        printWriter.print(objString);
-        printWriter.print(precision + "");
-        printWriter.println("\"},");
-
-        printWriter.print(subString + "STATS");
-        printWriter.print(predString + "Recall");
-        printWriter.print(objString);
-        printWriter.print(recall + "");
-        printWriter.println("\"},");
-
-        printWriter.print(subString + "STATS");
-        printWriter.print(predString + "F-Measure");
-        printWriter.print(objString);
-        printWriter.print(fMeasure + "");
-        printWriter.println("\"}");
-
-        printWriter.println("]");
-        printWriter.println("}");
-        printWriter.close();
+        exportDetailedResults(profilesD1, profilesD2, Format.JSON, new DetailedResultsExporter.FileSink(printWriter));
     }
 
     public void printDetailedResultsToRDFNT(List<EntityProfile> profilesD1, List<EntityProfile> profilesD2, String outputFile) throws FileNotFoundException {
@@ -686,518 +382,33 @@ public class ClustersPerformanceWriter {
             return;
         }
 
-        totalMatches = 0;
         final PrintWriter printWriter = new PrintWriter(new File(outputFile));
-
-        String xmlnsrdf = "http://www.w3.org/1999/02/22/";
-        String xmlnsobj = "https://www.w3schools.com/rdf/";
-
-        abstractDP.resetDuplicates();
-        if (abstractDP instanceof BilateralDuplicatePropagation) { // Clean-Clean ER
-            for (EquivalenceCluster cluster : entityClusters) {
-                if (cluster.getEntityIdsD1().size() != 1
-                        || cluster.getEntityIdsD2().size() != 1) {
-                    continue;
-                }
-
-                totalMatches++;
-
-                final int entityId1 = cluster.getEntityIdsD1().get(0);
-                final EntityProfile profile1 = profilesD1.get(entityId1);
-
-                final int entityId2 = cluster.getEntityIdsD2().get(0);
-                final EntityProfile profile2 = profilesD2.get(entityId2);
-
-                final int originalDuplicates = abstractDP.getNoOfDuplicates();
-                abstractDP.isSuperfluous(entityId1, entityId2);
-                final int newDuplicates = abstractDP.getNoOfDuplicates();
-
-                printWriter.print("<" + xmlnsrdf + cluster.toString() + "> ");
-                printWriter.print("<" + xmlnsobj + "url1" + "> \"");
-                printWriter.print(profile1.getEntityUrl().replace("&", "").replace("\\", "") + "");
-                printWriter.println("\"^^<http://www.w3.org/2001/XMLSchema#string>");
-
-                printWriter.print("<" + xmlnsrdf + cluster.toString() + "> ");
-                printWriter.print("<" + xmlnsobj + "url2" + "> \"");
-                printWriter.print(profile2.getEntityUrl().replace("&", "").replace("\\", "") + "");
-                printWriter.println("\"^^<http://www.w3.org/2001/XMLSchema#string>");
-
-                printWriter.print("<" + xmlnsrdf + cluster.toString() + "> ");
-                printWriter.print("<" + xmlnsobj + "pairType" + "> \"");
-                if (originalDuplicates == newDuplicates) {
-                    printWriter.print("FP"); //false positive
-                } else { // originalDuplicates < newDuplicates
-                    printWriter.print("TP"); // true positive
-                }
-                printWriter.println("\"^^<http://www.w3.org/2001/XMLSchema#string>");
-
-                printWriter.print("<" + xmlnsrdf + cluster.toString() + "> ");
-                printWriter.print("<" + xmlnsobj + "Profile1" + "> \"");
-                printWriter.print((profile1 + "").replace("&", "").replace("\\", ""));
-                printWriter.println("\"^^<http://www.w3.org/2001/XMLSchema#string>");
-
-                printWriter.print("<" + xmlnsrdf + cluster.toString() + "> ");
-                printWriter.print("<" + xmlnsobj + "Profile2" + "> \"");
-                printWriter.print((profile2 + "").replace("&", "").replace("\\", ""));
-                printWriter.println("\"^^<http://www.w3.org/2001/XMLSchema#string>");
-            }
-
-            for (IdDuplicates duplicatesPair : abstractDP.getFalseNegatives()) {
-                final EntityProfile profile1 = profilesD1.get(duplicatesPair.getEntityId1());
-                final EntityProfile profile2 = profilesD2.get(duplicatesPair.getEntityId2());
-
-                printWriter.print("<" + xmlnsrdf + duplicatesPair.toString() + "> ");
-                printWriter.print("<" + xmlnsobj + "url1" + "> \"");
-                printWriter.print(profile1.getEntityUrl().replace("&", "").replace("\\", "") + "");
-                printWriter.println("\"^^<http://www.w3.org/2001/XMLSchema#string>");
-
-                printWriter.print("<" + xmlnsrdf + duplicatesPair.toString() + "> ");
-                printWriter.print("<" + xmlnsobj + "url2" + "> \"");
-                printWriter.print(profile2.getEntityUrl().replace("&", "").replace("\\", "") + "");
-                printWriter.println("\"^^<http://www.w3.org/2001/XMLSchema#string>");
-
-                printWriter.print("<" + xmlnsrdf + duplicatesPair.toString() + "> ");
-                printWriter.print("<" + xmlnsobj + "pairType" + "> \"");
-                printWriter.print("FN"); //false positive
-
-                printWriter.println("\"^^<http://www.w3.org/2001/XMLSchema#string>");
-
-                printWriter.print("<" + xmlnsrdf + duplicatesPair.toString() + "> ");
-                printWriter.print("<" + xmlnsobj + "Profile1" + "> \"");
-                printWriter.print((profile1 + "").replace("&", "").replace("\\", ""));
-                printWriter.println("\"^^<http://www.w3.org/2001/XMLSchema#string>");
-
-                printWriter.print("<" + xmlnsrdf + duplicatesPair.toString() + "> ");
-                printWriter.print("<" + xmlnsobj + "Profile2" + "> \"");
-                printWriter.print((profile2 + "").replace("&", "").replace("\\", ""));
-                printWriter.println("\"^^<http://www.w3.org/2001/XMLSchema#string>");
-            }
-        } else { // Dirty ER
-            for (EquivalenceCluster cluster : entityClusters) {
-                final int[] duplicatesArray = cluster.getEntityIdsD1().toArray();
-
-                for (int i = 0; i < duplicatesArray.length; i++) {
-                    for (int j = i + 1; j < duplicatesArray.length; j++) {
-                        totalMatches++;
-
-                        final EntityProfile profile1 = profilesD1.get(duplicatesArray[i]);
-                        final EntityProfile profile2 = profilesD1.get(duplicatesArray[j]);
-
-                        final int originalDuplicates = abstractDP.getNoOfDuplicates();
-                        abstractDP.isSuperfluous(duplicatesArray[i], duplicatesArray[j]);
-                        final int newDuplicates = abstractDP.getNoOfDuplicates();
-
-                        printWriter.print("<" + xmlnsrdf + cluster.toString() + "> ");
-                        printWriter.print("<" + xmlnsobj + "url1" + "> \"");
-                        printWriter.print(profile1.getEntityUrl().replace("&", "").replace("\\", "") + "");
-                        printWriter.println("\"^^<http://www.w3.org/2001/XMLSchema#string>");
-
-                        printWriter.print("<" + xmlnsrdf + cluster.toString() + "> ");
-                        printWriter.print("<" + xmlnsobj + "url2" + "> \"");
-                        printWriter.print(profile2.getEntityUrl().replace("&", "").replace("\\", "") + "");
-                        printWriter.println("\"^^<http://www.w3.org/2001/XMLSchema#string>");
-
-                        printWriter.print("<" + xmlnsrdf + cluster.toString() + "> ");
-                        printWriter.print("<" + xmlnsobj + "pairType" + "> \"");
-                        if (originalDuplicates == newDuplicates) {
-                            printWriter.print("FP"); //false positive
-                        } else { // originalDuplicates < newDuplicates
-                            printWriter.print("TP"); // true positive
-                        }
-                        printWriter.println("\"^^<http://www.w3.org/2001/XMLSchema#string>");
-
-                        printWriter.print("<" + xmlnsrdf + cluster.toString() + "> ");
-                        printWriter.print("<" + xmlnsobj + "Profile1" + "> \"");
-                        printWriter.print((profile1 + "").replace("&", "").replace("\\", ""));
-                        printWriter.println("\"^^<http://www.w3.org/2001/XMLSchema#string>");
-
-                        printWriter.print("<" + xmlnsrdf + cluster.toString() + "> ");
-                        printWriter.print("<" + xmlnsobj + "Profile2" + "> \"");
-                        printWriter.print((profile2 + "").replace("&", "").replace("\\", ""));
-                        printWriter.println("\"^^<http://www.w3.org/2001/XMLSchema#string>");
-                    }
-                }
-            }
-
-            for (IdDuplicates duplicatesPair : abstractDP.getFalseNegatives()) {
-                final EntityProfile profile1 = profilesD1.get(duplicatesPair.getEntityId1());
-                final EntityProfile profile2 = profilesD1.get(duplicatesPair.getEntityId2());
-
-                printWriter.print("<" + xmlnsrdf + duplicatesPair.toString() + "> ");
-                printWriter.print("<" + xmlnsobj + "url1" + "> \"");
-                printWriter.print(profile1.getEntityUrl().replace("&", "").replace("\\", "") + "");
-                printWriter.println("\"^^<http://www.w3.org/2001/XMLSchema#string>");
-
-                printWriter.print("<" + xmlnsrdf + duplicatesPair.toString() + "> ");
-                printWriter.print("<" + xmlnsobj + "url2" + "> \"");
-                printWriter.print(profile2.getEntityUrl().replace("&", "").replace("\\", "") + "");
-                printWriter.println("\"^^<http://www.w3.org/2001/XMLSchema#string>");
-
-                printWriter.print("<" + xmlnsrdf + duplicatesPair.toString() + "> ");
-                printWriter.print("<" + xmlnsobj + "pairType" + "> \"");
-                printWriter.print("FN"); //false negative
-
-                printWriter.println("\"^^<http://www.w3.org/2001/XMLSchema#string>");
-
-                printWriter.print("<" + xmlnsrdf + duplicatesPair.toString() + "> ");
-                printWriter.print("<" + xmlnsobj + "Profile1" + "> \"");
-                printWriter.print((profile1 + "").replace("&", "").replace("\\", ""));
-                printWriter.println("\"^^<http://www.w3.org/2001/XMLSchema#string>");
-
-                printWriter.print("<" + xmlnsrdf + duplicatesPair.toString() + "> ");
-                printWriter.print("<" + xmlnsobj + "Profile2" + "> \"");
-                printWriter.print((profile2 + "").replace("&", "").replace("\\", ""));
-                printWriter.println("\"^^<http://www.w3.org/2001/XMLSchema#string>");
-            }
-
-        }
-
-        if (0 < totalMatches) {
-            precision = abstractDP.getNoOfDuplicates() / totalMatches;
-        } else {
-            precision = 0;
-        }
-        recall = ((float) abstractDP.getNoOfDuplicates()) / abstractDP.getExistingDuplicates();
-        if (0 < precision && 0 < recall) {
-            fMeasure = 2 * precision * recall / (precision + recall);
-        } else {
-            fMeasure = 0;
-        }
-
-        printWriter.print("<" + xmlnsrdf + "STATS" + "> ");
-        printWriter.print("<" + xmlnsobj + "Precision" + "> \"");
-        printWriter.print(precision + "");
-        printWriter.println("\"^^<http://www.w3.org/2001/XMLSchema#string>");
-
-        printWriter.print("<" + xmlnsrdf + "STATS" + "> ");
-        printWriter.print("<" + xmlnsobj + "Recall" + "> \"");
-        printWriter.print(recall + "");
-        printWriter.println("\"^^<http://www.w3.org/2001/XMLSchema#string>");
-
-        printWriter.print("<" + xmlnsrdf + "STATS" + "> ");
-        printWriter.print("<" + xmlnsobj + "F-Measure" + "> \"");
-        printWriter.print(fMeasure + "");
-        printWriter.println("\"^^<http://www.w3.org/2001/XMLSchema#string>");
-        printWriter.close();
+        exportDetailedResults(profilesD1, profilesD2, Format.NTRIPLES, new DetailedResultsExporter.FileSink(printWriter));
     }
 
     public void printDetailedResultsToHDTrdf(List<EntityProfile> profilesD1, List<EntityProfile> profilesD2, String outputFile) throws IOException, ParserException {
-
-        this.printDetailedResultsToRDFNT(profilesD1, profilesD2, outputFile + "help.nt");
-        String baseURI = "http://www.w3.org/";
-        //String rdfInput = "data//minExample.nt";
-        String rdfInput = outputFile + "help.nt";
-        String inputType = "ntriples";
-        String hdtOutput = outputFile;
-
-        // Create HDT from RDF file
-        HDT hdt = HDTManager.generateHDT(
-                rdfInput, // Input RDF File
-                baseURI, // Base URI
-                RDFNotation.parse(inputType), // Input Type
-                new HDTSpecification(), // HDT Options
-                null // Progress Listener
-        );
-
-        // OPTIONAL: Add additional domain-specific properties to the header:
-        //Header header = hdt.getHeader();
-        //header.insert("myResource1", "property" , "value");
-        // Save generated HDT to a file
-        hdt.saveToHDT(hdtOutput, null);
-
-        // IMPORTANT: Close hdt when no longer needed
-        hdt.close();
-    }
-
-    public void printDetailedResultsToSPARQL(List<EntityProfile> profilesD1, List<EntityProfile> profilesD2, String endpointURL, String GraphName) {
         if (entityClusters.length == 0) {
             Log.warn("Empty set of equivalence clusters given as input!");
             return;
         }
 
-        totalMatches = 0;
-        StringBuilder sb = new StringBuilder();
-
-        String sparqlQueryString1 = "INSERT DATA { "
-                + "GRAPH " + GraphName + " { ";
-        sb.append(sparqlQueryString1);
-
-        abstractDP.resetDuplicates();
-        if (abstractDP instanceof BilateralDuplicatePropagation) { // Clean-Clean ER
-            for (EquivalenceCluster cluster : entityClusters) {
-                if (cluster.getEntityIdsD1().size() != 1
-                        || cluster.getEntityIdsD2().size() != 1) {
-                    continue;
-                }
-
-                totalMatches++;
-
-                final int entityId1 = cluster.getEntityIdsD1().get(0);
-                final EntityProfile profile1 = profilesD1.get(entityId1);
-
-                final int entityId2 = cluster.getEntityIdsD2().get(0);
-                final EntityProfile profile2 = profilesD2.get(entityId2);
-
-                final int originalDuplicates = abstractDP.getNoOfDuplicates();
-                abstractDP.isSuperfluous(entityId1, entityId2);
-                final int newDuplicates = abstractDP.getNoOfDuplicates();
-
-                sb.append("<obj/" + "record/").append(cluster.toString()).append("> ");
-                sb.append("<url1> ");
-                sb.append("\"").append(profile1.getEntityUrl().replace("&", "")).append("\".\n");
-
-                sb.append("<obj/" + "record/").append(cluster.toString()).append("> ");
-                sb.append("<url2> ");
-                sb.append("\"").append(profile2.getEntityUrl().replace("&", "")).append("\".\n");
-
-                sb.append("<obj/" + "record/").append(cluster.toString()).append("> ");
-                sb.append("<pairType> ");
-                if (originalDuplicates == newDuplicates) {
-                    sb.append("\"" + "FP" + "\".\n");//false positive
-                } else { // originalDuplicates < newDuplicates
-                    sb.append("\"" + "TP" + "\".\n"); // true positive
-                }
-
-                sb.append("<obj/" + "record/").append(cluster.toString()).append("> ");
-                sb.append("<Profile1> ");
-                sb.append("\"").append((profile1 + "").replace("&", "")).append("\".\n");
-
-                sb.append("<obj/" + "record/").append(cluster.toString()).append("> ");
-                sb.append("<Profile2> ");
-                sb.append("\"").append((profile2 + "").replace("&", "")).append("\".\n");
-
-                //execute query every 1000 steps
-                if (totalMatches % 1000 == 0) {
-                    sb.append("}\n }");
-                    String sparqlQueryString = sb.toString();
-
-                    //System.out.println(sparqlQueryString);
-                    UpdateRequest update = UpdateFactory.create(sparqlQueryString);
-                    UpdateProcessor qexec = UpdateExecutionFactory.createRemote(update, endpointURL);
-                    qexec.execute();
-                    sb.setLength(0);
-                    sb.append(sparqlQueryString1);
-                }
-
-            }
-
-            if (totalMatches % 1000 != 0) {
-                sb.append("}\n }");
-                String sparqlQueryString = sb.toString();
-
-                //System.out.println(sparqlQueryString);
-                UpdateRequest update = UpdateFactory.create(sparqlQueryString);
-                UpdateProcessor qexec = UpdateExecutionFactory.createRemote(update, endpointURL);
-                qexec.execute();
-                sb.setLength(0);
-                sb.append(sparqlQueryString1);
-            }
-
-            int counter = 0;
-            for (IdDuplicates duplicatesPair : abstractDP.getFalseNegatives()) {
-                final EntityProfile profile1 = profilesD1.get(duplicatesPair.getEntityId1());
-                final EntityProfile profile2 = profilesD2.get(duplicatesPair.getEntityId2());
-
-                counter++;
-
-                sb.append("<obj/" + "record/").append(duplicatesPair.toString()).append("> ");
-                sb.append("<url1> ");
-                sb.append("\"").append(profile1.getEntityUrl().replace("&", "")).append("\".\n");
-
-                sb.append("<obj/" + "record/").append(duplicatesPair.toString()).append("> ");
-                sb.append("<url2> ");
-                sb.append("\"").append(profile2.getEntityUrl().replace("&", "")).append("\".\n");
-
-                sb.append("<obj/" + "record/").append(duplicatesPair.toString()).append("> ");
-                sb.append("<pairType> ");
-                sb.append("\"" + "FN" + "\".\n"); // false negative
-
-                sb.append("<obj/" + "record/").append(duplicatesPair.toString()).append("> ");
-                sb.append("<Profile1> ");
-                sb.append("\"").append((profile1 + "").replace("&", "")).append("\".\n");
-
-                sb.append("<obj/" + "record/").append(duplicatesPair.toString()).append("> ");
-                sb.append("<Profile2> ");
-                sb.append("\"").append((profile2 + "").replace("&", "")).append("\".\n");
-
-                //execute query every 1000 steps
-                if (counter % 1000 == 0) {
-                    sb.append("}\n }");
-                    String sparqlQueryString = sb.toString();
-
-                    //System.out.println(sparqlQueryString);
-                    UpdateRequest update = UpdateFactory.create(sparqlQueryString);
-                    UpdateProcessor qexec = UpdateExecutionFactory.createRemote(update, endpointURL);
-                    qexec.execute();
-                    sb.setLength(0);
-                    sb.append(sparqlQueryString1);
-                }
-            }
-
-            if (counter % 1000 != 0) {
-                sb.append("}\n }");
-                String sparqlQueryString = sb.toString();
-
-                //System.out.println(sparqlQueryString);
-                UpdateRequest update = UpdateFactory.create(sparqlQueryString);
-                UpdateProcessor qexec = UpdateExecutionFactory.createRemote(update, endpointURL);
-                qexec.execute();
-                sb.setLength(0);
-                sb.append(sparqlQueryString1);
-            }
-        } else { // Dirty ER
-            for (EquivalenceCluster cluster : entityClusters) {
-                final int[] duplicatesArray = cluster.getEntityIdsD1().toArray();
-
-                for (int i = 0; i < duplicatesArray.length; i++) {
-                    for (int j = i + 1; j < duplicatesArray.length; j++) {
-                        totalMatches++;
-
-                        final EntityProfile profile1 = profilesD1.get(duplicatesArray[i]);
-                        final EntityProfile profile2 = profilesD1.get(duplicatesArray[j]);
-
-                        final int originalDuplicates = abstractDP.getNoOfDuplicates();
-                        abstractDP.isSuperfluous(duplicatesArray[i], duplicatesArray[j]);
-                        final int newDuplicates = abstractDP.getNoOfDuplicates();
-
-                        sb.append("<obj/" + "record/").append(cluster.toString()).append("> ");
-                        sb.append("<url1> ");
-                        sb.append("\"").append(profile1.getEntityUrl().replace("&", "")).append("\".\n");
-
-                        sb.append("<obj/" + "record/").append(cluster.toString()).append("> ");
-                        sb.append("<url2> ");
-                        sb.append("\"").append(profile2.getEntityUrl().replace("&", "")).append("\".\n");
-
-                        sb.append("<obj/" + "record/").append(cluster.toString()).append("> ");
-                        sb.append("<pairType> ");
-                        if (originalDuplicates == newDuplicates) {
-                            sb.append("\"" + "FP" + "\".\n");//false positive
-                        } else { // originalDuplicates < newDuplicates
-                            sb.append("\"" + "TP" + "\".\n"); // true positive
-                        }
-
-                        sb.append("<obj/" + "record/").append(cluster.toString()).append("> ");
-                        sb.append("<Profile1> ");
-                        sb.append("\"").append((profile1 + "").replace("&", "")).append("\".\n");
-
-                        sb.append("<obj/" + "record/").append(cluster.toString()).append("> ");
-                        sb.append("<Profile2> ");
-                        sb.append("\"").append((profile2 + "").replace("&", "")).append("\".\n");
-
-                        //execute query every 1000 steps
-                        if (totalMatches % 1000 == 0) {
-                            sb.append("}\n }");
-                            String sparqlQueryString = sb.toString();
-
-                            //System.out.println(sparqlQueryString);
-                            UpdateRequest update = UpdateFactory.create(sparqlQueryString);
-                            UpdateProcessor qexec = UpdateExecutionFactory.createRemote(update, endpointURL);
-                            qexec.execute();
-                            sb.setLength(0);
-                            sb.append(sparqlQueryString1);
-                        }
-                    }
-                }
-
-                if (totalMatches % 1000 != 0) {
-                    sb.append("}\n }");
-                    String sparqlQueryString = sb.toString();
-
-                    //System.out.println(sparqlQueryString);
-                    UpdateRequest update = UpdateFactory.create(sparqlQueryString);
-                    UpdateProcessor qexec = UpdateExecutionFactory.createRemote(update, endpointURL);
-                    qexec.execute();
-                    sb.setLength(0);
-                    sb.append(sparqlQueryString1);
-                }
-            }
-
-            int counter2 = 0;
-
-            for (IdDuplicates duplicatesPair : abstractDP.getFalseNegatives()) {
-                final EntityProfile profile1 = profilesD1.get(duplicatesPair.getEntityId1());
-                final EntityProfile profile2 = profilesD1.get(duplicatesPair.getEntityId2());
-
-                counter2++;
-                sb.append("<obj/" + "record/").append(duplicatesPair.toString()).append("> ");
-                sb.append("<url1> ");
-                sb.append("\"").append(profile1.getEntityUrl().replace("&", "")).append("\".\n");
-
-                sb.append("<obj/" + "record/").append(duplicatesPair.toString()).append("> ");
-                sb.append("<url2> ");
-                sb.append("\"").append(profile2.getEntityUrl().replace("&", "")).append("\".\n");
-
-                sb.append("<obj/" + "record/").append(duplicatesPair.toString()).append("> ");
-                sb.append("<pairType> ");
-                sb.append("\"" + "FN" + "\".\n"); // false negative
-
-                sb.append("<obj/" + "record/").append(duplicatesPair.toString()).append("> ");
-                sb.append("<Profile1> ");
-                sb.append("\"").append((profile1 + "").replace("&", "")).append("\".\n");
-
-                sb.append("<obj/" + "record/").append(duplicatesPair.toString()).append("> ");
-                sb.append("<Profile2> ");
-                sb.append("\"").append((profile2 + "").replace("&", "")).append("\".\n");
-
-                //execute query every 1000 steps
-                if (counter2 % 1000 == 0) {
-                    sb.append("}\n }");
-                    String sparqlQueryString = sb.toString();
-
-                    //System.out.println(sparqlQueryString);
-                    UpdateRequest update = UpdateFactory.create(sparqlQueryString);
-                    UpdateProcessor qexec = UpdateExecutionFactory.createRemote(update, endpointURL);
-                    qexec.execute();
-                    sb.setLength(0);
-                    sb.append(sparqlQueryString1);
-                }
-            }
-
-            if (counter2 % 1000 != 0) {
-                sb.append("}\n }");
-                String sparqlQueryString = sb.toString();
-
-                //System.out.println(sparqlQueryString);
-                UpdateRequest update = UpdateFactory.create(sparqlQueryString);
-                UpdateProcessor qexec = UpdateExecutionFactory.createRemote(update, endpointURL);
-                qexec.execute();
-                sb.setLength(0);
-                sb.append(sparqlQueryString1);
-            }
+        // the N-Triples are passed directly to the construction of the HDT file
+        final DetailedResultsExporter.HDTSink hdtSink = new DetailedResultsExporter.HDTSink(outputFile, "http://www.w3.org/");
+        try {
+            exportDetailedResults(profilesD1, profilesD2, Format.NTRIPLES, hdtSink);
+            hdtSink.awaitHDT();
+        } finally {
+            hdtSink.abort();
         }
+    }
 
-        if (0 < totalMatches) {
-            precision = abstractDP.getNoOfDuplicates() / totalMatches;
-        } else {
-            precision = 0;
-        }
-        recall = ((float) abstractDP.getNoOfDuplicates()) / abstractDP.getExistingDuplicates();
-        if (0 < precision && 0 < recall) {
-            fMeasure = 2 * precision * recall / (precision + recall);
-        } else {
-            fMeasure = 0;
+    public void printDetailedResultsToSPARQL(List<EntityProfile> profilesD1, List<EntityProfile> profilesD2, String endpointURL, String GraphName) {
+        if (entityClusters.length == 0) {
+            Log.warn("Empty set of equivalence clusters given as input!");
+            return;
         }
 
-        sb.append("<obj/" + "record/" + "STATS" + "> ");
-        sb.append("<Precision> ");
-        sb.append("\"").append(precision).append("\".\n");
-
-        sb.append("<obj/" + "record/" + "STATS" + "> ");
-        sb.append("<Recall> ");
-        sb.append("\"").append(recall).append("\".\n");
-
-        sb.append("<obj/" + "record/" + "STATS" + "> ");
-        sb.append("<F-Measure> ");
-        sb.append("\"").append(fMeasure).append("\".\n");
-
-        sb.append("}\n }");
-        String sparqlQueryString = sb.toString();
-
-        //System.out.println(sparqlQueryString);
-        UpdateRequest update = UpdateFactory.create(sparqlQueryString);
-        UpdateProcessor qexec = UpdateExecutionFactory.createRemote(update, endpointURL);
-        qexec.execute();
-
+        exportDetailedResults(profilesD1, profilesD2, Format.SPARQL, new DetailedResultsExporter.SPARQLSink(endpointURL, GraphName, sparqlBatchSize));
     }
 
     public void printDetailedResultsToXML(List<EntityProfile> profilesD1, List<EntityProfile> profilesD2, String outputFile) throws FileNotFoundException {
@@ -1544,6 +755,69 @@ public class ClustersPerformanceWriter {
         }
     }
 
+    private void exportDetailedResults(List<EntityProfile> profilesD1, List<EntityProfile> profilesD2, Format format, DetailedResultsExporter.Sink sink) {
+        // the pairs are labelled in advance, because the measures precede them in CSV
+        final BitSet truePositives = new BitSet();
+        final int[] noOfMatches = new int[1];
+        abstractDP.resetDuplicates();
+        forEachMatchedPair((cluster, entityId1, entityId2) -> {
+            final int originalDuplicates = abstractDP.getNoOfDuplicates();
+            abstractDP.isSuperfluous(entityId1, entityId2);
+            if (originalDuplicates < abstractDP.getNoOfDuplicates()) {
+                truePositives.set(noOfMatches[0]);
+            }
+            noOfMatches[0]++;
+        });
+
+        totalMatches = noOfMatches[0];
+        if (0 < totalMatches) {
+            precision = abstractDP.getNoOfDuplicates() / totalMatches;
+        } else {
+            precision = 0;
+        }
+        recall = ((float) abstractDP.getNoOfDuplicates()) / abstractDP.getExistingDuplicates();
+        if (0 < precision && 0 < recall) {
+            fMeasure = 2 * precision * recall / (precision + recall);
+        } else {
+            fMeasure = 0;
+        }
+
+        final boolean isCleanCleanER = abstractDP instanceof BilateralDuplicatePropagation;
+        final DetailedResultsExporter exporter = new DetailedResultsExporter(format,
+                new String[]{"Precision", "Recall", "F-Measure"}, new float[]{precision, recall, fMeasure},
+                profilesD1, isCleanCleanER ? profilesD2 : profilesD1, sink);
+        final int[] pairId = new int[1];
+        forEachMatchedPair((cluster, entityId1, entityId2) -> exporter.addPair(cluster, entityId1, entityId2,
+                truePositives.get(pairId[0]++) ? DetailedResultsExporter.TRUE_POSITIVE : DetailedResultsExporter.FALSE_POSITIVE));
+        for (IdDuplicates duplicatesPair : abstractDP.getFalseNegatives()) {
+            exporter.addPair(duplicatesPair, duplicatesPair.getEntityId1(), duplicatesPair.getEntityId2(), DetailedResultsExporter.FALSE_NEGATIVE);
+        }
+        exporter.close();
+    }
+
+    private void forEachMatchedPair(MatchedPairProcedure procedure) {
+        if (abstractDP instanceof BilateralDuplicatePropagation) { // Clean-Clean ER
+            for (EquivalenceCluster cluster : entityClusters) {
+                if (cluster.getEntityIdsD1().size() != 1
+                        || cluster.getEntityIdsD2().size() != 1) {
+                    continue;
+                }
+
+                procedure.execute(cluster, cluster.getEntityIdsD1().get(0), cluster.getEntityIdsD2().get(0));
+            }
+        } else { // Dirty ER
+            for (EquivalenceCluster cluster : entityClusters) {
+                final int[] duplicatesArray = cluster.getEntityIdsD1().toArray();
+
+                for (int i = 0; i < duplicatesArray.length; i++) {
+                    for (int j = i + 1; j < duplicatesArray.length; j++) {
+                        procedure.execute(cluster, duplicatesArray[i], duplicatesArray[j]);
+                    }
+                }
+            }
+        }
+    }
+
     public void setStatistics() {
         if (entityClusters.length == 0) {
             Log.warn("Empty set of equivalence clusters given as input!");
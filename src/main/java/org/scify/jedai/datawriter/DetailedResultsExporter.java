@@ -0,0 +1,471 @@
+/*
+* Copyright [2016-2020] [George Papadakis (gpapadis@yahoo.gr)]
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+*    http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+ */
+package org.scify.jedai.datawriter;
+
+import com.esotericsoftware.minlog.Log;
+import org.apache.jena.update.UpdateExecutionFactory;
+import org.apache.jena.update.UpdateFactory;
+import org.rdfhdt.hdt.enums.ResultEstimationType;
+import org.rdfhdt.hdt.exceptions.ParserException;
+import org.rdfhdt.hdt.hdt.HDT;
+import org.rdfhdt.hdt.hdt.HDTManager;
+import org.rdfhdt.hdt.options.HDTSpecification;
+import org.rdfhdt.hdt.triples.IteratorTripleString;
+import org.rdfhdt.hdt.triples.TripleString;
+import org.scify.jedai.datamodel.EntityProfile;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+/**
+ * Streams the detailed results of an evaluation, i.e., the pairs of entities
+ * that are labelled as true positives, false positives or false negatives,
+ * followed or preceded by the effectiveness measures. The pairs are buffered
+ * in chunks, which are formatted in parallel and passed to the sink in their
+ * original order, so that the output is never built in main memory.
+ *
+ * The sinks write the formatted pairs to a file, send them to a SPARQL
+ * endpoint in INSERT DATA updates with a bounded number of triples, or feed
+ * them as triples to the construction of an HDT file.
+ *
+ * @author G.A.P. II
+ */
+class DetailedResultsExporter {
+
+    enum Format {
+        CSV, JSON, NTRIPLES, SPARQL
+    }
+
+    static final String FALSE_NEGATIVE = "FN";
+    static final String FALSE_POSITIVE = "FP";
+    static final String TRUE_POSITIVE = "TP";
+
+    private static final int CHUNK_SIZE = 16384;
+    private static final int TRIPLES_PER_PAIR = 5;
+
+    private static final String JSON_OBJECT = "\", Object: \"";
+    private static final String JSON_PREDICATE = "\", Predicate: \"";
+    private static final String JSON_SUBJECT = "{Subject: \"";
+    private static final String NT_DATATYPE = "\"^^<http://www.w3.org/2001/XMLSchema#string>\n";
+    private static final String NT_PREDICATE = "https://www.w3schools.com/rdf/";
+    private static final String NT_SUBJECT = "http://www.w3.org/1999/02/22/";
+    private static final String SPARQL_SUBJECT = "<obj/record/";
+
+    private static final String[] PREDICATES = {"url1", "url2", "pairType", "Profile1", "Profile2"};
+
+    private int noOfPairs;
+    private final int[] entityIds1;
+    private final int[] entityIds2;
+
+    private final float[] statistics;
+
+    private final Format format;
+    private final List<EntityProfile> profilesD1;
+    private final List<EntityProfile> profilesD2;
+    private final Object[] subjects;
+    private final Sink sink;
+    private final String[] pairTypes;
+    private final String[] statisticNames;
+
+    /**
+     * Receives the formatted pairs and measures, in the order of the output.
+     */
+    interface Sink {
+
+        void write(String text, int noOfTriples);
+
+        void close();
+    }
+
+    /**
+     * @param format the format of the pairs and the measures
+     * @param statisticNames the names of the effectiveness measures
+     * @param statistics the values of the effectiveness measures
+     * @param profilesD1 the profiles of the first dataset
+     * @param profilesD2 the profiles of the second dataset, or of the first
+     * one, in the case of Dirty ER
+     * @param sink the receiver of the formatted output
+     */
+    DetailedResultsExporter(Format format, String[] statisticNames, float[] statistics,
+            List<EntityProfile> profilesD1, List<EntityProfile> profilesD2, Sink sink) {
+        this.format = format;
+        this.profilesD1 = profilesD1;
+        this.profilesD2 = profilesD2;
+        this.sink = sink;
+        this.statistics = statistics;
+        this.statisticNames = statisticNames;
+
+        noOfPairs = 0;
+        entityIds1 = new int[CHUNK_SIZE];
+        entityIds2 = new int[CHUNK_SIZE];
+        pairTypes = new String[CHUNK_SIZE];
+        subjects = new Object[CHUNK_SIZE];
+
+        writeHeader();
+    }
+
+    void addPair(Object subject, int entityId1, int entityId2, String pairType) {
+        subjects[noOfPairs] = subject;
+        entityIds1[noOfPairs] = entityId1;
+        entityIds2[noOfPairs] = entityId2;
+        pairTypes[noOfPairs] = pairType;
+        noOfPairs++;
+        if (noOfPairs == CHUNK_SIZE) {
+            flushPairs();
+        }
+    }
+
+    private static String clean(String value, boolean removeBackslashes) {
+        final String text = value.replace("&", "");
+        return removeBackslashes ? text.replace("\\", "") : text;
+    }
+
+    void close() {
+        flushPairs();
+        writeFooter();
+        sink.close();
+    }
+
+    private void flushPairs() {
+        final String[] formattedPairs = IntStream.range(0, noOfPairs)
+                .parallel()
+                .mapToObj(this::formatPair)
+                .toArray(String[]::new);
+        for (String pair : formattedPairs) {
+            sink.write(pair, format == Format.CSV ? 1 : TRIPLES_PER_PAIR);
+        }
+
+        for (int i = 0; i < noOfPairs; i++) {
+            subjects[i] = null;
+        }
+        noOfPairs = 0;
+    }
+
+    private String formatPair(int pairId) {
+        final EntityProfile profile1 = profilesD1.get(entityIds1[pairId]);
+        final EntityProfile profile2 = profilesD2.get(entityIds2[pairId]);
+        if (format == Format.CSV) {
+            return profile1.getEntityUrl() + "," + profile2.getEntityUrl() + "," + pairTypes[pairId] + ","
+                    + "Profile 1:[" + profile1 + "]" + "Profile 2:[" + profile2 + "]\n";
+        }
+
+        final boolean removeBackslashes = format != Format.SPARQL;
+        final String[] objects = {
+            clean(profile1.getEntityUrl(), removeBackslashes),
+            clean(profile2.getEntityUrl(), removeBackslashes),
+            pairTypes[pairId],
+            clean(profile1.toString(), removeBackslashes),
+            clean(profile2.toString(), removeBackslashes)
+        };
+
+        final String subject = String.valueOf(subjects[pairId]);
+        final StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < PREDICATES.length; i++) {
+            formatTriple(sb, subject, PREDICATES[i], objects[i], true);
+        }
+        return sb.toString();
+    }
+
+    private void formatTriple(StringBuilder sb, String subject, String predicate, String object, boolean hasNext) {
+        switch (format) {
+            case JSON:
+                sb.append(JSON_SUBJECT).append(subject).append(JSON_PREDICATE).append(predicate)
+                        .append(JSON_OBJECT).append(object).append(hasNext ? "\"},\n" : "\"}\n");
+                break;
+            case NTRIPLES:
+                sb.append("<").append(NT_SUBJECT).append(subject).append("> <").append(NT_PREDICATE).append(predicate)
+                        .append("> \"").append(object).append(NT_DATATYPE);
+                break;
+            case SPARQL:
+                sb.append(SPARQL_SUBJECT).append(subject).append("> <").append(predicate)
+                        .append("> \"").append(object).append("\".\n");
+                break;
+            default:
+                throw new IllegalStateException("Triples are not supported by " + format);
+        }
+    }
+
+    private void writeFooter() {
+        if (format == Format.CSV) {
+            return;
+        }
+
+        final StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < statistics.length; i++) {
+            formatTriple(sb, "STATS", statisticNames[i], Float.toString(statistics[i]), i < statistics.length - 1);
+        }
+        if (format == Format.JSON) {
+            sb.append("]\n}\n");
+        }
+        sink.write(sb.toString(), statistics.length);
+    }
+
+    private void writeHeader() {
+        if (format == Format.CSV) {
+            final StringBuilder sb = new StringBuilder();
+            for (int i = 0; i < statistics.length; i++) {
+                sb.append(statisticNames[i]).append("\t:\t").append(statistics[i]).append("\n");
+            }
+            sink.write(sb.toString(), 0);
+        } else if (format == Format.JSON) {
+            sink.write("{\"triples\":\n\n[\n", 0);
+        }
+    }
+
+    /**
+     * Writes the output to a file.
+     */
+    static class FileSink implements Sink {
+
+        private final PrintWriter printWriter;
+
+        FileSink(PrintWriter printWriter) {
+            this.printWriter = printWriter;
+        }
+
+        @Override
+        public void write(String text, int noOfTriples) {
+            printWriter.write(text);
+        }
+
+        @Override
+        public void close() {
+            printWriter.close();
+        }
+    }
+
+    /**
+     * Feeds the N-Triples output to the construction of an HDT file, which
+     * runs in a separate thread and receives the triples through a bounded
+     * queue.
+     */
+    static class HDTSink implements Sink, IteratorTripleString {
+
+        private static final int BATCH_SIZE = 10000;
+        private static final List<String> END_OF_TRIPLES = new ArrayList<>();
+
+        private Iterator<String> currentBatch;
+        private List<String> pendingLines;
+        private TripleString nextTriple;
+
+        private final BlockingQueue<List<String>> batches;
+        private final ExecutorService builder;
+        private final Future<?> hdtConstruction;
+
+        HDTSink(String outputFile, String baseURI) {
+            batches = new ArrayBlockingQueue<>(4);
+            currentBatch = null;
+            nextTriple = null;
+            pendingLines = new ArrayList<>(BATCH_SIZE);
+
+            builder = Executors.newSingleThreadExecutor();
+            hdtConstruction = builder.submit(() -> {
+                final HDT hdt = HDTManager.generateHDT(this, baseURI, new HDTSpecification(), null);
+                try {
+                    hdt.saveToHDT(outputFile, null);
+                } finally {
+                    hdt.close();
+                }
+                return null;
+            });
+        }
+
+        /**
+         * Stops the construction of the HDT file, unless it has finished. It
+         * is needed when the export fails before close(), as the builder
+         * would otherwise wait forever for the rest of the triples.
+         */
+        void abort() {
+            builder.shutdownNow();
+        }
+
+        /**
+         * Waits until the HDT file is saved.
+         *
+         * @throws IOException if the construction of the HDT file failed
+         */
+        void awaitHDT() throws IOException {
+            try {
+                hdtConstruction.get();
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                throw new IOException(ex);
+            } catch (ExecutionException ex) {
+                if (ex.getCause() instanceof IOException) {
+                    throw (IOException) ex.getCause();
+                }
+                throw new IOException(ex.getCause());
+            } finally {
+                builder.shutdownNow();
+            }
+        }
+
+        @Override
+        public void close() {
+            enqueue(pendingLines);
+            enqueue(END_OF_TRIPLES);
+        }
+
+        private void enqueue(List<String> batch) {
+            try {
+                while (!batches.offer(batch, 100, TimeUnit.MILLISECONDS)) {
+                    if (hdtConstruction.isDone()) { // it failed, so awaitHDT reports the error
+                        return;
+                    }
+                }
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        @Override
+        public long estimatedNumResults() {
+            return 0;
+        }
+
+        @Override
+        public void goToStart() {
+            throw new UnsupportedOperationException("The triples can be traversed only once.");
+        }
+
+        @Override
+        public boolean hasNext() {
+            while (nextTriple == null) {
+                while (currentBatch == null || !currentBatch.hasNext()) {
+                    try {
+                        final List<String> batch = batches.take();
+                        if (batch == END_OF_TRIPLES) {
+                            return false;
+                        }
+                        currentBatch = batch.iterator();
+                    } catch (InterruptedException ex) { // aborted, so no partial HDT file is saved
+                        Thread.currentThread().interrupt();
+                        throw new IllegalStateException("The construction of the HDT file was aborted!", ex);
+                    }
+                }
+
+                final String line = currentBatch.next();
+                try {
+                    final TripleString triple = new TripleString();
+                    triple.read(line);
+                    nextTriple = triple;
+                } catch (ParserException ex) {
+                    Log.warn("Skipping invalid triple: " + line, ex);
+                }
+            }
+            return true;
+        }
+
+        @Override
+        public boolean hasPrevious() {
+            return false;
+        }
+
+        @Override
+        public TripleString next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            final TripleString triple = nextTriple;
+            nextTriple = null;
+            return triple;
+        }
+
+        @Override
+        public ResultEstimationType numResultEstimation() {
+            return ResultEstimationType.UNKNOWN;
+        }
+
+        @Override
+        public TripleString previous() {
+            throw new UnsupportedOperationException("The triples can be traversed only forwards.");
+        }
+
+        @Override
+        public void write(String text, int noOfTriples) {
+            int lineStart = 0;
+            for (int lineEnd = text.indexOf('\n'); 0 <= lineEnd; lineEnd = text.indexOf('\n', lineStart)) {
+                pendingLines.add(text.substring(lineStart, lineEnd));
+                lineStart = lineEnd + 1;
+            }
+
+            if (BATCH_SIZE <= pendingLines.size()) {
+                enqueue(pendingLines);
+                pendingLines = new ArrayList<>(BATCH_SIZE);
+            }
+        }
+    }
+
+    /**
+     * Sends the SPARQL output to an endpoint in INSERT DATA updates, each
+     * with up to the given number of triples (unless a single pair exceeds
+     * it).
+     */
+    static class SPARQLSink implements Sink {
+
+        private int bufferedTriples;
+        private final int maxTriples;
+
+        private final String endpointURL;
+        private final String updatePrefix;
+        private final StringBuilder update;
+
+        SPARQLSink(String endpointURL, String graphName, int maxTriples) {
+            this.endpointURL = endpointURL;
+            this.maxTriples = maxTriples;
+
+            bufferedTriples = 0;
+            updatePrefix = "INSERT DATA { GRAPH " + graphName + " { ";
+            update = new StringBuilder(updatePrefix);
+        }
+
+        @Override
+        public void close() {
+            if (0 < bufferedTriples) {
+                executeUpdate();
+            }
+        }
+
+        private void executeUpdate() {
+            update.append("}\n }");
+            UpdateExecutionFactory.createRemote(UpdateFactory.create(update.toString()), endpointURL).execute();
+            update.setLength(0);
+            update.append(updatePrefix);
+            bufferedTriples = 0;
+        }
+
+        @Override
+        public void write(String text, int noOfTriples) {
+            if (0 < bufferedTriples && maxTriples < bufferedTriples + noOfTriples) {
+                executeUpdate();
+            }
+            update.append(text);
+            bufferedTriples += noOfTriples;
+        }
+    }
+}
@@ -17,6 +17,9 @@ package org.scify.jedai.entityclustering;
 
 import gnu.trove.set.TIntSet;
 import gnu.trove.set.hash.TIntHashSet;
+import org.scify.jedai.datamodel.EquivalenceCluster;
+
+import java.util.BitSet;
 
 /**
  *
@@ -31,6 +34,73 @@ public abstract class AbstractCcerEntityClustering extends AbstractEntityCluster
         matchedIds = new TIntHashSet();
     }
     
+    /**
+     * Creates the equivalence clusters of a unique mapping directly, in the
+     * same order as the connected components of the corresponding similarity
+     * graph: one cluster per entity of the first collection, followed by the
+     * singletons of the unmatched entities of the second collection.
+     *
+     * @param matchesD1 the id of the matching entity of the second collection
+     * for every entity of the first one, or -1 if it remains unmatched
+     * @param matchedD2 the ids of the matched entities of the second collection
+     * @return the equivalence clusters
+     */
+    protected EquivalenceCluster[] getUniqueMappingClusters(int[] matchesD1, BitSet matchedD2) {
+        final int noOfEntitiesD2 = noOfEntities - datasetLimit;
+        final EquivalenceCluster[] clusters = new EquivalenceCluster[noOfEntities - matchedD2.cardinality()];
+
+        int counter = 0;
+        for (int e1 = 0; e1 < datasetLimit; e1++) {
+            clusters[counter] = new EquivalenceCluster();
+            clusters[counter].addEntityIdD1(e1);
+            if (0 <= matchesD1[e1]) {
+                clusters[counter].addEntityIdD2(matchesD1[e1]);
+            }
+            counter++;
+        }
+
+        for (int e2 = matchedD2.nextClearBit(0); e2 < noOfEntitiesD2; e2 = matchedD2.nextClearBit(e2 + 1)) {
+            clusters[counter] = new EquivalenceCluster();
+            clusters[counter].addEntityIdD2(e2);
+            counter++;
+        }
+
+        return clusters;
+    }
+
+    /**
+     * Groups the positions of the pairs with a similarity higher than the
+     * threshold by the given entity ids (counting sort), preserving their
+     * relative order.
+     *
+     * @param entityIds the entity ids of one collection per pair position
+     * @param similarities the similarity per pair position
+     * @param noOfPairs the number of pairs
+     * @param groupStart an array with one more cell than the number of
+     * entities, which is filled with the start of each entity's group
+     * @return the positions of the retained pairs, grouped per entity
+     */
+    protected int[] groupPairIndices(int[] entityIds, float[] similarities, int noOfPairs, int[] groupStart) {
+        for (int i = 0; i < noOfPairs; i++) {
+            if (threshold < similarities[i]) {
+                groupStart[entityIds[i] + 1]++;
+            }
+        }
+        for (int i = 1; i < groupStart.length; i++) {
+            groupStart[i] += groupStart[i - 1];
+        }
+
+        final int[] nextPosition = new int[groupStart.length - 1];
+        System.arraycopy(groupStart, 0, nextPosition, 0, nextPosition.length);
+        final int[] groupedIndices = new int[groupStart[groupStart.length - 1]];
+        for (int i = 0; i < noOfPairs; i++) {
+            if (threshold < similarities[i]) {
+                groupedIndices[nextPosition[entityIds[i]]++] = i;
+            }
+        }
+        return groupedIndices;
+    }
+
     @Override
     public void setNextRandomConfiguration() {
         matchedIds.clear();
@@ -25,6 +25,8 @@ import org.apache.jena.atlas.json.JsonObject;
 import org.scify.jedai.configuration.gridsearch.DblGridSearchConfiguration;
 import org.scify.jedai.configuration.randomsearch.DblRandomSearchConfiguration;
 import org.scify.jedai.utilities.graph.ConnectedComponents;
+import org.scify.jedai.utilities.metrics.PipelineMetrics;
+import org.scify.jedai.utilities.metrics.StageMetrics;
 
 import org.scify.jedai.utilities.graph.UndirectedGraph;
 
@@ -53,6 +55,11 @@ public abstract class AbstractEntityClustering implements IEntityClustering {
         randomThreshold = new DblRandomSearchConfiguration(0.99f, 0.01f);
     }
 
+    protected EquivalenceCluster[] finishStage(StageMetrics stage, EquivalenceCluster[] clusters) {
+        stage.finish(clusters.length);
+        return clusters;
+    }
+
     protected EquivalenceCluster[] getConnectedComponents() {
         final ConnectedComponents cc = new ConnectedComponents(similarityGraph);
         final EquivalenceCluster[] connectedComponents = new EquivalenceCluster[cc.count()];
@@ -142,6 +149,12 @@ public abstract class AbstractEntityClustering implements IEntityClustering {
     }
 
     protected void initializeData(SimilarityPairs simPairs) {
+        initializeEntityIds(simPairs);
+        similarityGraph = new UndirectedGraph(noOfEntities);
+    }
+
+    // sets the entity ids' range without building the similarity graph
+    protected void initializeEntityIds(SimilarityPairs simPairs) {
         Log.info("Applying " + getMethodName() + " with the following configuration : " + getMethodConfiguration());
         
 //        simPairs.normalizeSimilarities();
@@ -156,8 +169,6 @@ public abstract class AbstractEntityClustering implements IEntityClustering {
             datasetLimit = 0;
             noOfEntities = Math.max(maxEntity1, maxEntity2) + 1;
         }
-
-        similarityGraph = new UndirectedGraph(noOfEntities);
     }
 
     @Override
@@ -174,6 +185,12 @@ public abstract class AbstractEntityClustering implements IEntityClustering {
     public void setNumberedRandomConfiguration(int iterationNumber) {
         threshold = (Float) randomThreshold.getNumberedRandom(iterationNumber);
     }
+
+    protected StageMetrics startStage(SimilarityPairs simPairs) {
+        final StageMetrics stage = PipelineMetrics.startStage(PipelineMetrics.ENTITY_CLUSTERING, this, simPairs.getNoOfComparisons());
+        stage.setInputComparisons(simPairs.getNoOfComparisons());
+        return stage;
+    }
     
     @Override
     public void setSimilarityThreshold(float th) {
@@ -20,6 +20,7 @@ import org.scify.jedai.datamodel.Comparison;
 import org.scify.jedai.datamodel.EquivalenceCluster;
 import org.scify.jedai.datamodel.SimilarityPairs;
 import org.scify.jedai.utilities.enumerations.EntityClusteringCcerMethod;
+import org.scify.jedai.utilities.metrics.StageMetrics;
 
 import java.util.ArrayList;
 import java.util.Iterator;
@@ -107,6 +108,8 @@ public class BAHafterUM extends AbstractCcerEntityClustering {
             return null; //the method is only applicable to Clean-Clean ER
         }
 
+        final StageMetrics stage = startStage(simPairs);
+
         final Iterator<Comparison> iterator = simPairs.getPairIterator();
         int matrixSize = Math.max(noOfEntities - datasetLimit, datasetLimit);
         dataset2isbigger = false;//do not use it for now
@@ -167,7 +170,7 @@ public class BAHafterUM extends AbstractCcerEntityClustering {
             }
         }
 
-        return getConnectedComponents();
+        return finishStage(stage, getConnectedComponents());
     }
 
     private void getInitialSolution() {
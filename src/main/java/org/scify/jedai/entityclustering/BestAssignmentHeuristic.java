@@ -19,6 +19,7 @@ import com.esotericsoftware.minlog.Log;
 import org.scify.jedai.datamodel.Comparison;
 import org.scify.jedai.datamodel.EquivalenceCluster;
 import org.scify.jedai.datamodel.SimilarityPairs;
+import org.scify.jedai.utilities.metrics.StageMetrics;
 
 import java.util.Iterator;
 import java.util.Random;
@@ -103,6 +104,8 @@ public class BestAssignmentHeuristic extends AbstractCcerEntityClustering {
             return null; //the method is only applicable to Clean-Clean ER
         }
 
+        final StageMetrics stage = startStage(simPairs);
+
         final Iterator<Comparison> iterator = simPairs.getPairIterator();
         int matrixSize = Math.max(noOfEntities - datasetLimit, datasetLimit);
         dataset2isbigger = false;//do not use it for now
@@ -163,7 +166,7 @@ public class BestAssignmentHeuristic extends AbstractCcerEntityClustering {
             }
         }
 
-        return getConnectedComponents();
+        return finishStage(stage, getConnectedComponents());
     }
 
     private void getInitialSolution() {
@@ -16,15 +16,12 @@
 package org.scify.jedai.entityclustering;
 
 import com.esotericsoftware.minlog.Log;
-import org.scify.jedai.datamodel.Comparison;
 import org.scify.jedai.datamodel.EquivalenceCluster;
-import org.scify.jedai.datamodel.SimilarityEdge;
 import org.scify.jedai.datamodel.SimilarityPairs;
-import org.scify.jedai.utilities.comparators.DecSimilarityEdgeComparator;
+import org.scify.jedai.utilities.metrics.StageMetrics;
 
-import java.util.Iterator;
-import java.util.PriorityQueue;
-import java.util.Queue;
+import java.util.Arrays;
+import java.util.BitSet;
 
 /**
  * Implements an adapted, simplified version of the BEST algorithm, introduced
@@ -61,82 +58,55 @@ public class BestMatchClustering extends AbstractCcerEntityClustering {
             return new EquivalenceCluster[0];
         }
 
-        initializeData(simPairs);
+        initializeEntityIds(simPairs);
         if (!isCleanCleanER) {
             return null; //the method is only applicable to Clean-Clean ER
         }
 
-        if (leftDataset) {
-            // create as many PQs (initially empty) as the number of entities in collection 1
-            Queue<SimilarityEdge>[] SEqueues = new PriorityQueue[datasetLimit];
-            for (int i = 0; i < SEqueues.length; ++i) {
-                SEqueues[i] = new PriorityQueue<>(new DecSimilarityEdgeComparator());
-            }
-
-            // add all candidates per node to the respective PQ of this node
-            final Iterator<Comparison> iterator = simPairs.getPairIterator();
-            while (iterator.hasNext()) { // add a similarity edge to the queue, for every pair of entities with a weight higher than the threshold
-                Comparison comparison = iterator.next();
-                int eid1 = comparison.getEntityId1();
-                if (threshold < comparison.getUtilityMeasure()) {
-                    SEqueues[eid1].add(new SimilarityEdge(eid1, comparison.getEntityId2() + datasetLimit, comparison.getUtilityMeasure()));
-                }
-            }
-
-            //retrieve the top-1 candidate for every entity of the first collection
-            for (int e1 = 0; e1 < datasetLimit; ++e1) {
-                while (!SEqueues[e1].isEmpty()) {
-                    final SimilarityEdge se = SEqueues[e1].remove();
-                    int e2 = se.getModel2Pos();
-
-                    //skip already matched entities (unique mapping constraint for clean-clean ER)
-                    if (matchedIds.contains(e2)) {
-                        continue;
-                    }
-
-                    similarityGraph.addEdge(e1, e2);
-                    matchedIds.add(e1);
-                    matchedIds.add(e2);
-                    break; // go to next entity from collection 1
+        final StageMetrics stage = startStage(simPairs);
+
+        final int noOfEntitiesD2 = noOfEntities - datasetLimit;
+        final int[] entityIds1 = simPairs.getEntityIds1();
+        final int[] entityIds2 = simPairs.getEntityIds2();
+        final float[] similarities = simPairs.getSimilarities();
+        final BitSet matchedD1 = new BitSet(datasetLimit);
+        final BitSet matchedD2 = new BitSet(noOfEntitiesD2);
+        final int[] matchesD1 = new int[datasetLimit];
+        Arrays.fill(matchesD1, -1);
+
+        // the candidates of every entity in the scanned collection, i.e., the pairs with a weight higher than the threshold
+        final int[] scannedIds = leftDataset ? entityIds1 : entityIds2;
+        final int[] candidateIds = leftDataset ? entityIds2 : entityIds1;
+        final BitSet matchedCandidates = leftDataset ? matchedD2 : matchedD1;
+        final int[] candidatesStart = new int[(leftDataset ? datasetLimit : noOfEntitiesD2) + 1];
+        final int[] candidatePairs = groupPairIndices(scannedIds, similarities, simPairs.getNoOfComparisons(), candidatesStart);
+
+        //retrieve the top-1 unmatched candidate for every entity of the scanned collection
+        for (int entityId = 0; entityId < candidatesStart.length - 1; entityId++) {
+            int bestPair = -1;
+            for (int i = candidatesStart[entityId]; i < candidatesStart[entityId + 1]; i++) {
+                int pairIndex = candidatePairs[i];
+
+                //skip already matched entities (unique mapping constraint for clean-clean ER)
+                if (matchedCandidates.get(candidateIds[pairIndex])) {
+                    continue;
                 }
-            }
-        } else {
-            // create as many PQs (initially empty) as the number of entities in collection 2
-            Queue<SimilarityEdge>[] SEqueues = new PriorityQueue[noOfEntities - datasetLimit];
-            for (int i = 0; i < SEqueues.length; ++i) {
-                SEqueues[i] = new PriorityQueue<>(new DecSimilarityEdgeComparator());
-            }
 
-            // add all candidates per node to the respective PQ of this node
-            final Iterator<Comparison> iterator = simPairs.getPairIterator();
-            while (iterator.hasNext()) { // add a similarity edge to the queue, for every pair of entities with a weight higher than the threshold
-                Comparison comparison = iterator.next();
-                int eid2 = comparison.getEntityId2();
-                if (threshold < comparison.getUtilityMeasure()) {
-                    SEqueues[eid2].add(new SimilarityEdge(comparison.getEntityId1(), eid2 + datasetLimit, comparison.getUtilityMeasure()));
+                if (bestPair < 0 || similarities[bestPair] < similarities[pairIndex]) {
+                    bestPair = pairIndex;
                 }
             }
 
-            //retrieve the top-1 candidate for every entity of the second (right) collection
-            for (int e2 = 0; e2 < noOfEntities - datasetLimit; ++e2) {
-                while (!SEqueues[e2].isEmpty()) {
-                    final SimilarityEdge se = SEqueues[e2].remove();
-                    int e1 = se.getModel1Pos();
-
-                    //skip already matched entities (unique mapping constraint for clean-clean ER)
-                    if (matchedIds.contains(e1)) {
-                        continue;
-                    }
-
-                    similarityGraph.addEdge(e1, e2 + datasetLimit);
-                    matchedIds.add(e1);
-                    matchedIds.add(e2 + datasetLimit);
-                    break; // go to next entity from collection 2
-                }
+            if (0 <= bestPair) {
+                int e1 = entityIds1[bestPair];
+                int e2 = entityIds2[bestPair];
+                matchesD1[e1] = e2;
+                matchedD1.set(e1);
+                matchedD2.set(e2);
             }
         }
         
-        return getConnectedComponents();
+        return finishStage(stage, getUniqueMappingClusters(matchesD1, matchedD2));
     }
 
     @Override
@@ -18,6 +18,7 @@ package org.scify.jedai.entityclustering;
 import org.scify.jedai.datamodel.Comparison;
 import org.scify.jedai.datamodel.EquivalenceCluster;
 import org.scify.jedai.datamodel.SimilarityPairs;
+import org.scify.jedai.utilities.metrics.StageMetrics;
 import java.util.Iterator;
 
 /**
@@ -41,6 +42,7 @@ public class ConnectedComponentsClustering extends AbstractEntityClustering {
     
     @Override
     public EquivalenceCluster[] getDuplicates(SimilarityPairs simPairs) {
+        final StageMetrics stage = startStage(simPairs);
         initializeData(simPairs);
         
         // add an edge for every pair of entities with a weight higher than the threshold
@@ -52,7 +54,7 @@ public class ConnectedComponentsClustering extends AbstractEntityClustering {
             }
         }
         
-        return getConnectedComponents();
+        return finishStage(stage, getConnectedComponents());
     }
 
     @Override
@@ -19,6 +19,7 @@ import java.util.ArrayList;
 import org.scify.jedai.datamodel.Comparison;
 import org.scify.jedai.datamodel.EquivalenceCluster;
 import org.scify.jedai.datamodel.SimilarityPairs;
+import org.scify.jedai.utilities.metrics.StageMetrics;
 import java.util.Iterator;
 import java.util.List;
 
@@ -47,6 +48,7 @@ public class ConnectedComponentsClusteringCCER extends AbstractEntityClustering
             return new EquivalenceCluster[0];
         }
         
+        final StageMetrics stage = startStage(simPairs);
         initializeData(simPairs);
         
         // add an edge for every pair of entities with a weight higher than the threshold
@@ -66,7 +68,7 @@ public class ConnectedComponentsClusteringCCER extends AbstractEntityClustering
             }
         }
         
-        return validClusters.toArray(new EquivalenceCluster[validClusters.size()]);
+        return finishStage(stage, validClusters.toArray(new EquivalenceCluster[validClusters.size()]));
     }
 
     @Override
@@ -15,17 +15,21 @@
  */
 package org.scify.jedai.entityclustering;
 
+import com.esotericsoftware.minlog.Log;
 import gnu.trove.iterator.TIntIterator;
 import gnu.trove.list.TIntList;
 import gnu.trove.list.array.TIntArrayList;
 import org.scify.jedai.datamodel.Comparison;
 import org.scify.jedai.datamodel.EquivalenceCluster;
 import org.scify.jedai.datamodel.SimilarityPairs;
+import org.scify.jedai.utilities.metrics.StageMetrics;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Random;
+import java.util.stream.IntStream;
 
 /**
  *
@@ -43,6 +47,10 @@ public class CorrelationClustering extends AbstractEntityClustering {
     private final float thresholdForSimilar = 0.8f;
     private final float thresholdForNotSimilar = 0.2f;
     private final int numOfLSIterations = 10000;
+    private final int maxNumOfSparseLSRounds = 100;
+    private final int noOfVerticesPerTask = 4096;
+
+    private boolean sparseLocalSearch;
 
     private Random rand;
 
@@ -51,7 +59,16 @@ public class CorrelationClustering extends AbstractEntityClustering {
     }
 
     public CorrelationClustering(float simTh) {
+        this(simTh, true);
+    }
+
+    public CorrelationClustering(float simTh, boolean sparse) {
         super(simTh);
+        sparseLocalSearch = sparse;
+    }
+
+    public void setSparseLocalSearch(boolean sparse) {
+        this.sparseLocalSearch = sparse;
     }
     
     public void setThreshold(float threshold) {
@@ -60,6 +77,11 @@ public class CorrelationClustering extends AbstractEntityClustering {
     
     @Override
     public EquivalenceCluster[] getDuplicates(SimilarityPairs simPairs) {
+        final StageMetrics stage = startStage(simPairs);
+        if (sparseLocalSearch) {
+            return finishStage(stage, getSparseDuplicates(simPairs));
+        }
+
         initializeData(simPairs);
 
         // add an edge for every pair of entities with a weight higher than the threshold
@@ -162,10 +184,270 @@ public class CorrelationClustering extends AbstractEntityClustering {
             finalClusters[clCounter] = list.get(clCounter);
         }
 
-        return finalClusters;
+        return finishStage(stage, finalClusters);
         //return getConnectedComponents();
     }
 
+    /**
+     * Optimizes the same objective function as the dense local search, but
+     * considers only the adjacency lists of the similar (weight 2) and the
+     * neutral (weight 1) pairs. All other pairs are not similar, hence the
+     * objective function equals a constant plus the total weight of the
+     * intra-cluster edges minus the number of intra-cluster pairs. Moving an
+     * entity from cluster A to cluster B thus changes it by
+     * w_B - w_A + (|A| - 1) - |B|, where w_X is the weight of the entity's
+     * edges towards cluster X. In every round, the best move of every entity
+     * towards a neighboring cluster or a new singleton cluster is evaluated in
+     * parallel; the improving moves are then re-evaluated and applied
+     * sequentially, so that conflicting moves never decrease the objective.
+     */
+    private EquivalenceCluster[] getSparseDuplicates(SimilarityPairs simPairs) {
+        initializeEntityIds(simPairs);
+
+        // adjacency lists of the pairs that are not considered "not similar"
+        final int[] entityIds1 = simPairs.getEntityIds1();
+        final int[] entityIds2 = simPairs.getEntityIds2();
+        final float[] similarities = simPairs.getSimilarities();
+        final int[] adjacencyStart = new int[noOfEntities + 1];
+        for (int i = 0; i < simPairs.getNoOfComparisons(); i++) {
+            if (thresholdForNotSimilar <= similarities[i]) {
+                adjacencyStart[entityIds1[i] + 1]++;
+                adjacencyStart[entityIds2[i] + datasetLimit + 1]++;
+            }
+        }
+        for (int v = 1; v <= noOfEntities; v++) {
+            adjacencyStart[v] += adjacencyStart[v - 1];
+        }
+        final int[] neighbors = new int[adjacencyStart[noOfEntities]];
+        final byte[] weights = new byte[adjacencyStart[noOfEntities]];
+        final int[] nextPosition = Arrays.copyOf(adjacencyStart, noOfEntities);
+
+        // the initial clusters are the connected components of the edges above thresholdForInitialClusters
+        final int[] clusterOf = new int[noOfEntities];
+        Arrays.setAll(clusterOf, v -> v);
+        for (int i = 0; i < simPairs.getNoOfComparisons(); i++) {
+            if (thresholdForNotSimilar <= similarities[i]) {
+                int v1 = entityIds1[i];
+                int v2 = entityIds2[i] + datasetLimit;
+                byte weight = (byte) (thresholdForSimilar < similarities[i] ? 2 : 1);
+                neighbors[nextPosition[v1]] = v2;
+                weights[nextPosition[v1]++] = weight;
+                neighbors[nextPosition[v2]] = v1;
+                weights[nextPosition[v2]++] = weight;
+            }
+            if (thresholdForInitialClusters < similarities[i]) {
+                int root1 = findRoot(clusterOf, entityIds1[i]);
+                int root2 = findRoot(clusterOf, entityIds2[i] + datasetLimit);
+                clusterOf[Math.max(root1, root2)] = Math.min(root1, root2);
+            }
+        }
+
+        for (int v = 0; v < noOfEntities; v++) {
+            clusterOf[v] = findRoot(clusterOf, v);
+        }
+        final SparseLocalSearch localSearch = new SparseLocalSearch(adjacencyStart, neighbors, weights, clusterOf);
+
+        int maxDegree = 0;
+        for (int v = 0; v < noOfEntities; v++) {
+            maxDegree = Math.max(maxDegree, adjacencyStart[v + 1] - adjacencyStart[v]);
+        }
+        final int scratchSize = maxDegree;
+        final ThreadLocal<int[]> edgeWeights = ThreadLocal.withInitial(() -> new int[noOfEntities]);
+        final ThreadLocal<int[]> touchedClusters = ThreadLocal.withInitial(() -> new int[scratchSize]);
+
+        // targetCluster[v] = the cluster that v should move to, -1 for none, or noOfEntities for a new singleton
+        final int[] targetCluster = new int[noOfEntities];
+        for (int round = 0; round < maxNumOfSparseLSRounds; round++) {
+            final int noOfTasks = (noOfEntities + noOfVerticesPerTask - 1) / noOfVerticesPerTask;
+            IntStream.range(0, noOfTasks).parallel().forEach(task -> {
+                final int[] edgeWeight = edgeWeights.get();
+                final int[] touched = touchedClusters.get();
+                final int lastVertex = Math.min(noOfEntities, (task + 1) * noOfVerticesPerTask);
+                for (int v = task * noOfVerticesPerTask; v < lastVertex; v++) {
+                    targetCluster[v] = localSearch.getBestMove(v, edgeWeight, touched);
+                }
+            });
+
+            int noOfMoves = localSearch.applyMoves(targetCluster);
+            Log.info("Local search round " + round + " applied moves\t:\t" + noOfMoves);
+            if (noOfMoves == 0) {
+                break;
+            }
+        }
+
+        // gather the entities of every non-empty cluster, in increasing cluster id
+        final EquivalenceCluster[] clusterOfId = new EquivalenceCluster[noOfEntities];
+        final List<EquivalenceCluster> finalClusters = new ArrayList<>();
+        for (int c = 0; c < noOfEntities; c++) {
+            if (0 < localSearch.getClusterSize(c)) {
+                clusterOfId[c] = new EquivalenceCluster();
+                finalClusters.add(clusterOfId[c]);
+            }
+        }
+        for (int v = 0; v < noOfEntities; v++) {
+            if (v < datasetLimit || !isCleanCleanER) {
+                clusterOfId[clusterOf[v]].addEntityIdD1(v);
+            } else {
+                clusterOfId[clusterOf[v]].addEntityIdD2(v - datasetLimit);
+            }
+        }
+
+        return finalClusters.toArray(new EquivalenceCluster[0]);
+    }
+
+    /**
+     * The state of the sparse local search: the cluster of every vertex, the
+     * size of every cluster and a stack with the ids of the empty clusters,
+     * which are reused for new singleton clusters. Cluster ids are vertex ids,
+     * so noOfVertices denotes a move to a new singleton cluster.
+     */
+    static class SparseLocalSearch {
+
+        private int noOfEmptyClusters;
+        private final int noOfVertices;
+
+        private final byte[] weights;
+        private final int[] adjacencyStart;
+        private final int[] clusterOf;
+        private final int[] clusterSize;
+        private final int[] emptyClusters;
+        private final int[] neighbors;
+
+        SparseLocalSearch(int[] adjacencyStart, int[] neighbors, byte[] weights, int[] clusterOf) {
+            this.adjacencyStart = adjacencyStart;
+            this.clusterOf = clusterOf;
+            this.neighbors = neighbors;
+            this.weights = weights;
+            noOfVertices = clusterOf.length;
+
+            clusterSize = new int[noOfVertices];
+            for (int v = 0; v < noOfVertices; v++) {
+                clusterSize[clusterOf[v]]++;
+            }
+            emptyClusters = new int[noOfVertices];
+            for (int c = noOfVertices - 1; 0 <= c; c--) {
+                if (clusterSize[c] == 0) {
+                    emptyClusters[noOfEmptyClusters++] = c;
+                }
+            }
+        }
+
+        /**
+         * Applies sequentially the moves that were chosen in parallel from the
+         * state at the start of the round, re-evaluating each one against the
+         * current state.
+         *
+         * @return the number of applied moves
+         */
+        int applyMoves(int[] targetCluster) {
+            int noOfMoves = 0;
+            for (int v = 0; v < noOfVertices; v++) {
+                int target = targetCluster[v];
+                if (target < 0) {
+                    continue;
+                }
+                if (target != noOfVertices && clusterSize[target] == 0) {
+                    // the target has been emptied in this round, so it can only be reused through the stack
+                    target = noOfVertices;
+                }
+
+                if (0 < getMoveGain(v, target)) {
+                    if (target == noOfVertices) {
+                        target = emptyClusters[--noOfEmptyClusters];
+                    }
+                    int source = clusterOf[v];
+                    clusterSize[source]--;
+                    if (clusterSize[source] == 0) {
+                        emptyClusters[noOfEmptyClusters++] = source;
+                    }
+                    clusterOf[v] = target;
+                    clusterSize[target]++;
+                    noOfMoves++;
+                }
+            }
+            return noOfMoves;
+        }
+
+        int getBestMove(int v, int[] edgeWeight, int[] touchedClusters) {
+            final int source = clusterOf[v];
+            int sourceWeight = 0;
+            int noOfTouchedClusters = 0;
+            for (int i = adjacencyStart[v]; i < adjacencyStart[v + 1]; i++) {
+                int cluster = clusterOf[neighbors[i]];
+                if (cluster == source) {
+                    sourceWeight += weights[i];
+                } else {
+                    if (edgeWeight[cluster] == 0) {
+                        touchedClusters[noOfTouchedClusters++] = cluster;
+                    }
+                    edgeWeight[cluster] += weights[i];
+                }
+            }
+
+            final int leavingGain = clusterSize[source] - 1 - sourceWeight;
+            int bestGain = 0;
+            int bestTarget = -1;
+            if (1 < clusterSize[source] && 0 < leavingGain) {
+                bestGain = leavingGain;
+                bestTarget = noOfVertices;
+            }
+            for (int i = 0; i < noOfTouchedClusters; i++) {
+                int cluster = touchedClusters[i];
+                int gain = edgeWeight[cluster] + leavingGain - clusterSize[cluster];
+                if (bestGain < gain || (bestGain == gain && 0 < gain && cluster < bestTarget)) {
+                    bestGain = gain;
+                    bestTarget = cluster;
+                }
+                edgeWeight[cluster] = 0;
+            }
+            return bestTarget;
+        }
+
+        int getCluster(int v) {
+            return clusterOf[v];
+        }
+
+        int getClusterSize(int cluster) {
+            return clusterSize[cluster];
+        }
+
+        /**
+         * @return the ids of the empty clusters, from the bottom to the top of
+         * the stack
+         */
+        int[] getEmptyClusters() {
+            return Arrays.copyOf(emptyClusters, noOfEmptyClusters);
+        }
+
+        int getMoveGain(int v, int target) {
+            final int source = clusterOf[v];
+            if (target == source || (target == noOfVertices && clusterSize[source] == 1)) {
+                return 0;
+            }
+
+            int sourceWeight = 0;
+            int targetWeight = 0;
+            for (int i = adjacencyStart[v]; i < adjacencyStart[v + 1]; i++) {
+                int cluster = clusterOf[neighbors[i]];
+                if (cluster == source) {
+                    sourceWeight += weights[i];
+                } else if (cluster == target) {
+                    targetWeight += weights[i];
+                }
+            }
+            int targetSize = target == noOfVertices ? 0 : clusterSize[target];
+            return targetWeight - sourceWeight + clusterSize[source] - 1 - targetSize;
+        }
+    }
+
+    private static int findRoot(int[] parent, int v) {
+        while (parent[v] != v) {
+            parent[v] = parent[parent[v]];
+            v = parent[v];
+        }
+        return v;
+    }
+
     private int getOF() {
         int OFvalue = 0;
         for (int i = 0; i < noOfEntities; i++) {
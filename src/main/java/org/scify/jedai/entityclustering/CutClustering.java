@@ -23,9 +23,11 @@ import org.scify.jedai.datamodel.SimilarityPairs;
 import com.esotericsoftware.minlog.Log;
 import gnu.trove.set.hash.TIntHashSet;
 
+import java.util.Arrays;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Set;
+import java.util.stream.IntStream;
 import org.apache.jena.atlas.json.JsonArray;
 import org.apache.jena.atlas.json.JsonObject;
 import org.jgrapht.alg.connectivity.ConnectivityInspector;
@@ -35,6 +37,8 @@ import org.jgrapht.graph.SimpleGraph;
 import org.jgrapht.graph.SimpleWeightedGraph;
 import org.scify.jedai.configuration.gridsearch.DblGridSearchConfiguration;
 import org.scify.jedai.configuration.randomsearch.DblRandomSearchConfiguration;
+import org.scify.jedai.utilities.graph.DinicMaxFlow;
+import org.scify.jedai.utilities.metrics.StageMetrics;
 
 /**
  *
@@ -43,6 +47,7 @@ import org.scify.jedai.configuration.randomsearch.DblRandomSearchConfiguration;
 public class CutClustering extends AbstractEntityClustering {
     private static final long serialVersionUID = 1390193035942455206L;
 
+    protected boolean componentDecomposition;
     protected float Acap;
     
     protected final DblGridSearchConfiguration gridAcap;
@@ -55,8 +60,13 @@ public class CutClustering extends AbstractEntityClustering {
     }
 
     public CutClustering(float ac, float simTh) {
+        this(ac, simTh, true);
+    }
+
+    public CutClustering(float ac, float simTh, boolean decomposition) {
         super(simTh);
         Acap = ac;
+        componentDecomposition = decomposition;
         
         gridAcap = new DblGridSearchConfiguration(0.95f, 0.1f, 0.05f);
         randomAcap = new DblRandomSearchConfiguration(0.99f, 0.01f);
@@ -81,6 +91,12 @@ public class CutClustering extends AbstractEntityClustering {
 
     @Override
     public EquivalenceCluster[] getDuplicates(SimilarityPairs simPairs) {
+        final StageMetrics stage = startStage(simPairs);
+        if (componentDecomposition) {
+            initializeEntityIds(simPairs);
+            return finishStage(stage, getDecomposedClusters(simPairs));
+        }
+
         initializeData(simPairs);
         similarityGraph = null;
         initializeGraph();
@@ -98,7 +114,181 @@ public class CutClustering extends AbstractEntityClustering {
         duplicatesGraph = ght.MinCutTree();
         duplicatesGraph.removeVertex(noOfEntities); //remove the artificial sink
 
-        return getConnectedComponents();
+        return finishStage(stage, getConnectedComponents());
+    }
+
+    /**
+     * Applies Cut Clustering separately to every connected component of the
+     * thresholded similarity graph: the artificial sink is the only vertex
+     * shared by the components, so the minimum cuts between the vertices of a
+     * component, as well as the resulting (Gomory-Hu) min-cut tree, depend
+     * exclusively on the edges of that component. Components with more than
+     * two entities are processed in parallel, using Gusfield's algorithm over
+     * a primitive flow network; the rest are resolved directly.
+     */
+    protected EquivalenceCluster[] getDecomposedClusters(SimilarityPairs simPairs) {
+        // add an edge for every pair of entities with a weight higher than the threshold
+        int noOfEdges = 0;
+        final int[] edgeSources = new int[simPairs.getNoOfComparisons()];
+        final int[] edgeTargets = new int[simPairs.getNoOfComparisons()];
+        final float[] edgeWeights = new float[simPairs.getNoOfComparisons()];
+        final int[] entityIds1 = simPairs.getEntityIds1();
+        final int[] entityIds2 = simPairs.getEntityIds2();
+        final float[] similarities = simPairs.getSimilarities();
+        final int[] componentRoot = new int[noOfEntities];
+        Arrays.setAll(componentRoot, i -> i);
+        for (int i = 0; i < simPairs.getNoOfComparisons(); i++) {
+            if (threshold < similarities[i]) {
+                edgeSources[noOfEdges] = entityIds1[i];
+                edgeTargets[noOfEdges] = entityIds2[i] + datasetLimit;
+                edgeWeights[noOfEdges] = similarities[i];
+                union(componentRoot, edgeSources[noOfEdges], edgeTargets[noOfEdges]);
+                noOfEdges++;
+            }
+        }
+        Log.info("Retained comparisons\t:\t" + noOfEdges);
+
+        // group the entities and the edges per connected component, in increasing entity id
+        int noOfComponents = 0;
+        final int[] componentId = new int[noOfEntities];
+        for (int v = 0; v < noOfEntities; v++) {
+            int root = find(componentRoot, v);
+            componentId[v] = root == v ? noOfComponents++ : componentId[root];
+        }
+        final int[] vertexStart = new int[noOfComponents + 1];
+        final int[] componentVertices = groupByComponent(componentId, noOfEntities, vertexStart);
+        final int[] edgeComponents = new int[noOfEdges];
+        for (int e = 0; e < noOfEdges; e++) {
+            edgeComponents[e] = componentId[edgeSources[e]];
+        }
+        final int[] edgeStart = new int[noOfComponents + 1];
+        final int[] componentEdges = groupByComponent(edgeComponents, noOfEdges, edgeStart);
+        final int[] localId = new int[noOfEntities];
+        for (int c = 0; c < noOfComponents; c++) {
+            for (int i = vertexStart[c]; i < vertexStart[c + 1]; i++) {
+                localId[componentVertices[i]] = i - vertexStart[c];
+            }
+        }
+        Log.info("Connected components\t:\t" + noOfComponents);
+
+        // treeParent[v] = the neighbor of v in the min-cut tree that was processed before it, or -1 for the sink
+        final int[] treeParent = new int[noOfEntities];
+        Arrays.fill(treeParent, -1);
+        IntStream.range(0, noOfComponents)
+                .boxed()
+                .sorted((c1, c2) -> Integer.compare(vertexStart[c2 + 1] - vertexStart[c2], vertexStart[c1 + 1] - vertexStart[c1]))
+                .parallel()
+                .forEach(c -> {
+                    final int size = vertexStart[c + 1] - vertexStart[c];
+                    if (size == 2) { // both entities are cut from the sink together only if their edge outweighs the capacity edges
+                        int e = componentEdges[edgeStart[c]];
+                        if (Acap < edgeWeights[e]) {
+                            treeParent[componentVertices[vertexStart[c] + 1]] = componentVertices[vertexStart[c]];
+                        }
+                    } else if (2 < size) {
+                        setMinCutTree(c, size, vertexStart, componentVertices, edgeStart, componentEdges,
+                                edgeSources, edgeTargets, edgeWeights, localId, treeParent);
+                    }
+                });
+
+        // the clusters are the connected components of the min-cut forest, after removing the sink
+        final int[] clusterRoot = new int[noOfEntities];
+        Arrays.setAll(clusterRoot, i -> i);
+        for (int v = 0; v < noOfEntities; v++) {
+            if (0 <= treeParent[v]) {
+                union(clusterRoot, v, treeParent[v]);
+            }
+        }
+
+        int noOfClusters = 0;
+        final int[] clusterId = new int[noOfEntities];
+        for (int v = 0; v < noOfEntities; v++) {
+            int root = find(clusterRoot, v);
+            clusterId[v] = root == v ? noOfClusters++ : clusterId[root];
+        }
+        final EquivalenceCluster[] equivalenceClusters = new EquivalenceCluster[noOfClusters];
+        for (int v = 0; v < noOfEntities; v++) {
+            if (equivalenceClusters[clusterId[v]] == null) {
+                equivalenceClusters[clusterId[v]] = new EquivalenceCluster();
+            }
+            equivalenceClusters[clusterId[v]].addEntityIdD1(v);
+        }
+
+        return equivalenceClusters;
+    }
+
+    private static int find(int[] root, int v) {
+        while (root[v] != v) {
+            root[v] = root[root[v]];
+            v = root[v];
+        }
+        return v;
+    }
+
+    // counting sort of the item ids by component, preserving their order
+    private static int[] groupByComponent(int[] itemComponents, int noOfItems, int[] groupStart) {
+        for (int i = 0; i < noOfItems; i++) {
+            groupStart[itemComponents[i] + 1]++;
+        }
+        for (int c = 1; c < groupStart.length; c++) {
+            groupStart[c] += groupStart[c - 1];
+        }
+        final int[] nextPosition = Arrays.copyOf(groupStart, groupStart.length - 1);
+        final int[] groupedItems = new int[noOfItems];
+        for (int i = 0; i < noOfItems; i++) {
+            groupedItems[nextPosition[itemComponents[i]]++] = i;
+        }
+        return groupedItems;
+    }
+
+    // Gusfield's algorithm over a single component, following the vertex order of the MinCutTree of GomoryHuTree
+    private void setMinCutTree(int component, int size, int[] vertexStart, int[] componentVertices,
+            int[] edgeStart, int[] componentEdges, int[] edgeSources, int[] edgeTargets, float[] edgeWeights,
+            int[] localId, int[] treeParent) {
+        // local ids: 0 to size-1 for the entities, size for the artificial sink
+        final int noOfEdges = edgeStart[component + 1] - edgeStart[component] + size;
+        final int[] sources = new int[noOfEdges];
+        final int[] targets = new int[noOfEdges];
+        final double[] capacities = new double[noOfEdges];
+        int counter = 0;
+        for (int i = edgeStart[component]; i < edgeStart[component + 1]; i++) {
+            int e = componentEdges[i];
+            sources[counter] = localId[edgeSources[e]];
+            targets[counter] = localId[edgeTargets[e]];
+            capacities[counter++] = edgeWeights[e];
+        }
+        for (int v = 0; v < size; v++) { // the capacity edges connecting the artificial sink with all vertices
+            sources[counter] = size;
+            targets[counter] = v;
+            capacities[counter++] = Acap;
+        }
+        final DinicMaxFlow flowNetwork = new DinicMaxFlow(size + 1, sources, targets, capacities, noOfEdges);
+
+        final int[] predecessors = new int[size];
+        Arrays.fill(predecessors, size);
+        for (int vertex = 0; vertex < size; vertex++) {
+            int predecessor = predecessors[vertex];
+            flowNetwork.getMaxFlow(vertex, predecessor);
+            if (predecessor < size) {
+                treeParent[componentVertices[vertexStart[component] + vertex]] = componentVertices[vertexStart[component] + predecessor];
+            }
+
+            for (int other = vertex + 1; other < size; other++) {
+                if (predecessors[other] == predecessor && flowNetwork.onSourceSide(other)) {
+                    predecessors[other] = vertex;
+                }
+            }
+        }
+    }
+
+    private static void union(int[] root, int v1, int v2) {
+        int root1 = find(root, v1);
+        int root2 = find(root, v2);
+        if (root1 < root2) {
+            root[root2] = root1;
+        } else if (root2 < root1) {
+            root[root1] = root2;
+        }
     }
 
     @Override
@@ -198,6 +388,10 @@ public class CutClustering extends AbstractEntityClustering {
 		this.threshold = threshold;
 	}
     
+    public void setComponentDecomposition(boolean decomposition) {
+        this.componentDecomposition = decomposition;
+    }
+    
     public void setA(float Acap) {
         this.Acap = Acap;
     }
@@ -21,6 +21,7 @@ import org.scify.jedai.datamodel.EquivalenceCluster;
 import org.scify.jedai.datamodel.SimilarityEdge;
 import org.scify.jedai.datamodel.SimilarityPairs;
 import org.scify.jedai.utilities.comparators.DecSimilarityEdgeComparator;
+import org.scify.jedai.utilities.metrics.StageMetrics;
 
 import java.util.Iterator;
 import java.util.PriorityQueue;
@@ -62,6 +63,8 @@ public class ExactClustering extends AbstractCcerEntityClustering {
             return null; //the method is only applicable to Clean-Clean ER
         }
 
+        final StageMetrics stage = startStage(simPairs);
+
         // create as many PQs (initially empty) as the number of entities in collection 1
         Queue<SimilarityEdge>[] SEqueues1 = new PriorityQueue[datasetLimit];
         for (int i =0; i < SEqueues1.length; ++i) {
@@ -108,7 +111,7 @@ public class ExactClustering extends AbstractCcerEntityClustering {
             matchedIds.add(e2);
         }
 
-        return getConnectedComponents();
+        return finishStage(stage, getConnectedComponents());
     }
 
     @Override
@@ -21,6 +21,7 @@ import org.scify.jedai.datamodel.EquivalenceCluster;
 import org.scify.jedai.datamodel.SimilarityEdge;
 import org.scify.jedai.datamodel.SimilarityPairs;
 import org.scify.jedai.utilities.comparators.DecSimilarityEdgeComparator;
+import org.scify.jedai.utilities.metrics.StageMetrics;
 
 import java.util.*;
 
@@ -142,6 +143,8 @@ public class KiralyMSMApproxClustering extends AbstractCcerEntityClustering {
             return null; //the method is only applicable to Clean-Clean ER
         }
 
+        final StageMetrics stage = startStage(simPairs);
+
         // create as many PQs (initially empty) as the number of entities in collection 1
         List<List<SimilarityEdgeExt>> SEqueuesMen = new ArrayList<>();
         for (int i =0; i < datasetLimit; ++i) {
@@ -249,7 +252,7 @@ public class KiralyMSMApproxClustering extends AbstractCcerEntityClustering {
             similarityGraph.addEdge(match.getModel1Pos(), match.getModel2Pos());
         }
 
-        return getConnectedComponents();
+        return finishStage(stage, getConnectedComponents());
     }
 
     @Override
@@ -24,6 +24,7 @@ import org.scify.jedai.configuration.randomsearch.IntRandomSearchConfiguration;
 import org.scify.jedai.datamodel.Comparison;
 import org.scify.jedai.datamodel.EquivalenceCluster;
 import org.scify.jedai.datamodel.SimilarityPairs;
+import org.scify.jedai.utilities.metrics.StageMetrics;
 
 import java.util.Iterator;
 
@@ -102,6 +103,7 @@ public class MarkovClustering extends AbstractEntityClustering {
 
     @Override
     public EquivalenceCluster[] getDuplicates(SimilarityPairs simPairs) {
+        final StageMetrics stage = startStage(simPairs);
         initializeData(simPairs);
 
         // add an edge for every pair of entities with a weight higher than the threshold
@@ -146,7 +148,7 @@ public class MarkovClustering extends AbstractEntityClustering {
             }
         }
 
-        return getConnectedComponents();
+        return finishStage(stage, getConnectedComponents());
     }
 
     @Override
@@ -20,6 +20,7 @@ import org.scify.jedai.datamodel.EquivalenceCluster;
 import org.scify.jedai.datamodel.SimilarityEdge;
 import org.scify.jedai.datamodel.SimilarityPairs;
 import org.scify.jedai.utilities.comparators.DecSimilarityEdgeComparator;
+import org.scify.jedai.utilities.metrics.StageMetrics;
 
 import gnu.trove.set.TIntSet;
 import gnu.trove.set.hash.TIntHashSet;
@@ -49,6 +50,7 @@ public class MergeCenterClustering extends AbstractEntityClustering {
     
     @Override
     public EquivalenceCluster[] getDuplicates(SimilarityPairs simPairs) {
+        final StageMetrics stage = startStage(simPairs);
         initializeData(simPairs);
         
         // add an edge for every pair of entities with a weight higher than the thrshold
@@ -88,7 +90,7 @@ public class MergeCenterClustering extends AbstractEntityClustering {
             }
         }
 
-        return getConnectedComponents();
+        return finishStage(stage, getConnectedComponents());
     }
 
     @Override
@@ -26,6 +26,7 @@ import org.scify.jedai.datamodel.EquivalenceCluster;
 import org.scify.jedai.datamodel.SimilarityPairs;
 import org.scify.jedai.datamodel.VertexWeight;
 import org.scify.jedai.utilities.comparators.DecVertexWeightComparator;
+import org.scify.jedai.utilities.metrics.StageMetrics;
 
 import java.util.*;
 
@@ -50,6 +51,7 @@ public class RicochetSRClusteringCCER extends AbstractEntityClustering {
     
     @Override
     public EquivalenceCluster[] getDuplicates(SimilarityPairs simPairs) {
+        final StageMetrics stage = startStage(simPairs);
         initializeData(simPairs);
         similarityGraph = null;
         final Queue<VertexWeight> VWqueue = new PriorityQueue<>(noOfEntities, new DecVertexWeightComparator());
@@ -83,7 +85,7 @@ public class RicochetSRClusteringCCER extends AbstractEntityClustering {
         }
 
         if (VWqueue.isEmpty()) {
-            return new EquivalenceCluster[0];
+            return finishStage(stage, new EquivalenceCluster[0]);
         }
 
         final TIntSet Center = new TIntHashSet();
@@ -226,7 +228,7 @@ public class RicochetSRClusteringCCER extends AbstractEntityClustering {
             equivalenceClusters[counter].loadBulkEntityIdsD1(componentIds1);
             equivalenceClusters[counter++].loadBulkEntityIdsD2(componentIds2);
         }
-        return equivalenceClusters;
+        return finishStage(stage, equivalenceClusters);
     }
 
     @Override
@@ -16,11 +16,12 @@
 package org.scify.jedai.entityclustering;
 
 import com.esotericsoftware.minlog.Log;
-import org.scify.jedai.datamodel.Comparison;
 import org.scify.jedai.datamodel.EquivalenceCluster;
 import org.scify.jedai.datamodel.SimilarityPairs;
+import org.scify.jedai.utilities.metrics.StageMetrics;
 
-import java.util.Iterator;
+import java.util.Arrays;
+import java.util.BitSet;
 
 /**
  *
@@ -29,13 +30,16 @@ import java.util.Iterator;
 public class RowColumnClustering extends AbstractCcerEntityClustering {
     private static final long serialVersionUID = 2339477768564905457L;
 
-    protected float[][] matrix; // inverted similarity matrix (cost matrix)
+    // the (inverted) similarity matrix is sparse: only the pairs above the threshold are stored per row and per column,
+    // while all other cells have the maximum cost of 1
+    protected int[] entityIds1, entityIds2, rowStart, rowPairs, columnStart, columnPairs;
+    protected float[] similarities;
 
     protected int[] selectedRow, selectedColumn, columnsFromSelectedRow;
 
     protected float costRowScan, costColumnScan;
 
-    protected boolean[] isRowCovered, isColumnCovered;
+    protected BitSet isRowCovered, isColumnCovered;
 
     public RowColumnClustering() {
         this(0.5f);
@@ -52,30 +56,40 @@ public class RowColumnClustering extends AbstractCcerEntityClustering {
     private int columnWithMin(int rowNumber) {
         int pos = -1;
         float min = Float.MAX_VALUE;
-        for (int col = 0; col < matrix[rowNumber].length; col++) {
-            if (isColumnCovered[col]) {
+        for (int i = rowStart[rowNumber]; i < rowStart[rowNumber + 1]; i++) {
+            int col = entityIds2[rowPairs[i]];
+            if (isColumnCovered.get(col)) {
                 continue;
             }
-            if (matrix[rowNumber][col] < min) {
+            float cost = getCost(rowPairs[i]);
+            if (cost < min || (cost == min && col < pos)) {
                 pos = col;
-                min = matrix[rowNumber][col];
+                min = cost;
             }
         }
-        return pos;
+
+        // the cells outside the sparse row have the maximum cost, so the first uncovered column is selected
+        if (min < 1.0f) {
+            return pos;
+        }
+        int firstUncovered = isColumnCovered.nextClearBit(0);
+        return firstUncovered < columnStart.length - 1 ? firstUncovered : -1;
     }
 
     private void getColumnAssignment() {
         costColumnScan = 0;
-        for (int col = 0; col < matrix[0].length; col++) {
+        for (int col = 0; col < selectedRow.length; col++) {
             selectedRow[col] = rowWithMin(col);
             if (selectedRow[col]==-1) break;
             columnsFromSelectedRow[selectedRow[col]] = col;
-            isRowCovered[selectedRow[col]] = true;
-            costColumnScan += matrix[selectedRow[col]][col];
-
-
+            isRowCovered.set(selectedRow[col]);
+            costColumnScan += 1.0f - getSimilarity(selectedRow[col], col);
         }
     }
+
+    private float getCost(int pairIndex) {
+        return 1.0f - similarities[pairIndex];
+    }
     
     @Override
     public EquivalenceCluster[] getDuplicates(SimilarityPairs simPairs) {
@@ -86,42 +100,37 @@ public class RowColumnClustering extends AbstractCcerEntityClustering {
             return new EquivalenceCluster[0];
         }
 
-        initializeData(simPairs);
+        initializeEntityIds(simPairs);
         if (!isCleanCleanER) {
             return null; //the method is only applicable to Clean-Clean ER
         }
 
-        final Iterator<Comparison> iterator = simPairs.getPairIterator();
-        float[][] simMatrix = new float[datasetLimit][noOfEntities - datasetLimit];
-        while (iterator.hasNext()) {
-            final Comparison comparison = iterator.next();
-            if (threshold < comparison.getUtilityMeasure()) {
-                simMatrix[comparison.getEntityId1()][comparison.getEntityId2()] = comparison.getUtilityMeasure();
-            }
-        }
+        final StageMetrics stage = startStage(simPairs);
 
-        init(getNegative(simMatrix));
+        init(simPairs);
 
         int[] solutionProxy = getSolution();
 
+        final BitSet matchedD2 = new BitSet(noOfEntities - datasetLimit);
+        final int[] matchesD1 = new int[datasetLimit];
+        Arrays.fill(matchesD1, -1);
         for (int i = 0; i < solutionProxy.length; i++) {
             int e1 = i;
             int e2 = solutionProxy[i];
-            if (simMatrix[e1][e2] < threshold) {
+            if (getSimilarity(e1, e2) < threshold) {
                 continue;
             }
-            e2 += datasetLimit;
             //skip already matched entities (unique mapping contraint for clean-clean ER)
-            if (matchedIds.contains(e1) || matchedIds.contains(e2)) {
-                System.err.println("id already in the graph");
+            if (matchedD2.get(e2)) {
+                Log.warn("Entity " + e2 + " of the second collection has already been matched");
+                continue;
             }
 
-            similarityGraph.addEdge(e1, e2);
-            matchedIds.add(e1);
-            matchedIds.add(e2);
+            matchesD1[e1] = e2;
+            matchedD2.set(e2);
         }
 
-        return getConnectedComponents();
+        return finishStage(stage, getUniqueMappingClusters(matchesD1, matchedD2));
     }
 
     @Override
@@ -134,27 +143,25 @@ public class RowColumnClustering extends AbstractCcerEntityClustering {
         return "Row-Column Proxy Clustering";
     }
     
-    //inverts the input to 1.0-simMatrix in order to apply the minimization problem
-    private float[][] getNegative(float[][] initMatrix) {
-        int N = initMatrix.length;
-        float[][] negMatrix = new float[N][initMatrix[0].length];
-        for (int i = 0; i < initMatrix.length; i++) {
-            for (int j = 0; j < initMatrix[i].length; j++) {
-                negMatrix[i][j] = 1.0f - initMatrix[i][j];
-            }
-        }
-        return negMatrix;
-    }
-    
     private void getRowAssignment() {
         costRowScan = 0;
-        for (int row = 0; row < matrix.length; row++) {
+        for (int row = 0; row < selectedColumn.length; row++) {
             selectedColumn[row] = columnWithMin(row);
             if (selectedColumn[row]==-1) break;
 
-            isColumnCovered[selectedColumn[row]] = true;
-            costRowScan += matrix[row][selectedColumn[row]];
+            isColumnCovered.set(selectedColumn[row]);
+            costRowScan += 1.0f - getSimilarity(row, selectedColumn[row]);
+        }
+    }
+
+    // the similarity of the given cell of the matrix, which is 0 for the pairs below the threshold
+    private float getSimilarity(int row, int col) {
+        for (int i = rowStart[row]; i < rowStart[row + 1]; i++) {
+            if (entityIds2[rowPairs[i]] == col) {
+                return similarities[rowPairs[i]];
+            }
         }
+        return 0;
     }
     
     private int[] getSolution() {
@@ -167,29 +174,46 @@ public class RowColumnClustering extends AbstractCcerEntityClustering {
         }
     }
     
-    private void init(float[][] matrix) {
-        this.matrix = matrix;
-
-        this.selectedColumn = new int[matrix.length];
-        this.isColumnCovered = new boolean[matrix[0].length];
-
-        this.selectedRow = new int[matrix[0].length];
-        this.columnsFromSelectedRow = new int[matrix.length];
-        this.isRowCovered = new boolean[matrix.length];
+    private void init(SimilarityPairs simPairs) {
+        final int noOfRows = datasetLimit;
+        final int noOfColumns = noOfEntities - datasetLimit;
+
+        this.entityIds1 = simPairs.getEntityIds1();
+        this.entityIds2 = simPairs.getEntityIds2();
+        this.similarities = simPairs.getSimilarities();
+        this.rowStart = new int[noOfRows + 1];
+        this.rowPairs = groupPairIndices(entityIds1, similarities, simPairs.getNoOfComparisons(), rowStart);
+        this.columnStart = new int[noOfColumns + 1];
+        this.columnPairs = groupPairIndices(entityIds2, similarities, simPairs.getNoOfComparisons(), columnStart);
+        
+        this.selectedColumn = new int[noOfRows];
+        this.isColumnCovered = new BitSet(noOfColumns);
+
+        this.selectedRow = new int[noOfColumns];
+        this.columnsFromSelectedRow = new int[noOfRows];
+        this.isRowCovered = new BitSet(noOfRows);
     }
     
     private int rowWithMin(int columnNumber) {
         int pos = -1;
         float min = Float.MAX_VALUE;
-        for (int row = 0; row < matrix.length; row++) {
-            if (isRowCovered[row]) {
+        for (int i = columnStart[columnNumber]; i < columnStart[columnNumber + 1]; i++) {
+            int row = entityIds1[columnPairs[i]];
+            if (isRowCovered.get(row)) {
                 continue;
             }
-            if (matrix[row][columnNumber] < min) {
+            float cost = getCost(columnPairs[i]);
+            if (cost < min || (cost == min && row < pos)) {
                 pos = row;
-                min = matrix[row][columnNumber];
+                min = cost;
             }
         }
-        return pos;
+
+        // the cells outside the sparse column have the maximum cost, so the first uncovered row is selected
+        if (min < 1.0f) {
+            return pos;
+        }
+        int firstUncovered = isRowCovered.nextClearBit(0);
+        return firstUncovered < rowStart.length - 1 ? firstUncovered : -1;
     }
 }
\ No newline at end of file
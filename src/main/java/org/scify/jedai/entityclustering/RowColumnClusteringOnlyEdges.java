@@ -20,6 +20,7 @@ import org.apache.jena.ext.com.google.common.collect.ComparisonChain;
 import org.scify.jedai.datamodel.Comparison;
 import org.scify.jedai.datamodel.EquivalenceCluster;
 import org.scify.jedai.datamodel.SimilarityPairs;
+import org.scify.jedai.utilities.metrics.StageMetrics;
 
 import java.util.ArrayList;
 import java.util.Iterator;
@@ -111,6 +112,8 @@ public class RowColumnClusteringOnlyEdges extends AbstractCcerEntityClustering {
             return null; //the method is only applicable to Clean-Clean ER
         }
 
+        final StageMetrics stage = startStage(simPairs);
+
         final Iterator<Comparison> iterator = simPairs.getPairIterator();
         float[][] simMatrix = new float[datasetLimit][noOfEntities - datasetLimit];
         edgesWeightRows = new float[datasetLimit];
@@ -149,7 +152,7 @@ public class RowColumnClusteringOnlyEdges extends AbstractCcerEntityClustering {
             matchedIds.add(e2);
         }
 
-        return getConnectedComponents();
+        return finishStage(stage, getConnectedComponents());
     }
 
     @Override
@@ -16,15 +16,12 @@
 package org.scify.jedai.entityclustering;
 
 import com.esotericsoftware.minlog.Log;
-import org.scify.jedai.datamodel.Comparison;
 import org.scify.jedai.datamodel.EquivalenceCluster;
-import org.scify.jedai.datamodel.SimilarityEdge;
 import org.scify.jedai.datamodel.SimilarityPairs;
-import org.scify.jedai.utilities.comparators.DecSimilarityEdgeComparator;
+import org.scify.jedai.utilities.metrics.StageMetrics;
 
-import java.util.Iterator;
-import java.util.PriorityQueue;
-import java.util.Queue;
+import java.util.Arrays;
+import java.util.BitSet;
 
 /**
  *
@@ -54,39 +51,38 @@ public class UniqueMappingClustering extends AbstractCcerEntityClustering {
             return new EquivalenceCluster[0];
         }
 
-        initializeData(simPairs);
+        initializeEntityIds(simPairs);
         if (!isCleanCleanER) {
             return null; //the method is only applicable to Clean-Clean ER
         }
 
-        final Queue<SimilarityEdge> SEqueue = new PriorityQueue<>(simPairs.getNoOfComparisons(), new DecSimilarityEdgeComparator());
+        final StageMetrics stage = startStage(simPairs);
 
-        final Iterator<Comparison> iterator = simPairs.getPairIterator();
-        while (iterator.hasNext()) { // add a similarity edge to the queue, for every pair of entities with a weight higher than the threshold
-            Comparison comparison = iterator.next();
-            if (threshold < comparison.getUtilityMeasure()) {
-                SEqueue.add(new SimilarityEdge(comparison.getEntityId1(), comparison.getEntityId2() + datasetLimit, comparison.getUtilityMeasure()));
-            }
-        }
-
-        Log.info("Retained comparisons\t:\t" + SEqueue.size());
+        // the positions of all pairs with a weight higher than the threshold, in decreasing weight
+        final int[] sortedPairs = simPairs.getPairIndicesByDecreasingSimilarity(threshold);
+        Log.info("Retained comparisons\t:\t" + sortedPairs.length);
 
-        while (!SEqueue.isEmpty()) {
-            final SimilarityEdge se = SEqueue.remove();
-            int e1 = se.getModel1Pos();
-            int e2 = se.getModel2Pos();
+        final int[] entityIds1 = simPairs.getEntityIds1();
+        final int[] entityIds2 = simPairs.getEntityIds2();
+        final BitSet matchedD1 = new BitSet(datasetLimit);
+        final BitSet matchedD2 = new BitSet(noOfEntities - datasetLimit);
+        final int[] matchesD1 = new int[datasetLimit];
+        Arrays.fill(matchesD1, -1);
+        for (int pairIndex : sortedPairs) {
+            int e1 = entityIds1[pairIndex];
+            int e2 = entityIds2[pairIndex];
 
             //skip already matched entities (unique mapping contraint for clean-clean ER)
-            if (matchedIds.contains(e1) || matchedIds.contains(e2)) {
+            if (matchedD1.get(e1) || matchedD2.get(e2)) {
                 continue;
             }
 
-            similarityGraph.addEdge(e1, e2);
-            matchedIds.add(e1);
-            matchedIds.add(e2);
+            matchesD1[e1] = e2;
+            matchedD1.set(e1);
+            matchedD2.set(e2);
         }
 
-        return getConnectedComponents();
+        return finishStage(stage, getUniqueMappingClusters(matchesD1, matchedD2));
     }
 
     @Override
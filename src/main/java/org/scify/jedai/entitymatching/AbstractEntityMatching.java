@@ -15,7 +15,9 @@
  */
 package org.scify.jedai.entitymatching;
 
+import org.scify.jedai.datamodel.AbstractBlock;
 import org.scify.jedai.datamodel.EntityProfile;
+import org.scify.jedai.datamodel.SimilarityPairs;
 import org.scify.jedai.utilities.enumerations.RepresentationModel;
 import org.scify.jedai.utilities.enumerations.SimilarityMetric;
 
@@ -23,6 +25,8 @@ import java.util.List;
 import org.scify.jedai.configuration.gridsearch.IntGridSearchConfiguration;
 import org.scify.jedai.datamodel.RepModelSimMetricCombo;
 import org.scify.jedai.configuration.randomsearch.IntRandomSearchConfiguration;
+import org.scify.jedai.utilities.metrics.PipelineMetrics;
+import org.scify.jedai.utilities.metrics.StageMetrics;
 
 /**
  *
@@ -53,6 +57,15 @@ public abstract class AbstractEntityMatching implements IEntityMatching {
     
     protected abstract void buildModels();
 
+    protected SimilarityPairs finishStage(StageMetrics stage, SimilarityPairs simPairs) {
+        if (stage.isEnabled()) {
+            stage.stop();
+            stage.setOutputComparisons(simPairs.getNoOfComparisons());
+            stage.finish(simPairs.getNoOfComparisons());
+        }
+        return simPairs;
+    }
+
     @Override
     public int getNumberOfGridConfigurations() {
         return gridCombo.getNumberOfConfigurations();
@@ -84,4 +97,12 @@ public abstract class AbstractEntityMatching implements IEntityMatching {
         simMetric = selectedCombo.getSimMetric();
         buildModels();
     }
+
+    protected StageMetrics startStage(List<AbstractBlock> blocks) {
+        final StageMetrics stage = PipelineMetrics.startStage(PipelineMetrics.ENTITY_MATCHING, this, blocks.size());
+        if (stage.isEnabled()) {
+            stage.setInputComparisons(blocks.stream().mapToLong(AbstractBlock::getNoOfComparisons).sum());
+        }
+        return stage;
+    }
 }
@@ -25,6 +25,8 @@ import org.scify.jedai.textmodels.ITextModel;
 import org.scify.jedai.utilities.comparators.DecSimilarityEdgeComparator;
 import org.scify.jedai.utilities.enumerations.RepresentationModel;
 import org.scify.jedai.utilities.enumerations.SimilarityMetric;
+import org.scify.jedai.utilities.metrics.ProgressCounter;
+import org.scify.jedai.utilities.metrics.StageMetrics;
 
 import java.util.List;
 import java.util.PriorityQueue;
@@ -36,16 +38,18 @@ import java.util.Queue;
  */
 public class GroupLinkage extends AbstractEntityMatching {
 
+    public static final float DEFAULT_SIMILARITY_THRESHOLD = 0.1f;
+
     protected float similarityThreshold;
     protected ITextModel[][] entityModelsD1;
     protected ITextModel[][] entityModelsD2;
 
     public GroupLinkage(List<EntityProfile> profiles) {
-        this(0.1f, profiles, null, RepresentationModel.TOKEN_UNIGRAMS, SimilarityMetric.COSINE_SIMILARITY);
+        this(DEFAULT_SIMILARITY_THRESHOLD, profiles, null, RepresentationModel.TOKEN_UNIGRAMS, SimilarityMetric.COSINE_SIMILARITY);
     }
     
     public GroupLinkage(List<EntityProfile> profilesD1, List<EntityProfile> profilesD2) {
-        this(0.1f, profilesD1, profilesD2, RepresentationModel.TOKEN_UNIGRAMS, SimilarityMetric.COSINE_SIMILARITY);
+        this(DEFAULT_SIMILARITY_THRESHOLD, profilesD1, profilesD2, RepresentationModel.TOKEN_UNIGRAMS, SimilarityMetric.COSINE_SIMILARITY);
     }
 
     public GroupLinkage(float simThr, List<EntityProfile> profiles, RepresentationModel model, SimilarityMetric simMetric) {
@@ -81,13 +85,17 @@ public class GroupLinkage extends AbstractEntityMatching {
     
     @Override
     public float executeComparison(Comparison comparison) {
-        final Queue<SimilarityEdge> similarityQueue = getSimilarityEdges(comparison);
+        return executeComparison(comparison.getEntityId1(), comparison.getEntityId2());
+    }
+
+    protected float executeComparison(int entityId1, int entityId2) {
+        final Queue<SimilarityEdge> similarityQueue = getSimilarityEdges(entityId1, entityId2);
         final SimpleDirectedWeightedGraph<String, DefaultWeightedEdge> similarityGraph = getSimilarityGraph(similarityQueue);
-        int verticesNum = entityModelsD1[comparison.getEntityId1()].length;
+        int verticesNum = entityModelsD1[entityId1].length;
         if (isCleanCleanER) {
-            verticesNum += entityModelsD2[comparison.getEntityId2()].length;
+            verticesNum += entityModelsD2[entityId2].length;
         } else {
-            verticesNum += entityModelsD1[comparison.getEntityId2()].length;
+            verticesNum += entityModelsD1[entityId2].length;
         }
 
         return getSimilarity(similarityGraph, verticesNum);
@@ -95,19 +103,18 @@ public class GroupLinkage extends AbstractEntityMatching {
 
     @Override
     public SimilarityPairs executeComparisons(List<AbstractBlock> blocks) {
+        final StageMetrics stage = startStage(blocks);
+        final ProgressCounter executedComparisons = stage.getCounter("executed comparisons");
         final SimilarityPairs simPairs = new SimilarityPairs(profilesD2 != null, blocks);
-        blocks.stream().map(AbstractBlock::getComparisonIterator).forEachOrdered((iterator) -> {
-            while (iterator.hasNext()) {
-                final Comparison currentComparison = iterator.next();
-                float similarity = executeComparison(currentComparison);
-                if (0 < similarity) {
-                    currentComparison.setUtilityMeasure(similarity);
-                    simPairs.addComparison(currentComparison);
-                }
+        blocks.forEach((block) -> block.forEachPair((entityId1, entityId2) -> {
+            float similarity = executeComparison(entityId1, entityId2);
+            if (0 < similarity) {
+                simPairs.addComparison(entityId1, entityId2, similarity);
             }
-        });
+            executedComparisons.increment();
+        }));
 
-        return simPairs;
+        return finishStage(stage, simPairs);
     }
 
     @Override
@@ -234,13 +241,13 @@ public class GroupLinkage extends AbstractEntityMatching {
         return numerator / denominator;
     }
 
-    private Queue<SimilarityEdge> getSimilarityEdges(Comparison comparison) {
-        final ITextModel[] model1 = entityModelsD1[comparison.getEntityId1()];
+    private Queue<SimilarityEdge> getSimilarityEdges(int entityId1, int entityId2) {
+        final ITextModel[] model1 = entityModelsD1[entityId1];
         ITextModel[] model2;
         if (isCleanCleanER) {
-            model2 = entityModelsD2[comparison.getEntityId2()];
+            model2 = entityModelsD2[entityId2];
         } else {
-            model2 = entityModelsD1[comparison.getEntityId2()];
+            model2 = entityModelsD1[entityId2];
         }
 
         int s1 = model1.length;
@@ -248,7 +255,7 @@ public class GroupLinkage extends AbstractEntityMatching {
         final Queue<SimilarityEdge> SEqueue = new PriorityQueue<>(s1 * s2, new DecSimilarityEdgeComparator());
         for (int i = 0; i < s1; i++) {
             for (int j = 0; j < s2; j++) {
-                float sim = model1[i].getSimilarity(model2[j]);
+                float sim = model1[i].getSimilarity(model2[j], similarityThreshold);
                 if (similarityThreshold < sim) {
                     SEqueue.add(new SimilarityEdge(i, j, sim));
                 }
@@ -22,6 +22,8 @@ import org.scify.jedai.datamodel.*;
 import org.scify.jedai.textmodels.ITextModel;
 import org.scify.jedai.utilities.enumerations.RepresentationModel;
 import org.scify.jedai.utilities.enumerations.SimilarityMetric;
+import org.scify.jedai.utilities.metrics.ProgressCounter;
+import org.scify.jedai.utilities.metrics.StageMetrics;
 
 import java.util.List;
 
@@ -71,28 +73,31 @@ public class ProfileMatcher extends AbstractEntityMatching {
 
     @Override
     public float executeComparison(Comparison comparison) {
+        return executeComparison(comparison.getEntityId1(), comparison.getEntityId2());
+    }
+
+    protected float executeComparison(int entityId1, int entityId2) {
         if (isCleanCleanER) {
-            return entityModelsD1[comparison.getEntityId1()].getSimilarity(entityModelsD2[comparison.getEntityId2()]);
+            return entityModelsD1[entityId1].getSimilarity(entityModelsD2[entityId2]);
         }
 
-        return entityModelsD1[comparison.getEntityId1()].getSimilarity(entityModelsD1[comparison.getEntityId2()]);
+        return entityModelsD1[entityId1].getSimilarity(entityModelsD1[entityId2]);
     }
 
     @Override
     public SimilarityPairs executeComparisons(List<AbstractBlock> blocks) {
+        final StageMetrics stage = startStage(blocks);
+        final ProgressCounter executedComparisons = stage.getCounter("executed comparisons");
         final SimilarityPairs simPairs = new SimilarityPairs(profilesD2 != null, blocks);
-        blocks.stream().map(AbstractBlock::getComparisonIterator).forEachOrdered((iterator) -> {
-            while (iterator.hasNext()) {
-                final Comparison currentComparison = iterator.next();
-                float similarity = executeComparison(currentComparison);
-                if (0 < similarity) {
-                    currentComparison.setUtilityMeasure(similarity);
-                    simPairs.addComparison(currentComparison);
-                }
+        blocks.forEach((block) -> block.forEachPair((entityId1, entityId2) -> {
+            float similarity = executeComparison(entityId1, entityId2);
+            if (0 < similarity) {
+                simPairs.addComparison(entityId1, entityId2, similarity);
             }
-        });
+            executedComparisons.increment();
+        }));
 
-        return simPairs;
+        return finishStage(stage, simPairs);
     }
 
     @Override
@@ -17,9 +17,13 @@
 package org.scify.jedai.prioritization;
 
 import java.util.Iterator;
+import java.util.List;
 import org.scify.jedai.configuration.gridsearch.IntGridSearchConfiguration;
 import org.scify.jedai.configuration.randomsearch.IntRandomSearchConfiguration;
+import org.scify.jedai.datamodel.AbstractBlock;
 import org.scify.jedai.datamodel.Comparison;
+import org.scify.jedai.utilities.metrics.PipelineMetrics;
+import org.scify.jedai.utilities.metrics.StageMetrics;
 
 /**
  *
@@ -40,4 +44,21 @@ public abstract class AbstractPrioritization implements IPrioritization {
         gridComparisonsBudget = new IntGridSearchConfiguration(1000000, 1000, 1000);
         randomComparisonsBudget = new IntRandomSearchConfiguration(1000000, 1000);
     }
+
+    // the schedule is emitted lazily, through the iterator, so its size is unknown
+    protected void finishStage(StageMetrics stage) {
+        stage.finish(-1);
+    }
+
+    protected StageMetrics startStage(int noOfEntities) {
+        return PipelineMetrics.startStage(PipelineMetrics.PRIORITIZATION, this, noOfEntities);
+    }
+
+    protected StageMetrics startStage(List<AbstractBlock> blocks) {
+        final StageMetrics stage = PipelineMetrics.startStage(PipelineMetrics.PRIORITIZATION, this, blocks.size());
+        if (stage.isEnabled()) {
+            stage.setInputComparisons(blocks.stream().mapToLong(AbstractBlock::getNoOfComparisons).sum());
+        }
+        return stage;
+    }
 }
@@ -24,6 +24,7 @@ import org.scify.jedai.datamodel.EntityProfile;
 import org.scify.jedai.prioritization.utilities.PositionIndex;
 import org.scify.jedai.prioritization.utilities.SortedEntities;
 import org.scify.jedai.utilities.enumerations.ProgressiveWeightingScheme;
+import org.scify.jedai.utilities.metrics.StageMetrics;
 
 /**
  *
@@ -66,6 +67,8 @@ public abstract class AbstractSimilarityBasedPrioritization extends AbstractPrio
         noOfEntities = isCleanCleanER ? profilesD1.size() + profilesD2.size(): profilesD1.size();
         datasetLimit = isCleanCleanER ? profilesD1.size() : 0;
 
+        final StageMetrics stage = startStage(noOfEntities);
+
         SortedEntities se = new SortedEntities();
         se.getBlocks(profilesD1, profilesD2);
         sortedEntityIds = se.getSortedEntityIds();
@@ -73,5 +76,11 @@ public abstract class AbstractSimilarityBasedPrioritization extends AbstractPrio
         counters = new int[noOfEntities];
         flags = new int[noOfEntities];
         positionIndex = new PositionIndex(noOfEntities, sortedEntityIds);
+        prepareSchedule();
+        finishStage(stage);
+    }
+
+    // the method-specific initialization of the schedule, after sorting the entities
+    protected void prepareSchedule() {
     }
 }
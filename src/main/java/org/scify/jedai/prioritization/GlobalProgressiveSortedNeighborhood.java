@@ -21,7 +21,6 @@ import org.apache.jena.atlas.json.JsonObject;
 import org.scify.jedai.configuration.gridsearch.IntGridSearchConfiguration;
 import org.scify.jedai.configuration.randomsearch.IntRandomSearchConfiguration;
 import org.scify.jedai.datamodel.Comparison;
-import org.scify.jedai.datamodel.EntityProfile;
 import org.scify.jedai.utilities.comparators.DecComparisonWeightComparator;
 import org.scify.jedai.utilities.comparators.IncComparisonWeightComparator;
 import org.scify.jedai.utilities.enumerations.ProgressiveWeightingScheme;
@@ -54,15 +53,16 @@ public class GlobalProgressiveSortedNeighborhood extends AbstractSimilarityBased
     }
 
     @Override
-    public void developEntityBasedSchedule(List<EntityProfile> profilesD1, List<EntityProfile> profilesD2) {
-        super.developEntityBasedSchedule(profilesD1, profilesD2);
+    protected void prepareSchedule() {
         maxWindow = noOfEntities <= 100 ? 2 : (int) Math.round(Math.pow(2, Math.log10(noOfEntities) + 1)) + 1;
         getComparisons();
     }
 
-    private void getComparisons() { //TODO: comparison propagation
+    protected void getComparisons() { //TODO: comparison propagation
         int limit = isCleanCleanER ? datasetLimit : noOfEntities;
         for (int entityId = 0; entityId < limit; entityId++) {
+            distinctNeighbors.clear();
+
             final int[] entityPositions = positionIndex.getEntityPositions(entityId);
             for (int currentWindow = 1; currentWindow < maxWindow; currentWindow++) {
                 for (int position : entityPositions) {
@@ -109,6 +109,10 @@ public class GlobalProgressiveSortedNeighborhood extends AbstractSimilarityBased
     }
 
     protected float getWeight(int entityId1, int entityId2) {
+        return getWeight(entityId1, entityId2, counters);
+    }
+
+    protected float getWeight(int entityId1, int entityId2, int[] counters) {
         switch (pwScheme) {
             case NCF:
                 float denominator = positionIndex.getEntityPositions(entityId1).length + positionIndex.getEntityPositions(entityId2).length - counters[entityId2];
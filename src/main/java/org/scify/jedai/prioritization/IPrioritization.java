@@ -29,7 +29,16 @@ import java.util.List;
  *
  * @author gap2
  */
-public interface IPrioritization extends IConfiguration, IConstants, IDocumentation, Iterator<Comparison> {
+public interface IPrioritization extends AutoCloseable, IConfiguration, IConstants, IDocumentation, Iterator<Comparison> {
+
+    /**
+     * Releases the resources of the schedule, e.g., its background threads.
+     * It should be called when the comparisons are not consumed up to the end
+     * of the schedule.
+     */
+    @Override
+    default void close() {
+    }
     
     void developBlockBasedSchedule(List<AbstractBlock> blocks);
     
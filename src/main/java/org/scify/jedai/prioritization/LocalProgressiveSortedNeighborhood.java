@@ -78,6 +78,10 @@ public class LocalProgressiveSortedNeighborhood extends AbstractSimilarityBasedP
     }
 
     protected float getWeight(int entityId1, int entityId2) {
+        return getWeight(entityId1, entityId2, counters);
+    }
+
+    protected float getWeight(int entityId1, int entityId2, int[] counters) {
         switch (pwScheme) {
             case ACF:
                 return counters[entityId2];
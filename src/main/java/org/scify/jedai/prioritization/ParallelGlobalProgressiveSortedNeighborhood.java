@@ -0,0 +1,139 @@
+/*
+* Copyright [2016-2020] [George Papadakis (gpapadis@yahoo.gr)]
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+*    http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+ */
+package org.scify.jedai.prioritization;
+
+import gnu.trove.list.array.TIntArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import org.scify.jedai.prioritization.utilities.TopComparisonsHeap;
+import org.scify.jedai.utilities.enumerations.ProgressiveWeightingScheme;
+
+/**
+ * Global Progressive Sorted Neighborhood with the entities split into chunks,
+ * which are processed by several workers in parallel. Every worker has its own
+ * counters and flags, along with its own heap of the top comparisons, and the
+ * heaps are merged at the end. The comparisons with the same weight are
+ * ordered by entity ids, so the schedule does not depend on the number of
+ * workers.
+ *
+ * @author G.A.P. II
+ */
+public class ParallelGlobalProgressiveSortedNeighborhood extends GlobalProgressiveSortedNeighborhood {
+
+    private static final int ENTITIES_PER_CHUNK = 256;
+
+    protected int noOfWorkers;
+
+    public ParallelGlobalProgressiveSortedNeighborhood(int budget, ProgressiveWeightingScheme pwScheme) {
+        this(budget, pwScheme, Runtime.getRuntime().availableProcessors());
+    }
+
+    public ParallelGlobalProgressiveSortedNeighborhood(int budget, ProgressiveWeightingScheme pwScheme, int workers) {
+        super(budget, pwScheme);
+        noOfWorkers = Math.max(1, workers);
+    }
+
+    @Override
+    protected void getComparisons() {
+        final int limit = isCleanCleanER ? datasetLimit : noOfEntities;
+        final int noOfChunks = (limit + ENTITIES_PER_CHUNK - 1) / ENTITIES_PER_CHUNK;
+        final AtomicInteger nextChunk = new AtomicInteger();
+        final List<TopComparisonsHeap> workerHeaps = IntStream.range(0, noOfWorkers).parallel()
+                .mapToObj(worker -> {
+                    final int[] workerCounters = new int[noOfEntities];
+                    final int[] workerFlags = new int[noOfEntities];
+                    Arrays.fill(workerFlags, -1);
+                    final TIntArrayList neighbors = new TIntArrayList();
+                    final TopComparisonsHeap heap = new TopComparisonsHeap(comparisonsBudget);
+
+                    for (int chunk = nextChunk.getAndIncrement(); chunk < noOfChunks; chunk = nextChunk.getAndIncrement()) {
+                        final int lastEntity = Math.min(limit, (chunk + 1) * ENTITIES_PER_CHUNK);
+                        for (int entityId = chunk * ENTITIES_PER_CHUNK; entityId < lastEntity; entityId++) {
+                            processEntity(entityId, workerCounters, workerFlags, neighbors, heap);
+                        }
+                    }
+                    return heap;
+                })
+                .collect(Collectors.toList());
+
+        final TopComparisonsHeap topComparisons = workerHeaps.get(0);
+        for (int i = 1; i < workerHeaps.size(); i++) {
+            topComparisons.addAll(workerHeaps.get(i));
+        }
+        compIterator = topComparisons.getSortedComparisons(isCleanCleanER).iterator();
+    }
+
+    @Override
+    public String getMethodName() {
+        return "Parallel Global Progressive Sorted Neighborhood";
+    }
+
+    private void processEntity(int entityId, int[] workerCounters, int[] workerFlags, TIntArrayList neighbors, TopComparisonsHeap heap) {
+        final int[] entityPositions = positionIndex.getEntityPositions(entityId);
+        for (int currentWindow = 1; currentWindow < maxWindow; currentWindow++) {
+            for (int position : entityPositions) {
+                if (position + currentWindow < sortedEntityIds.length) {
+                    final int neighborId = sortedEntityIds[position + currentWindow];
+                    if (isCleanCleanER && datasetLimit <= neighborId
+                            || !isCleanCleanER && neighborId < entityId) {
+                        updateLocalWeight(currentWindow, entityId, neighborId, workerCounters, workerFlags, neighbors);
+                    }
+                }
+
+                if (0 <= position - currentWindow) {
+                    final int neighborId = sortedEntityIds[position - currentWindow];
+                    if (isCleanCleanER && datasetLimit <= neighborId
+                            || !isCleanCleanER && neighborId < entityId) {
+                        updateLocalWeight(currentWindow, entityId, neighborId, workerCounters, workerFlags, neighbors);
+                    }
+                }
+            }
+        }
+
+        for (int i = 0; i < neighbors.size(); i++) {
+            final int neighborId = neighbors.getQuick(i);
+            workerFlags[neighborId] = -1;
+
+            final int entityId2 = isCleanCleanER ? neighborId - datasetLimit : neighborId;
+            heap.add(entityId, entityId2, getWeight(entityId, neighborId, workerCounters));
+        }
+        neighbors.resetQuick();
+    }
+
+    public void setNoOfWorkers(int noOfWorkers) {
+        this.noOfWorkers = Math.max(1, noOfWorkers);
+    }
+
+    private void updateLocalWeight(int currentWindow, int entityId, int neighborId, int[] workerCounters, int[] workerFlags, TIntArrayList neighbors) {
+        if (workerFlags[neighborId] != entityId) {
+            workerCounters[neighborId] = 0;
+            workerFlags[neighborId] = entityId;
+            neighbors.add(neighborId);
+        }
+
+        switch (pwScheme) {
+            case ID:
+                workerCounters[neighborId] += 1.0 / currentWindow;
+                break;
+            default: // ACF, NCF
+                workerCounters[neighborId]++;
+                break;
+        }
+    }
+}
@@ -0,0 +1,205 @@
+/*
+* Copyright [2016-2020] [George Papadakis (gpapadis@yahoo.gr)]
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+*    http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+ */
+package org.scify.jedai.prioritization;
+
+import gnu.trove.list.array.TIntArrayList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import org.scify.jedai.datamodel.Comparison;
+import org.scify.jedai.prioritization.utilities.ComparisonListsPrefetcher;
+import org.scify.jedai.utilities.comparators.DecComparisonWeightComparator;
+import org.scify.jedai.utilities.enumerations.ProgressiveWeightingScheme;
+
+/**
+ * Local Progressive Sorted Neighborhood as a stream of windows: the
+ * comparisons of every window are emitted as soon as the window is complete,
+ * while the next windows are computed in a background thread. Within every
+ * window, the entities are split into chunks that are processed in parallel,
+ * each with its own counters and flags.
+ *
+ * @author G.A.P. II
+ */
+public class ParallelLocalProgressiveSortedNeighborhood extends LocalProgressiveSortedNeighborhood {
+
+    private static final int ENTITIES_PER_CHUNK = 256;
+
+    protected int lookAhead;
+
+    private ComparisonListsPrefetcher windows;
+
+    public ParallelLocalProgressiveSortedNeighborhood(int budget, ProgressiveWeightingScheme pwScheme) {
+        super(budget, pwScheme);
+        lookAhead = 1;
+    }
+
+    @Override
+    protected void prepareSchedule() {
+        stopStreaming();
+        currentWindow = 0;
+        compIterator = null;
+
+        // the arrays of every worker are reused by all windows and are released along with the prefetcher
+        final ThreadLocal<int[]> workerCounters = ThreadLocal.withInitial(() -> new int[noOfEntities]);
+        final ThreadLocal<int[]> workerFlags = ThreadLocal.withInitial(() -> {
+            final int[] flagsArray = new int[noOfEntities];
+            Arrays.fill(flagsArray, -1);
+            return flagsArray;
+        });
+        windows = new ComparisonListsPrefetcher(new Iterator<List<Comparison>>() {
+            private int nextWindow = 1;
+
+            @Override
+            public boolean hasNext() {
+                return nextWindow < sortedEntityIds.length;
+            }
+
+            @Override
+            public List<Comparison> next() {
+                return getWindowComparisons(nextWindow++, workerCounters, workerFlags);
+            }
+        }, lookAhead);
+    }
+
+    @Override
+    public void close() {
+        stopStreaming();
+    }
+
+    @Override
+    public String getMethodName() {
+        return "Parallel Local Progressive Sorted Neighborhood";
+    }
+
+    protected List<Comparison> getWindowComparisons(int window, ThreadLocal<int[]> workerCounters, ThreadLocal<int[]> workerFlags) {
+        final int limit = isCleanCleanER ? datasetLimit : noOfEntities;
+        final int noOfChunks = (limit + ENTITIES_PER_CHUNK - 1) / ENTITIES_PER_CHUNK;
+        final List<List<Comparison>> chunkComparisons = IntStream.range(0, noOfChunks).parallel()
+                .mapToObj(chunk -> {
+                    final int[] chunkCounters = workerCounters.get();
+                    final int[] chunkFlags = workerFlags.get();
+                    final TIntArrayList neighbors = new TIntArrayList();
+                    final List<Comparison> comparisons = new ArrayList<>();
+
+                    final int lastEntity = Math.min(limit, (chunk + 1) * ENTITIES_PER_CHUNK);
+                    for (int entityId = chunk * ENTITIES_PER_CHUNK; entityId < lastEntity; entityId++) {
+                        for (int position : positionIndex.getEntityPositions(entityId)) {
+                            if (position + window < sortedEntityIds.length) {
+                                final int neighborId = sortedEntityIds[position + window];
+                                if (isCleanCleanER && datasetLimit <= neighborId
+                                        || !isCleanCleanER && neighborId < entityId) {
+                                    updateCounters(entityId, neighborId, chunkCounters, chunkFlags, neighbors);
+                                }
+                            }
+
+                            if (0 <= position - window) {
+                                final int neighborId = sortedEntityIds[position - window];
+                                if (isCleanCleanER && datasetLimit <= neighborId
+                                        || !isCleanCleanER && neighborId < entityId) {
+                                    updateCounters(entityId, neighborId, chunkCounters, chunkFlags, neighbors);
+                                }
+                            }
+                        }
+
+                        for (int i = 0; i < neighbors.size(); i++) {
+                            final int neighborId = neighbors.getQuick(i);
+                            chunkFlags[neighborId] = -1;
+
+                            final int entityId2 = isCleanCleanER ? neighborId - datasetLimit : neighborId;
+                            final Comparison c = new Comparison(isCleanCleanER, entityId, entityId2);
+                            c.setUtilityMeasure(getWeight(entityId, neighborId, chunkCounters));
+                            comparisons.add(c);
+                        }
+                        neighbors.resetQuick();
+                    }
+                    return comparisons;
+                })
+                .collect(Collectors.toList());
+
+        int noOfComparisons = 0;
+        for (List<Comparison> comparisons : chunkComparisons) {
+            noOfComparisons += comparisons.size();
+        }
+
+        final List<Comparison> windowComparisons = new ArrayList<>(noOfComparisons);
+        chunkComparisons.forEach(windowComparisons::addAll);
+        windowComparisons.sort(new DecComparisonWeightComparator());
+        return windowComparisons;
+    }
+
+    @Override
+    public boolean hasNext() {
+        if (windows == null) {
+            return false;
+        }
+
+        if (emittedComparisons < comparisonsBudget) {
+            while (compIterator == null || !compIterator.hasNext()) {
+                if (!windows.hasNext()) {
+                    return false;
+                }
+                currentWindow++;
+                compIterator = windows.next().iterator();
+            }
+            return true;
+        }
+
+        stopStreaming();
+        return false;
+    }
+
+    @Override
+    public Comparison next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+
+        emittedComparisons++;
+        return compIterator.next();
+    }
+
+    /**
+     * Sets the number of windows that are computed in a background thread,
+     * ahead of the window whose comparisons are currently emitted (1, by
+     * default).
+     *
+     * @param lookAhead the maximum number of prefetched windows
+     */
+    public void setLookAhead(int lookAhead) {
+        this.lookAhead = Math.max(1, lookAhead);
+    }
+
+    private void stopStreaming() {
+        if (windows != null) {
+            windows.close();
+            windows = null;
+        }
+    }
+
+    private void updateCounters(int entityId, int neighborId, int[] chunkCounters, int[] chunkFlags, TIntArrayList neighbors) {
+        if (chunkFlags[neighborId] != entityId) {
+            chunkCounters[neighborId] = 0;
+            chunkFlags[neighborId] = entityId;
+            neighbors.add(neighborId);
+        }
+
+        chunkCounters[neighborId]++;
+    }
+}
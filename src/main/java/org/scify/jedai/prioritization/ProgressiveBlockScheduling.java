@@ -17,14 +17,18 @@ package org.scify.jedai.prioritization;
 
 import org.scify.jedai.datamodel.AbstractBlock;
 import org.scify.jedai.datamodel.Comparison;
-import org.scify.jedai.datamodel.ComparisonIterator;
+import org.scify.jedai.datamodel.ComparisonCursor;
 import org.scify.jedai.datamodel.DecomposedBlock;
 import org.scify.jedai.prioritization.utilities.BlockcentricEntityIndex;
+import org.scify.jedai.prioritization.utilities.ComparisonListsPrefetcher;
 import org.scify.jedai.utilities.comparators.DecComparisonWeightComparator;
 import org.scify.jedai.utilities.comparators.IncBlockCardinalityComparator;
 import org.scify.jedai.utilities.enumerations.WeightingScheme;
+import org.scify.jedai.utilities.metrics.StageMetrics;
 
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
 import java.util.List;
 
 /**
@@ -34,15 +38,23 @@ import java.util.List;
 public class ProgressiveBlockScheduling extends AbstractHashBasedPrioritization {
 
     protected boolean isDecomposedBlock;
+    protected int lookAhead;
 
-    private int blockCounter;
     private int comparisonCounter;
 
     private AbstractBlock[] blocksArray;
     private BlockcentricEntityIndex entityIndex;
+    private ComparisonListsPrefetcher prefetcher;
+    private Iterator<List<Comparison>> blockComparisons;
     
     public ProgressiveBlockScheduling(int budget, WeightingScheme wScheme) {
         super(budget, wScheme);
+        lookAhead = 0;
+    }
+
+    @Override
+    public void close() {
+        stopPrefetching();
     }
 
     @Override
@@ -51,6 +63,7 @@ public class ProgressiveBlockScheduling extends AbstractHashBasedPrioritization
             throw new IllegalArgumentException("No blocks were given as input.");
         }
 
+        final StageMetrics stage = startStage(blocks);
         blocks.sort(new IncBlockCardinalityComparator());
         blocksArray = blocks.toArray(new AbstractBlock[0]);
         isDecomposedBlock = blocksArray[0] instanceof DecomposedBlock;
@@ -58,27 +71,53 @@ public class ProgressiveBlockScheduling extends AbstractHashBasedPrioritization
             entityIndex = new BlockcentricEntityIndex(blocks, wScheme);
         }
 
-        blockCounter = 0;
         comparisonCounter = 0;
-        filterComparisons();
+        compIterator = Collections.emptyIterator();
+
+        // the comparisons of every block are generated only when the schedule reaches it
+        blockComparisons = new Iterator<List<Comparison>>() {
+            private int blockCounter = 0;
+
+            @Override
+            public boolean hasNext() {
+                return blockCounter < blocksArray.length;
+            }
+
+            @Override
+            public List<Comparison> next() {
+                return filterComparisons(blockCounter++);
+            }
+        };
+
+        stopPrefetching();
+        if (0 < lookAhead) {
+            prefetcher = new ComparisonListsPrefetcher(blockComparisons, lookAhead);
+            blockComparisons = prefetcher;
+        }
+        finishStage(stage);
     }
 
-    private void filterComparisons() {
+    private List<Comparison> filterComparisons(int blockIndex) {
         final List<Comparison> topComparisons = new ArrayList<>();
-        final ComparisonIterator iterator = blocksArray[blockCounter].getComparisonIterator();
-        while (iterator.hasNext()) {
-            final Comparison comparison = iterator.next();
-            if (!isDecomposedBlock) {
-                float weight = entityIndex.getWeight(blockCounter, comparison);
-                if (weight < 0) {
-                    continue;
-                }
-                comparison.setUtilityMeasure(weight);
+        final ComparisonCursor cursor = blocksArray[blockIndex].getComparisonCursor();
+        while (cursor.next()) {
+            if (isDecomposedBlock) {
+                topComparisons.add(cursor.toComparison());
+                continue;
             }
+
+            // the Comparison is created only for the non-repeated comparisons
+            float weight = entityIndex.getWeight(blockIndex, cursor.entityId1(), cursor.entityId2());
+            if (weight < 0) {
+                continue;
+            }
+
+            final Comparison comparison = new Comparison(cursor.isCleanCleanER(), cursor.entityId1(), cursor.entityId2());
+            comparison.setUtilityMeasure(weight);
             topComparisons.add(comparison);
         }
         topComparisons.sort(new DecComparisonWeightComparator());
-        compIterator = topComparisons.iterator();
+        return topComparisons;
     }
 
     @Override
@@ -95,15 +134,36 @@ public class ProgressiveBlockScheduling extends AbstractHashBasedPrioritization
     @Override
     public boolean hasNext() {
         if (comparisonCounter < comparisonsBudget) {
-            while (!compIterator.hasNext() && blockCounter < blocksArray.length - 1) {
-                blockCounter++;
-                filterComparisons();
+            while (!compIterator.hasNext() && blockComparisons.hasNext()) {
+                compIterator = blockComparisons.next().iterator();
+            }
+            if (compIterator.hasNext()) {
+                return true;
             }
-            return compIterator.hasNext();
         }
+        stopPrefetching();
         return false;
     }
 
+    /**
+     * Sets the number of blocks whose comparisons are weighted and sorted in
+     * a background thread, ahead of the current block. For 0, which is the
+     * default, the comparisons of every block are processed when the schedule
+     * reaches it.
+     *
+     * @param lookAhead the maximum number of blocks with prefetched comparisons
+     */
+    public void setLookAhead(int lookAhead) {
+        this.lookAhead = lookAhead;
+    }
+
+    private void stopPrefetching() {
+        if (prefetcher != null) {
+            prefetcher.close();
+            prefetcher = null;
+        }
+    }
+
     @Override
     public Comparison next() {
         comparisonCounter++;
@@ -20,9 +20,11 @@ import java.util.List;
 import org.scify.jedai.datamodel.AbstractBlock;
 import org.scify.jedai.datamodel.Comparison;
 import org.scify.jedai.datamodel.VertexWeight;
+import org.scify.jedai.prioritization.utilities.ComparisonListsPrefetcher;
 import org.scify.jedai.prioritization.utilities.ProgressiveEntityComparisons;
 import org.scify.jedai.prioritization.utilities.ProgressiveWNP;
 import org.scify.jedai.utilities.enumerations.WeightingScheme;
+import org.scify.jedai.utilities.metrics.StageMetrics;
 
 /**
  *
@@ -31,13 +33,22 @@ import org.scify.jedai.utilities.enumerations.WeightingScheme;
 public class ProgressiveEntityScheduling extends AbstractHashBasedPrioritization {
 
     protected int comparisonCounter;
+    protected int lookAhead;
 
+    protected ComparisonListsPrefetcher prefetcher;
+    protected Iterator<List<Comparison>> entityComparisons;
     protected Iterator<VertexWeight> entityIterator;
     protected ProgressiveEntityComparisons pec;
 
     public ProgressiveEntityScheduling(int budget, WeightingScheme wScheme) {
         super(budget, wScheme);
         comparisonCounter = 0;
+        lookAhead = 0;
+    }
+
+    @Override
+    public void close() {
+        stopPrefetching();
     }
 
     @Override
@@ -46,6 +57,7 @@ public class ProgressiveEntityScheduling extends AbstractHashBasedPrioritization
             throw new IllegalArgumentException("No blocks were given as input.");
         }
 
+        final StageMetrics stage = startStage(blocks);
         final ProgressiveWNP pwnp = new ProgressiveWNP(wScheme);
         pwnp.refineBlocks(blocks);
         compIterator = pwnp.getSortedTopComparisons().iterator();
@@ -53,6 +65,26 @@ public class ProgressiveEntityScheduling extends AbstractHashBasedPrioritization
 
         pec = new ProgressiveEntityComparisons(wScheme);
         pec.refineBlocks(blocks);
+
+        // the comparisons of every entity are generated only when the schedule reaches it
+        entityComparisons = new Iterator<List<Comparison>>() {
+            @Override
+            public boolean hasNext() {
+                return entityIterator.hasNext();
+            }
+
+            @Override
+            public List<Comparison> next() {
+                return pec.getSortedEntityComparisons(entityIterator.next().getPos());
+            }
+        };
+
+        stopPrefetching();
+        if (0 < lookAhead) {
+            prefetcher = new ComparisonListsPrefetcher(entityComparisons, lookAhead);
+            entityComparisons = prefetcher;
+        }
+        finishStage(stage);
     }
 
     @Override
@@ -70,11 +102,10 @@ public class ProgressiveEntityScheduling extends AbstractHashBasedPrioritization
     public boolean hasNext() {
         if (comparisonCounter < comparisonsBudget) {
             if (!compIterator.hasNext()) {
-                while (entityIterator.hasNext()) {
-                    final VertexWeight currentEntity = entityIterator.next();
-                    final List<Comparison> entityComparisons = pec.getSortedEntityComparisons(currentEntity.getPos());
-                    if (entityComparisons != null && !entityComparisons.isEmpty()) {
-                        compIterator = entityComparisons.iterator();
+                while (entityComparisons.hasNext()) {
+                    final List<Comparison> currentComparisons = entityComparisons.next();
+                    if (currentComparisons != null && !currentComparisons.isEmpty()) {
+                        compIterator = currentComparisons.iterator();
                         return true;
                     }
                 }
@@ -82,9 +113,29 @@ public class ProgressiveEntityScheduling extends AbstractHashBasedPrioritization
                 return true;
             }
         }
+        stopPrefetching();
         return false;
     }
 
+    /**
+     * Sets the number of entities whose comparisons are computed in a
+     * background thread, ahead of the current entity. For 0, which is the
+     * default, the comparisons of every entity are computed when the schedule
+     * reaches it.
+     *
+     * @param lookAhead the maximum number of entities with prefetched comparisons
+     */
+    public void setLookAhead(int lookAhead) {
+        this.lookAhead = lookAhead;
+    }
+
+    protected void stopPrefetching() {
+        if (prefetcher != null) {
+            prefetcher.close();
+            prefetcher = null;
+        }
+    }
+
     @Override
     public Comparison next() {
         comparisonCounter++;
@@ -24,11 +24,12 @@ import java.util.PriorityQueue;
 import java.util.Queue;
 import org.scify.jedai.datamodel.AbstractBlock;
 import org.scify.jedai.datamodel.Comparison;
-import org.scify.jedai.datamodel.ComparisonIterator;
+import org.scify.jedai.datamodel.ComparisonCursor;
 import org.scify.jedai.datamodel.DecomposedBlock;
 import org.scify.jedai.utilities.comparators.DecComparisonWeightComparator;
 import org.scify.jedai.utilities.comparators.IncComparisonWeightComparator;
 import org.scify.jedai.utilities.enumerations.WeightingScheme;
+import org.scify.jedai.utilities.metrics.StageMetrics;
 
 /**
  *
@@ -50,6 +51,7 @@ public class ProgressiveGlobalTopComparisons extends AbstractHashBasedPrioritiza
             throw new IllegalArgumentException("No blocks were given as input.");
         }
 
+        final StageMetrics stage = startStage(blocks);
         if (blocks.get(0) instanceof DecomposedBlock) {
             Log.warn("Decomposed blocks were given as input!");
             Log.warn("The pre-computed comparison weights will be used!");
@@ -60,6 +62,7 @@ public class ProgressiveGlobalTopComparisons extends AbstractHashBasedPrioritiza
             pcep.refineBlocks(blocks);
             compIterator = pcep.getTopComparisons().iterator();
         }
+        finishStage(stage);
     }
 
     @Override
@@ -86,11 +89,10 @@ public class ProgressiveGlobalTopComparisons extends AbstractHashBasedPrioritiza
         float minimumWeight = -1;
         final Queue<Comparison> topComparisons = new PriorityQueue<>(2 * comparisonsBudget, new IncComparisonWeightComparator());
         for (AbstractBlock block : blocks) {
-            final ComparisonIterator cIterator = block.getComparisonIterator();
-            while (cIterator.hasNext()) {
-                final Comparison currentComparison = cIterator.next();
-                if (minimumWeight < currentComparison.getUtilityMeasure()) {
-                    topComparisons.add(currentComparison);
+            final ComparisonCursor cursor = block.getComparisonCursor();
+            while (cursor.next()) {
+                if (minimumWeight < cursor.weight()) {
+                    topComparisons.add(cursor.toComparison());
                     if (comparisonsBudget < topComparisons.size()) {
                         final Comparison lastComparison = topComparisons.poll();
                         minimumWeight = lastComparison.getUtilityMeasure();
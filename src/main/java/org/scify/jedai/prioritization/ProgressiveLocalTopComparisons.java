@@ -23,6 +23,7 @@ import org.scify.jedai.datamodel.Comparison;
 import org.scify.jedai.datamodel.DecomposedBlock;
 import org.scify.jedai.prioritization.utilities.ProgressiveCNPDecomponsedBlocks;
 import org.scify.jedai.utilities.enumerations.WeightingScheme;
+import org.scify.jedai.utilities.metrics.StageMetrics;
 
 /**
  *
@@ -44,6 +45,7 @@ public class ProgressiveLocalTopComparisons extends AbstractHashBasedPrioritizat
             throw new IllegalArgumentException("No blocks were given as input.");
         }
 
+        final StageMetrics stage = startStage(blocks);
         if (blocks.get(0) instanceof DecomposedBlock) {
             Log.warn("Decomposed blocks were given as input!");
             Log.warn("The pre-computed comparison weights will be used!");
@@ -55,6 +57,7 @@ public class ProgressiveLocalTopComparisons extends AbstractHashBasedPrioritizat
             pcnp.refineBlocks(blocks);
             compIterator = pcnp.getTopComparisons().iterator();
         }
+        finishStage(stage);
     }
 
     @Override
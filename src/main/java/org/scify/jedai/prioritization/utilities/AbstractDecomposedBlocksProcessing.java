@@ -19,7 +19,6 @@ import java.util.Iterator;
 import java.util.List;
 import org.scify.jedai.datamodel.AbstractBlock;
 import org.scify.jedai.datamodel.Comparison;
-import org.scify.jedai.datamodel.ComparisonIterator;
 
 /**
  *
@@ -35,7 +34,7 @@ public class AbstractDecomposedBlocksProcessing {
     protected Iterator<Comparison> compIterator;
     
     public AbstractDecomposedBlocksProcessing(List<AbstractBlock> inputBlocks) {
-        isCleanCleanER = inputBlocks.get(0).getComparisons().get(0).isCleanCleanER();
+        isCleanCleanER = inputBlocks.get(0).getComparisonCursor().isCleanCleanER();
         countEntities(inputBlocks);
     }
     
@@ -44,17 +43,15 @@ public class AbstractDecomposedBlocksProcessing {
         noOfEntities = -1;
         if (isCleanCleanER) {
             for (AbstractBlock block : inputBlocks) {
-                final ComparisonIterator cIterator = block.getComparisonIterator();
-                while (cIterator.hasNext()) {
-                    final Comparison currentComparison = cIterator.next();
-                    if (noOfEntities < currentComparison.getEntityId1() + 1) {
-                        noOfEntities = currentComparison.getEntityId1() + 1;
+                block.forEachPair((entityId1, entityId2) -> {
+                    if (noOfEntities < entityId1 + 1) {
+                        noOfEntities = entityId1 + 1;
                     }
 
-                    if (datasetLimit < currentComparison.getEntityId2() + 1) {
-                        datasetLimit = currentComparison.getEntityId2() + 1;
+                    if (datasetLimit < entityId2 + 1) {
+                        datasetLimit = entityId2 + 1;
                     }
-                }
+                });
             }
 
             int temp = noOfEntities;
@@ -62,16 +59,14 @@ public class AbstractDecomposedBlocksProcessing {
             datasetLimit = temp;
         } else {
             for (AbstractBlock block : inputBlocks) {
-                final ComparisonIterator cIterator = block.getComparisonIterator();
-                while (cIterator.hasNext()) {
-                    final Comparison currentComparison = cIterator.next();
-                    if (noOfEntities < currentComparison.getEntityId1() + 1) {
-                        noOfEntities = currentComparison.getEntityId1() + 1;
+                block.forEachPair((entityId1, entityId2) -> {
+                    if (noOfEntities < entityId1 + 1) {
+                        noOfEntities = entityId1 + 1;
                     }
-                    if (noOfEntities < currentComparison.getEntityId2() + 1) {
-                        noOfEntities = currentComparison.getEntityId2() + 1;
+                    if (noOfEntities < entityId2 + 1) {
+                        noOfEntities = entityId2 + 1;
                     }
-                }
+                });
             }
         }
     }
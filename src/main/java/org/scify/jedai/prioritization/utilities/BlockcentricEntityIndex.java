@@ -24,7 +24,6 @@ import org.apache.commons.math3.stat.inference.ChiSquareTest;
 import org.scify.jedai.datamodel.AbstractBlock;
 import org.scify.jedai.datamodel.BilateralBlock;
 import org.scify.jedai.datamodel.Comparison;
-import org.scify.jedai.datamodel.ComparisonIterator;
 import org.scify.jedai.datamodel.DecomposedBlock;
 import org.scify.jedai.datamodel.UnilateralBlock;
 import org.scify.jedai.utilities.enumerations.WeightingScheme;
@@ -82,9 +81,9 @@ public class BlockcentricEntityIndex implements Serializable {
         }
     }
 
-    TIntList getCommonBlockIndices(int blockIndex, Comparison comparison) {
-        int[] blocks1 = entityBlocks[comparison.getEntityId1()];
-        int[] blocks2 = entityBlocks[comparison.getEntityId2() + datasetLimit];
+    TIntList getCommonBlockIndices(int blockIndex, int entityId1, int entityId2) {
+        int[] blocks1 = entityBlocks[entityId1];
+        int[] blocks2 = entityBlocks[entityId2 + datasetLimit];
 
         boolean firstCommonIndex = false;
         int noOfBlocks1 = blocks1.length;
@@ -129,9 +128,9 @@ public class BlockcentricEntityIndex implements Serializable {
         return entityBlocks[entityId];
     }
 
-    int getNoOfCommonBlocks(int blockIndex, Comparison comparison) {
-        int[] blocks1 = entityBlocks[comparison.getEntityId1()];
-        int[] blocks2 = entityBlocks[comparison.getEntityId2() + datasetLimit];
+    int getNoOfCommonBlocks(int blockIndex, int entityId1, int entityId2) {
+        int[] blocks1 = entityBlocks[entityId1];
+        int[] blocks2 = entityBlocks[entityId2 + datasetLimit];
 
         boolean firstCommonIndex = false;
         int commonBlocks = 0;
@@ -187,17 +186,13 @@ public class BlockcentricEntityIndex implements Serializable {
             validComparisons = 0;
             comparisonsPerEntity = new float[noOfEntities];
             for (AbstractBlock block : blocks) {
-                final ComparisonIterator iterator = block.getComparisonIterator();
-                while (iterator.hasNext()) {
-                    Comparison comparison = iterator.next();
-                    int entityId2 = comparison.getEntityId2() + datasetLimit;
-
-                    if (!isRepeated(block.getBlockIndex(), comparison)) {
+                block.forEachPair((entityId1, entityId2) -> {
+                    if (!isRepeated(block.getBlockIndex(), entityId1, entityId2)) {
                         validComparisons++;
-                        comparisonsPerEntity[comparison.getEntityId1()]++;
-                        comparisonsPerEntity[entityId2]++;
+                        comparisonsPerEntity[entityId1]++;
+                        comparisonsPerEntity[entityId2 + datasetLimit]++;
                     }
-                }
+                });
             }
         }
     }
@@ -274,9 +269,20 @@ public class BlockcentricEntityIndex implements Serializable {
     }
 
     public float getWeight(int blockIndex, Comparison comparison) {
+        return getWeight(blockIndex, comparison.getEntityId1(), comparison.getEntityId2());
+    }
+
+    /**
+     * @param blockIndex the index of the block that contains the comparison
+     * @param entityId1 the id of the first entity
+     * @param entityId2 the id of the second entity, without the dataset limit
+     * @return the weight of the comparison, or a negative value, if it is
+     * repeated, i.e., it is contained in a block with a lower index, too
+     */
+    public float getWeight(int blockIndex, int entityId1, int entityId2) {
         switch (wScheme) {
             case ARCS:
-                final TIntList commonIndices = getCommonBlockIndices(blockIndex, comparison);
+                final TIntList commonIndices = getCommonBlockIndices(blockIndex, entityId1, entityId2);
                 if (commonIndices == null) {
                     return -1;
                 }
@@ -287,38 +293,38 @@ public class BlockcentricEntityIndex implements Serializable {
                 }
                 return totalWeight;
             case CBS:
-                return getNoOfCommonBlocks(blockIndex, comparison);
+                return getNoOfCommonBlocks(blockIndex, entityId1, entityId2);
             case ECBS:
-                int commonBlocks = getNoOfCommonBlocks(blockIndex, comparison);
+                int commonBlocks = getNoOfCommonBlocks(blockIndex, entityId1, entityId2);
                 if (commonBlocks < 0) {
                     return commonBlocks;
                 }
-                return (float)(commonBlocks * Math.log10(totalBlocks / getNoOfEntityBlocks(comparison.getEntityId1(), 0)) * Math.log10(totalBlocks / getNoOfEntityBlocks(comparison.getEntityId2(), comparison.isCleanCleanER() ? 1 : 0)));
+                return (float)(commonBlocks * Math.log10(totalBlocks / getNoOfEntityBlocks(entityId1, 0)) * Math.log10(totalBlocks / getNoOfEntityBlocks(entityId2, 1)));
             case JS:
-                float commonBlocksJS = getNoOfCommonBlocks(blockIndex, comparison);
+                float commonBlocksJS = getNoOfCommonBlocks(blockIndex, entityId1, entityId2);
                 if (commonBlocksJS < 0) {
                     return commonBlocksJS;
                 }
-                return commonBlocksJS / (getNoOfEntityBlocks(comparison.getEntityId1(), 0) + getNoOfEntityBlocks(comparison.getEntityId2(), comparison.isCleanCleanER() ? 1 : 0) - commonBlocksJS);
+                return commonBlocksJS / (getNoOfEntityBlocks(entityId1, 0) + getNoOfEntityBlocks(entityId2, 1) - commonBlocksJS);
             case EJS:
-                float commonBlocksEJS = getNoOfCommonBlocks(blockIndex, comparison);
+                float commonBlocksEJS = getNoOfCommonBlocks(blockIndex, entityId1, entityId2);
                 if (commonBlocksEJS < 0) {
                     return commonBlocksEJS;
                 }
 
-                float probability = commonBlocksEJS / (getNoOfEntityBlocks(comparison.getEntityId1(), 0) + getNoOfEntityBlocks(comparison.getEntityId2(), comparison.isCleanCleanER() ? 1 : 0) - commonBlocksEJS);
-                return (float) (probability * Math.log10(validComparisons / comparisonsPerEntity[comparison.getEntityId1()]) * Math.log10(validComparisons / comparisonsPerEntity[comparison.isCleanCleanER() ? comparison.getEntityId2() + datasetLimit : comparison.getEntityId2()]));
+                float probability = commonBlocksEJS / (getNoOfEntityBlocks(entityId1, 0) + getNoOfEntityBlocks(entityId2, 1) - commonBlocksEJS);
+                return (float) (probability * Math.log10(validComparisons / comparisonsPerEntity[entityId1]) * Math.log10(validComparisons / comparisonsPerEntity[entityId2 + datasetLimit]));
             case PEARSON_X2:
-                int commonBlocksPX = getNoOfCommonBlocks(blockIndex, comparison);
+                int commonBlocksPX = getNoOfCommonBlocks(blockIndex, entityId1, entityId2);
                 if (commonBlocksPX < 0) {
                     return commonBlocksPX;
                 }
                 long[] v = new long[2];
                 v[0] = commonBlocksPX;
-                v[1] = getNoOfEntityBlocks(comparison.getEntityId1(), 0) - v[0];
+                v[1] = getNoOfEntityBlocks(entityId1, 0) - v[0];
 
                 long[] v_ = new long[2];
-                v_[0] = getNoOfEntityBlocks(comparison.getEntityId2(), comparison.isCleanCleanER() ? 1 : 0) - v[0];
+                v_[0] = getNoOfEntityBlocks(entityId2, 1) - v[0];
                 v_[1] = (int) (totalBlocks - (v[0] + v[1] + v_[0]));
 
                 return (float) chiSquaredTest.chiSquare(new long[][]{v, v_});
@@ -413,9 +419,9 @@ public class BlockcentricEntityIndex implements Serializable {
     }
 
     // So the linear time solution should be somthing like this:
-    boolean isRepeated(int blockIndex, Comparison comparison) {
-        int[] blocks1 = entityBlocks[comparison.getEntityId1()];
-        int[] blocks2 = entityBlocks[comparison.getEntityId2() + datasetLimit];
+    boolean isRepeated(int blockIndex, int entityId1, int entityId2) {
+        int[] blocks1 = entityBlocks[entityId1];
+        int[] blocks2 = entityBlocks[entityId2 + datasetLimit];
 
         int noOfBlocks1 = blocks1.length;
         int noOfBlocks2 = blocks2.length;
@@ -0,0 +1,117 @@
+/*
+* Copyright [2016-2020] [George Papadakis (gpapadis@yahoo.gr)]
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+*    http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+ */
+package org.scify.jedai.prioritization.utilities;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import org.scify.jedai.datamodel.Comparison;
+
+/**
+ * Computes the lists of comparisons of a progressive schedule in a background
+ * thread, up to the given number of lists ahead of the consumer. The lists are
+ * returned in the order of the underlying iterator, which is exclusively used
+ * by the background thread.
+ *
+ * @author G.A.P. II
+ */
+public class ComparisonListsPrefetcher implements AutoCloseable, Iterator<List<Comparison>> {
+
+    private static final List<Comparison> END_OF_LISTS = new ArrayList<>(0);
+
+    private boolean stopped;
+    private List<Comparison> nextList;
+    private final BlockingQueue<List<Comparison>> prefetchedLists;
+    private volatile RuntimeException failure;
+    private final Thread producer;
+
+    public ComparisonListsPrefetcher(Iterator<List<Comparison>> lists, int lookAhead) {
+        prefetchedLists = new ArrayBlockingQueue<>(Math.max(1, lookAhead));
+        producer = new Thread(() -> {
+            try {
+                while (lists.hasNext()) {
+                    prefetchedLists.put(lists.next());
+                }
+            } catch (InterruptedException ex) {
+                return; // the consumer stopped the schedule
+            } catch (RuntimeException ex) {
+                failure = ex;
+            }
+
+            try {
+                prefetchedLists.put(END_OF_LISTS);
+            } catch (InterruptedException ex) {
+                // the consumer stopped the schedule
+            }
+        }, "comparison-lists-prefetcher");
+        producer.setDaemon(true);
+        producer.start();
+    }
+
+    @Override
+    public boolean hasNext() {
+        if (stopped) {
+            return false;
+        }
+
+        if (nextList == null) {
+            try {
+                nextList = prefetchedLists.take();
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted while waiting for the next comparisons.", ex);
+            }
+        }
+
+        if (nextList == END_OF_LISTS) {
+            prefetchedLists.offer(END_OF_LISTS); // keeps the end of the lists visible to subsequent calls
+            nextList = null;
+            if (failure != null) {
+                throw failure;
+            }
+            return false;
+        }
+        return true;
+    }
+
+    @Override
+    public List<Comparison> next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+
+        final List<Comparison> currentList = nextList;
+        nextList = null;
+        return currentList;
+    }
+
+    /**
+     * Stops the background thread and discards the prefetched lists. It should
+     * be called whenever the consumer does not need any more comparisons,
+     * e.g., when the budget has been exhausted, as the background thread
+     * otherwise stays blocked on the full queue.
+     */
+    @Override
+    public void close() {
+        stopped = true;
+        producer.interrupt();
+        prefetchedLists.clear();
+        nextList = null;
+    }
+}
@@ -17,7 +17,7 @@ package org.scify.jedai.prioritization.utilities;
 
 import org.scify.jedai.datamodel.AbstractBlock;
 import org.scify.jedai.datamodel.Comparison;
-import org.scify.jedai.datamodel.ComparisonIterator;
+import org.scify.jedai.datamodel.ComparisonCursor;
 import org.scify.jedai.utilities.comparators.DecComparisonWeightComparator;
 import org.scify.jedai.utilities.comparators.IncComparisonWeightComparator;
 
@@ -48,24 +48,19 @@ public class ProgressiveCNPDecomponsedBlocks extends AbstractDecomposedBlocksPro
     }
 
     private void analyzeComparisons(List<AbstractBlock> inputBlocks) {
-        if (isCleanCleanER) {
-            for (AbstractBlock block : inputBlocks) {
-                final ComparisonIterator cIterator = block.getComparisonIterator();
-                while (cIterator.hasNext()) {
-                    final Comparison c = cIterator.next();
+        final int idOffset = isCleanCleanER ? datasetLimit : 0;
+        for (AbstractBlock block : inputBlocks) {
+            final ComparisonCursor cursor = block.getComparisonCursor();
+            while (cursor.next()) {
+                final int entityId1 = cursor.entityId1();
+                final int entityId2 = cursor.entityId2() + idOffset;
 
-                    processEntityComparison(c.getEntityId1(), c);
-                    processEntityComparison(c.getEntityId2() + datasetLimit, c);
-                }
-            }
-        } else {
-            for (AbstractBlock block : inputBlocks) {
-                final ComparisonIterator cIterator = block.getComparisonIterator();
-                while (cIterator.hasNext()) {
-                    final Comparison c = cIterator.next();
-
-                    processEntityComparison(c.getEntityId1(), c);
-                    processEntityComparison(c.getEntityId2(), c);
+                // the Comparison is created only if it is retained by any of its entities
+                final float weight = cursor.weight();
+                if (minimumWeight[entityId1] < weight || minimumWeight[entityId2] < weight) {
+                    final Comparison c = cursor.toComparison();
+                    processEntityComparison(entityId1, c);
+                    processEntityComparison(entityId2, c);
                 }
             }
         }
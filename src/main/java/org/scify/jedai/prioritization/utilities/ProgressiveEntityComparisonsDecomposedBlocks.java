@@ -17,7 +17,7 @@ package org.scify.jedai.prioritization.utilities;
 
 import org.scify.jedai.datamodel.AbstractBlock;
 import org.scify.jedai.datamodel.Comparison;
-import org.scify.jedai.datamodel.ComparisonIterator;
+import org.scify.jedai.datamodel.ComparisonCursor;
 import org.scify.jedai.datamodel.VertexWeight;
 import org.scify.jedai.utilities.comparators.DecComparisonWeightComparator;
 import org.scify.jedai.utilities.comparators.DecVertexWeightComparator;
@@ -40,61 +40,32 @@ public class ProgressiveEntityComparisonsDecomposedBlocks extends AbstractDecomp
     private void analyzeComparisons(List<AbstractBlock> inputBlocks) {
         final int[] comparisonsPerEntity = new int[noOfEntities];
         final float[] totalWeightPerEntity = new float[noOfEntities];
-        final Comparison[] topComparisonPerEntity = new Comparison[noOfEntities];
-        if (isCleanCleanER) {
-            for (AbstractBlock block : inputBlocks) {
-                final ComparisonIterator cIterator = block.getComparisonIterator();
-                while (cIterator.hasNext()) {
-                    final Comparison c = cIterator.next();
 
-                    comparisonsPerEntity[c.getEntityId1()]++;
-                    totalWeightPerEntity[c.getEntityId1()] += c.getUtilityMeasure();
-
-                    int entityId2 = c.getEntityId2() + datasetLimit;
-                    comparisonsPerEntity[entityId2]++;
-                    totalWeightPerEntity[entityId2] += c.getUtilityMeasure();
-
-                    if (topComparisonPerEntity[c.getEntityId1()] == null) {
-                        topComparisonPerEntity[c.getEntityId1()] = c;
-                    } else if (topComparisonPerEntity[c.getEntityId1()].getUtilityMeasure() < c.getUtilityMeasure()) {
-                        topComparisonPerEntity[c.getEntityId1()] = c;
-                    }
-
-                    if (topComparisonPerEntity[entityId2] == null) {
-                        topComparisonPerEntity[entityId2] = c;
-                    } else if (topComparisonPerEntity[entityId2].getUtilityMeasure() < c.getUtilityMeasure()) {
-                        topComparisonPerEntity[entityId2] = c;
-                    }
-                }
+        // the top comparison of every entity, with its entity ids packed in a long
+        final long[] topPairPerEntity = new long[noOfEntities];
+        final float[] topWeightPerEntity = new float[noOfEntities];
+        Arrays.fill(topPairPerEntity, -1);
+
+        final int idOffset = isCleanCleanER ? datasetLimit : 0;
+        for (AbstractBlock block : inputBlocks) {
+            final ComparisonCursor cursor = block.getComparisonCursor();
+            while (cursor.next()) {
+                final float weight = cursor.weight();
+                final long pair = ((long) cursor.entityId1() << 32) | cursor.entityId2();
+                updateEntity(cursor.entityId1(), pair, weight, comparisonsPerEntity, totalWeightPerEntity, topPairPerEntity, topWeightPerEntity);
+                updateEntity(cursor.entityId2() + idOffset, pair, weight, comparisonsPerEntity, totalWeightPerEntity, topPairPerEntity, topWeightPerEntity);
             }
-        } else {
-            for (AbstractBlock block : inputBlocks) {
-                final ComparisonIterator cIterator = block.getComparisonIterator();
-                while (cIterator.hasNext()) {
-                    final Comparison c = cIterator.next();
-
-                    comparisonsPerEntity[c.getEntityId1()]++;
-                    totalWeightPerEntity[c.getEntityId1()] += c.getUtilityMeasure();
-
-                    comparisonsPerEntity[c.getEntityId2()]++;
-                    totalWeightPerEntity[c.getEntityId2()] += c.getUtilityMeasure();
-
-                    if (topComparisonPerEntity[c.getEntityId1()] == null) {
-                        topComparisonPerEntity[c.getEntityId1()] = c;
-                    } else if (topComparisonPerEntity[c.getEntityId1()].getUtilityMeasure() < c.getUtilityMeasure()) {
-                        topComparisonPerEntity[c.getEntityId1()] = c;
-                    }
+        }
 
-                    if (topComparisonPerEntity[c.getEntityId2()] == null) {
-                        topComparisonPerEntity[c.getEntityId2()] = c;
-                    } else if (topComparisonPerEntity[c.getEntityId2()].getUtilityMeasure() < c.getUtilityMeasure()) {
-                        topComparisonPerEntity[c.getEntityId2()] = c;
-                    }
-                }
+        final Set<Comparison> topComparisons = new HashSet<>();
+        for (int i = 0; i < noOfEntities; i++) {
+            if (0 <= topPairPerEntity[i]) {
+                final Comparison c = new Comparison(isCleanCleanER, (int) (topPairPerEntity[i] >>> 32), (int) topPairPerEntity[i]);
+                c.setUtilityMeasure(topWeightPerEntity[i]);
+                topComparisons.add(c);
             }
         }
 
-        final Set<Comparison> topComparisons = new HashSet<>(Arrays.asList(topComparisonPerEntity));
         final List<Comparison> sortedTopComparisons = new ArrayList<>(topComparisons);
         sortedTopComparisons.sort(new DecComparisonWeightComparator());
         compIterator = sortedTopComparisons.iterator();
@@ -110,4 +81,14 @@ public class ProgressiveEntityComparisonsDecomposedBlocks extends AbstractDecomp
     public Iterator<VertexWeight> getEntityIterator() {
         return entityIterator;
     }
+
+    private static void updateEntity(int entityId, long pair, float weight, int[] comparisonsPerEntity, float[] totalWeightPerEntity,
+            long[] topPairPerEntity, float[] topWeightPerEntity) {
+        comparisonsPerEntity[entityId]++;
+        totalWeightPerEntity[entityId] += weight;
+        if (topPairPerEntity[entityId] < 0 || topWeightPerEntity[entityId] < weight) {
+            topPairPerEntity[entityId] = pair;
+            topWeightPerEntity[entityId] = weight;
+        }
+    }
 }
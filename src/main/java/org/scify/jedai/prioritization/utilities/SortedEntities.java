@@ -17,10 +17,7 @@ package org.scify.jedai.prioritization.utilities;
 
 
 import org.scify.jedai.blockbuilding.SortedNeighborhoodBlocking;
-
-import java.util.Arrays;
-import java.util.HashSet;
-import java.util.Set;
+import org.scify.jedai.blockbuilding.SortedNeighborhoodIndex;
 
 /**
  *
@@ -40,22 +37,11 @@ public class SortedEntities extends SortedNeighborhoodBlocking {
     
     @Override
     protected void parseIndex() {
-        final Set<String> blockingKeysSet = invertedIndexD1.keySet();
-        final String[] sortedTerms = blockingKeysSet.toArray(new String[0]);
-        Arrays.sort(sortedTerms);
-
-        sortedEntityIds = getSortedEntities(sortedTerms);
+        sortedEntityIds = new SortedNeighborhoodIndex(invertedIndexD1, null, 0, random).getSortedEntityIds();
     }
     
     @Override
     protected void parseIndices() {
-        final Set<String> blockingKeysSet = new HashSet<>();
-        blockingKeysSet.addAll(invertedIndexD1.keySet());
-        blockingKeysSet.addAll(invertedIndexD2.keySet());
-        
-        final String[] sortedTerms = blockingKeysSet.toArray(new String[0]);
-        Arrays.sort(sortedTerms);
-
-        sortedEntityIds = getMixedSortedEntities(sortedTerms);
+        sortedEntityIds = new SortedNeighborhoodIndex(invertedIndexD1, invertedIndexD2, entityProfilesD1.size(), random).getSortedEntityIds();
     }
 }
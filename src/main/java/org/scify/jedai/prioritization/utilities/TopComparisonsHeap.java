@@ -0,0 +1,206 @@
+/*
+* Copyright [2016-2020] [George Papadakis (gpapadis@yahoo.gr)]
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+*    http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+ */
+package org.scify.jedai.prioritization.utilities;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import org.scify.jedai.datamodel.Comparison;
+
+/**
+ * A bounded min-heap that retains the top-K comparisons in decreasing weight.
+ * Every comparison is stored as two primitives, i.e., the ids of its entities
+ * packed in a long and its weight, so no Comparison object is created before
+ * the end. Ties in weight are broken in favor of the smallest entity ids; thus,
+ * the retained comparisons are independent of the order of insertion, and the
+ * heaps of several workers can be merged into the same top-K comparisons.
+ *
+ * @author G.A.P. II
+ */
+public class TopComparisonsHeap {
+
+    private static final int INITIAL_CAPACITY = 1024;
+
+    private final int maxSize;
+    private int size;
+
+    private float[] weights;
+    private long[] pairs;
+
+    public TopComparisonsHeap(int k) {
+        maxSize = Math.max(0, k);
+        size = 0;
+
+        final int capacity = Math.min(maxSize, INITIAL_CAPACITY);
+        pairs = new long[capacity];
+        weights = new float[capacity];
+    }
+
+    /**
+     * Adds the given comparison, if it belongs to the top-K ones seen so far.
+     *
+     * @param entityId1 the id of the first entity
+     * @param entityId2 the id of the second entity
+     * @param weight the weight of the comparison
+     * @return true if the comparison was retained
+     */
+    public boolean add(int entityId1, int entityId2, float weight) {
+        final long pair = ((long) entityId1 << 32) | (entityId2 & 0xFFFFFFFFL);
+        if (size < maxSize) {
+            if (size == pairs.length) {
+                final int newCapacity = (int) Math.min(maxSize, 2L * pairs.length);
+                pairs = Arrays.copyOf(pairs, newCapacity);
+                weights = Arrays.copyOf(weights, newCapacity);
+            }
+            pairs[size] = pair;
+            weights[size] = weight;
+            siftUp(size++);
+            return true;
+        }
+
+        if (maxSize == 0 || !isWorse(weights[0], pairs[0], weight, pair)) {
+            return false;
+        }
+
+        pairs[0] = pair;
+        weights[0] = weight;
+        siftDown(0);
+        return true;
+    }
+
+    /**
+     * Adds all comparisons of the given heap into this one.
+     *
+     * @param otherHeap the heap to be merged
+     */
+    public void addAll(TopComparisonsHeap otherHeap) {
+        for (int i = 0; i < otherHeap.size; i++) {
+            add((int) (otherHeap.pairs[i] >>> 32), (int) otherHeap.pairs[i], otherHeap.weights[i]);
+        }
+    }
+
+    /**
+     * @return the weight that a comparison should exceed in order to be
+     * retained, or negative infinity, if the heap is not full yet
+     */
+    public float getMinimumWeight() {
+        if (size < maxSize || maxSize == 0) {
+            return Float.NEGATIVE_INFINITY;
+        }
+        return weights[0];
+    }
+
+    /**
+     * Empties the heap, returning its comparisons in decreasing weight.
+     *
+     * @param isCleanCleanER true for Clean-Clean ER, false for Dirty ER
+     * @return the retained comparisons in decreasing weight
+     */
+    public List<Comparison> getSortedComparisons(boolean isCleanCleanER) {
+        final int noOfComparisons = sort();
+        final List<Comparison> sortedComparisons = new ArrayList<>(noOfComparisons);
+        for (int i = 0; i < noOfComparisons; i++) {
+            final Comparison comparison = new Comparison(isCleanCleanER, (int) (pairs[i] >>> 32), (int) pairs[i]);
+            comparison.setUtilityMeasure(weights[i]);
+            sortedComparisons.add(comparison);
+        }
+        return sortedComparisons;
+    }
+
+    /**
+     * Empties the heap, copying its comparisons in decreasing weight into the
+     * given arrays, without creating any Comparison object.
+     *
+     * @param sortedPairs the array of the entity ids of the comparisons,
+     * packed in a long, with room for all comparisons
+     * @param sortedWeights the array of the weights of the comparisons, with
+     * room for all comparisons
+     * @param offset the position of the first comparison in both arrays
+     * @return the number of comparisons
+     */
+    public int getSortedComparisons(long[] sortedPairs, float[] sortedWeights, int offset) {
+        final int noOfComparisons = sort();
+        System.arraycopy(pairs, 0, sortedPairs, offset, noOfComparisons);
+        System.arraycopy(weights, 0, sortedWeights, offset, noOfComparisons);
+        return noOfComparisons;
+    }
+
+    // true if comparison (weight1, pair1) ranks lower than comparison (weight2, pair2)
+    private static boolean isWorse(float weight1, long pair1, float weight2, long pair2) {
+        if (weight1 != weight2) {
+            return weight1 < weight2;
+        }
+        return pair2 < pair1;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    private void siftDown(int index) {
+        while (true) {
+            final int left = 2 * index + 1;
+            if (size <= left) {
+                return;
+            }
+
+            int worstChild = left;
+            final int right = left + 1;
+            if (right < size && isWorse(weights[right], pairs[right], weights[left], pairs[left])) {
+                worstChild = right;
+            }
+
+            if (!isWorse(weights[worstChild], pairs[worstChild], weights[index], pairs[index])) {
+                return;
+            }
+            swap(index, worstChild);
+            index = worstChild;
+        }
+    }
+
+    private void siftUp(int index) {
+        while (0 < index) {
+            final int parent = (index - 1) / 2;
+            if (!isWorse(weights[index], pairs[index], weights[parent], pairs[parent])) {
+                return;
+            }
+            swap(index, parent);
+            index = parent;
+        }
+    }
+
+    // heap sort: the worst comparison is repeatedly moved to the end
+    private int sort() {
+        final int noOfComparisons = size;
+        while (1 < size) {
+            size--;
+            swap(0, size);
+            siftDown(0);
+        }
+        size = 0;
+        return noOfComparisons;
+    }
+
+    private void swap(int i, int j) {
+        final long tempPair = pairs[i];
+        pairs[i] = pairs[j];
+        pairs[j] = tempPair;
+
+        final float tempWeight = weights[i];
+        weights[i] = weights[j];
+        weights[j] = tempWeight;
+    }
+}
@@ -18,6 +18,8 @@ package org.scify.jedai.similarityjoins;
 import java.util.*;
 
 import org.scify.jedai.datamodel.*;
+import org.scify.jedai.utilities.metrics.PipelineMetrics;
+import org.scify.jedai.utilities.metrics.StageMetrics;
 
 /**
  *
@@ -58,7 +60,14 @@ public abstract class AbstractSimilarityJoin implements ISimilarityJoin {
         datasetDelimiter = dataset2 != null ? profilesD1.size() : 0;
         noOfEntities = profilesD2 == null ? profilesD1.size() : profilesD1.size() + profilesD2.size();
 
-        return applyJoin();
+        final StageMetrics stage = PipelineMetrics.startStage(PipelineMetrics.SIMILARITY_JOIN, this, noOfEntities);
+        final SimilarityPairs simPairs = applyJoin();
+        if (stage.isEnabled()) {
+            stage.stop();
+            stage.setOutputComparisons(simPairs.getNoOfComparisons());
+            stage.finish(simPairs.getNoOfComparisons());
+        }
+        return simPairs;
     }
 
     protected String getAttributeValue(String attributeName, EntityProfile profile) {
@@ -17,58 +17,183 @@ package org.scify.jedai.textmodels;
 
 import org.scify.jedai.utilities.enumerations.RepresentationModel;
 import org.scify.jedai.utilities.enumerations.SimilarityMetric;
-import gr.demokritos.iit.jinsect.documentModel.comparators.NGramCachedGraphComparator;
+import gnu.trove.map.TObjectIntMap;
+import gnu.trove.map.hash.TObjectIntHashMap;
 import gr.demokritos.iit.jinsect.documentModel.representations.DocumentNGramGraph;
-import gr.demokritos.iit.jinsect.structs.GraphSimilarity;
+import gr.demokritos.iit.jinsect.structs.UniqueVertexGraph;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
 import java.util.Set;
+import salvo.jesus.graph.Edge;
+import salvo.jesus.graph.WeightedEdge;
 
 /**
+ * The n-gram graph of a text. It is built with JInsect, but when the model is
+ * finalized, the graph is turned into a compact representation: every vertex
+ * label is mapped to a global integer id, every edge is packed into a long
+ * key (the id of its source vertex followed by the id of its target vertex)
+ * and the keys are sorted, along with the edge weights. The similarities are
+ * then computed by merge-joins of the sorted keys, with the same definitions
+ * as JInsect's NGramCachedGraphComparator: an edge of the smaller graph
+ * matches the edge of the larger graph with the same direction or, if there
+ * is none, with the opposite one.
  *
  * @author gap2
  */
 public abstract class GraphModel extends AbstractModel {
 
+    // the global ids of vertex labels, which are shared by all graph models
+    private static final List<String> VERTEX_LABELS = new ArrayList<>();
+    private static final TObjectIntMap<String> VERTEX_IDS = new TObjectIntHashMap<>(1024, 0.5f, -1);
+
     protected DocumentNGramGraph graphModel;
-    protected final static NGramCachedGraphComparator COMPARATOR = new NGramCachedGraphComparator();
+
+    protected float[] edgeWeights;
+    protected int[] vertexIds;
+    // written last, so that it publishes the rest of the compact representation
+    protected volatile long[] edgeKeys;
 
     public GraphModel(int dId, int n, RepresentationModel model, SimilarityMetric simMetric, String iName) {
         super(dId, n, model, simMetric, iName);
     }
 
+    /**
+     * Builds the compact representation of the graph and releases the
+     * JInsect graph, which cannot be updated any more. It is safe to call
+     * concurrently, e.g., by the threads of a parallel similarity join.
+     */
     @Override
-    public void finalizeModel() {}
+    public void finalizeModel() {
+        if (edgeKeys != null) {
+            return;
+        }
+
+        synchronized (this) {
+            if (edgeKeys != null) {
+                return;
+            }
+
+            final UniqueVertexGraph graph = graphModel.getGraphLevel(0);
+            final Set<String> labels = graph.UniqueVertices.keySet();
+            final int[] ids = new int[labels.size()];
+            int counter = 0;
+            for (String label : labels) {
+                ids[counter++] = getVertexId(label);
+            }
+            Arrays.sort(ids);
+
+            final Set<?> edges = graph.getEdgeSet();
+            final long[] keys = new long[edges.size()];
+            final float[] weights = new float[edges.size()];
+            counter = 0;
+            for (Object edgeObject : edges) {
+                final Edge edge = (Edge) edgeObject;
+                keys[counter] = getEdgeKey(getVertexId(edge.getVertexA().getLabel()), getVertexId(edge.getVertexB().getLabel()));
+                weights[counter++] = (float) ((WeightedEdge) edge).getWeight();
+            }
+
+            // the edges of a graph are unique, and so are their keys
+            final long[] sortedKeys = keys.clone();
+            Arrays.sort(sortedKeys);
+            final float[] sortedWeights = new float[keys.length];
+            for (int i = 0; i < keys.length; i++) {
+                sortedWeights[Arrays.binarySearch(sortedKeys, keys[i])] = weights[i];
+            }
+
+            vertexIds = ids;
+            edgeWeights = sortedWeights;
+            edgeKeys = sortedKeys;
+            graphModel = null;
+        }
+    }
+
+    private static long getEdgeKey(int sourceId, int targetId) {
+        return ((long) sourceId) << 32 | targetId;
+    }
 
     @Override
     public float getEntropy(boolean normalized) {
         return 0;
     }
-    
+
     protected DocumentNGramGraph getGraphModel() {
         return graphModel;
     }
-    
+
+    public int getNoOfEdges() {
+        finalizeModel();
+        return edgeKeys.length;
+    }
+
     @Override
     public Set<String> getSignatures() {
-        return graphModel.getGraphLevel(0).UniqueVertices.keySet();
+        finalizeModel();
+
+        final Set<String> signatures = new HashSet<>();
+        synchronized (VERTEX_IDS) {
+            for (int vertexId : vertexIds) {
+                signatures.add(VERTEX_LABELS.get(vertexId));
+            }
+        }
+        return signatures;
     }
 
     @Override
     public float getSimilarity(ITextModel oModel) {
-        final GraphSimilarity graphSimilarity = COMPARATOR.getSimilarityBetween(this.getGraphModel(), ((GraphModel) oModel).getGraphModel());
+        finalizeModel();
+
+        GraphModel smallerGraph = this;
+        GraphModel largerGraph = (GraphModel) oModel;
+        largerGraph.finalizeModel();
+        if (largerGraph.edgeKeys.length < smallerGraph.edgeKeys.length) {
+            smallerGraph = largerGraph;
+            largerGraph = this;
+        }
+
+        final long[] keys1 = smallerGraph.edgeKeys;
+        final long[] keys2 = largerGraph.edgeKeys;
+        final float[] weights1 = smallerGraph.edgeWeights;
+        final float[] weights2 = largerGraph.edgeWeights;
+
+        double commonEdges = 0;
+        double valueRatios = 0;
+        for (int i = 0, j = 0; i < keys1.length; i++) {
+            while (j < keys2.length && keys2[j] < keys1[i]) {
+                j++;
+            }
+
+            int match = j;
+            if (j == keys2.length || keys2[j] != keys1[i]) {
+                final long reverseKey = getEdgeKey((int) keys1[i], (int) (keys1[i] >>> 32));
+                match = Arrays.binarySearch(keys2, reverseKey);
+                if (match < 0) {
+                    continue;
+                }
+            }
+
+            commonEdges++;
+            valueRatios += Math.min(weights1[i], weights2[match]) / Math.max(weights1[i], weights2[match]);
+        }
+
+        final double containmentSimilarity = keys1.length == 0 ? 0 : commonEdges / keys1.length;
+        final double valueSimilarity = keys2.length == 0 ? 0 : valueRatios / keys2.length;
+        final double sizeSimilarity = keys1.length / Math.max(keys2.length, 1.0);
         switch (simMetric) {
             case GRAPH_CONTAINMENT_SIMILARITY:
-                return (float)graphSimilarity.ContainmentSimilarity;
+                return (float) containmentSimilarity;
             case GRAPH_NORMALIZED_VALUE_SIMILARITY:
-                if (0 < graphSimilarity.SizeSimilarity) {
-                    return (float)(graphSimilarity.ValueSimilarity / graphSimilarity.SizeSimilarity);
+                if (0 < sizeSimilarity) {
+                    return (float) (valueSimilarity / sizeSimilarity);
                 }
             case GRAPH_VALUE_SIMILARITY:
-                return (float)graphSimilarity.ValueSimilarity;
+                return (float) valueSimilarity;
             case GRAPH_OVERALL_SIMILARITY:
-                float overallSimilarity = (float) graphSimilarity.ContainmentSimilarity;
-                overallSimilarity += graphSimilarity.ValueSimilarity;
-                if (0 < graphSimilarity.SizeSimilarity) {
-                    overallSimilarity += graphSimilarity.ValueSimilarity / graphSimilarity.SizeSimilarity;
+                float overallSimilarity = (float) containmentSimilarity;
+                overallSimilarity += valueSimilarity;
+                if (0 < sizeSimilarity) {
+                    overallSimilarity += valueSimilarity / sizeSimilarity;
                     return overallSimilarity / 3;
                 }
                 return overallSimilarity / 2;
@@ -77,4 +202,63 @@ public abstract class GraphModel extends AbstractModel {
                     "The given similarity metric is incompatible with the n-gram graphs representation model.");
         }
     }
+
+    /**
+     * Skips the merge-join when the ratio of the graph sizes, i.e., of their
+     * numbers of edges, shows that the similarity cannot exceed the threshold.
+     */
+    @Override
+    public float getSimilarity(ITextModel oModel, float threshold) {
+        if (getSimilarityUpperBound((GraphModel) oModel) <= threshold) {
+            return 0;
+        }
+        return getSimilarity(oModel);
+    }
+
+    /**
+     * Estimates an upper bound for the similarity with the given model, based
+     * on their sizes: the value similarity cannot exceed the size similarity
+     * (the ratio of the smaller to the larger number of edges), while the
+     * containment and the normalized value similarities cannot exceed 1.
+     *
+     * @param oModel the other graph model
+     * @return the upper bound of the similarity
+     */
+    public float getSimilarityUpperBound(GraphModel oModel) {
+        final int size1 = getNoOfEdges();
+        final int size2 = oModel.getNoOfEdges();
+        final float sizeSimilarity = Math.min(size1, size2) / (float) Math.max(Math.max(size1, size2), 1);
+        switch (simMetric) {
+            case GRAPH_VALUE_SIMILARITY:
+                return sizeSimilarity;
+            case GRAPH_OVERALL_SIMILARITY:
+                return 0 < sizeSimilarity ? (2 + sizeSimilarity) / 3 : 0;
+            default:
+                return 1;
+        }
+    }
+
+    private static int getVertexId(String label) {
+        synchronized (VERTEX_IDS) {
+            int vertexId = VERTEX_IDS.get(label);
+            if (vertexId < 0) {
+                vertexId = VERTEX_LABELS.size();
+                VERTEX_IDS.put(label, vertexId);
+                VERTEX_LABELS.add(label);
+            }
+            return vertexId;
+        }
+    }
+
+    public static void resetGlobalValues(int datasetId) {
+        AbstractModel.resetGlobalValues(datasetId);
+
+        // the ids of both datasets should be consistent
+        if (datasetId == DATASET_1) {
+            synchronized (VERTEX_IDS) {
+                VERTEX_IDS.clear();
+                VERTEX_LABELS.clear();
+            }
+        }
+    }
 }
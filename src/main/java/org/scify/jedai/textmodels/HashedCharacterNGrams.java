@@ -0,0 +1,299 @@
+/*
+* Copyright [2016-2020] [George Papadakis (gpapadis@yahoo.gr)]
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+*    http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+ */
+package org.scify.jedai.textmodels;
+
+import gnu.trove.map.TLongIntMap;
+import gnu.trove.map.hash.TLongIntHashMap;
+import gnu.trove.map.hash.TLongObjectHashMap;
+import org.scify.jedai.utilities.HashUtils;
+import org.scify.jedai.utilities.enumerations.RepresentationModel;
+import org.scify.jedai.utilities.enumerations.SimilarityMetric;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * The bag of character n-grams of a text, like CharacterNGrams, but with
+ * every n-gram represented by its 64-bit id, as computed by RollingNGramHash,
+ * instead of a substring. While the model is updated, the n-gram frequencies
+ * are stored in a primitive map; when it is finalized, they are turned into
+ * two parallel arrays, sorted by n-gram id, so that the similarities are
+ * computed by merge-joins.
+ *
+ * The ids of n-grams with up to 4 characters are exact. For longer n-grams,
+ * the exact mode registers the first n-gram with every id in a global
+ * dictionary and rehashes any other n-gram that collides with it. Thus, the
+ * features are equivalent to those of CharacterNGrams, at the cost of storing
+ * every distinct n-gram once.
+ *
+ * @author G.A.P. II
+ */
+public class HashedCharacterNGrams extends AbstractModel {
+
+    private static final long serialVersionUID = -6624281630930585514L;
+
+    // the n-gram with every id, in exact mode
+    protected static final TLongObjectHashMap<String> NGRAMS_DICTIONARY = new TLongObjectHashMap<>();
+
+    protected final boolean exactMode;
+
+    protected float noOfTotalTerms;
+    protected float vectorMagnitude;
+    protected int[] frequencies;
+    protected long[] features;
+    protected TLongIntMap itemsFrequency;
+
+    public HashedCharacterNGrams(int dId, int n, RepresentationModel model, SimilarityMetric simMetric, String iName) {
+        this(dId, n, false, model, simMetric, iName);
+    }
+
+    public HashedCharacterNGrams(int dId, int n, boolean exact, RepresentationModel model, SimilarityMetric simMetric, String iName) {
+        super(dId, n, model, simMetric, iName);
+
+        exactMode = exact && !RollingNGramHash.isExact(n);
+        itemsFrequency = new TLongIntHashMap();
+        NO_OF_DOCUMENTS[datasetId]++;
+    }
+
+    @Override
+    public void finalizeModel() {
+        if (itemsFrequency == null) {
+            return;
+        }
+
+        features = itemsFrequency.keys();
+        Arrays.sort(features);
+        frequencies = new int[features.length];
+        float magnitude = 0.0f;
+        for (int i = 0; i < features.length; i++) {
+            frequencies[i] = itemsFrequency.get(features[i]);
+            magnitude += Math.pow(frequencies[i] / noOfTotalTerms, 2.0);
+        }
+        vectorMagnitude = (float) Math.sqrt(magnitude);
+        itemsFrequency = null;
+    }
+
+    protected float getEnhancedJaccardSimilarity(HashedCharacterNGrams oModel) {
+        final long[] otherFeatures = oModel.getFeatures();
+        final int[] otherFrequencies = oModel.getFrequencies();
+
+        float numerator = 0.0f;
+        for (int i = 0, j = 0; i < features.length && j < otherFeatures.length;) {
+            if (features[i] < otherFeatures[j]) {
+                i++;
+            } else if (otherFeatures[j] < features[i]) {
+                j++;
+            } else {
+                numerator += Math.min(frequencies[i++], otherFrequencies[j++]);
+            }
+        }
+
+        float denominator = noOfTotalTerms + oModel.getNoOfTotalTerms() - numerator;
+        return numerator / denominator;
+    }
+
+    @Override
+    public float getEntropy(boolean normalized) {
+        finalizeModel();
+
+        float entropy = 0.0f;
+        for (int frequency : frequencies) {
+            float p_i = (frequency / noOfTotalTerms);
+            entropy -= (p_i * (Math.log10(p_i) / Math.log10(2.0d)));
+        }
+
+        if (normalized) {
+            float maxEntropy = (float) Math.log10(noOfTotalTerms) / (float) Math.log10(2.0f);
+            return entropy / maxEntropy;
+        }
+
+        return entropy;
+    }
+
+    /**
+     * @return the sorted ids of the distinct n-grams
+     */
+    public long[] getFeatures() {
+        finalizeModel();
+        return features;
+    }
+
+    /**
+     * @return the frequency of every n-gram, in the order of getFeatures()
+     */
+    public int[] getFrequencies() {
+        finalizeModel();
+        return frequencies;
+    }
+
+    protected float getJaccardSimilarity(HashedCharacterNGrams oModel) {
+        final long[] otherFeatures = oModel.getFeatures();
+
+        float numerator = 0.0f;
+        for (int i = 0, j = 0; i < features.length && j < otherFeatures.length;) {
+            if (features[i] < otherFeatures[j]) {
+                i++;
+            } else if (otherFeatures[j] < features[i]) {
+                j++;
+            } else {
+                numerator++;
+                i++;
+                j++;
+            }
+        }
+
+        float denominator = features.length + otherFeatures.length - numerator;
+        return numerator / denominator;
+    }
+
+    protected float getNoOfTotalTerms() {
+        return noOfTotalTerms;
+    }
+
+    @Override
+    public Set<String> getSignatures() {
+        finalizeModel();
+
+        final Set<String> signatures = new HashSet<>();
+        for (long feature : features) {
+            if (RollingNGramHash.isExact(nSize)) {
+                signatures.add(RollingNGramHash.decode(feature, nSize));
+            } else {
+                signatures.add(Long.toHexString(feature));
+            }
+        }
+        return signatures;
+    }
+
+    @Override
+    public float getSimilarity(ITextModel oModel) {
+        finalizeModel();
+        switch (simMetric) {
+            case COSINE_SIMILARITY:
+                return getTfCosineSimilarity((HashedCharacterNGrams) oModel);
+            case ENHANCED_JACCARD_SIMILARITY:
+                return getEnhancedJaccardSimilarity((HashedCharacterNGrams) oModel);
+            case GENERALIZED_JACCARD_SIMILARITY:
+                return getTfGeneralizedJaccardSimilarity((HashedCharacterNGrams) oModel);
+            case JACCARD_SIMILARITY:
+                return getJaccardSimilarity((HashedCharacterNGrams) oModel);
+            default:
+                throw new IllegalStateException(
+                    "The given similarity metric is incompatible with the hashed bag representation model.");
+        }
+    }
+
+    protected float getTfCosineSimilarity(HashedCharacterNGrams oModel) {
+        final float totalTerms2 = oModel.getNoOfTotalTerms();
+        final long[] otherFeatures = oModel.getFeatures();
+        final int[] otherFrequencies = oModel.getFrequencies();
+
+        float numerator = 0.0f;
+        for (int i = 0, j = 0; i < features.length && j < otherFeatures.length;) {
+            if (features[i] < otherFeatures[j]) {
+                i++;
+            } else if (otherFeatures[j] < features[i]) {
+                j++;
+            } else {
+                numerator += frequencies[i++] * otherFrequencies[j++] / noOfTotalTerms / totalTerms2;
+            }
+        }
+
+        float denominator = vectorMagnitude * oModel.getVectorMagnitude();
+        return numerator / denominator;
+    }
+
+    protected float getTfGeneralizedJaccardSimilarity(HashedCharacterNGrams oModel) {
+        final float totalTerms2 = oModel.getNoOfTotalTerms();
+        final long[] otherFeatures = oModel.getFeatures();
+        final int[] otherFrequencies = oModel.getFrequencies();
+
+        float numerator = 0.0f;
+        float denominator = 0.0f;
+        int i = 0;
+        int j = 0;
+        while (i < features.length && j < otherFeatures.length) {
+            if (features[i] < otherFeatures[j]) {
+                denominator += frequencies[i++] / noOfTotalTerms;
+            } else if (otherFeatures[j] < features[i]) {
+                denominator += otherFrequencies[j++] / totalTerms2;
+            } else {
+                final float weight1 = frequencies[i++] / noOfTotalTerms;
+                final float weight2 = otherFrequencies[j++] / totalTerms2;
+                numerator += Math.min(weight1, weight2);
+                denominator += Math.max(weight1, weight2);
+            }
+        }
+        for (; i < features.length; i++) {
+            denominator += frequencies[i] / noOfTotalTerms;
+        }
+        for (; j < otherFeatures.length; j++) {
+            denominator += otherFrequencies[j] / totalTerms2;
+        }
+
+        return numerator / denominator;
+    }
+
+    protected float getVectorMagnitude() {
+        finalizeModel();
+        return vectorMagnitude;
+    }
+
+    // returns the id of the n-gram at the given position, rehashing it as long as it collides with another n-gram
+    private static long resolveCollisions(long nGramId, String text, int position, int n) {
+        synchronized (NGRAMS_DICTIONARY) {
+            while (true) {
+                final String nGram = NGRAMS_DICTIONARY.get(nGramId);
+                if (nGram == null) {
+                    NGRAMS_DICTIONARY.put(nGramId, text.substring(position, position + n));
+                    return nGramId;
+                }
+                if (nGram.regionMatches(0, text, position, n)) {
+                    return nGramId;
+                }
+                nGramId = HashUtils.mix(nGramId + 1);
+            }
+        }
+    }
+
+    public static void resetGlobalValues(int datasetId) {
+        AbstractModel.resetGlobalValues(datasetId);
+
+        // the ids of both datasets should be consistent
+        if (datasetId == DATASET_1) {
+            synchronized (NGRAMS_DICTIONARY) {
+                NGRAMS_DICTIONARY.clear();
+            }
+        }
+    }
+
+    @Override
+    public void updateModel(String text) {
+        if (itemsFrequency == null) {
+            throw new IllegalStateException("The model has already been finalized.");
+        }
+
+        final String lowerCasedText = text.toLowerCase();
+        RollingNGramHash.hashNGrams(lowerCasedText, 0, lowerCasedText.length(), nSize, (nGramId, position) -> {
+            if (exactMode) {
+                nGramId = resolveCollisions(nGramId, lowerCasedText, position, nSize);
+            }
+            noOfTotalTerms++;
+            itemsFrequency.adjustOrPutValue(nGramId, 1, 1);
+        });
+    }
+}
@@ -32,6 +32,20 @@ public interface ITextModel extends IConstants {
 
     float getSimilarity(ITextModel oModel);
 
+    /**
+     * Returns the similarity with the given model, if it exceeds the given
+     * threshold; otherwise, it may return any value that does not exceed it.
+     * Thus, the models with a cheap upper bound of their similarity can skip
+     * its exact computation.
+     *
+     * @param oModel the other model
+     * @param threshold the similarity threshold
+     * @return the similarity with the given model
+     */
+    default float getSimilarity(ITextModel oModel, float threshold) {
+        return getSimilarity(oModel);
+    }
+
     void finalizeModel();
 
     void updateModel(String text);
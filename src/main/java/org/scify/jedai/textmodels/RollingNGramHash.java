@@ -0,0 +1,126 @@
+/*
+* Copyright [2016-2020] [George Papadakis (gpapadis@yahoo.gr)]
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+*    http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+ */
+package org.scify.jedai.textmodels;
+
+import org.scify.jedai.utilities.HashUtils;
+
+/**
+ * Maps the character n-grams of a text to 64-bit integers without creating
+ * any substring. N-grams with up to 4 characters are packed into a long, 16
+ * bits per character, so that their ids are exact and can be decoded back to
+ * the n-grams. Longer n-grams are hashed with a rolling polynomial
+ * (Rabin-Karp) hash modulo 2^64, whose bits are spread by the finalizer of
+ * MurmurHash3. Thus, distinct long n-grams collide with a probability of
+ * about 2^-64 per pair.
+ *
+ * @author G.A.P. II
+ */
+public final class RollingNGramHash {
+
+    public static final int MAX_EXACT_SIZE = 4;
+
+    private static final long BASE = 0x9E3779B97F4A7C15L; // odd, so that it is invertible modulo 2^64
+
+    /**
+     * Receives the id of every n-gram, along with its position in the text.
+     */
+    public interface NGramProcedure {
+
+        void execute(long nGramId, int position);
+    }
+
+    private RollingNGramHash() {
+    }
+
+    /**
+     * Decodes the id of an exact n-gram, i.e., of an n-gram with up to 4
+     * characters.
+     *
+     * @param nGramId the id of the n-gram
+     * @param n the number of characters in the n-gram
+     * @return the n-gram
+     */
+    public static String decode(long nGramId, int n) {
+        final char[] chars = new char[n];
+        for (int i = n - 1; 0 <= i; i--) {
+            chars[i] = (char) (nGramId & 0xFFFF);
+            nGramId >>>= 16;
+        }
+        return new String(chars);
+    }
+
+    /**
+     * Computes the id of the entire given range of characters, regardless of
+     * its length. It is used for the strings that are shorter than n, which
+     * do not have any n-gram.
+     *
+     * @param text the text
+     * @param from the first character of the range
+     * @param to the end of the range (exclusive)
+     * @return the id of the range
+     */
+    public static long hashRange(CharSequence text, int from, int to) {
+        long hash = to - from;
+        for (int i = from; i < to; i++) {
+            hash = hash * BASE + text.charAt(i);
+        }
+        return HashUtils.mix(hash);
+    }
+
+    /**
+     * Passes the id of every n-gram in the given range of characters to the
+     * given procedure, in the order of their positions.
+     *
+     * @param text the text
+     * @param from the first character of the range
+     * @param to the end of the range (exclusive)
+     * @param n the number of characters per n-gram
+     * @param procedure the receiver of the n-gram ids
+     */
+    public static void hashNGrams(CharSequence text, int from, int to, int n, NGramProcedure procedure) {
+        if (n <= MAX_EXACT_SIZE) {
+            final long mask = n == MAX_EXACT_SIZE ? -1L : (1L << (16 * n)) - 1;
+            long packed = 0;
+            for (int i = from; i < to; i++) {
+                packed = ((packed << 16) | text.charAt(i)) & mask;
+                if (from + n - 1 <= i) {
+                    procedure.execute(packed, i - n + 1);
+                }
+            }
+            return;
+        }
+
+        long outgoingWeight = 1; // BASE^n
+        for (int i = 0; i < n; i++) {
+            outgoingWeight *= BASE;
+        }
+
+        long hash = 0;
+        for (int i = from; i < to; i++) {
+            hash = hash * BASE + text.charAt(i);
+            if (from + n <= i) {
+                hash -= text.charAt(i - n) * outgoingWeight;
+            }
+            if (from + n - 1 <= i) {
+                procedure.execute(HashUtils.mix(hash), i - n + 1);
+            }
+        }
+    }
+
+    public static boolean isExact(int n) {
+        return n <= MAX_EXACT_SIZE;
+    }
+}
@@ -0,0 +1,220 @@
+/*
+* Copyright [2016-2020] [George Papadakis (gpapadis@yahoo.gr)]
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+*    http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+ */
+package org.scify.jedai.utilities;
+
+import com.esotericsoftware.minlog.Log;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.function.Supplier;
+import org.scify.jedai.datamodel.AbstractBlock;
+import org.scify.jedai.datamodel.EntityProfile;
+import org.scify.jedai.datamodel.EquivalenceCluster;
+import org.scify.jedai.datamodel.IdDuplicates;
+import org.scify.jedai.datamodel.SimilarityPairs;
+import org.scify.jedai.utilities.datastructures.AbstractDuplicatePropagation;
+import org.scify.jedai.utilities.datastructures.BilateralDuplicatePropagation;
+import org.scify.jedai.utilities.datastructures.UnilateralDuplicatePropagation;
+import org.scify.jedai.utilities.metrics.ThreadResources;
+
+/**
+ * Runs a workflow over synthetic datasets of increasing size and stores a row
+ * of measurements per dataset and stage in a CSV file. Every stage is wrapped
+ * in a call to measureStage, which records:
+ * <ol>
+ * <li>the wall-clock time in milliseconds,</li>
+ * <li>the bytes allocated by all live threads, or -1 if the JVM does not
+ * support it; the allocations of threads that terminate during the stage are
+ * not counted,</li>
+ * <li>the peak heap usage, i.e., the sum of the peak usage of all heap memory
+ * pools, which are reset at the beginning of the stage.</li>
+ * </ol>
+ * The output of the stage can then be evaluated against the ground truth:
+ * for blocks and similarity pairs, the effectiveness columns contain PC, PQ
+ * and F-Measure, while for equivalence clusters, they contain recall,
+ * precision and F-Measure. Unevaluated stages have empty effectiveness
+ * columns. Every row is flushed as soon as it is complete, so the results of
+ * the smaller datasets survive a failure on larger ones.
+ *
+ * @author G.A.P. II
+ */
+public class BenchmarkRunner {
+
+    public static final String HEADER = "dataset,entities_d1,entities_d2,existing_duplicates,stage,wall_time_ms,allocated_bytes,peak_heap_bytes,pc,pq,f1";
+
+    public interface BenchmarkWorkflow {
+
+        void execute(BenchmarkRunner runner, List<EntityProfile> profilesD1, List<EntityProfile> profilesD2);
+    }
+
+    private boolean collectGarbage;
+
+    private int entitiesD1;
+    private int entitiesD2;
+
+    private AbstractDuplicatePropagation duplicatePropagation;
+    private PrintWriter printWriter;
+    private final String outputFilePath;
+    private String datasetName;
+    private final StringBuilder pendingRow;
+    private final SyntheticDatasetGenerator generator;
+
+    public BenchmarkRunner(SyntheticDatasetGenerator generator, String outputPath) {
+        this.generator = generator;
+        collectGarbage = true;
+        outputFilePath = outputPath;
+        pendingRow = new StringBuilder();
+    }
+
+    public void evaluateBlocks(List<AbstractBlock> blocks) {
+        duplicatePropagation.resetDuplicates();
+        final BlocksPerformance blStats = new BlocksPerformance(blocks, duplicatePropagation);
+        blStats.setStatistics();
+        writeEffectiveness(blStats.getPc(), blStats.getPq(), blStats.getFMeasure());
+    }
+
+    public void evaluateClusters(EquivalenceCluster[] clusters) {
+        duplicatePropagation.resetDuplicates();
+        final ClustersPerformance clp = new ClustersPerformance(clusters, duplicatePropagation);
+        clp.setStatistics();
+        writeEffectiveness(clp.getRecall(), clp.getPrecision(), clp.getFMeasure());
+    }
+
+    public void evaluateSimilarityPairs(SimilarityPairs simPairs) {
+        duplicatePropagation.resetDuplicates();
+        final SimPairsPerformance spp = new SimPairsPerformance(simPairs, duplicatePropagation);
+        spp.setStatistics();
+        writeEffectiveness(spp.getPc(), spp.getPq(), spp.getFMeasure());
+    }
+
+    private void flushRow() {
+        if (0 < pendingRow.length()) {
+            printWriter.println(pendingRow);
+            printWriter.flush();
+            pendingRow.setLength(0);
+        }
+    }
+
+    public AbstractDuplicatePropagation getDuplicatePropagation() {
+        return duplicatePropagation;
+    }
+
+    private static long getPeakHeapUsage() {
+        long peakUsage = 0;
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            if (pool.getType() == MemoryType.HEAP && pool.getPeakUsage() != null) {
+                peakUsage += pool.getPeakUsage().getUsed();
+            }
+        }
+        return peakUsage;
+    }
+
+    /**
+     * Executes the given stage and records its measurements.
+     *
+     * @param <T> the type of the output of the stage
+     * @param stageName the name of the stage in the results
+     * @param stage the computation of the stage
+     * @return the output of the stage
+     */
+    public <T> T measureStage(String stageName, Supplier<T> stage) {
+        flushRow();
+        if (collectGarbage) {
+            System.gc();
+        }
+        ManagementFactory.getMemoryPoolMXBeans().forEach(MemoryPoolMXBean::resetPeakUsage);
+
+        final long allocatedBytes = ThreadResources.getAllocatedBytes();
+        final long startTime = System.nanoTime();
+        final T output = stage.get();
+        final long wallTime = (System.nanoTime() - startTime) / 1000000;
+        final long stageAllocatedBytes = allocatedBytes < 0 ? -1 : ThreadResources.getAllocatedBytes() - allocatedBytes;
+        final long peakHeapUsage = getPeakHeapUsage();
+
+        Log.info(stageName + " on " + datasetName + "\t:\t" + wallTime + " ms");
+        pendingRow.append(datasetName).append(',')
+                .append(entitiesD1).append(',')
+                .append(entitiesD2).append(',')
+                .append(duplicatePropagation.getExistingDuplicates()).append(',')
+                .append(stageName.replace(',', ' ')).append(',')
+                .append(wallTime).append(',')
+                .append(stageAllocatedBytes).append(',')
+                .append(peakHeapUsage).append(",,,");
+        return output;
+    }
+
+    /**
+     * Executes the given workflow over a Dirty ER dataset or a pair of
+     * Clean-Clean ER datasets of every given size. For Dirty ER, sizesD2
+     * should be null.
+     */
+    public void run(int[] sizesD1, int[] sizesD2, BenchmarkWorkflow workflow) {
+        if (sizesD2 != null && sizesD2.length != sizesD1.length) {
+            Log.error("The sizes of the two datasets should be of equal number!");
+            return;
+        }
+
+        try {
+            printWriter = new PrintWriter(new FileWriter(outputFilePath));
+        } catch (IOException ioex) {
+            Log.error("Error in creating the results file", ioex);
+            return;
+        }
+
+        // the results file is closed even if the generation or the workflow fails
+        try {
+            printWriter.println(HEADER);
+            for (int i = 0; i < sizesD1.length; i++) {
+                entitiesD1 = sizesD1[i];
+                entitiesD2 = sizesD2 == null ? 0 : sizesD2[i];
+                datasetName = entitiesD2 == 0 ? Integer.toString(entitiesD1) : entitiesD1 + "x" + entitiesD2;
+                generator.setDatasetSizes(entitiesD1, entitiesD2);
+
+                final Set<IdDuplicates> duplicates = generator.getDuplicatePairs();
+                duplicatePropagation = generator.isCleanCleanER() ? new BilateralDuplicatePropagation(duplicates) : new UnilateralDuplicatePropagation(duplicates);
+                final List<EntityProfile> profilesD1 = measureStage("Data Generation D1", generator::getEntityProfilesD1);
+                final List<EntityProfile> profilesD2 = generator.isCleanCleanER() ? measureStage("Data Generation D2", generator::getEntityProfilesD2) : null;
+
+                workflow.execute(this, profilesD1, profilesD2);
+                flushRow();
+            }
+        } finally {
+            printWriter.close();
+            printWriter = null;
+        }
+    }
+
+    public void setCollectGarbage(boolean collectGarbage) {
+        this.collectGarbage = collectGarbage;
+    }
+
+    private void writeEffectiveness(float pc, float pq, float fMeasure) {
+        if (pendingRow.length() == 0) {
+            Log.error("No measured stage to evaluate!");
+            return;
+        }
+
+        pendingRow.setLength(pendingRow.length() - 2);
+        pendingRow.append(String.format(Locale.US, "%.6f,%.6f,%.6f", pc, pq, fMeasure));
+        flushRow();
+    }
+}
@@ -19,8 +19,7 @@ import org.scify.jedai.utilities.datastructures.AbstractDuplicatePropagation;
 import org.scify.jedai.utilities.datastructures.GroundTruthIndex;
 import org.scify.jedai.datamodel.AbstractBlock;
 import org.scify.jedai.datamodel.BilateralBlock;
-import org.scify.jedai.datamodel.Comparison;
-import org.scify.jedai.datamodel.ComparisonIterator;
+import org.scify.jedai.datamodel.ComparisonCursor;
 import org.scify.jedai.datamodel.DecomposedBlock;
 import org.scify.jedai.datamodel.IdDuplicates;
 import org.scify.jedai.datamodel.UnilateralBlock;
@@ -130,23 +129,17 @@ public class BlocksPerformance {
         final TIntSet entitiesD1 = new TIntHashSet((int) aggregateCardinality);
         if (isCleanCleanER) {
             final TIntSet entitiesD2 = new TIntHashSet((int) aggregateCardinality);
-            blocks.stream().map((block) -> block.getComparisonIterator()).forEachOrdered((iterator) -> {
-                while (iterator.hasNext()) {
-                    Comparison comparison = iterator.next();
-                    entitiesD1.add(comparison.getEntityId1());
-                    entitiesD2.add(comparison.getEntityId2());
-                }
-            });
+            blocks.forEach((block) -> block.forEachPair((entityId1, entityId2) -> {
+                entitiesD1.add(entityId1);
+                entitiesD2.add(entityId2);
+            }));
             noOfD1Entities = entitiesD1.size();
             noOfD2Entities = entitiesD2.size();
         } else {
-            blocks.stream().map((block) -> block.getComparisonIterator()).forEachOrdered((iterator) -> {
-                while (iterator.hasNext()) {
-                    Comparison comparison = iterator.next();
-                    entitiesD1.add(comparison.getEntityId1());
-                    entitiesD1.add(comparison.getEntityId2());
-                }
-            });
+            blocks.forEach((block) -> block.forEachPair((entityId1, entityId2) -> {
+                entitiesD1.add(entityId1);
+                entitiesD1.add(entityId2);
+            }));
             noOfD1Entities = entitiesD1.size();
         }
     }
@@ -157,20 +150,12 @@ public class BlocksPerformance {
 
     private void getDuplicatesOfDecomposedBlocks() {
         if (isCleanCleanER) {
-            blocks.stream().map((block) -> block.getComparisonIterator()).forEachOrdered((iterator) -> {
-                while (iterator.hasNext()) {
-                    final Comparison comp = iterator.next();
-                    abstractDP.isSuperfluous(comp.getEntityId1(), comp.getEntityId2());
-                }
-            });
+            blocks.forEach((block) -> block.forEachPair(abstractDP::isSuperfluous));
         } else {
-            blocks.stream().map((block) -> block.getComparisonIterator()).forEachOrdered((iterator) -> {
-                while (iterator.hasNext()) {
-                    final Comparison comp = iterator.next();
-                    abstractDP.isSuperfluous(comp.getEntityId1(), comp.getEntityId2());
-                    abstractDP.isSuperfluous(comp.getEntityId2(), comp.getEntityId1());
-                }
-            });
+            blocks.forEach((block) -> block.forEachPair((entityId1, entityId2) -> {
+                abstractDP.isSuperfluous(entityId1, entityId2);
+                abstractDP.isSuperfluous(entityId2, entityId1);
+            }));
         }
 
         detectedDuplicates = abstractDP.getNoOfDuplicates();
@@ -253,14 +238,13 @@ public class BlocksPerformance {
 
         abstractDP.resetDuplicates();
         for (AbstractBlock block : blocksToUse) {
-            final ComparisonIterator iterator = block.getComparisonIterator();
-            while (iterator.hasNext()) {
-                final Comparison currentComparison = iterator.next();
-                final EntityProfile profile1 = profilesD1.get(currentComparison.getEntityId1());
-                final EntityProfile profile2 = isCleanCleanER ? profilesD2.get(currentComparison.getEntityId2()) : profilesD1.get(currentComparison.getEntityId2());
+            final ComparisonCursor cursor = block.getComparisonCursor();
+            while (cursor.next()) {
+                final EntityProfile profile1 = profilesD1.get(cursor.entityId1());
+                final EntityProfile profile2 = isCleanCleanER ? profilesD2.get(cursor.entityId2()) : profilesD1.get(cursor.entityId2());
 
                 final int originalDuplicates = abstractDP.getNoOfDuplicates();
-                abstractDP.isSuperfluous(currentComparison.getEntityId1(), currentComparison.getEntityId2());
+                abstractDP.isSuperfluous(cursor.entityId1(), cursor.entityId2());
                 final int newDuplicates = abstractDP.getNoOfDuplicates();
 
                 System.out.print(profile1.getEntityUrl() + ",");
@@ -323,11 +307,7 @@ public class BlocksPerformance {
 
         abstractDP.resetDuplicates();
         for (AbstractBlock block : blocksToUse) {
-            final ComparisonIterator iterator = block.getComparisonIterator();
-            while (iterator.hasNext()) {
-                final Comparison comp = iterator.next();
-                abstractDP.isSuperfluous(comp.getEntityId1(), comp.getEntityId2());
-            }
+            block.forEachPair(abstractDP::isSuperfluous);
         }
 
         abstractDP.getFalseNegatives().forEach((duplicatesPair) -> {
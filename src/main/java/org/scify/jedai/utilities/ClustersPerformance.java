@@ -17,12 +17,16 @@ package org.scify.jedai.utilities;
 
 import org.scify.jedai.utilities.datastructures.BilateralDuplicatePropagation;
 import org.scify.jedai.utilities.datastructures.AbstractDuplicatePropagation;
+import org.scify.jedai.utilities.datastructures.DuplicatePairsIndex;
 import org.scify.jedai.datamodel.EquivalenceCluster;
 
 import com.esotericsoftware.minlog.Log;
+import gnu.trove.iterator.TIntIterator;
+import gnu.trove.list.TIntList;
 import java.io.File;
 import java.io.FileNotFoundException;
 import java.io.PrintWriter;
+import java.util.Arrays;
 import java.util.List;
 import org.scify.jedai.datamodel.EntityProfile;
 
@@ -258,7 +262,7 @@ public class ClustersPerformance {
                 totalMatches++;
                 abstractDP.isSuperfluous(entityId1, entityId2);
             }
-        } else { // Dirty ER
+        } else if (!setDirtyStatistics()) { // Dirty ER with overlapping clusters
             for (EquivalenceCluster cluster : entityClusters) {
                 final int[] duplicatesArray = cluster.getEntityIdsD1().toArray();
 
@@ -284,6 +288,51 @@ public class ClustersPerformance {
         }
     }
 
+    // probes the true matches of every member instead of all pairs of members; requires disjoint clusters
+    private boolean setDirtyStatistics() {
+        final DuplicatePairsIndex duplicatesIndex = abstractDP.getDuplicatesIndex();
+        if (!duplicatesIndex.isSymmetric()) {
+            return false;
+        }
+
+        int maxEntityId = -1;
+        for (EquivalenceCluster cluster : entityClusters) {
+            for (TIntIterator iterator = cluster.getEntityIdsD1().iterator(); iterator.hasNext();) {
+                maxEntityId = Math.max(maxEntityId, iterator.next());
+            }
+        }
+
+        final int[] clusterIds = new int[maxEntityId + 1];
+        Arrays.fill(clusterIds, -1);
+        for (int clusterId = 0; clusterId < entityClusters.length; clusterId++) {
+            for (TIntIterator iterator = entityClusters[clusterId].getEntityIdsD1().iterator(); iterator.hasNext();) {
+                final int entityId = iterator.next();
+                if (clusterIds[entityId] != -1) {
+                    return false;
+                }
+                clusterIds[entityId] = clusterId;
+            }
+        }
+
+        double noOfPairs = 0;
+        for (int clusterId = 0; clusterId < entityClusters.length; clusterId++) {
+            final TIntList entityIds = entityClusters[clusterId].getEntityIdsD1();
+            noOfPairs += entityIds.size() * (entityIds.size() - 1.0) / 2;
+            for (TIntIterator iterator = entityIds.iterator(); iterator.hasNext();) {
+                final int entityId = iterator.next();
+                final int lastIndex = duplicatesIndex.getMatchesEnd(entityId);
+                for (int i = duplicatesIndex.getMatchesStart(entityId); i < lastIndex; i++) {
+                    final int matchId = duplicatesIndex.getMatch(i);
+                    if (entityId < matchId && matchId <= maxEntityId && clusterIds[matchId] == clusterId) {
+                        abstractDP.isSuperfluous(entityId, matchId);
+                    }
+                }
+            }
+        }
+        totalMatches = (float) noOfPairs;
+        return true;
+    }
+
     private void setStatisticsWithoutGroundtruth() {
         totalMatches = 0;
         if (isCleanCleanER()) {
@@ -13,7 +13,10 @@ public final class DBUtils {
     /** 
      * Creates and returns and database connection. This method parses the specified DB URL and 
      * attempts to infer a database dialect from that URL.
-     * <p>The only supported databases are MySQL and PostgreSQL.
+     * <p>The supported databases are MySQL and PostgreSQL, as well as the embedded databases
+     * H2, Derby and SQLite, whose drivers should be in the classpath.
+     * <p>MySQL connections fetch the rows with server-side cursors, whenever a statement has a
+     * positive fetch size, so that large result sets are streamed.
      * <p>All checked exceptions are translated into runtime exceptions.
      * 
      * @param dbURL portion of the JDBC connection string
@@ -31,7 +34,7 @@ public final class DBUtils {
         try {
             if (dbURL.startsWith("mysql")) {
                 Class.forName("com.mysql.jdbc.Driver");
-                return DriverManager.getConnection("jdbc:" + dbURL + "?user=" + dbUser + "&password=" + dbPassword);
+                return DriverManager.getConnection("jdbc:" + dbURL + "?user=" + dbUser + "&password=" + dbPassword + "&useCursorFetch=true");
             } else if (dbURL.startsWith("postgresql")) {
                 final Properties props = new Properties();
                 props.setProperty("user", dbUser);
@@ -40,8 +43,10 @@ public final class DBUtils {
                     props.setProperty("ssl", "true");
                 }
                 return DriverManager.getConnection("jdbc:" + dbURL, props);
+            } else if (dbURL.startsWith("h2") || dbURL.startsWith("derby") || dbURL.startsWith("sqlite")) {
+                return DriverManager.getConnection("jdbc:" + dbURL, dbUser, dbPassword);
             } else {
-                throw new IllegalStateException("Only MySQL and PostgreSQL are supported for the time being.");
+                throw new IllegalStateException("Only MySQL, PostgreSQL, H2, Derby and SQLite are supported for the time being.");
             }
         } catch (RuntimeException e) {
             throw e;
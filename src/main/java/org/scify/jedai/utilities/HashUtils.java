@@ -0,0 +1,44 @@
+/*
+* Copyright [2016-2020] [George Papadakis (gpapadis@yahoo.gr)]
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+*    http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+ */
+package org.scify.jedai.utilities;
+
+/**
+ * Hashing static utility methods, which are shared by the text models and the
+ * block building methods.
+ *
+ * @author G.A.P. II
+ */
+public final class HashUtils {
+
+    private HashUtils() {
+    }
+
+    /**
+     * The finalizer of MurmurHash3, which spreads the bits of the given value,
+     * so that similar inputs yield unrelated outputs.
+     *
+     * @param value the value to be mixed
+     * @return a 64-bit hash of the given value
+     */
+    public static long mix(long value) {
+        value ^= value >>> 33;
+        value *= 0xFF51AFD7ED558CCDL;
+        value ^= value >>> 33;
+        value *= 0xC4CEB93FE1A85A53L;
+        value ^= value >>> 33;
+        return value;
+    }
+}
@@ -0,0 +1,434 @@
+/*
+* Copyright [2016-2020] [George Papadakis (gpapadis@yahoo.gr)]
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+*    http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+ */
+package org.scify.jedai.utilities;
+
+import com.esotericsoftware.minlog.Log;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.SplittableRandom;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+import org.scify.jedai.datamodel.EntityProfile;
+import org.scify.jedai.datamodel.IdDuplicates;
+
+/**
+ * Generates synthetic entity profiles along with their ground truth, for
+ * Dirty as well as for Clean-Clean ER. Every profile comprises the following
+ * attributes:
+ * <ol>
+ * <li>"name", with 2 to 5 tokens,</li>
+ * <li>"description", with 5 to 20 tokens,</li>
+ * <li>"code", an alphanumeric identifier of 8 characters, and</li>
+ * <li>"year", a number between 1900 and 2020.</li>
+ * </ol>
+ * The tokens of names and descriptions are drawn from a vocabulary of
+ * pseudo-words whose frequencies follow a Zipf distribution.
+ *
+ * A dataset consists of original profiles and their duplicates. Every
+ * duplicate copies its original and applies the following noise models to it:
+ * every attribute is missing with the missing value rate, every token is
+ * deleted, replaced by another token or swapped with its next one with the
+ * token noise rate and every token contains a typo with the typo rate. A typo
+ * is a random insertion, deletion, substitution or transposition of
+ * characters. In Dirty ER, the duplicates are assigned to the originals in a
+ * round-robin fashion, so that a duplicate ratio above 0.5 yields clusters
+ * with more than two profiles. In Clean-Clean ER, the duplicate ratio
+ * determines the portion of the smallest dataset that has a match in the other
+ * one.
+ *
+ * Every profile is derived from a random generator that is seeded with the
+ * global seed and the id of its content, while the order of the profiles in
+ * every dataset is a pseudo-random permutation. Thus, any profile and the
+ * ground truth are generated independently of the rest, in parallel or as
+ * streams, and the same seed always yields the same datasets.
+ *
+ * @author G.A.P. II
+ */
+public class SyntheticDatasetGenerator {
+
+    private static final int CODE_LENGTH = 8;
+    private static final int MAX_DESCRIPTION_TOKENS = 20;
+    private static final int MAX_NAME_TOKENS = 5;
+    private static final int MIN_DESCRIPTION_TOKENS = 5;
+    private static final int MIN_NAME_TOKENS = 2;
+
+    private static final String ALPHANUMERICS = "abcdefghijklmnopqrstuvwxyz0123456789";
+    private static final String[] ATTRIBUTE_NAMES = {"name", "description", "code", "year"};
+    private static final String CONSONANTS = "bcdfghjklmnprstvz";
+    private static final String VOWELS = "aeiou";
+
+    private boolean cleanCleanER;
+
+    private float duplicateRatio;
+    private float missingValueRate;
+    private float tokenNoiseRate;
+    private float typoRate;
+    private float zipfExponent;
+
+    private int datasetSizeD1;
+    private int datasetSizeD2;
+    private int vocabularySize;
+
+    private long seed;
+
+    private double[] cumulativeFrequencies;
+    private String[] vocabulary;
+
+    public SyntheticDatasetGenerator(int noOfEntities) {
+        this(noOfEntities, 0);
+    }
+
+    public SyntheticDatasetGenerator(int sizeD1, int sizeD2) {
+        cleanCleanER = 0 < sizeD2;
+        datasetSizeD1 = sizeD1;
+        datasetSizeD2 = sizeD2;
+        duplicateRatio = 0.2f;
+        missingValueRate = 0.1f;
+        seed = 42;
+        tokenNoiseRate = 0.1f;
+        typoRate = 0.1f;
+        vocabularySize = 100000;
+        zipfExponent = 1.0f;
+    }
+
+    private String applyTypo(String token, SplittableRandom random) {
+        final StringBuilder sb = new StringBuilder(token);
+        final int position = random.nextInt(sb.length());
+        final char character = ALPHANUMERICS.charAt(random.nextInt(26));
+        switch (random.nextInt(4)) {
+            case 0:
+                sb.insert(position, character);
+                break;
+            case 1:
+                if (1 < sb.length()) {
+                    sb.deleteCharAt(position);
+                }
+                break;
+            case 2:
+                sb.setCharAt(position, character);
+                break;
+            default:
+                if (position + 1 < sb.length()) {
+                    final char current = sb.charAt(position);
+                    sb.setCharAt(position, sb.charAt(position + 1));
+                    sb.setCharAt(position + 1, current);
+                }
+                break;
+        }
+        return sb.toString();
+    }
+
+    private String[] getContent(long contentId) {
+        final SplittableRandom random = new SplittableRandom(mix(seed, contentId));
+        final String[] values = new String[ATTRIBUTE_NAMES.length];
+        values[0] = getTokens(MIN_NAME_TOKENS + random.nextInt(MAX_NAME_TOKENS - MIN_NAME_TOKENS + 1), random);
+        values[1] = getTokens(MIN_DESCRIPTION_TOKENS + random.nextInt(MAX_DESCRIPTION_TOKENS - MIN_DESCRIPTION_TOKENS + 1), random);
+
+        final char[] code = new char[CODE_LENGTH];
+        for (int i = 0; i < CODE_LENGTH; i++) {
+            code[i] = ALPHANUMERICS.charAt(random.nextInt(ALPHANUMERICS.length()));
+        }
+        values[2] = new String(code);
+        values[3] = Integer.toString(1900 + random.nextInt(121));
+        return values;
+    }
+
+    /**
+     * Generates the ground truth on the fly. For Dirty ER, every pair of
+     * profiles in the same cluster is returned once, with the smallest id
+     * first. For Clean-Clean ER, the first id of every pair belongs to the
+     * first dataset.
+     *
+     * @return a stream with all pairs of matching profiles
+     */
+    public Stream<IdDuplicates> getDuplicatePairStream() {
+        if (cleanCleanER) {
+            return IntStream.range(0, getNoOfMatches())
+                    .mapToObj(i -> new IdDuplicates(getPosition(i, datasetSizeD1, 1), getPosition(i, datasetSizeD2, 2)));
+        }
+
+        final int noOfOriginals = getNoOfOriginals();
+        final int noOfDuplicates = datasetSizeD1 - noOfOriginals;
+        return IntStream.range(0, Math.min(noOfOriginals, noOfDuplicates)).boxed()
+                .flatMap(originalId -> {
+                    // the original and its duplicates, in the order of their logical ids
+                    final int clusterSize = 1 + (noOfDuplicates - originalId + noOfOriginals - 1) / noOfOriginals;
+                    final int[] positions = new int[clusterSize];
+                    for (int i = 0; i < clusterSize; i++) {
+                        positions[i] = getPosition(originalId + i * noOfOriginals, datasetSizeD1, 1);
+                    }
+                    Arrays.sort(positions);
+
+                    final Stream.Builder<IdDuplicates> pairs = Stream.builder();
+                    for (int i = 0; i < clusterSize; i++) {
+                        for (int j = i + 1; j < clusterSize; j++) {
+                            pairs.add(new IdDuplicates(positions[i], positions[j]));
+                        }
+                    }
+                    return pairs.build();
+                });
+    }
+
+    public Set<IdDuplicates> getDuplicatePairs() {
+        return getDuplicatePairStream().parallel().collect(Collectors.toCollection(HashSet::new));
+    }
+
+    /**
+     * @param entityId the id of the profile in its dataset
+     * @param firstDataset true for Dirty ER and the first dataset of
+     * Clean-Clean ER
+     * @return the profile with the given id
+     */
+    public EntityProfile getEntityProfile(int entityId, boolean firstDataset) {
+        initializeVocabulary();
+        final int datasetId = firstDataset ? 1 : 2;
+        final int logicalId = getLogicalId(entityId, firstDataset ? datasetSizeD1 : datasetSizeD2, datasetId);
+
+        long contentId;
+        boolean isDuplicate;
+        if (cleanCleanER) {
+            isDuplicate = !firstDataset && logicalId < getNoOfMatches();
+            contentId = firstDataset || isDuplicate ? logicalId : (long) datasetSizeD1 + logicalId;
+        } else {
+            final int noOfOriginals = getNoOfOriginals();
+            isDuplicate = noOfOriginals <= logicalId;
+            contentId = logicalId % noOfOriginals;
+        }
+
+        final String[] values = getContent(contentId);
+        if (isDuplicate) {
+            final SplittableRandom random = new SplittableRandom(mix(~seed, ((long) datasetId << 32) | logicalId));
+            for (int i = 0; i < values.length; i++) {
+                if (random.nextDouble() < missingValueRate) {
+                    values[i] = null;
+                } else {
+                    values[i] = getNoisyValue(values[i], random);
+                }
+            }
+        }
+
+        final EntityProfile profile = new EntityProfile("D" + datasetId + ":" + entityId);
+        for (int i = 0; i < values.length; i++) {
+            if (values[i] != null && !values[i].isEmpty()) {
+                profile.addAttribute(ATTRIBUTE_NAMES[i], values[i]);
+            }
+        }
+        return profile;
+    }
+
+    public List<EntityProfile> getEntityProfilesD1() {
+        return getEntityProfileStreamD1().parallel().collect(Collectors.toList());
+    }
+
+    public List<EntityProfile> getEntityProfilesD2() {
+        if (!cleanCleanER) {
+            return null;
+        }
+        return getEntityProfileStreamD2().parallel().collect(Collectors.toList());
+    }
+
+    /**
+     * @return a stream with the profiles of Dirty ER or of the first dataset
+     * of Clean-Clean ER, in the order of their ids
+     */
+    public Stream<EntityProfile> getEntityProfileStreamD1() {
+        return IntStream.range(0, datasetSizeD1).mapToObj(i -> getEntityProfile(i, true));
+    }
+
+    /**
+     * @return a stream with the profiles of the second dataset of Clean-Clean
+     * ER, in the order of their ids, or an empty stream for Dirty ER
+     */
+    public Stream<EntityProfile> getEntityProfileStreamD2() {
+        return IntStream.range(0, cleanCleanER ? datasetSizeD2 : 0).mapToObj(i -> getEntityProfile(i, false));
+    }
+
+    // the logical ids follow the generation of the datasets: first the originals, then the duplicates
+    private int getLogicalId(int position, int datasetSize, int datasetId) {
+        return permute(position, datasetSize, datasetId, false);
+    }
+
+    private String getNoisyValue(String value, SplittableRandom random) {
+        final String[] tokens = value.split(" ");
+        final StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < tokens.length; i++) {
+            String token = tokens[i];
+            if (random.nextDouble() < tokenNoiseRate) {
+                switch (random.nextInt(3)) {
+                    case 0:
+                        continue;
+                    case 1:
+                        token = getToken(random);
+                        break;
+                    default:
+                        if (i + 1 < tokens.length) {
+                            tokens[i] = tokens[i + 1];
+                            tokens[i + 1] = token;
+                            token = tokens[i];
+                        }
+                        break;
+                }
+            }
+            if (random.nextDouble() < typoRate) {
+                token = applyTypo(token, random);
+            }
+            if (0 < sb.length()) {
+                sb.append(' ');
+            }
+            sb.append(token);
+        }
+        return sb.toString();
+    }
+
+    public int getNoOfMatches() {
+        return Math.round(duplicateRatio * Math.min(datasetSizeD1, datasetSizeD2));
+    }
+
+    private int getNoOfOriginals() {
+        return Math.max(1, Math.round((1 - duplicateRatio) * datasetSizeD1));
+    }
+
+    private int getPosition(int logicalId, int datasetSize, int datasetId) {
+        return permute(logicalId, datasetSize, datasetId, true);
+    }
+
+    private String getToken(SplittableRandom random) {
+        int index = Arrays.binarySearch(cumulativeFrequencies, random.nextDouble());
+        if (index < 0) {
+            index = -index - 1;
+        }
+        return vocabulary[Math.min(index, vocabularySize - 1)];
+    }
+
+    private String getTokens(int noOfTokens, SplittableRandom random) {
+        final StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < noOfTokens; i++) {
+            if (0 < i) {
+                sb.append(' ');
+            }
+            sb.append(getToken(random));
+        }
+        return sb.toString();
+    }
+
+    // pseudo-words of alternating consonants and vowels, with frequencies that follow a Zipf distribution
+    private synchronized void initializeVocabulary() {
+        if (vocabulary != null) {
+            return;
+        }
+
+        vocabulary = new String[vocabularySize];
+        cumulativeFrequencies = new double[vocabularySize];
+        double totalFrequency = 0;
+        for (int rank = 0; rank < vocabularySize; rank++) {
+            final SplittableRandom random = new SplittableRandom(mix(seed, -1 - rank));
+            final int length = 3 + random.nextInt(7);
+            final char[] word = new char[length];
+            for (int i = 0; i < length; i++) {
+                word[i] = i % 2 == 0 ? CONSONANTS.charAt(random.nextInt(CONSONANTS.length())) : VOWELS.charAt(random.nextInt(VOWELS.length()));
+            }
+            vocabulary[rank] = new String(word);
+
+            totalFrequency += 1.0 / Math.pow(rank + 1, zipfExponent);
+            cumulativeFrequencies[rank] = totalFrequency;
+        }
+        for (int rank = 0; rank < vocabularySize; rank++) {
+            cumulativeFrequencies[rank] /= totalFrequency;
+        }
+    }
+
+    public boolean isCleanCleanER() {
+        return cleanCleanER;
+    }
+
+    private static long mix(long value1, long value2) {
+        return HashUtils.mix(value1 ^ HashUtils.mix(value2));
+    }
+
+    // a balanced Feistel network over the smallest even number of bits that covers the dataset, with cycle walking
+    private int permute(int value, int datasetSize, int datasetId, boolean inverse) {
+        int halfBits = 1;
+        while ((1L << (2 * halfBits)) < datasetSize) {
+            halfBits++;
+        }
+        final int mask = (1 << halfBits) - 1;
+
+        int result = value;
+        do {
+            int left = result >>> halfBits;
+            int right = result & mask;
+            for (int round = 0; round < 4; round++) {
+                final int key = inverse ? 3 - round : round;
+                final int roundValue = (int) mix(seed + datasetId, ((long) key << 32) | (inverse ? left : right)) & mask;
+                if (inverse) {
+                    final int previousRight = left;
+                    left = right ^ roundValue;
+                    right = previousRight;
+                } else {
+                    final int newRight = left ^ roundValue;
+                    left = right;
+                    right = newRight;
+                }
+            }
+            result = (left << halfBits) | right;
+        } while (result < 0 || datasetSize <= result);
+        return result;
+    }
+
+    public void setDatasetSizes(int sizeD1, int sizeD2) {
+        cleanCleanER = 0 < sizeD2;
+        datasetSizeD1 = sizeD1;
+        datasetSizeD2 = sizeD2;
+    }
+
+    public void setDuplicateRatio(float duplicateRatio) {
+        if (duplicateRatio < 0 || 1 <= duplicateRatio) {
+            Log.error("The duplicate ratio should be in [0, 1)!");
+            return;
+        }
+        this.duplicateRatio = duplicateRatio;
+    }
+
+    public void setMissingValueRate(float missingValueRate) {
+        this.missingValueRate = missingValueRate;
+    }
+
+    public synchronized void setSeed(long seed) {
+        this.seed = seed;
+        vocabulary = null;
+    }
+
+    public void setTokenNoiseRate(float tokenNoiseRate) {
+        this.tokenNoiseRate = tokenNoiseRate;
+    }
+
+    public void setTypoRate(float typoRate) {
+        this.typoRate = typoRate;
+    }
+
+    public synchronized void setVocabularySize(int vocabularySize) {
+        this.vocabularySize = vocabularySize;
+        vocabulary = null;
+    }
+
+    public synchronized void setZipfExponent(float zipfExponent) {
+        this.zipfExponent = zipfExponent;
+        vocabulary = null;
+    }
+}
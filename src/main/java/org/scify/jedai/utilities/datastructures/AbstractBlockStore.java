@@ -0,0 +1,155 @@
+/*
+* Copyright [2016-2020] [George Papadakis (gpapadis@yahoo.gr)]
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+*    http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+ */
+package org.scify.jedai.utilities.datastructures;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import org.scify.jedai.datamodel.AbstractBlock;
+
+/**
+ * The block-level metadata that is shared by all block stores, i.e., the inner
+ * sizes of every block in increasing number of comparisons, along with the
+ * statistics of the entire collection.
+ *
+ * @author G.A.P. II
+ */
+public abstract class AbstractBlockStore implements IBlockStore {
+
+    protected boolean cleanCleanER;
+
+    protected int noOfEntitiesD1;
+    protected int noOfEntitiesD2;
+    protected long totalAssignments;
+    protected long totalComparisons;
+
+    protected int[] innerSizes1;
+    protected int[] innerSizes2;
+
+    @Override
+    public void close() {
+    }
+
+    @Override
+    public List<AbstractBlock> getBlocks() {
+        final List<AbstractBlock> blocks = new ArrayList<>(size());
+        for (int i = 0; i < size(); i++) {
+            blocks.add(getBlock(i));
+        }
+        return blocks;
+    }
+
+    @Override
+    public int getInnerSize1(int position) {
+        return innerSizes1[position];
+    }
+
+    @Override
+    public int getInnerSize2(int position) {
+        return innerSizes2[position];
+    }
+
+    @Override
+    public long getNoOfComparisons(int position) {
+        if (cleanCleanER) {
+            return ((long) innerSizes1[position]) * innerSizes2[position];
+        }
+        return ((long) innerSizes1[position]) * (innerSizes1[position] - 1) / 2;
+    }
+
+    @Override
+    public int getNoOfEntitiesD1() {
+        return noOfEntitiesD1;
+    }
+
+    @Override
+    public int getNoOfEntitiesD2() {
+        return noOfEntitiesD2;
+    }
+
+    /**
+     * @param noOfComparisons the number of comparisons of every block, in the
+     * order of addition
+     * @return the indices of the blocks in increasing number of comparisons,
+     * with ties broken by their indices; the comparisons are compared as
+     * floats, like in IncBlockCardinalityComparator
+     */
+    protected static int[] getSizeOrder(long[] noOfComparisons) {
+        // non-negative floats have the same order as their bits
+        final long[] keys = new long[noOfComparisons.length];
+        for (int i = 0; i < keys.length; i++) {
+            keys[i] = ((long) Float.floatToIntBits(noOfComparisons[i]) << 32) | i;
+        }
+        Arrays.parallelSort(keys);
+
+        final int[] order = new int[keys.length];
+        for (int i = 0; i < keys.length; i++) {
+            order[i] = (int) keys[i];
+        }
+        return order;
+    }
+
+    @Override
+    public long getTotalAssignments() {
+        return totalAssignments;
+    }
+
+    @Override
+    public long getTotalComparisons() {
+        return totalComparisons;
+    }
+
+    @Override
+    public boolean isCleanCleanER() {
+        return cleanCleanER;
+    }
+
+    @Override
+    public Iterator<AbstractBlock> iterator() {
+        return new Iterator<AbstractBlock>() {
+            private int position = 0;
+
+            @Override
+            public boolean hasNext() {
+                return position < size();
+            }
+
+            @Override
+            public AbstractBlock next() {
+                if (size() <= position) {
+                    throw new NoSuchElementException();
+                }
+                return getBlock(position++);
+            }
+        };
+    }
+
+    protected void setStatistics() {
+        totalAssignments = 0;
+        totalComparisons = 0;
+        for (int i = 0; i < innerSizes1.length; i++) {
+            totalAssignments += innerSizes1[i] + innerSizes2[i];
+            totalComparisons += getNoOfComparisons(i);
+        }
+    }
+
+    @Override
+    public int size() {
+        return innerSizes1.length;
+    }
+}
@@ -27,10 +27,19 @@ import org.scify.jedai.datamodel.EquivalenceCluster;
 public abstract class AbstractDuplicatePropagation {
 
     protected final int existingDuplicates;
+    protected final DuplicatePairsIndex duplicatesIndex;
     protected final Set<IdDuplicates> duplicates;
 
+    /**
+     * Indexes the given matches as ordered pairs, like in Clean-Clean ER.
+     */
     public AbstractDuplicatePropagation(Set<IdDuplicates> matches) {
+        this(matches, false);
+    }
+
+    public AbstractDuplicatePropagation(Set<IdDuplicates> matches, boolean symmetricMatches) {
         duplicates = matches;
+        duplicatesIndex = new DuplicatePairsIndex(matches, symmetricMatches);
         existingDuplicates = duplicates.size();
     }
 
@@ -53,4 +62,8 @@ public abstract class AbstractDuplicatePropagation {
     public Set<IdDuplicates> getDuplicates() {
         return duplicates;
     }
+
+    public DuplicatePairsIndex getDuplicatesIndex() {
+        return duplicatesIndex;
+    }
 }
@@ -34,7 +34,7 @@ public class BilateralDuplicatePropagation extends AbstractDuplicatePropagation
     private final TIntSet entities2;
 
     public BilateralDuplicatePropagation(Set<IdDuplicates> matches) {
-        super(matches);
+        super(matches, false);
         entities1 = new TIntHashSet(2 * existingDuplicates);
         entities2 = new TIntHashSet(2 * existingDuplicates);
     }
@@ -87,8 +87,7 @@ public class BilateralDuplicatePropagation extends AbstractDuplicatePropagation
             return true;
         }
 
-        final IdDuplicates tempDuplicates = new IdDuplicates(entityId1, entityId2);
-        if (duplicates.contains(tempDuplicates)) {
+        if (duplicatesIndex.contains(entityId1, entityId2)) {
             entities1.add(entityId1);
             entities2.add(entityId2);
         }
@@ -0,0 +1,410 @@
+/*
+* Copyright [2016-2020] [George Papadakis (gpapadis@yahoo.gr)]
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+*    http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+ */
+package org.scify.jedai.utilities.datastructures;
+
+import com.esotericsoftware.minlog.Log;
+import gnu.trove.list.TFloatList;
+import gnu.trove.list.TIntList;
+import gnu.trove.list.TLongList;
+import gnu.trove.list.array.TFloatArrayList;
+import gnu.trove.list.array.TIntArrayList;
+import gnu.trove.list.array.TLongArrayList;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.function.Consumer;
+import org.scify.jedai.datamodel.AbstractBlock;
+import org.scify.jedai.datamodel.BilateralBlock;
+import org.scify.jedai.datamodel.UnilateralBlock;
+
+/**
+ * A block store on disk, which keeps in memory only the block-level metadata,
+ * i.e., the inner sizes, the entropy and the location of every block, and
+ * loads the entities of a block on demand.
+ *
+ * The store consists of two files: the data file, at the given path, and the
+ * index file, at the same path with the suffix ".index". The data file is
+ * divided into segments of at most maxSegmentSize bytes, which are
+ * memory-mapped for reading. Every block is a record within a segment that
+ * contains its entity ids, first those of the first dataset and then those of
+ * the second one, each id encoded as the zig-zag varint of its difference from
+ * the previous one. Thus, sorted ids typically take 1-2 bytes, while their
+ * order is preserved in any case. The records are sorted in increasing number
+ * of comparisons, so iterating over the store reads the data file
+ * sequentially. The index file contains the statistics of the collection, the
+ * segment boundaries and the metadata of every block in the same order.
+ *
+ * The stores are created with a Writer, which can be used as the consumer of
+ * the blocks of a block processing method, too. The mapped segments are
+ * released when the store is garbage collected.
+ *
+ * @author G.A.P. II
+ */
+public class DiskBlockStore extends AbstractBlockStore {
+
+    public static final int DEFAULT_SEGMENT_SIZE = 1 << 30;
+    public static final String INDEX_SUFFIX = ".index";
+
+    private static final int MAGIC_NUMBER = 0x4A424C53;
+    private static final int VERSION = 1;
+
+    private final float[] entropies;
+    private final int[] offsets;
+    private final int[] segmentIds;
+    private MappedByteBuffer[] segments;
+
+    private DiskBlockStore(DataInputStream index, FileChannel data) throws IOException {
+        if (index.readInt() != MAGIC_NUMBER || index.readInt() != VERSION) {
+            throw new IOException("Invalid or incompatible index file");
+        }
+
+        cleanCleanER = index.readBoolean();
+        noOfEntitiesD1 = index.readInt();
+        noOfEntitiesD2 = index.readInt();
+
+        final long[] segmentStarts = new long[index.readInt() + 1];
+        for (int i = 0; i < segmentStarts.length; i++) {
+            segmentStarts[i] = index.readLong();
+        }
+        segments = mapSegments(data, segmentStarts);
+
+        final int noOfBlocks = index.readInt();
+        entropies = new float[noOfBlocks];
+        innerSizes1 = new int[noOfBlocks];
+        innerSizes2 = new int[noOfBlocks];
+        offsets = new int[noOfBlocks];
+        segmentIds = new int[noOfBlocks];
+        for (int i = 0; i < noOfBlocks; i++) {
+            segmentIds[i] = index.readInt();
+            offsets[i] = index.readInt();
+            innerSizes1[i] = index.readInt();
+            innerSizes2[i] = index.readInt();
+            entropies[i] = index.readFloat();
+        }
+        setStatistics();
+    }
+
+    @Override
+    public void close() {
+        segments = null;
+    }
+
+    @Override
+    public AbstractBlock getBlock(int position) {
+        final ByteBuffer segment = segments[segmentIds[position]];
+        final int[] entityIds1 = new int[innerSizes1[position]];
+        final int offset = readIds(segment, offsets[position], entityIds1);
+        if (cleanCleanER) {
+            final int[] entityIds2 = new int[innerSizes2[position]];
+            readIds(segment, offset, entityIds2);
+            return new BilateralBlock(entropies[position], entityIds1, entityIds2);
+        }
+        return new UnilateralBlock(entropies[position], entityIds1);
+    }
+
+    /**
+     * @param path the path of the data file of the store
+     * @return the store, or null if it cannot be read
+     */
+    public static DiskBlockStore open(String path) {
+        try (DataInputStream index = new DataInputStream(new BufferedInputStream(new FileInputStream(path + INDEX_SUFFIX)));
+                FileChannel data = FileChannel.open(Paths.get(path), StandardOpenOption.READ)) {
+            return new DiskBlockStore(index, data);
+        } catch (IOException ex) {
+            Log.error("Error in reading the block store " + path, ex);
+            return null;
+        }
+    }
+
+    // returns the offset after the last id
+    private static int readIds(ByteBuffer segment, int offset, int[] entityIds) {
+        int previousId = 0;
+        for (int i = 0; i < entityIds.length; i++) {
+            int shift = 0;
+            int value = 0;
+            byte currentByte;
+            do {
+                currentByte = segment.get(offset++);
+                value |= (currentByte & 0x7F) << shift;
+                shift += 7;
+            } while (currentByte < 0);
+
+            previousId += (value >>> 1) ^ -(value & 1);
+            entityIds[i] = previousId;
+        }
+        return offset;
+    }
+
+    private static MappedByteBuffer[] mapSegments(FileChannel data, long[] segmentStarts) throws IOException {
+        final MappedByteBuffer[] mappedSegments = new MappedByteBuffer[segmentStarts.length - 1];
+        for (int i = 0; i < mappedSegments.length; i++) {
+            mappedSegments[i] = data.map(FileChannel.MapMode.READ_ONLY, segmentStarts[i], segmentStarts[i + 1] - segmentStarts[i]);
+        }
+        return mappedSegments;
+    }
+
+    /**
+     * Appends records to a data file, starting a new segment whenever a record
+     * does not fit in the current one.
+     */
+    private static class SegmentedOutput implements Closeable {
+
+        private final int maxSegmentSize;
+        private long position;
+        private long segmentStart;
+
+        private final OutputStream output;
+        private final TLongList segmentStarts;
+
+        SegmentedOutput(String path, int maxSegmentSize) throws IOException {
+            this.maxSegmentSize = maxSegmentSize;
+            output = new BufferedOutputStream(new FileOutputStream(path), 1 << 16);
+            position = 0;
+            segmentStart = 0;
+            segmentStarts = new TLongArrayList();
+            segmentStarts.add(0);
+        }
+
+        // returns the segment id in the upper 32 bits and the offset in the lower ones
+        long append(byte[] record, int length) throws IOException {
+            if (maxSegmentSize < position - segmentStart + length) {
+                segmentStart = position;
+                segmentStarts.add(position);
+            }
+            output.write(record, 0, length);
+            final long location = ((long) (segmentStarts.size() - 1) << 32) | (position - segmentStart);
+            position += length;
+            return location;
+        }
+
+        @Override
+        public void close() throws IOException {
+            output.close();
+        }
+
+        // the start of every segment and the end of the last one
+        long[] getSegmentBoundaries() {
+            final long[] boundaries = Arrays.copyOf(segmentStarts.toArray(), segmentStarts.size() + 1);
+            boundaries[segmentStarts.size()] = position;
+            return boundaries;
+        }
+    }
+
+    /**
+     * Writes a block store. The blocks are first appended to a temporary file
+     * in the order they are given. When the writer is closed, they are copied
+     * to the data file in increasing number of comparisons and the index file
+     * is written. Only the metadata of the blocks are kept in memory. The
+     * writer is not thread-safe.
+     */
+    public static class Writer implements Closeable, Consumer<AbstractBlock> {
+
+        private boolean cleanCleanER;
+
+        private final int maxSegmentSize;
+        private int noOfEntitiesD1;
+        private int noOfEntitiesD2;
+
+        private byte[] buffer;
+
+        private final String path;
+        private final TFloatList entropies;
+        private final TIntList innerSizes1;
+        private final TIntList innerSizes2;
+        private final TIntList recordLengths;
+        private final TLongList locations;
+        private SegmentedOutput temporaryOutput;
+
+        public Writer(String path) {
+            this(path, DEFAULT_SEGMENT_SIZE);
+        }
+
+        public Writer(String path, int maxSegmentSize) {
+            this.path = path;
+            this.maxSegmentSize = maxSegmentSize;
+
+            buffer = new byte[1024];
+            entropies = new TFloatArrayList();
+            innerSizes1 = new TIntArrayList();
+            innerSizes2 = new TIntArrayList();
+            recordLengths = new TIntArrayList();
+            locations = new TLongArrayList();
+            noOfEntitiesD1 = 0;
+            noOfEntitiesD2 = 0;
+
+            try {
+                temporaryOutput = new SegmentedOutput(getTemporaryPath(), maxSegmentSize);
+            } catch (IOException ex) {
+                Log.error("Error in creating the block store " + path, ex);
+            }
+        }
+
+        @Override
+        public void accept(AbstractBlock block) {
+            if (temporaryOutput == null) {
+                Log.error("The block store is not open for writing!");
+                return;
+            }
+
+            final boolean isBilateral = block instanceof BilateralBlock;
+            if (!isBilateral && !(block instanceof UnilateralBlock)) {
+                Log.error("Only unilateral and bilateral blocks can be stored!");
+                return;
+            }
+            if (locations.isEmpty()) {
+                cleanCleanER = isBilateral;
+            } else if (cleanCleanER != isBilateral) {
+                Log.error("Unilateral and bilateral blocks cannot be stored together!");
+                return;
+            }
+
+            final int[] entityIds1 = isBilateral ? ((BilateralBlock) block).getIndex1Entities() : ((UnilateralBlock) block).getEntities();
+            final int[] entityIds2 = isBilateral ? ((BilateralBlock) block).getIndex2Entities() : new int[0];
+            final int maxLength = 5 * (entityIds1.length + entityIds2.length);
+            if (buffer.length < maxLength) {
+                buffer = new byte[Math.max(maxLength, 2 * buffer.length)];
+            }
+
+            int length = writeIds(entityIds1, 0);
+            length = writeIds(entityIds2, length);
+            if (maxSegmentSize < length) {
+                Log.error("The block exceeds the maximum segment size!");
+                return;
+            }
+
+            try {
+                locations.add(temporaryOutput.append(buffer, length));
+            } catch (IOException ex) {
+                Log.error("Error in writing the block store " + path, ex);
+                return;
+            }
+
+            entropies.add(block.getEntropy());
+            innerSizes1.add(entityIds1.length);
+            innerSizes2.add(entityIds2.length);
+            recordLengths.add(length);
+            for (int entityId : entityIds1) {
+                noOfEntitiesD1 = Math.max(noOfEntitiesD1, entityId + 1);
+            }
+            for (int entityId : entityIds2) {
+                noOfEntitiesD2 = Math.max(noOfEntitiesD2, entityId + 1);
+            }
+        }
+
+        /**
+         * Copies the blocks to the data file in increasing number of
+         * comparisons and writes the index file. The store can then be opened
+         * with DiskBlockStore.open.
+         */
+        @Override
+        public void close() {
+            if (temporaryOutput == null) {
+                return;
+            }
+
+            final File temporaryFile = new File(getTemporaryPath());
+            try {
+                temporaryOutput.close();
+                final long[] temporaryBoundaries = temporaryOutput.getSegmentBoundaries();
+                temporaryOutput = null;
+
+                final long[] noOfComparisons = new long[locations.size()];
+                for (int i = 0; i < noOfComparisons.length; i++) {
+                    noOfComparisons[i] = cleanCleanER ? ((long) innerSizes1.get(i)) * innerSizes2.get(i)
+                            : ((long) innerSizes1.get(i)) * (innerSizes1.get(i) - 1) / 2;
+                }
+                final int[] order = getSizeOrder(noOfComparisons);
+
+                final long[] dataBoundaries;
+                final long[] sortedLocations = new long[order.length];
+                try (FileChannel temporaryData = FileChannel.open(temporaryFile.toPath(), StandardOpenOption.READ);
+                        SegmentedOutput dataOutput = new SegmentedOutput(path, maxSegmentSize)) {
+                    final MappedByteBuffer[] temporarySegments = mapSegments(temporaryData, temporaryBoundaries);
+                    for (int i = 0; i < order.length; i++) {
+                        final long location = locations.get(order[i]);
+                        final ByteBuffer record = temporarySegments[(int) (location >>> 32)].duplicate();
+                        record.position((int) location);
+                        record.get(buffer, 0, recordLengths.get(order[i]));
+                        sortedLocations[i] = dataOutput.append(buffer, recordLengths.get(order[i]));
+                    }
+                    dataBoundaries = dataOutput.getSegmentBoundaries();
+                }
+                writeIndex(order, sortedLocations, dataBoundaries);
+            } catch (IOException ex) {
+                Log.error("Error in writing the block store " + path, ex);
+            } finally {
+                temporaryFile.delete();
+            }
+        }
+
+        private String getTemporaryPath() {
+            return path + ".tmp";
+        }
+
+        private void writeIndex(int[] order, long[] sortedLocations, long[] segmentBoundaries) throws IOException {
+            try (DataOutputStream index = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(path + INDEX_SUFFIX)))) {
+                index.writeInt(MAGIC_NUMBER);
+                index.writeInt(VERSION);
+                index.writeBoolean(cleanCleanER);
+                index.writeInt(noOfEntitiesD1);
+                index.writeInt(noOfEntitiesD2);
+
+                index.writeInt(segmentBoundaries.length - 1);
+                for (long boundary : segmentBoundaries) {
+                    index.writeLong(boundary);
+                }
+
+                index.writeInt(order.length);
+                for (int i = 0; i < order.length; i++) {
+                    index.writeInt((int) (sortedLocations[i] >>> 32));
+                    index.writeInt((int) sortedLocations[i]);
+                    index.writeInt(innerSizes1.get(order[i]));
+                    index.writeInt(innerSizes2.get(order[i]));
+                    index.writeFloat(entropies.get(order[i]));
+                }
+            }
+        }
+
+        // returns the length of the record after the given ids
+        private int writeIds(int[] entityIds, int offset) {
+            int previousId = 0;
+            for (int entityId : entityIds) {
+                final int difference = entityId - previousId;
+                int value = (difference << 1) ^ (difference >> 31);
+                while ((value & ~0x7F) != 0) {
+                    buffer[offset++] = (byte) ((value & 0x7F) | 0x80);
+                    value >>>= 7;
+                }
+                buffer[offset++] = (byte) value;
+                previousId = entityId;
+            }
+            return offset;
+        }
+    }
+}
@@ -0,0 +1,199 @@
+/*
+* Copyright [2016-2020] [George Papadakis (gpapadis@yahoo.gr)]
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+*    http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+ */
+package org.scify.jedai.utilities.datastructures;
+
+import java.util.Arrays;
+import java.util.Set;
+import org.scify.jedai.datamodel.IdDuplicates;
+import org.scify.jedai.utilities.HashUtils;
+
+/**
+ * A primitive index of the ground truth. Every pair of duplicates is packed
+ * into a long, with the first entity id in the upper 32 bits and the second
+ * one in the lower ones, and is stored in an open-addressing hash table with
+ * linear probing. For Dirty ER, the pairs are symmetric, so they are stored
+ * with the smallest id first and every look-up is normalized in the same way.
+ *
+ * Most of the evaluated pairs are not duplicates, so every look-up first
+ * checks a blocked Bloom filter, i.e., 3 bits in a single 64-bit word, with
+ * 16 bits per pair; about 1% of the non-matching pairs reach the hash table.
+ *
+ * The index also stores the matches of every entity of the first dataset (or
+ * of every entity, for Dirty ER) in a compressed sparse row layout, so that
+ * equivalence clusters are evaluated by probing the matches of their members
+ * instead of all pairs of members.
+ *
+ * @author G.A.P. II
+ */
+public class DuplicatePairsIndex {
+
+    private static final long EMPTY = -1L;
+
+    private final boolean symmetric;
+    private final int bloomMask;
+    private final int noOfPairs;
+    private final int tableMask;
+
+    private final int[] matchIds;
+    private final int[] matchOffsets;
+    private final long[] bloomFilter;
+    private final long[] table;
+
+    public DuplicatePairsIndex(Set<IdDuplicates> duplicates, boolean symmetric) {
+        this.symmetric = symmetric;
+
+        final int capacity = Integer.highestOneBit(Math.max(2, 2 * duplicates.size() - 1)) << 1;
+        tableMask = capacity - 1;
+        table = new long[capacity];
+        Arrays.fill(table, EMPTY);
+
+        final int bloomWords = Integer.highestOneBit(Math.max(1, duplicates.size() / 4 - 1)) << 1;
+        bloomMask = bloomWords - 1;
+        bloomFilter = new long[bloomWords];
+
+        int maxEntityId = -1;
+        int pairs = 0;
+        for (IdDuplicates pair : duplicates) {
+            final long key = getKey(pair.getEntityId1(), pair.getEntityId2());
+            if (add(key)) {
+                pairs++;
+                maxEntityId = Math.max(maxEntityId, pair.getEntityId1());
+                if (symmetric) {
+                    maxEntityId = Math.max(maxEntityId, pair.getEntityId2());
+                }
+            }
+        }
+        noOfPairs = pairs;
+
+        // the matches of every entity
+        matchOffsets = new int[maxEntityId + 2];
+        for (long key : table) {
+            if (key != EMPTY) {
+                matchOffsets[(int) (key >>> 32) + 1]++;
+                if (symmetric) {
+                    matchOffsets[(int) key + 1]++;
+                }
+            }
+        }
+        for (int i = 0; i <= maxEntityId; i++) {
+            matchOffsets[i + 1] += matchOffsets[i];
+        }
+
+        matchIds = new int[matchOffsets[maxEntityId + 1]];
+        final int[] nextIndices = Arrays.copyOf(matchOffsets, maxEntityId + 1);
+        for (long key : table) {
+            if (key != EMPTY) {
+                final int entityId1 = (int) (key >>> 32);
+                final int entityId2 = (int) key;
+                matchIds[nextIndices[entityId1]++] = entityId2;
+                if (symmetric) {
+                    matchIds[nextIndices[entityId2]++] = entityId1;
+                }
+            }
+        }
+    }
+
+    private boolean add(long key) {
+        final long hash = HashUtils.mix(key);
+        bloomFilter[(int) hash & bloomMask] |= getBloomBits(hash);
+
+        int slot = (int) (hash >>> 32) & tableMask;
+        while (table[slot] != EMPTY) {
+            if (table[slot] == key) {
+                return false;
+            }
+            slot = (slot + 1) & tableMask;
+        }
+        table[slot] = key;
+        return true;
+    }
+
+    /**
+     * @return true if the given entities are duplicates; for Clean-Clean ER,
+     * the first id should belong to the first dataset
+     */
+    public boolean contains(int entityId1, int entityId2) {
+        if (entityId1 < 0 || entityId2 < 0) {
+            return false;
+        }
+
+        final long key = getKey(entityId1, entityId2);
+        final long hash = HashUtils.mix(key);
+        final long bloomBits = getBloomBits(hash);
+        if ((bloomFilter[(int) hash & bloomMask] & bloomBits) != bloomBits) {
+            return false;
+        }
+
+        int slot = (int) (hash >>> 32) & tableMask;
+        while (table[slot] != EMPTY) {
+            if (table[slot] == key) {
+                return true;
+            }
+            slot = (slot + 1) & tableMask;
+        }
+        return false;
+    }
+
+    private static long getBloomBits(long hash) {
+        return (1L << (hash >>> 58)) | (1L << ((hash >>> 52) & 63)) | (1L << ((hash >>> 46) & 63));
+    }
+
+    private long getKey(int entityId1, int entityId2) {
+        if (symmetric && entityId2 < entityId1) {
+            return pack(entityId2, entityId1);
+        }
+        return pack(entityId1, entityId2);
+    }
+
+    /**
+     * @param index a position in [getMatchesStart(entityId),
+     * getMatchesEnd(entityId))
+     * @return the id of the corresponding match of the entity
+     */
+    public int getMatch(int index) {
+        return matchIds[index];
+    }
+
+    public int getMatchesEnd(int entityId) {
+        if (entityId < 0 || matchOffsets.length - 1 <= entityId) {
+            return 0;
+        }
+        return matchOffsets[entityId + 1];
+    }
+
+    public int getMatchesStart(int entityId) {
+        if (entityId < 0 || matchOffsets.length - 1 <= entityId) {
+            return 0;
+        }
+        return matchOffsets[entityId];
+    }
+
+    /**
+     * @return the number of distinct pairs of duplicates; for Dirty ER, the
+     * two orientations of a pair count once
+     */
+    public int getNoOfPairs() {
+        return noOfPairs;
+    }
+
+    public boolean isSymmetric() {
+        return symmetric;
+    }
+
+    public static long pack(int entityId1, int entityId2) {
+        return ((long) entityId1 << 32) | (entityId2 & 0xFFFFFFFFL);
+    }
+}
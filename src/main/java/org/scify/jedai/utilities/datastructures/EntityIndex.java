@@ -57,9 +57,34 @@ public class EntityIndex implements Serializable {
 
         firstPass(blocks);
         if (cleanCleanER) {
-            indexBilateralEntities();
+            indexBilateralEntities(blocks);
         } else {
-            indexUnilateralEntities();
+            indexUnilateralEntities(blocks);
+        }
+    }
+
+    /**
+     * Indexes the blocks of the given store, whose metadata provide the
+     * statistics of the first pass. The blocks are loaded twice, but are not
+     * retained, so getBilateralBlocks and getUnilateralBlocks return null and
+     * the block ids refer to the positions of the blocks in the store.
+     */
+    public EntityIndex(IBlockStore blocks) {
+        if (blocks.size() == 0) {
+            System.err.println("Entity index received an empty block collection as input!");
+            return;
+        }
+
+        cleanCleanER = blocks.isCleanCleanER();
+        datasetLimit = cleanCleanER ? blocks.getNoOfEntitiesD1() : 0;
+        noOfBlocks = blocks.size();
+        noOfEntities = blocks.getNoOfEntitiesD1() + blocks.getNoOfEntitiesD2();
+        totalAssignments = blocks.getTotalAssignments();
+        totalComparisons = blocks.getTotalComparisons();
+        if (cleanCleanER) {
+            indexBilateralEntities(blocks);
+        } else {
+            indexUnilateralEntities(blocks);
         }
     }
 
@@ -166,10 +191,11 @@ public class EntityIndex implements Serializable {
         return entityBlocks;
     }
 
-    private void indexBilateralEntities() {
+    private void indexBilateralEntities(Iterable<AbstractBlock> blocks) {
         final int[] counters = new int[noOfEntities];
         entityComparisons = new float[noOfEntities];
-        for (BilateralBlock block : bBlocks) {
+        for (AbstractBlock aBlock : blocks) {
+            final BilateralBlock block = (BilateralBlock) aBlock;
             int innerSize1 = block.getIndex1Entities().length;
             int innerSize2 = block.getIndex2Entities().length;
             for (int id1 : block.getIndex1Entities()) {
@@ -193,7 +219,8 @@ public class EntityIndex implements Serializable {
 
         //build inverted index
         int counter = 0;
-        for (BilateralBlock block : bBlocks) {
+        for (AbstractBlock aBlock : blocks) {
+            final BilateralBlock block = (BilateralBlock) aBlock;
             for (int id1 : block.getIndex1Entities()) {
                 entityBlocks[id1][counters[id1]] = counter;
                 counters[id1]++;
@@ -208,11 +235,12 @@ public class EntityIndex implements Serializable {
         }
     }
 
-    private void indexUnilateralEntities() {
+    private void indexUnilateralEntities(Iterable<AbstractBlock> blocks) {
         //count valid entities & blocks per entity
         final int[] counters = new int[noOfEntities];
         entityComparisons = new float[noOfEntities];
-        for (UnilateralBlock block : uBlocks) {
+        for (AbstractBlock aBlock : blocks) {
+            final UnilateralBlock block = (UnilateralBlock) aBlock;
             int blockSize = block.getEntities().length;
             for (int id : block.getEntities()) {
                 counters[id]++;
@@ -229,7 +257,8 @@ public class EntityIndex implements Serializable {
 
         //build inverted index
         int counter = 0;
-        for (UnilateralBlock block : uBlocks) {
+        for (AbstractBlock aBlock : blocks) {
+            final UnilateralBlock block = (UnilateralBlock) aBlock;
             for (int id : block.getEntities()) {
                 entityBlocks[id][counters[id]] = counter;
                 counters[id]++;
@@ -0,0 +1,83 @@
+/*
+* Copyright [2016-2020] [George Papadakis (gpapadis@yahoo.gr)]
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+*    http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+ */
+package org.scify.jedai.utilities.datastructures;
+
+import java.io.Closeable;
+import java.util.List;
+import org.scify.jedai.datamodel.AbstractBlock;
+
+/**
+ * A read-only collection of unilateral or bilateral blocks, which are ordered
+ * in increasing number of comparisons, like with IncBlockCardinalityComparator,
+ * with ties broken by the order in which they were added. The size of every
+ * block is available without accessing its entities, so that statistics and
+ * thresholds are computed without loading the blocks.
+ *
+ * @author G.A.P. II
+ */
+public interface IBlockStore extends Closeable, Iterable<AbstractBlock> {
+
+    /**
+     * @param position the position of a block in increasing number of
+     * comparisons
+     * @return the block, which is loaded on every call for stores that are
+     * not kept in memory
+     */
+    AbstractBlock getBlock(int position);
+
+    /**
+     * @return all blocks in a list, i.e., in memory
+     */
+    List<AbstractBlock> getBlocks();
+
+    /**
+     * @param position the position of a block in increasing number of
+     * comparisons
+     * @return the number of entities of the block from the first dataset, or
+     * of all its entities for Dirty ER
+     */
+    int getInnerSize1(int position);
+
+    /**
+     * @param position the position of a block in increasing number of
+     * comparisons
+     * @return the number of entities of the block from the second dataset, or
+     * 0 for Dirty ER
+     */
+    int getInnerSize2(int position);
+
+    long getNoOfComparisons(int position);
+
+    /**
+     * @return the largest entity id of the first dataset plus 1, or of all
+     * entities for Dirty ER
+     */
+    int getNoOfEntitiesD1();
+
+    /**
+     * @return the largest entity id of the second dataset plus 1, or 0 for
+     * Dirty ER
+     */
+    int getNoOfEntitiesD2();
+
+    long getTotalAssignments();
+
+    long getTotalComparisons();
+
+    boolean isCleanCleanER();
+
+    int size();
+}
@@ -0,0 +1,76 @@
+/*
+* Copyright [2016-2020] [George Papadakis (gpapadis@yahoo.gr)]
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+*    http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+ */
+package org.scify.jedai.utilities.datastructures;
+
+import java.util.List;
+import org.scify.jedai.datamodel.AbstractBlock;
+import org.scify.jedai.datamodel.BilateralBlock;
+import org.scify.jedai.datamodel.UnilateralBlock;
+
+/**
+ * A block store over a list of blocks in memory, which is not modified. The
+ * blocks are returned in increasing number of comparisons.
+ *
+ * @author G.A.P. II
+ */
+public class InMemoryBlockStore extends AbstractBlockStore {
+
+    private final AbstractBlock[] sortedBlocks;
+
+    public InMemoryBlockStore(List<AbstractBlock> blocks) {
+        cleanCleanER = !blocks.isEmpty() && blocks.get(0) instanceof BilateralBlock;
+
+        final long[] noOfComparisons = new long[blocks.size()];
+        for (int i = 0; i < noOfComparisons.length; i++) {
+            noOfComparisons[i] = blocks.get(i).getNoOfComparisons();
+        }
+        final int[] order = getSizeOrder(noOfComparisons);
+
+        noOfEntitiesD1 = 0;
+        noOfEntitiesD2 = 0;
+        innerSizes1 = new int[order.length];
+        innerSizes2 = new int[order.length];
+        sortedBlocks = new AbstractBlock[order.length];
+        for (int i = 0; i < order.length; i++) {
+            sortedBlocks[i] = blocks.get(order[i]);
+            if (cleanCleanER) {
+                final BilateralBlock bBlock = (BilateralBlock) sortedBlocks[i];
+                innerSizes1[i] = bBlock.getIndex1Entities().length;
+                innerSizes2[i] = bBlock.getIndex2Entities().length;
+                noOfEntitiesD1 = Math.max(noOfEntitiesD1, getMaxEntityId(bBlock.getIndex1Entities()) + 1);
+                noOfEntitiesD2 = Math.max(noOfEntitiesD2, getMaxEntityId(bBlock.getIndex2Entities()) + 1);
+            } else {
+                final UnilateralBlock uBlock = (UnilateralBlock) sortedBlocks[i];
+                innerSizes1[i] = uBlock.getEntities().length;
+                noOfEntitiesD1 = Math.max(noOfEntitiesD1, getMaxEntityId(uBlock.getEntities()) + 1);
+            }
+        }
+        setStatistics();
+    }
+
+    @Override
+    public AbstractBlock getBlock(int position) {
+        return sortedBlocks[position];
+    }
+
+    private static int getMaxEntityId(int[] entityIds) {
+        int maxId = -1;
+        for (int entityId : entityIds) {
+            maxId = Math.max(maxId, entityId);
+        }
+        return maxId;
+    }
+}
@@ -0,0 +1,225 @@
+/*
+* Copyright [2016-2020] [George Papadakis (gpapadis@yahoo.gr)]
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+*    http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+ */
+package org.scify.jedai.utilities.datastructures;
+
+import java.util.Arrays;
+
+/**
+ * Builds the suffix array of a text over an integer alphabet in linear time,
+ * through the induced sorting algorithm (SA-IS) of Nong, Zhang and Chan, along
+ * with the longest common prefix (LCP) of the consecutive suffixes, through the
+ * algorithm of Kasai et al. No sentinel is required at the end of the text.
+ *
+ * @author G.A.P. II
+ */
+public final class SuffixArray {
+
+    private static final int NAIVE_THRESHOLD = 10;
+
+    private SuffixArray() {
+    }
+
+    /**
+     * @param text the symbols of the text
+     * @param suffixArray the suffix array of the text
+     * @return the length of the longest common prefix of every suffix in the
+     * suffix array with the next one; it has one element less than the text
+     */
+    public static int[] getLcpArray(int[] text, int[] suffixArray) {
+        final int n = text.length;
+        final int[] rank = new int[n];
+        for (int i = 0; i < n; i++) {
+            rank[suffixArray[i]] = i;
+        }
+
+        final int[] lcp = new int[Math.max(0, n - 1)];
+        int h = 0;
+        for (int i = 0; i < n; i++) {
+            if (0 < h) {
+                h--;
+            }
+            if (rank[i] == 0) {
+                continue;
+            }
+
+            int j = suffixArray[rank[i] - 1];
+            while (j + h < n && i + h < n && text[j + h] == text[i + h]) {
+                h++;
+            }
+            lcp[rank[i] - 1] = h;
+        }
+        return lcp;
+    }
+
+    /**
+     * @param text the symbols of the text, in [0, maxSymbol]
+     * @param maxSymbol the largest symbol of the alphabet
+     * @return the start positions of all suffixes of the text, in
+     * lexicographic order
+     */
+    public static int[] getSuffixArray(int[] text, int maxSymbol) {
+        final int n = text.length;
+        if (n < NAIVE_THRESHOLD) {
+            return getNaiveSuffixArray(text);
+        }
+
+        // ls[i] is true for S-type suffixes, i.e., smaller than the next one
+        final boolean[] ls = new boolean[n];
+        for (int i = n - 2; 0 <= i; i--) {
+            ls[i] = text[i] == text[i + 1] ? ls[i + 1] : text[i] < text[i + 1];
+        }
+
+        // the starts of the L-type and the S-type buckets of every symbol
+        final int[] sumL = new int[maxSymbol + 2];
+        final int[] sumS = new int[maxSymbol + 2];
+        for (int i = 0; i < n; i++) {
+            if (!ls[i]) {
+                sumS[text[i]]++;
+            } else {
+                sumL[text[i] + 1]++;
+            }
+        }
+        for (int i = 0; i <= maxSymbol; i++) {
+            sumS[i] += sumL[i];
+            if (i < maxSymbol) {
+                sumL[i + 1] += sumS[i];
+            }
+        }
+
+        final int[] lmsMap = new int[n + 1];
+        Arrays.fill(lmsMap, -1);
+        int m = 0;
+        for (int i = 1; i < n; i++) {
+            if (!ls[i - 1] && ls[i]) {
+                lmsMap[i] = m++;
+            }
+        }
+        final int[] lms = new int[m];
+        for (int i = 1, j = 0; i < n; i++) {
+            if (!ls[i - 1] && ls[i]) {
+                lms[j++] = i;
+            }
+        }
+
+        final int[] suffixArray = new int[n];
+        induce(text, maxSymbol, ls, sumL, sumS, lms, suffixArray);
+
+        if (0 < m) {
+            // name the sorted LMS substrings and sort them recursively, if needed
+            final int[] sortedLms = new int[m];
+            int noOfSortedLms = 0;
+            for (int v : suffixArray) {
+                if (lmsMap[v] != -1) {
+                    sortedLms[noOfSortedLms++] = v;
+                }
+            }
+
+            final int[] reducedText = new int[m];
+            int reducedMaxSymbol = 0;
+            reducedText[lmsMap[sortedLms[0]]] = 0;
+            for (int i = 1; i < m; i++) {
+                int l = sortedLms[i - 1];
+                int r = sortedLms[i];
+                final int endL = lmsMap[l] + 1 < m ? lms[lmsMap[l] + 1] : n;
+                final int endR = lmsMap[r] + 1 < m ? lms[lmsMap[r] + 1] : n;
+                boolean same = true;
+                if (endL - l != endR - r) {
+                    same = false;
+                } else {
+                    while (l < endL && text[l] == text[r]) {
+                        l++;
+                        r++;
+                    }
+                    if (l == n || text[l] != text[r]) {
+                        same = false;
+                    }
+                }
+                if (!same) {
+                    reducedMaxSymbol++;
+                }
+                reducedText[lmsMap[sortedLms[i]]] = reducedMaxSymbol;
+            }
+
+            final int[] reducedSuffixArray = getSuffixArray(reducedText, reducedMaxSymbol);
+            for (int i = 0; i < m; i++) {
+                sortedLms[i] = lms[reducedSuffixArray[i]];
+            }
+            induce(text, maxSymbol, ls, sumL, sumS, sortedLms, suffixArray);
+        }
+        return suffixArray;
+    }
+
+    private static int[] getNaiveSuffixArray(int[] text) {
+        final int n = text.length;
+        final Integer[] suffixes = new Integer[n];
+        for (int i = 0; i < n; i++) {
+            suffixes[i] = i;
+        }
+        Arrays.sort(suffixes, (l, r) -> {
+            if (l.equals(r)) {
+                return 0;
+            }
+
+            int i = l;
+            int j = r;
+            while (i < n && j < n) {
+                if (text[i] != text[j]) {
+                    return Integer.compare(text[i], text[j]);
+                }
+                i++;
+                j++;
+            }
+            return i == n ? -1 : 1;
+        });
+
+        final int[] suffixArray = new int[n];
+        for (int i = 0; i < n; i++) {
+            suffixArray[i] = suffixes[i];
+        }
+        return suffixArray;
+    }
+
+    // induces the order of all suffixes from the given order of the LMS suffixes
+    private static void induce(int[] text, int maxSymbol, boolean[] ls, int[] sumL, int[] sumS, int[] lms, int[] suffixArray) {
+        final int n = text.length;
+        Arrays.fill(suffixArray, -1);
+
+        final int[] buffer = new int[maxSymbol + 2];
+        System.arraycopy(sumS, 0, buffer, 0, buffer.length);
+        for (int d : lms) {
+            if (d != n) {
+                suffixArray[buffer[text[d]]++] = d;
+            }
+        }
+
+        System.arraycopy(sumL, 0, buffer, 0, buffer.length);
+        suffixArray[buffer[text[n - 1]]++] = n - 1;
+        for (int i = 0; i < n; i++) {
+            final int v = suffixArray[i];
+            if (1 <= v && !ls[v - 1]) {
+                suffixArray[buffer[text[v - 1]]++] = v - 1;
+            }
+        }
+
+        System.arraycopy(sumL, 0, buffer, 0, buffer.length);
+        for (int i = n - 1; 0 <= i; i--) {
+            final int v = suffixArray[i];
+            if (1 <= v && ls[v - 1]) {
+                suffixArray[--buffer[text[v - 1] + 1]] = v - 1;
+            }
+        }
+    }
+}
@@ -15,6 +15,9 @@
  */
 package org.scify.jedai.utilities.datastructures;
 
+import gnu.trove.iterator.TLongIterator;
+import gnu.trove.set.TLongSet;
+import gnu.trove.set.hash.TLongHashSet;
 import java.util.ArrayList;
 import org.scify.jedai.datamodel.IdDuplicates;
 import java.util.HashSet;
@@ -30,11 +33,12 @@ import org.scify.jedai.utilities.graph.UndirectedGraph;
  */
 public class UnilateralDuplicatePropagation extends AbstractDuplicatePropagation {
 
-    private final Set<IdDuplicates> detectedDuplicates;
+    // the detected pairs, packed with the smallest id first
+    private final TLongSet detectedDuplicates;
 
     public UnilateralDuplicatePropagation(Set<IdDuplicates> matches) {
-        super(matches);
-        detectedDuplicates = new HashSet<>(2 * matches.size());
+        super(matches, true);
+        detectedDuplicates = new TLongHashSet(2 * matches.size());
     }
 
     private List<EquivalenceCluster> getClusters(UndirectedGraph similarityGraph) {
@@ -64,25 +68,26 @@ public class UnilateralDuplicatePropagation extends AbstractDuplicatePropagation
     @Override
     public List<EquivalenceCluster> getDetectedEquivalenceClusters() {
         int noOfEntities = 0;
-        for (IdDuplicates duplicatePair : detectedDuplicates) {
-            noOfEntities = Math.max(noOfEntities, duplicatePair.getEntityId1());
-            noOfEntities = Math.max(noOfEntities, duplicatePair.getEntityId2());
+        for (TLongIterator iterator = detectedDuplicates.iterator(); iterator.hasNext();) {
+            noOfEntities = Math.max(noOfEntities, (int) iterator.next());
         }
 
         final UndirectedGraph similarityGraph = new UndirectedGraph(noOfEntities + 1);
-        detectedDuplicates.forEach((duplicatePair) -> {
-            similarityGraph.addEdge(duplicatePair.getEntityId1(), duplicatePair.getEntityId2());
-        });
+        for (TLongIterator iterator = detectedDuplicates.iterator(); iterator.hasNext();) {
+            final long duplicatePair = iterator.next();
+            similarityGraph.addEdge((int) (duplicatePair >>> 32), (int) duplicatePair);
+        }
 
         return getClusters(similarityGraph);
     }
 
     @Override
     public Set<IdDuplicates> getFalseNegatives() {
-        final Set<IdDuplicates> falseNegatives = new HashSet<>(duplicates);
-        falseNegatives.removeAll(detectedDuplicates);
-        for (IdDuplicates pair : detectedDuplicates) {
-            falseNegatives.remove(new IdDuplicates(pair.getEntityId2(), pair.getEntityId1()));
+        final Set<IdDuplicates> falseNegatives = new HashSet<>();
+        for (IdDuplicates pair : duplicates) {
+            if (!detectedDuplicates.contains(getKey(pair.getEntityId1(), pair.getEntityId2()))) {
+                falseNegatives.add(pair);
+            }
         }
         return falseNegatives;
     }
@@ -108,27 +113,20 @@ public class UnilateralDuplicatePropagation extends AbstractDuplicatePropagation
         return getClusters(similarityGraph);
     }
 
-    @Override
+    private static long getKey(int entityId1, int entityId2) {
+        if (entityId1 < entityId2) {
+            return DuplicatePairsIndex.pack(entityId1, entityId2);
+        }
+        return DuplicatePairsIndex.pack(entityId2, entityId1);
+    }
 
+    @Override
     public boolean isSuperfluous(int entityId1, int entityId2) {
-        final IdDuplicates duplicatePair1 = new IdDuplicates(entityId1, entityId2);
-        final IdDuplicates duplicatePair2 = new IdDuplicates(entityId2, entityId1);
-        
-        if (detectedDuplicates.contains(duplicatePair1)
-                || detectedDuplicates.contains(duplicatePair2)) {
-            return true;
-        }
-        
-        if (duplicates.contains(duplicatePair1)
-                || duplicates.contains(duplicatePair2)) {
-            if (entityId1 < entityId2) {
-                detectedDuplicates.add(duplicatePair1);
-            } else {
-                detectedDuplicates.add(duplicatePair2);
-            }
+        if (!duplicatesIndex.contains(entityId1, entityId2)) {
+            return false;
         }
 
-        return false;
+        return !detectedDuplicates.add(getKey(entityId1, entityId2));
     }
 
     @Override
@@ -0,0 +1,30 @@
+/*
+* Copyright [2016-2020] [George Papadakis (gpapadis@yahoo.gr)]
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+*    http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+ */
+package org.scify.jedai.utilities.enumerations;
+
+/**
+ * The ways in which a workflow stage can be executed by an ExecutionPlan.
+ *
+ * @author G.A.P. II
+ */
+public enum ExecutionVariant {
+    // the input and output of the stage are kept in main memory
+    IN_MEMORY,
+    // the blocks are spilled to a DiskBlockStore and are streamed from it
+    DISK_BLOCK_STORE,
+    // the stage is split among the workers of a PartitionedExecution
+    PARTITIONED
+}
@@ -18,6 +18,7 @@ package org.scify.jedai.utilities.enumerations;
 import org.scify.jedai.textmodels.CharacterNGramGraphs;
 import org.scify.jedai.textmodels.CharacterNGrams;
 import org.scify.jedai.textmodels.CharacterNGramsWithGlobalWeights;
+import org.scify.jedai.textmodels.HashedCharacterNGrams;
 import org.scify.jedai.textmodels.ITextModel;
 import org.scify.jedai.textmodels.TokenNGramGraphs;
 import org.scify.jedai.textmodels.TokenNGrams;
@@ -34,12 +35,15 @@ public enum RepresentationModel {
     CHARACTER_BIGRAMS,
     CHARACTER_BIGRAMS_TF_IDF,
     CHARACTER_BIGRAM_GRAPHS,
+    CHARACTER_BIGRAMS_HASHED,
     CHARACTER_TRIGRAMS,
     CHARACTER_TRIGRAMS_TF_IDF,
     CHARACTER_TRIGRAM_GRAPHS,
+    CHARACTER_TRIGRAMS_HASHED,
     CHARACTER_FOURGRAMS,
     CHARACTER_FOURGRAMS_TF_IDF,
     CHARACTER_FOURGRAM_GRAPHS,
+    CHARACTER_FOURGRAMS_HASHED,
     TOKEN_UNIGRAMS,
     TOKEN_UNIGRAMS_TF_IDF,
     TOKEN_UNIGRAM_GRAPHS,
@@ -60,18 +64,24 @@ public enum RepresentationModel {
                 return new CharacterNGramsWithGlobalWeights(dId, 2, model, simMetric, instanceName);
             case CHARACTER_BIGRAM_GRAPHS:
                 return new CharacterNGramGraphs(dId, 2, model, simMetric, instanceName);
+            case CHARACTER_BIGRAMS_HASHED:
+                return new HashedCharacterNGrams(dId, 2, model, simMetric, instanceName);
             case CHARACTER_FOURGRAMS:
                 return new CharacterNGrams(dId, 4, model, simMetric, instanceName);
             case CHARACTER_FOURGRAMS_TF_IDF:
                 return new CharacterNGramsWithGlobalWeights(dId, 4, model, simMetric, instanceName);
             case CHARACTER_FOURGRAM_GRAPHS:
                 return new CharacterNGramGraphs(dId, 4, model, simMetric, instanceName);
+            case CHARACTER_FOURGRAMS_HASHED:
+                return new HashedCharacterNGrams(dId, 4, model, simMetric, instanceName);
             case CHARACTER_TRIGRAMS:
                 return new CharacterNGrams(dId, 3, model, simMetric, instanceName);
             case CHARACTER_TRIGRAMS_TF_IDF:
                 return new CharacterNGramsWithGlobalWeights(dId, 3, model, simMetric, instanceName);
             case CHARACTER_TRIGRAM_GRAPHS:
                 return new CharacterNGramGraphs(dId, 3, model, simMetric, instanceName);
+            case CHARACTER_TRIGRAMS_HASHED:
+                return new HashedCharacterNGrams(dId, 3, model, simMetric, instanceName);
             case TOKEN_BIGRAMS:
                 return new TokenNGrams(dId, 2, model, simMetric, instanceName);
             case TOKEN_BIGRAMS_TF_IDF:
@@ -99,6 +109,21 @@ public enum RepresentationModel {
         }
     }
 
+    /**
+     * @return true for the models that approximate the n-grams of the
+     * corresponding exact model with their hashes
+     */
+    public static boolean isHashedModel(RepresentationModel model) {
+        switch (model) {
+            case CHARACTER_BIGRAMS_HASHED:
+            case CHARACTER_TRIGRAMS_HASHED:
+            case CHARACTER_FOURGRAMS_HASHED:
+                return true;
+            default:
+                return false;
+        }
+    }
+
     public static void resetGlobalValues(int datasetId, RepresentationModel model) {
         switch (model) {
             case CHARACTER_BIGRAMS_TF_IDF:
@@ -121,6 +146,11 @@ public enum RepresentationModel {
             case CHARACTER_FOURGRAM_GRAPHS:
                 CharacterNGramGraphs.resetGlobalValues(datasetId);
                 break;
+            case CHARACTER_BIGRAMS_HASHED:
+            case CHARACTER_TRIGRAMS_HASHED:
+            case CHARACTER_FOURGRAMS_HASHED:
+                HashedCharacterNGrams.resetGlobalValues(datasetId);
+                break;
             case TOKEN_BIGRAMS:
             case TOKEN_TRIGRAMS:
             case TOKEN_UNIGRAMS:
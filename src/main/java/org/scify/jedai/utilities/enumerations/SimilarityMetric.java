@@ -39,8 +39,11 @@ public enum SimilarityMetric {
         final List<SimilarityMetric> simMetrics = new ArrayList<>();
         switch (model) {
             case CHARACTER_BIGRAMS:
+            case CHARACTER_BIGRAMS_HASHED:
             case CHARACTER_FOURGRAMS:
+            case CHARACTER_FOURGRAMS_HASHED:
             case CHARACTER_TRIGRAMS:
+            case CHARACTER_TRIGRAMS_HASHED:
             case TOKEN_BIGRAMS:
             case TOKEN_TRIGRAMS:
             case TOKEN_UNIGRAMS:
@@ -90,18 +93,24 @@ public enum SimilarityMetric {
                 return GRAPH_VALUE_SIMILARITY;
             case CHARACTER_BIGRAMS_TF_IDF:
                 return COSINE_SIMILARITY;
+            case CHARACTER_BIGRAMS_HASHED:
+                return JACCARD_SIMILARITY;
             case CHARACTER_FOURGRAMS:
                 return JACCARD_SIMILARITY;
             case CHARACTER_FOURGRAM_GRAPHS:
                 return GRAPH_VALUE_SIMILARITY;
             case CHARACTER_FOURGRAMS_TF_IDF:
                 return COSINE_SIMILARITY;
+            case CHARACTER_FOURGRAMS_HASHED:
+                return JACCARD_SIMILARITY;
             case CHARACTER_TRIGRAMS:
                 return JACCARD_SIMILARITY;
             case CHARACTER_TRIGRAM_GRAPHS:
                 return GRAPH_VALUE_SIMILARITY;
             case CHARACTER_TRIGRAMS_TF_IDF:
                 return COSINE_SIMILARITY;
+            case CHARACTER_TRIGRAMS_HASHED:
+                return JACCARD_SIMILARITY;
             case TOKEN_BIGRAMS:
                 return COSINE_SIMILARITY;
             case TOKEN_BIGRAMS_TF_IDF:
@@ -0,0 +1,198 @@
+/*
+* Copyright [2016-2020] [George Papadakis (gpapadis@yahoo.gr)]
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+*    http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+ */
+package org.scify.jedai.utilities.graph;
+
+import java.util.Arrays;
+
+/**
+ * A flow network over an undirected, weighted graph, implemented with
+ * primitive arrays: every edge is stored as a pair of opposite arcs in
+ * adjacency arrays (compressed sparse rows). Maximum flows are computed with
+ * Dinic's algorithm, using an explicit stack instead of recursion. After every
+ * flow computation, the <em>onSourceSide</em> operation determines the minimal
+ * source side of the minimum cut, i.e., the vertices that remain reachable from
+ * the source in the residual network.
+ *
+ * @author G.A.P. II
+ */
+public class DinicMaxFlow {
+
+    private static final double EPSILON = 1e-9;
+
+    private final int noOfVertices;
+
+    private final int[] arcStart; // arcStart[v] = first arc leaving vertex v
+    private final int[] arcTarget;
+    private final int[] reverseArc;
+    private final double[] capacity;
+    private final double[] residual;
+
+    private final int[] level;
+    private final int[] nextArc;
+    private final int[] queue;
+    private final int[] pathArcs;
+
+    /**
+     * Initializes the flow network of the given undirected edges.
+     *
+     * @param vertices the number of vertices, whose ids range from 0 to vertices-1
+     * @param sources the first vertex of every edge
+     * @param targets the second vertex of every edge
+     * @param capacities the capacity of every edge
+     * @param edges the number of edges
+     */
+    public DinicMaxFlow(int vertices, int[] sources, int[] targets, double[] capacities, int edges) {
+        noOfVertices = vertices;
+        arcStart = new int[vertices + 1];
+        for (int e = 0; e < edges; e++) {
+            arcStart[sources[e] + 1]++;
+            arcStart[targets[e] + 1]++;
+        }
+        for (int v = 1; v <= vertices; v++) {
+            arcStart[v] += arcStart[v - 1];
+        }
+
+        final int noOfArcs = 2 * edges;
+        arcTarget = new int[noOfArcs];
+        reverseArc = new int[noOfArcs];
+        capacity = new double[noOfArcs];
+        residual = new double[noOfArcs];
+
+        final int[] position = new int[vertices];
+        System.arraycopy(arcStart, 0, position, 0, vertices);
+        for (int e = 0; e < edges; e++) {
+            int arc1 = position[sources[e]]++;
+            int arc2 = position[targets[e]]++;
+            arcTarget[arc1] = targets[e];
+            arcTarget[arc2] = sources[e];
+            reverseArc[arc1] = arc2;
+            reverseArc[arc2] = arc1;
+            capacity[arc1] = capacities[e];
+            capacity[arc2] = capacities[e];
+        }
+
+        level = new int[vertices];
+        nextArc = new int[vertices];
+        queue = new int[vertices];
+        pathArcs = new int[vertices];
+    }
+
+    // breadth-first search from the source over the residual arcs; returns true if the sink is reachable
+    private boolean buildLevelGraph(int source, int sink) {
+        Arrays.fill(level, -1);
+        int head = 0;
+        int tail = 0;
+        level[source] = 0;
+        queue[tail++] = source;
+        while (head < tail) {
+            int v = queue[head++];
+            for (int arc = arcStart[v]; arc < arcStart[v + 1]; arc++) {
+                int w = arcTarget[arc];
+                if (level[w] < 0 && EPSILON < residual[arc]) {
+                    level[w] = level[v] + 1;
+                    queue[tail++] = w;
+                }
+            }
+        }
+        return 0 <= level[sink];
+    }
+
+    // pushes a blocking flow along the shortest augmenting paths of the level graph
+    private double getBlockingFlow(int source, int sink) {
+        System.arraycopy(arcStart, 0, nextArc, 0, noOfVertices);
+
+        double flow = 0;
+        int depth = 0;
+        int v = source;
+        while (true) {
+            if (v == sink) {
+                double bottleneck = Double.MAX_VALUE;
+                for (int i = 0; i < depth; i++) {
+                    bottleneck = Math.min(bottleneck, residual[pathArcs[i]]);
+                }
+
+                int firstSaturated = -1;
+                for (int i = 0; i < depth; i++) {
+                    residual[pathArcs[i]] -= bottleneck;
+                    residual[reverseArc[pathArcs[i]]] += bottleneck;
+                    if (firstSaturated < 0 && residual[pathArcs[i]] <= EPSILON) {
+                        firstSaturated = i;
+                    }
+                }
+                flow += bottleneck;
+
+                // retreat to the tail of the first saturated arc
+                depth = firstSaturated;
+                v = depth == 0 ? source : arcTarget[pathArcs[depth - 1]];
+                continue;
+            }
+
+            boolean advanced = false;
+            for (; nextArc[v] < arcStart[v + 1]; nextArc[v]++) {
+                int arc = nextArc[v];
+                int w = arcTarget[arc];
+                if (level[w] == level[v] + 1 && EPSILON < residual[arc]) {
+                    pathArcs[depth++] = arc;
+                    v = w;
+                    advanced = true;
+                    break;
+                }
+            }
+
+            if (!advanced) {
+                level[v] = -1; // dead end
+                if (depth == 0) {
+                    return flow;
+                }
+                depth--;
+                v = depth == 0 ? source : arcTarget[pathArcs[depth - 1]];
+                nextArc[v]++;
+            }
+        }
+    }
+
+    /**
+     * Computes the maximum flow between the given vertices from scratch.
+     *
+     * @param source the source vertex
+     * @param sink the sink vertex
+     * @return the value of the maximum flow, i.e., of the minimum cut
+     */
+    public double getMaxFlow(int source, int sink) {
+        System.arraycopy(capacity, 0, residual, 0, capacity.length);
+
+        double flow = 0;
+        while (buildLevelGraph(source, sink)) {
+            flow += getBlockingFlow(source, sink);
+        }
+        return flow;
+    }
+
+    public int getNoOfVertices() {
+        return noOfVertices;
+    }
+
+    /**
+     * Determines whether the given vertex lies on the source side of the
+     * minimum cut computed by the last call of getMaxFlow.
+     *
+     * @param v the vertex
+     * @return true if v is reachable from the source in the residual network
+     */
+    public boolean onSourceSide(int v) {
+        return 0 <= level[v];
+    }
+}
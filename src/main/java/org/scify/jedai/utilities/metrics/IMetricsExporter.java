@@ -0,0 +1,41 @@
+/*
+* Copyright [2016-2020] [George Papadakis (gpapadis@yahoo.gr)]
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+*    http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+ */
+package org.scify.jedai.utilities.metrics;
+
+/**
+ * The service provider interface for the instrumentation of the workflow
+ * steps. An exporter is registered through PipelineMetrics.setExporter and is
+ * notified at the beginning and at the end of every step that is executed by
+ * the abstract base classes of block building, block processing, entity
+ * matching, entity clustering, similarity joins and prioritization. The
+ * exporters may be called concurrently from different threads.
+ *
+ * @author G.A.P. II
+ */
+public interface IMetricsExporter {
+
+    default void close() {
+    }
+
+    default boolean isEnabled() {
+        return true;
+    }
+
+    default void stageStarted(StageMetrics stage) {
+    }
+
+    void stageFinished(StageMetrics stage);
+}
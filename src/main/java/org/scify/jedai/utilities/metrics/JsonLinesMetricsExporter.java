@@ -0,0 +1,129 @@
+/*
+* Copyright [2016-2020] [George Papadakis (gpapadis@yahoo.gr)]
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+*    http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+ */
+package org.scify.jedai.utilities.metrics;
+
+import com.esotericsoftware.minlog.Log;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.PrintWriter;
+
+/**
+ * Appends a JSON object per finished step to a file, one line per object,
+ * with the following fields: stage, method, configuration, startTime (in
+ * milliseconds since the epoch), wallTimeNs, cpuTimeNs, allocatedBytes,
+ * inputSize, inputComparisons, outputSize, outputComparisons and counters,
+ * an object with the final value of every progress counter. Every line is
+ * flushed as soon as it is written.
+ *
+ * @author G.A.P. II
+ */
+public class JsonLinesMetricsExporter implements IMetricsExporter {
+
+    private final PrintWriter printWriter;
+
+    public JsonLinesMetricsExporter(String outputPath) {
+        PrintWriter writer = null;
+        try {
+            writer = new PrintWriter(new FileWriter(outputPath, true));
+        } catch (IOException ioex) {
+            Log.error("Error in creating the metrics file", ioex);
+        }
+        printWriter = writer;
+    }
+
+    private static void appendString(StringBuilder sb, String value) {
+        if (value == null) {
+            sb.append("null");
+            return;
+        }
+
+        sb.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            final char character = value.charAt(i);
+            switch (character) {
+                case '"':
+                    sb.append("\\\"");
+                    break;
+                case '\\':
+                    sb.append("\\\\");
+                    break;
+                case '\n':
+                    sb.append("\\n");
+                    break;
+                case '\r':
+                    sb.append("\\r");
+                    break;
+                case '\t':
+                    sb.append("\\t");
+                    break;
+                default:
+                    if (character < 0x20) {
+                        sb.append(String.format("\\u%04x", (int) character));
+                    } else {
+                        sb.append(character);
+                    }
+            }
+        }
+        sb.append('"');
+    }
+
+    @Override
+    public synchronized void close() {
+        if (printWriter != null) {
+            printWriter.close();
+        }
+    }
+
+    @Override
+    public boolean isEnabled() {
+        return printWriter != null;
+    }
+
+    @Override
+    public void stageFinished(StageMetrics stage) {
+        final StringBuilder sb = new StringBuilder();
+        sb.append("{\"stage\":");
+        appendString(sb, stage.getStageName());
+        sb.append(",\"method\":");
+        appendString(sb, stage.getMethodName());
+        sb.append(",\"configuration\":");
+        appendString(sb, stage.getConfiguration());
+        sb.append(",\"startTime\":").append(stage.getStartTime())
+                .append(",\"wallTimeNs\":").append(stage.getWallTime())
+                .append(",\"cpuTimeNs\":").append(stage.getCpuTime())
+                .append(",\"allocatedBytes\":").append(stage.getAllocatedBytes())
+                .append(",\"inputSize\":").append(stage.getInputSize())
+                .append(",\"inputComparisons\":").append(stage.getInputComparisons())
+                .append(",\"outputSize\":").append(stage.getOutputSize())
+                .append(",\"outputComparisons\":").append(stage.getOutputComparisons())
+                .append(",\"counters\":{");
+        boolean first = true;
+        for (ProgressCounter counter : stage.getCounters()) {
+            if (!first) {
+                sb.append(',');
+            }
+            first = false;
+            appendString(sb, counter.getName());
+            sb.append(':').append(counter.sum());
+        }
+        sb.append("}}");
+
+        synchronized (this) {
+            printWriter.println(sb);
+            printWriter.flush();
+        }
+    }
+}
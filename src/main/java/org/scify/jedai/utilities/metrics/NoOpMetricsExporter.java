@@ -0,0 +1,34 @@
+/*
+* Copyright [2016-2020] [George Papadakis (gpapadis@yahoo.gr)]
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+*    http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+ */
+package org.scify.jedai.utilities.metrics;
+
+/**
+ * The default exporter, which disables all measurements: the steps receive a
+ * disabled StageMetrics, whose progress counters ignore all updates.
+ *
+ * @author G.A.P. II
+ */
+public class NoOpMetricsExporter implements IMetricsExporter {
+
+    @Override
+    public boolean isEnabled() {
+        return false;
+    }
+
+    @Override
+    public void stageFinished(StageMetrics stage) {
+    }
+}
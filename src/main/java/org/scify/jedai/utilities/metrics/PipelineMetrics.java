@@ -0,0 +1,75 @@
+/*
+* Copyright [2016-2020] [George Papadakis (gpapadis@yahoo.gr)]
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+*    http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+ */
+package org.scify.jedai.utilities.metrics;
+
+import org.scify.jedai.utilities.IDocumentation;
+
+/**
+ * The registry of the metrics exporter that is used by all workflow steps.
+ * By default, the NoOpMetricsExporter is registered, so no measurement takes
+ * place.
+ *
+ * @author G.A.P. II
+ */
+public class PipelineMetrics {
+
+    public static final String BLOCK_BUILDING = "Block Building";
+    public static final String BLOCK_PROCESSING = "Block Processing";
+    public static final String ENTITY_CLUSTERING = "Entity Clustering";
+    public static final String ENTITY_MATCHING = "Entity Matching";
+    public static final String PRIORITIZATION = "Prioritization";
+    public static final String SIMILARITY_JOIN = "Similarity Join";
+
+    private static volatile IMetricsExporter exporter = new NoOpMetricsExporter();
+
+    public static IMetricsExporter getExporter() {
+        return exporter;
+    }
+
+    public static boolean isEnabled() {
+        return exporter.isEnabled();
+    }
+
+    /**
+     * Registers the given exporter and closes the previous one.
+     *
+     * @param newExporter the new exporter, or null for the no-op one
+     */
+    public static synchronized void setExporter(IMetricsExporter newExporter) {
+        final IMetricsExporter previousExporter = exporter;
+        exporter = newExporter == null ? new NoOpMetricsExporter() : newExporter;
+        previousExporter.close();
+    }
+
+    /**
+     * @param stageName the type of the step, e.g., BLOCK_BUILDING
+     * @param method the method that executes the step
+     * @param inputSize the size of the input, e.g., the number of profiles or
+     * blocks
+     * @return the measurements of the step, which should be finished when
+     * the step is over
+     */
+    public static StageMetrics startStage(String stageName, IDocumentation method, long inputSize) {
+        final IMetricsExporter currentExporter = exporter;
+        if (!currentExporter.isEnabled()) {
+            return StageMetrics.DISABLED;
+        }
+
+        final StageMetrics stage = new StageMetrics(stageName, method, inputSize, currentExporter);
+        currentExporter.stageStarted(stage);
+        return stage;
+    }
+}
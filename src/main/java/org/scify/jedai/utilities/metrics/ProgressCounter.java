@@ -0,0 +1,59 @@
+/*
+* Copyright [2016-2020] [George Papadakis (gpapadis@yahoo.gr)]
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+*    http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+ */
+package org.scify.jedai.utilities.metrics;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A counter that is updated from hot loops, possibly by many threads at once.
+ * It is backed by a LongAdder, whose cells are striped across threads, so
+ * concurrent updates do not contend on a single variable. The counters of a
+ * disabled StageMetrics have no adder and ignore all updates.
+ *
+ * @author G.A.P. II
+ */
+public final class ProgressCounter {
+
+    static final ProgressCounter DISABLED = new ProgressCounter(null);
+
+    private final String name;
+    private final LongAdder adder;
+
+    ProgressCounter(String name) {
+        this.name = name;
+        adder = name == null ? null : new LongAdder();
+    }
+
+    public void add(long value) {
+        if (adder != null) {
+            adder.add(value);
+        }
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public void increment() {
+        if (adder != null) {
+            adder.increment();
+        }
+    }
+
+    public long sum() {
+        return adder == null ? 0 : adder.sum();
+    }
+}
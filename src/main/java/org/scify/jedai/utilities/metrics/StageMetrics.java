@@ -0,0 +1,209 @@
+/*
+* Copyright [2016-2020] [George Papadakis (gpapadis@yahoo.gr)]
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+*    http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+ */
+package org.scify.jedai.utilities.metrics;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.ConcurrentSkipListMap;
+import org.scify.jedai.utilities.IDocumentation;
+
+/**
+ * The measurements of a single execution of a workflow step: its wall-clock
+ * and CPU time, the bytes that were allocated in the meantime, the size of its
+ * input and output, e.g., in blocks, comparisons or similarity pairs, and its
+ * progress counters. All times are in nanoseconds, while all sizes that do
+ * not apply to a step are set to -1.
+ *
+ * A StageMetrics is created by PipelineMetrics.startStage. If no exporter is
+ * enabled, the disabled instance is returned, which measures nothing and
+ * whose setters and progress counters are no-ops, so the steps need not
+ * check whether instrumentation is enabled.
+ *
+ * @author G.A.P. II
+ */
+public class StageMetrics {
+
+    static final StageMetrics DISABLED = new StageMetrics();
+
+    private final boolean enabled;
+    private boolean stopped;
+
+    private long allocatedBytes;
+    private long cpuTime;
+    private long inputComparisons;
+    private final long inputSize;
+    private long outputComparisons;
+    private long outputSize;
+    private final long startAllocatedBytes;
+    private final long startCpuTime;
+    private final long startNanoTime;
+    private final long startTime;
+    private long wallTime;
+
+    private final IMetricsExporter exporter;
+    private final Map<String, ProgressCounter> counters;
+    private final String configuration;
+    private final String methodName;
+    private final String stageName;
+
+    private StageMetrics() {
+        enabled = false;
+        exporter = null;
+        counters = Collections.emptyMap();
+        configuration = null;
+        methodName = null;
+        stageName = null;
+        inputSize = -1;
+        startAllocatedBytes = -1;
+        startCpuTime = -1;
+        startNanoTime = 0;
+        startTime = 0;
+    }
+
+    StageMetrics(String stageName, IDocumentation method, long inputSize, IMetricsExporter exporter) {
+        enabled = true;
+        this.exporter = exporter;
+        this.inputSize = inputSize;
+        this.stageName = stageName;
+        counters = new ConcurrentSkipListMap<>();
+        configuration = method.getMethodConfiguration();
+        methodName = method.getMethodName();
+
+        allocatedBytes = -1;
+        cpuTime = -1;
+        inputComparisons = -1;
+        outputComparisons = -1;
+        outputSize = -1;
+
+        startTime = System.currentTimeMillis();
+        startAllocatedBytes = ThreadResources.getAllocatedBytes();
+        startCpuTime = ThreadResources.getCpuTime();
+        startNanoTime = System.nanoTime();
+    }
+
+    /**
+     * Completes the measurements, if they have not been stopped, and passes
+     * them to the exporter.
+     *
+     * @param outputSize the size of the output, e.g., the number of blocks,
+     * similarity pairs or equivalence clusters
+     */
+    public void finish(long outputSize) {
+        if (!enabled) {
+            return;
+        }
+
+        stop();
+        this.outputSize = outputSize;
+        exporter.stageFinished(this);
+    }
+
+    public long getAllocatedBytes() {
+        return allocatedBytes;
+    }
+
+    public String getConfiguration() {
+        return configuration;
+    }
+
+    /**
+     * @param name the name of the counter, e.g., "executed comparisons"
+     * @return the counter with the given name, which is created on first use
+     */
+    public ProgressCounter getCounter(String name) {
+        if (!enabled) {
+            return ProgressCounter.DISABLED;
+        }
+        return counters.computeIfAbsent(name, ProgressCounter::new);
+    }
+
+    public Collection<ProgressCounter> getCounters() {
+        return counters.values();
+    }
+
+    public long getCpuTime() {
+        return cpuTime;
+    }
+
+    public long getInputComparisons() {
+        return inputComparisons;
+    }
+
+    public long getInputSize() {
+        return inputSize;
+    }
+
+    public String getMethodName() {
+        return methodName;
+    }
+
+    public long getOutputComparisons() {
+        return outputComparisons;
+    }
+
+    public long getOutputSize() {
+        return outputSize;
+    }
+
+    public String getStageName() {
+        return stageName;
+    }
+
+    /**
+     * @return the start of the step in milliseconds since the epoch
+     */
+    public long getStartTime() {
+        return startTime;
+    }
+
+    public long getWallTime() {
+        return wallTime;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setInputComparisons(long inputComparisons) {
+        if (enabled) {
+            this.inputComparisons = inputComparisons;
+        }
+    }
+
+    public void setOutputComparisons(long outputComparisons) {
+        if (enabled) {
+            this.outputComparisons = outputComparisons;
+        }
+    }
+
+    /**
+     * Freezes the time and allocation measurements, so that the output of the
+     * step can be examined before finishing it without affecting them.
+     */
+    public void stop() {
+        if (!enabled || stopped) {
+            return;
+        }
+
+        stopped = true;
+        wallTime = System.nanoTime() - startNanoTime;
+        final long endCpuTime = ThreadResources.getCpuTime();
+        cpuTime = startCpuTime < 0 || endCpuTime < 0 ? -1 : endCpuTime - startCpuTime;
+        final long endAllocatedBytes = ThreadResources.getAllocatedBytes();
+        allocatedBytes = startAllocatedBytes < 0 || endAllocatedBytes < 0 ? -1 : endAllocatedBytes - startAllocatedBytes;
+    }
+}
@@ -0,0 +1,74 @@
+/*
+* Copyright [2016-2020] [George Papadakis (gpapadis@yahoo.gr)]
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+*    http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+ */
+package org.scify.jedai.utilities.metrics;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+
+/**
+ * The CPU time and the allocated bytes of all live threads, as reported by
+ * the ThreadMXBean. The differences between two calls cover the work of the
+ * worker threads of parallel steps, too, except for the threads that
+ * terminated in between.
+ *
+ * @author G.A.P. II
+ */
+public class ThreadResources {
+
+    /**
+     * @return the bytes allocated by all live threads, or -1 if the JVM does
+     * not support it
+     */
+    public static long getAllocatedBytes() {
+        final ThreadMXBean threadBean = ManagementFactory.getThreadMXBean();
+        if (!(threadBean instanceof com.sun.management.ThreadMXBean)) {
+            return -1;
+        }
+
+        final com.sun.management.ThreadMXBean allocationBean = (com.sun.management.ThreadMXBean) threadBean;
+        if (!allocationBean.isThreadAllocatedMemorySupported() || !allocationBean.isThreadAllocatedMemoryEnabled()) {
+            return -1;
+        }
+
+        long totalBytes = 0;
+        for (long bytes : allocationBean.getThreadAllocatedBytes(threadBean.getAllThreadIds())) {
+            if (0 < bytes) {
+                totalBytes += bytes;
+            }
+        }
+        return totalBytes;
+    }
+
+    /**
+     * @return the CPU time of all live threads in nanoseconds, or -1 if the
+     * JVM does not support it
+     */
+    public static long getCpuTime() {
+        final ThreadMXBean threadBean = ManagementFactory.getThreadMXBean();
+        if (!threadBean.isThreadCpuTimeSupported() || !threadBean.isThreadCpuTimeEnabled()) {
+            return -1;
+        }
+
+        long totalTime = 0;
+        for (long threadId : threadBean.getAllThreadIds()) {
+            final long time = threadBean.getThreadCpuTime(threadId);
+            if (0 < time) {
+                totalTime += time;
+            }
+        }
+        return totalTime;
+    }
+}
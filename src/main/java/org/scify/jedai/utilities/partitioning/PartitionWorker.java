@@ -0,0 +1,152 @@
+/*
+* Copyright [2016-2020] [George Papadakis (gpapadis@yahoo.gr)]
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+*    http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+ */
+package org.scify.jedai.utilities.partitioning;
+
+import com.esotericsoftware.minlog.Log;
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.List;
+import java.util.Properties;
+import org.scify.jedai.blockbuilding.AbstractBlockBuilding;
+import org.scify.jedai.blockprocessing.IBlockProcessing;
+import org.scify.jedai.datamodel.AbstractBlock;
+import org.scify.jedai.datamodel.EntityProfile;
+import org.scify.jedai.datamodel.SimilarityPairs;
+import org.scify.jedai.datareader.AbstractReader;
+import org.scify.jedai.datareader.entityreader.EntitySnapshotReader;
+import org.scify.jedai.entitymatching.GroupLinkage;
+import org.scify.jedai.entitymatching.IEntityMatching;
+import org.scify.jedai.entitymatching.ProfileMatcher;
+import org.scify.jedai.utilities.enumerations.EntityMatchingMethod;
+
+/**
+ * Processes a single partition of a PartitionedExecution in a separate JVM.
+ * It is invoked with the working directory of the coordinator and the id of
+ * its partition, and it terminates with a non-zero exit value on failure.
+ *
+ * @author G.A.P. II
+ */
+public class PartitionWorker {
+
+    private final int partition;
+
+    private final File workingDirectory;
+    private final PartitionedExecution.PartitionTask task;
+
+    public PartitionWorker(String workingDirectoryPath, int partition) {
+        this.partition = partition;
+        workingDirectory = new File(workingDirectoryPath);
+        task = (PartitionedExecution.PartitionTask) AbstractReader.loadSerializedObject(new File(workingDirectory, PartitionedExecution.TASK_FILE).getPath());
+    }
+
+    /**
+     * @return true if the similarity pairs and the statistics of the partition
+     * were stored successfully
+     */
+    public boolean execute() {
+        if (task == null) {
+            return false;
+        }
+        if (!(task.blockBuilding instanceof AbstractBlockBuilding)) {
+            Log.error("The block building method does not support key partitions!");
+            return false;
+        }
+
+        final long startTime = System.currentTimeMillis();
+        final List<EntityProfile> profilesD1 = new EntitySnapshotReader(new File(workingDirectory, PartitionedExecution.PROFILES_D1).getPath()).getEntityProfiles();
+        List<EntityProfile> profilesD2 = null;
+        if (task.cleanCleanER) {
+            profilesD2 = new EntitySnapshotReader(new File(workingDirectory, PartitionedExecution.PROFILES_D2).getPath()).getEntityProfiles();
+        }
+        if (profilesD1 == null || (task.cleanCleanER && profilesD2 == null)) {
+            return false;
+        }
+
+        ((AbstractBlockBuilding) task.blockBuilding).setKeyPartition(partition, task.noOfPartitions);
+        List<AbstractBlock> blocks = task.blockBuilding.getBlocks(profilesD1, profilesD2);
+        for (IBlockProcessing method : task.blockProcessing) {
+            blocks = method.refineBlocks(blocks);
+        }
+
+        final SimilarityPairs simPairs = getEntityMatching(profilesD1, profilesD2).executeComparisons(blocks);
+
+        final Properties statistics = new Properties();
+        statistics.setProperty(PartitionedExecution.ASSIGNMENTS, Long.toString(blocks.stream().mapToLong(block -> (long) block.getTotalBlockAssignments()).sum()));
+        statistics.setProperty(PartitionedExecution.BLOCKS, Integer.toString(blocks.size()));
+        statistics.setProperty(PartitionedExecution.COMPARISONS, Long.toString(blocks.stream().mapToLong(AbstractBlock::getNoOfComparisons).sum()));
+        statistics.setProperty(PartitionedExecution.EXECUTED_COMPARISONS, Integer.toString(simPairs.getNoOfComparisons()));
+        statistics.setProperty(PartitionedExecution.RUNTIME, Long.toString(System.currentTimeMillis() - startTime));
+        return storePairs(simPairs) && storeStatistics(statistics);
+    }
+
+    private IEntityMatching getEntityMatching(List<EntityProfile> profilesD1, List<EntityProfile> profilesD2) {
+        if (task.representationModel == null || task.similarityMetric == null) {
+            return EntityMatchingMethod.getDefaultConfiguration(profilesD1, profilesD2, task.emMethod);
+        }
+
+        switch (task.emMethod) {
+            case GROUP_LINKAGE:
+                return new GroupLinkage(task.similarityThreshold, profilesD1, profilesD2, task.representationModel, task.similarityMetric);
+            case PROFILE_MATCHER:
+            default:
+                return new ProfileMatcher(profilesD1, profilesD2, task.representationModel, task.similarityMetric);
+        }
+    }
+
+    private boolean storePairs(SimilarityPairs simPairs) {
+        final int[] entityIds1 = simPairs.getEntityIds1();
+        final int[] entityIds2 = simPairs.getEntityIds2();
+        final float[] similarities = simPairs.getSimilarities();
+        final File pairsFile = new File(workingDirectory, "partition-" + partition + PartitionedExecution.PAIRS_SUFFIX);
+        try (DataOutputStream output = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(pairsFile), 1 << 16))) {
+            output.writeInt(simPairs.getNoOfComparisons());
+            for (int i = 0; i < simPairs.getNoOfComparisons(); i++) {
+                output.writeInt(entityIds1[i]);
+                output.writeInt(entityIds2[i]);
+                output.writeFloat(similarities[i]);
+            }
+        } catch (IOException ioex) {
+            Log.error("Error in storing the similarity pairs", ioex);
+            return false;
+        }
+        return true;
+    }
+
+    private boolean storeStatistics(Properties statistics) {
+        final File statisticsFile = new File(workingDirectory, "partition-" + partition + PartitionedExecution.STATISTICS_SUFFIX);
+        try (OutputStream output = new FileOutputStream(statisticsFile)) {
+            statistics.store(output, "partition " + partition);
+        } catch (IOException ioex) {
+            Log.error("Error in storing the statistics", ioex);
+            return false;
+        }
+        return true;
+    }
+
+    public static void main(String[] args) {
+        if (args.length != 2) {
+            Log.error("Usage: PartitionWorker <working directory> <partition id>");
+            System.exit(2);
+        }
+
+        final PartitionWorker worker = new PartitionWorker(args[0], Integer.parseInt(args[1]));
+        System.exit(worker.execute() ? 0 : 1);
+    }
+}
@@ -0,0 +1,410 @@
+/*
+* Copyright [2016-2020] [George Papadakis (gpapadis@yahoo.gr)]
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+*    http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+ */
+package org.scify.jedai.utilities.partitioning;
+
+import com.esotericsoftware.minlog.Log;
+import gnu.trove.map.TLongFloatMap;
+import gnu.trove.map.hash.TLongFloatHashMap;
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.TimeUnit;
+import org.scify.jedai.blockbuilding.IBlockBuilding;
+import org.scify.jedai.blockprocessing.IBlockProcessing;
+import org.scify.jedai.datamodel.EntityProfile;
+import org.scify.jedai.datamodel.EquivalenceCluster;
+import org.scify.jedai.datamodel.SimilarityPairs;
+import org.scify.jedai.datareader.entityreader.EntitySnapshotWriter;
+import org.scify.jedai.datareader.entityreader.EntitySerializationReader;
+import org.scify.jedai.entityclustering.IEntityClustering;
+import org.scify.jedai.entitymatching.GroupLinkage;
+import org.scify.jedai.utilities.datastructures.DuplicatePairsIndex;
+import org.scify.jedai.utilities.enumerations.EntityMatchingMethod;
+import org.scify.jedai.utilities.enumerations.RepresentationModel;
+import org.scify.jedai.utilities.enumerations.SimilarityMetric;
+
+/**
+ * The coordinator of a partitioned execution, where every partition is
+ * processed by a separate JVM on the local host. The coordinator:
+ * <ol>
+ * <li>stores the profiles as snapshots and the workflow as a serialized task
+ * in the working directory,</li>
+ * <li>launches a PartitionWorker per partition, each of which builds the
+ * blocks of its blocking keys, applies the block processing methods, executes
+ * the comparisons and stores its similarity pairs and block statistics in the
+ * working directory,</li>
+ * <li>merges the block statistics of all partitions, along with their
+ * similarity pairs; a comparison that is executed in several partitions is
+ * retained once,</li>
+ * <li>applies entity clustering to the merged similarity pairs, i.e., to the
+ * similarity edges of all partitions.</li>
+ * </ol>
+ * The blocks of every partition are disjoint, but the block processing
+ * methods are applied independently to every partition. Hence, their
+ * thresholds and weights are local to a partition and may differ from those
+ * of a single-JVM execution.
+ *
+ * @author G.A.P. II
+ */
+public class PartitionedExecution {
+
+    public static final String PAIRS_SUFFIX = ".pairs";
+    public static final String PROFILES_D1 = "profilesD1.snapshot";
+    public static final String PROFILES_D2 = "profilesD2.snapshot";
+    public static final String STATISTICS_SUFFIX = ".stats";
+    public static final String TASK_FILE = "task.ser";
+
+    private static final long POLLING_INTERVAL = 100; // in milliseconds
+
+    public static final String ASSIGNMENTS = "assignments";
+    public static final String BLOCKS = "blocks";
+    public static final String COMPARISONS = "comparisons";
+    public static final String EXECUTED_COMPARISONS = "executedComparisons";
+    public static final String RUNTIME = "runtime";
+
+    /**
+     * The workflow that is executed by every worker.
+     */
+    static class PartitionTask implements Serializable {
+
+        private static final long serialVersionUID = 4390127638751620391L;
+
+        boolean cleanCleanER;
+        float similarityThreshold = GroupLinkage.DEFAULT_SIMILARITY_THRESHOLD;
+        int noOfPartitions;
+        EntityMatchingMethod emMethod;
+        IBlockBuilding blockBuilding;
+        List<IBlockProcessing> blockProcessing;
+        RepresentationModel representationModel;
+        SimilarityMetric similarityMetric;
+    }
+
+    private float similarityThreshold;
+
+    private int maxConcurrentWorkers;
+    private final int noOfPartitions;
+
+    private long totalAssignments;
+    private long totalBlocks;
+    private long totalComparisons;
+    private long totalExecutedComparisons;
+
+    private EntityMatchingMethod emMethod;
+    private IBlockBuilding blockBuilding;
+    private final List<IBlockProcessing> blockProcessing;
+    private final List<String> jvmOptions;
+    private Properties[] partitionStatistics;
+    private RepresentationModel representationModel;
+    private SimilarityMetric similarityMetric;
+    private SimilarityPairs simPairs;
+    private final File workingDirectory;
+
+    public PartitionedExecution(int partitions, String workingDirectoryPath) {
+        noOfPartitions = partitions;
+        maxConcurrentWorkers = partitions;
+        workingDirectory = new File(workingDirectoryPath);
+
+        emMethod = EntityMatchingMethod.PROFILE_MATCHER;
+        similarityThreshold = GroupLinkage.DEFAULT_SIMILARITY_THRESHOLD;
+        blockProcessing = new ArrayList<>();
+        jvmOptions = new ArrayList<>();
+    }
+
+    public void addBlockProcessing(IBlockProcessing method) {
+        blockProcessing.add(method);
+    }
+
+    public void addJvmOption(String option) {
+        jvmOptions.add(option);
+    }
+
+    /**
+     * Executes all partitions and merges their similarity pairs.
+     *
+     * @param profilesD1 the profiles of the first dataset, or of all entities
+     * for Dirty ER
+     * @param profilesD2 the profiles of the second dataset, or null for Dirty
+     * ER
+     * @return the merged similarity pairs, or null if any worker failed
+     */
+    public SimilarityPairs executeComparisons(List<EntityProfile> profilesD1, List<EntityProfile> profilesD2) {
+        simPairs = null;
+        if (profilesD1 == null) {
+            Log.error("First list of entity profiles is null! The first argument should always contain entities.");
+            return null;
+        }
+        if (blockBuilding == null) {
+            Log.error("No block building method has been set!");
+            return null;
+        }
+        if (noOfPartitions < 1 || maxConcurrentWorkers < 1) {
+            Log.error("The number of partitions and of concurrent workers should be positive!");
+            return null;
+        }
+        if (!workingDirectory.isDirectory() && !workingDirectory.mkdirs()) {
+            Log.error("Cannot create working directory " + workingDirectory);
+            return null;
+        }
+
+        final PartitionTask task = new PartitionTask();
+        task.cleanCleanER = profilesD2 != null;
+        task.noOfPartitions = noOfPartitions;
+        task.emMethod = emMethod;
+        task.blockBuilding = blockBuilding;
+        task.blockProcessing = blockProcessing;
+        task.representationModel = representationModel;
+        task.similarityMetric = similarityMetric;
+        task.similarityThreshold = similarityThreshold;
+
+        final File taskFile = new File(workingDirectory, TASK_FILE);
+        taskFile.delete();
+        new EntitySerializationReader(null).storeSerializedObject(task, taskFile.getPath());
+        if (!taskFile.isFile()) {
+            return null;
+        }
+        new EntitySnapshotWriter(new File(workingDirectory, PROFILES_D1).getPath()).storeEntityProfiles(profilesD1);
+        if (profilesD2 != null) {
+            new EntitySnapshotWriter(new File(workingDirectory, PROFILES_D2).getPath()).storeEntityProfiles(profilesD2);
+        }
+
+        if (!runWorkers()) {
+            return null;
+        }
+
+        simPairs = mergePartitions(task.cleanCleanER);
+        return simPairs;
+    }
+
+    /**
+     * @param clustering the entity clustering method that is applied to the
+     * similarity pairs of the last execution
+     * @return the equivalence clusters, or null if there are no similarity
+     * pairs
+     */
+    public EquivalenceCluster[] getDuplicates(IEntityClustering clustering) {
+        if (simPairs == null) {
+            Log.error("No similarity pairs have been merged! Execute the comparisons first.");
+            return null;
+        }
+        return clustering.getDuplicates(simPairs);
+    }
+
+    public File getPairsFile(int partition) {
+        return new File(workingDirectory, "partition-" + partition + PAIRS_SUFFIX);
+    }
+
+    /**
+     * @return the statistics reported by every worker of the last execution
+     */
+    public Properties[] getPartitionStatistics() {
+        return partitionStatistics;
+    }
+
+    public File getStatisticsFile(int partition) {
+        return new File(workingDirectory, "partition-" + partition + STATISTICS_SUFFIX);
+    }
+
+    public long getTotalAssignments() {
+        return totalAssignments;
+    }
+
+    public long getTotalBlocks() {
+        return totalBlocks;
+    }
+
+    public long getTotalComparisons() {
+        return totalComparisons;
+    }
+
+    /**
+     * @return the comparisons that were executed by all workers, including
+     * those that were executed in several partitions
+     */
+    public long getTotalExecutedComparisons() {
+        return totalExecutedComparisons;
+    }
+
+    private SimilarityPairs mergePartitions(boolean ccer) {
+        totalAssignments = 0;
+        totalBlocks = 0;
+        totalComparisons = 0;
+        totalExecutedComparisons = 0;
+        partitionStatistics = new Properties[noOfPartitions];
+
+        final TLongFloatMap mergedPairs = new TLongFloatHashMap();
+        for (int partition = 0; partition < noOfPartitions; partition++) {
+            final Properties statistics = new Properties();
+            try (InputStream input = new FileInputStream(getStatisticsFile(partition))) {
+                statistics.load(input);
+            } catch (IOException ioex) {
+                Log.error("Error in reading the statistics of partition " + partition, ioex);
+                return null;
+            }
+            partitionStatistics[partition] = statistics;
+            totalAssignments += Long.parseLong(statistics.getProperty(ASSIGNMENTS, "0"));
+            totalBlocks += Long.parseLong(statistics.getProperty(BLOCKS, "0"));
+            totalComparisons += Long.parseLong(statistics.getProperty(COMPARISONS, "0"));
+            totalExecutedComparisons += Long.parseLong(statistics.getProperty(EXECUTED_COMPARISONS, "0"));
+
+            try (DataInputStream input = new DataInputStream(new BufferedInputStream(new FileInputStream(getPairsFile(partition)), 1 << 16))) {
+                final int noOfPairs = input.readInt();
+                for (int i = 0; i < noOfPairs; i++) {
+                    int entityId1 = input.readInt();
+                    int entityId2 = input.readInt();
+                    final float similarity = input.readFloat();
+                    if (!ccer && entityId2 < entityId1) {
+                        final int temp = entityId1;
+                        entityId1 = entityId2;
+                        entityId2 = temp;
+                    }
+
+                    final long key = DuplicatePairsIndex.pack(entityId1, entityId2);
+                    if (!mergedPairs.containsKey(key) || mergedPairs.get(key) < similarity) {
+                        mergedPairs.put(key, similarity);
+                    }
+                }
+            } catch (IOException ioex) {
+                Log.error("Error in reading the similarity pairs of partition " + partition, ioex);
+                return null;
+            }
+        }
+
+        // the pairs are sorted, so that the output does not depend on the order of the partitions
+        final long[] keys = mergedPairs.keys();
+        Arrays.sort(keys);
+        final SimilarityPairs pairs = new SimilarityPairs(ccer, keys.length);
+        for (long key : keys) {
+            pairs.addComparison((int) (key >>> 32), (int) key, mergedPairs.get(key));
+        }
+
+        Log.info("Merged partitions\t:\t" + noOfPartitions);
+        Log.info("Total blocks\t:\t" + totalBlocks);
+        Log.info("Executed comparisons\t:\t" + totalExecutedComparisons);
+        Log.info("Distinct comparisons\t:\t" + keys.length);
+        return pairs;
+    }
+
+    private boolean runWorkers() {
+        final String javaPath = System.getProperty("java.home") + File.separator + "bin" + File.separator + "java";
+        final String classPath = System.getProperty("java.class.path");
+
+        final List<Process> running = new ArrayList<>();
+        final List<Integer> runningIds = new ArrayList<>();
+        boolean success = true;
+        try {
+            for (int partition = 0; partition < noOfPartitions || !running.isEmpty();) {
+                if (partition < noOfPartitions && running.size() < maxConcurrentWorkers) {
+                    getPairsFile(partition).delete();
+                    getStatisticsFile(partition).delete();
+
+                    final List<String> command = new ArrayList<>();
+                    command.add(javaPath);
+                    command.addAll(jvmOptions);
+                    command.add("-cp");
+                    command.add(classPath);
+                    command.add(PartitionWorker.class.getName());
+                    command.add(workingDirectory.getAbsolutePath());
+                    command.add(Integer.toString(partition));
+
+                    final ProcessBuilder builder = new ProcessBuilder(command);
+                    builder.redirectErrorStream(true);
+                    builder.redirectOutput(new File(workingDirectory, "partition-" + partition + ".log"));
+                    running.add(builder.start());
+                    runningIds.add(partition);
+                    partition++;
+                    continue;
+                }
+
+                // frees the slots of all terminated workers, or waits for any of them to terminate
+                boolean terminated = false;
+                for (int i = running.size() - 1; 0 <= i; i--) {
+                    if (running.get(i).isAlive()) {
+                        continue;
+                    }
+
+                    terminated = true;
+                    final int exitValue = running.remove(i).exitValue();
+                    final int workerId = runningIds.remove(i);
+                    if (exitValue != 0) {
+                        Log.error("Worker of partition " + workerId + " failed with exit value " + exitValue
+                                + "; see partition-" + workerId + ".log in " + workingDirectory);
+                        success = false;
+                    }
+                }
+                if (!terminated) {
+                    running.get(0).waitFor(POLLING_INTERVAL, TimeUnit.MILLISECONDS);
+                }
+            }
+        } catch (IOException ioex) {
+            Log.error("Error in launching a worker", ioex);
+            success = false;
+        } catch (InterruptedException iex) {
+            Log.error("Interrupted while waiting for the workers", iex);
+            Thread.currentThread().interrupt();
+            success = false;
+        } finally {
+            running.forEach(Process::destroy);
+        }
+        return success;
+    }
+
+    public void setBlockBuilding(IBlockBuilding blockBuilding) {
+        this.blockBuilding = blockBuilding;
+    }
+
+    public void setEntityMatching(EntityMatchingMethod emMethod) {
+        this.emMethod = emMethod;
+    }
+
+    /**
+     * @param emMethod the entity matching method of every worker
+     * @param model the representation model of the profiles
+     * @param simMetric the similarity metric of the representation model
+     */
+    public void setEntityMatching(EntityMatchingMethod emMethod, RepresentationModel model, SimilarityMetric simMetric) {
+        setEntityMatching(emMethod, model, simMetric, GroupLinkage.DEFAULT_SIMILARITY_THRESHOLD);
+    }
+
+    /**
+     * @param emMethod the entity matching method of every worker
+     * @param model the representation model of the profiles
+     * @param simMetric the similarity metric of the representation model
+     * @param simThreshold the similarity threshold of Group Linkage; it is
+     * ignored by Profile Matcher
+     */
+    public void setEntityMatching(EntityMatchingMethod emMethod, RepresentationModel model, SimilarityMetric simMetric, float simThreshold) {
+        this.emMethod = emMethod;
+        representationModel = model;
+        similarityMetric = simMetric;
+        similarityThreshold = simThreshold;
+    }
+
+    /**
+     * @param maxConcurrentWorkers the maximum number of workers that run at
+     * the same time; the rest wait for a running one to terminate
+     */
+    public void setMaxConcurrentWorkers(int maxConcurrentWorkers) {
+        this.maxConcurrentWorkers = maxConcurrentWorkers;
+    }
+}
@@ -0,0 +1,146 @@
+/*
+* Copyright [2016-2020] [George Papadakis (gpapadis@yahoo.gr)]
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+*    http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+ */
+package org.scify.jedai.utilities.planning;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import org.scify.jedai.utilities.enumerations.ExecutionVariant;
+
+/**
+ * The output of the ExecutionPlanner: the variant of every stage of a
+ * workflow, along with its estimated peak heap usage and comparisons.
+ *
+ * @author G.A.P. II
+ */
+public class ExecutionPlan {
+
+    public static class StageEstimate {
+
+        private final long comparisons;
+        private final long peakMemory;
+
+        private final ExecutionVariant variant;
+        private final String stage;
+
+        public StageEstimate(String stage, ExecutionVariant variant, long peakMemory, long comparisons) {
+            this.stage = stage;
+            this.variant = variant;
+            this.peakMemory = peakMemory;
+            this.comparisons = comparisons;
+        }
+
+        /**
+         * @return the comparisons that are output by the stage, or executed
+         * by it for Entity Matching
+         */
+        public long getComparisons() {
+            return comparisons;
+        }
+
+        /**
+         * @return the estimated peak heap usage in bytes; for partitioned
+         * stages, it is the largest one among the workers and the coordinator
+         */
+        public long getPeakMemory() {
+            return peakMemory;
+        }
+
+        public String getStage() {
+            return stage;
+        }
+
+        public ExecutionVariant getVariant() {
+            return variant;
+        }
+
+        @Override
+        public String toString() {
+            return stage + "\t:\t" + variant + ", peak memory=" + ExecutionPlanner.toMegabytes(peakMemory)
+                    + " MB, comparisons=" + comparisons;
+        }
+    }
+
+    private final int noOfPartitions;
+
+    private final long heapBudget;
+
+    private final List<StageEstimate> estimates;
+
+    ExecutionPlan(long heapBudget, int noOfPartitions, List<StageEstimate> estimates) {
+        this.heapBudget = heapBudget;
+        this.noOfPartitions = noOfPartitions;
+        this.estimates = new ArrayList<>(estimates);
+    }
+
+    public StageEstimate getEstimate(String stage) {
+        for (StageEstimate estimate : estimates) {
+            if (estimate.getStage().equals(stage)) {
+                return estimate;
+            }
+        }
+        return null;
+    }
+
+    public List<StageEstimate> getEstimates() {
+        return Collections.unmodifiableList(estimates);
+    }
+
+    public long getHeapBudget() {
+        return heapBudget;
+    }
+
+    /**
+     * @return the number of partitions of a PartitionedExecution, or 1 if
+     * Entity Matching is executed in main memory
+     */
+    public int getNoOfPartitions() {
+        return noOfPartitions;
+    }
+
+    public long getPeakMemory() {
+        long peakMemory = 0;
+        for (StageEstimate estimate : estimates) {
+            peakMemory = Math.max(peakMemory, estimate.getPeakMemory());
+        }
+        return peakMemory;
+    }
+
+    public boolean isPartitioned() {
+        return 1 < noOfPartitions;
+    }
+
+    /**
+     * @return true if the blocks should be written to a DiskBlockStore
+     * instead of being kept in a list
+     */
+    public boolean isUsingDiskBlockStore() {
+        for (StageEstimate estimate : estimates) {
+            if (estimate.getVariant() == ExecutionVariant.DISK_BLOCK_STORE) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public String toString() {
+        final StringBuilder sb = new StringBuilder();
+        sb.append("Heap budget\t:\t").append(ExecutionPlanner.toMegabytes(heapBudget)).append(" MB");
+        estimates.forEach(estimate -> sb.append("\n").append(estimate));
+        return sb.toString();
+    }
+}
@@ -0,0 +1,380 @@
+/*
+* Copyright [2016-2020] [George Papadakis (gpapadis@yahoo.gr)]
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+*    http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+ */
+package org.scify.jedai.utilities.planning;
+
+import com.esotericsoftware.minlog.Log;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import org.scify.jedai.blockbuilding.AbstractBlockBuilding;
+import org.scify.jedai.blockbuilding.IBlockBuilding;
+import org.scify.jedai.blockprocessing.IBlockProcessing;
+import org.scify.jedai.blockprocessing.blockcleaning.AbstractBlockPurging;
+import org.scify.jedai.blockprocessing.blockcleaning.BlockFiltering;
+import org.scify.jedai.blockprocessing.comparisoncleaning.AbstractComparisonCleaning;
+import org.scify.jedai.datamodel.AbstractBlock;
+import org.scify.jedai.datamodel.BilateralBlock;
+import org.scify.jedai.datamodel.UnilateralBlock;
+import org.scify.jedai.entityclustering.IEntityClustering;
+import org.scify.jedai.entityclustering.MarkovClustering;
+import org.scify.jedai.utilities.IConstants;
+import org.scify.jedai.utilities.datastructures.IBlockStore;
+import org.scify.jedai.utilities.enumerations.ExecutionVariant;
+import org.scify.jedai.utilities.metrics.PipelineMetrics;
+import org.scify.jedai.utilities.planning.ExecutionPlan.StageEstimate;
+
+/**
+ * Estimates the peak heap usage and the comparisons of every stage of a
+ * workflow before it is executed, based on the numbers of entities and the
+ * histogram of block sizes. The estimates are conservative:
+ * <ol>
+ * <li>the comparisons of every block are assumed to survive Block Cleaning,
+ * while Comparison Cleaning is assumed to retain all distinct comparisons, as
+ * their actual pruning depends on the data,</li>
+ * <li>the objects are sized for a 64-bit JVM with 8-byte references.</li>
+ * </ol>
+ * Hence, the planner should be applied again to the actual blocks, e.g., to
+ * the DiskBlockStore that is written after Block Building, to refine the plan
+ * of the subsequent stages.
+ *
+ * Every stage is executed in main memory, if it fits into the heap budget.
+ * Otherwise, Block Cleaning streams the blocks from a DiskBlockStore, while
+ * Block Building, Block Processing and Entity Matching are split among the
+ * workers of a PartitionedExecution; the number of partitions is the
+ * smallest one for which every worker and the merging in the coordinator fit
+ * into the budget. If there is no such variant for a stage, plan() fails with
+ * the estimate of that stage. Note that every worker builds all blocks,
+ * unless the block building method partitions its blocking keys (see
+ * AbstractBlockBuilding.isPartitionedByKeys()); this is also assumed when no
+ * block building method has been set.
+ *
+ * @author G.A.P. II
+ */
+public class ExecutionPlanner implements IConstants {
+
+    public static final int MAX_PARTITIONS = 1024;
+
+    // the approximate sizes of the allocated objects in bytes
+    private static final int ARRAY_HEADER = 16;
+    private static final int BLOCK_OBJECT = 32;
+    private static final int GRAPH_EDGE = 20;
+    private static final int GRAPH_VERTEX = 160;
+    private static final int MERGED_PAIR = 46;
+    private static final int PAIR = 12;
+    private static final int REFERENCE = 8;
+
+    private final boolean cleanCleanER;
+
+    private final int noOfEntitiesD1;
+    private final int noOfEntitiesD2;
+
+    private long blocksMemory;
+    private long bytesPerProfile;
+    private long heapBudget;
+    private long maxBlockComparisons;
+    private long noOfBlocks;
+    private long totalAssignments;
+    private long totalComparisons;
+
+    private IBlockBuilding blockBuilding;
+    private final List<IBlockProcessing> blockProcessing;
+    private IEntityClustering clustering;
+
+    /**
+     * @param noOfEntitiesD1 the number of entities of the first dataset, or of
+     * all entities for Dirty ER
+     * @param noOfEntitiesD2 the number of entities of the second dataset, or 0
+     * for Dirty ER
+     */
+    public ExecutionPlanner(int noOfEntitiesD1, int noOfEntitiesD2) {
+        this.noOfEntitiesD1 = noOfEntitiesD1;
+        this.noOfEntitiesD2 = noOfEntitiesD2;
+        cleanCleanER = 0 < noOfEntitiesD2;
+
+        bytesPerProfile = 0;
+        heapBudget = Runtime.getRuntime().maxMemory();
+        blockProcessing = new ArrayList<>();
+    }
+
+    public void addBlockProcessing(IBlockProcessing method) {
+        blockProcessing.add(method);
+    }
+
+    /**
+     * Adds a bin of the block size histogram.
+     *
+     * @param innerSize1 the number of entities per block from the first
+     * dataset, or of all entities for Dirty ER
+     * @param innerSize2 the number of entities per block from the second
+     * dataset, or 0 for Dirty ER
+     * @param blocks the number of blocks of this size
+     */
+    public void addBlocks(int innerSize1, int innerSize2, long blocks) {
+        final long comparisons = cleanCleanER ? ((long) innerSize1) * innerSize2 : ((long) innerSize1) * (innerSize1 - 1) / 2;
+        long blockMemory = REFERENCE + BLOCK_OBJECT + ARRAY_HEADER + 4L * innerSize1;
+        if (cleanCleanER) {
+            blockMemory += ARRAY_HEADER + 4L * innerSize2;
+        }
+
+        noOfBlocks += blocks;
+        blocksMemory += blocks * blockMemory;
+        totalAssignments += blocks * (innerSize1 + innerSize2);
+        totalComparisons += blocks * comparisons;
+        if (0 < blocks) {
+            maxBlockComparisons = Math.max(maxBlockComparisons, comparisons);
+        }
+    }
+
+    private long getBruteForceComparisons() {
+        if (cleanCleanER) {
+            return ((long) noOfEntitiesD1) * noOfEntitiesD2;
+        }
+        return ((long) noOfEntitiesD1) * (noOfEntitiesD1 - 1) / 2;
+    }
+
+    private long getClusteringMemory(long noOfPairs) {
+        final long noOfEntities = noOfEntitiesD1 + noOfEntitiesD2;
+        // the similarity pairs, the sorted pair indices and the graph or the similarity matrices
+        long memory = 2L * PAIR * noOfPairs;
+        if (clustering instanceof MarkovClustering) {
+            memory += 3 * noOfEntities * (ARRAY_HEADER + REFERENCE + 4 * noOfEntities);
+        } else {
+            memory += GRAPH_VERTEX * noOfEntities + GRAPH_EDGE * noOfPairs;
+        }
+        return memory;
+    }
+
+    private long getDistinctComparisons(long comparisons) {
+        return Math.min(comparisons, getBruteForceComparisons());
+    }
+
+    private boolean hasComparisonCleaning() {
+        return blockProcessing.stream().anyMatch(method -> method instanceof AbstractComparisonCleaning);
+    }
+
+    private boolean hasKeyPartitions() {
+        return blockBuilding instanceof AbstractBlockBuilding && ((AbstractBlockBuilding) blockBuilding).isPartitionedByKeys();
+    }
+
+    private boolean hasOnlyBlockCleaning() {
+        return blockProcessing.stream().allMatch(method -> method instanceof AbstractBlockPurging || method instanceof BlockFiltering);
+    }
+
+    /**
+     * Estimates the peak memory of Block Building, Block Processing and
+     * Entity Matching in a single JVM, i.e., in one of the given number of
+     * partitions.
+     *
+     * @return the estimates of the three stages, with the comparisons of
+     * Entity Matching last
+     */
+    private long[] getWorkflowEstimates(int noOfPartitions, boolean streamBlocks) {
+        final long noOfEntities = noOfEntitiesD1 + noOfEntitiesD2;
+        final long profilesMemory = bytesPerProfile * noOfEntities;
+        final long partitionBlocks = divide(noOfBlocks, noOfPartitions);
+        final long partitionAssignments = divide(totalAssignments, noOfPartitions);
+        final long partitionBlocksMemory = divide(blocksMemory, noOfPartitions);
+        // the largest block cannot be split
+        final long partitionComparisons = Math.max(maxBlockComparisons, divide(totalComparisons, noOfPartitions));
+
+        // the inverted index is as large as the blocks, which are all built by every worker without key partitions
+        final long buildingMemory = profilesMemory + 2 * (hasKeyPartitions() ? partitionBlocksMemory : blocksMemory);
+
+        long processingMemory = 0;
+        long outputBlocksMemory = partitionBlocksMemory;
+        long outputComparisons = partitionComparisons;
+        if (!blockProcessing.isEmpty()) {
+            if (streamBlocks) {
+                // the metadata of the store and the per-entity limits of Block Filtering
+                processingMemory = profilesMemory + 2L * (ARRAY_HEADER + 4 * partitionBlocks) + 4 * noOfEntities;
+            } else {
+                // Block Filtering copies the retained part of every block
+                processingMemory = profilesMemory + 2 * partitionBlocksMemory + REFERENCE * partitionBlocks;
+            }
+
+            if (hasComparisonCleaning()) {
+                // the Entity Index, the arrays of every thread and one decomposed block per entity
+                final long entityIndexMemory = noOfEntities * (ARRAY_HEADER + REFERENCE + 8) + 4 * partitionAssignments + REFERENCE * partitionBlocks;
+                final long threadsMemory = 12 * noOfEntities * Runtime.getRuntime().availableProcessors();
+                outputComparisons = getDistinctComparisons(partitionComparisons);
+                outputBlocksMemory = PAIR * outputComparisons + noOfEntities * (REFERENCE + BLOCK_OBJECT + 3 * ARRAY_HEADER);
+                processingMemory = profilesMemory + partitionBlocksMemory + entityIndexMemory + threadsMemory + outputBlocksMemory;
+            }
+        }
+
+        // the similarity pairs are allocated for all comparisons of the blocks
+        final long matchingMemory = profilesMemory + outputBlocksMemory + PAIR * outputComparisons;
+        return new long[]{buildingMemory, processingMemory, matchingMemory, outputComparisons};
+    }
+
+    private static long divide(long value, int noOfPartitions) {
+        return (value + noOfPartitions - 1) / noOfPartitions;
+    }
+
+    private void fail(String stage, long peakMemory, int noOfPartitions, List<StageEstimate> estimates) {
+        final ExecutionPlan plan = new ExecutionPlan(heapBudget, noOfPartitions, estimates);
+        Log.error("Infeasible execution plan:\n" + plan);
+        throw new IllegalStateException("The estimated peak memory of " + stage + " is " + toMegabytes(peakMemory)
+                + " MB, which exceeds the heap budget of " + toMegabytes(heapBudget) + " MB.");
+    }
+
+    private boolean fits(long[] estimates) {
+        return estimates[0] <= heapBudget && estimates[1] <= heapBudget && estimates[2] <= heapBudget
+                && estimates[3] <= MAX_COMPARISONS;
+    }
+
+    /**
+     * @return the variant, the peak memory and the comparisons of every
+     * stage, in the order of execution
+     * @throws IllegalStateException if a stage does not fit into the heap
+     * budget in any variant
+     */
+    public ExecutionPlan plan() {
+        final List<StageEstimate> estimates = new ArrayList<>();
+
+        int noOfPartitions = 1;
+        ExecutionVariant processingVariant = ExecutionVariant.IN_MEMORY;
+        ExecutionVariant variant = ExecutionVariant.IN_MEMORY;
+        long[] workflowEstimates = getWorkflowEstimates(1, false);
+        if (!fits(workflowEstimates)) {
+            final long[] streamingEstimates = getWorkflowEstimates(1, true);
+            if (hasOnlyBlockCleaning() && !blockProcessing.isEmpty() && fits(streamingEstimates)) {
+                processingVariant = ExecutionVariant.DISK_BLOCK_STORE;
+                workflowEstimates = streamingEstimates;
+            } else {
+                variant = ExecutionVariant.PARTITIONED;
+                processingVariant = ExecutionVariant.PARTITIONED;
+                // more partitions cannot reduce the memory of Block Building without key partitions
+                while (noOfPartitions < MAX_PARTITIONS && !fits(workflowEstimates)
+                        && (hasKeyPartitions() || workflowEstimates[0] <= heapBudget)) {
+                    noOfPartitions++;
+                    workflowEstimates = getWorkflowEstimates(noOfPartitions, false);
+                }
+            }
+        }
+
+        final String scope = noOfPartitions == 1 ? "" : " per partition";
+        estimates.add(new StageEstimate(PipelineMetrics.BLOCK_BUILDING, variant, workflowEstimates[0], divide(totalComparisons, noOfPartitions)));
+        if (heapBudget < workflowEstimates[0]) {
+            fail(PipelineMetrics.BLOCK_BUILDING + scope, workflowEstimates[0], noOfPartitions, estimates);
+        }
+        if (!blockProcessing.isEmpty()) {
+            estimates.add(new StageEstimate(PipelineMetrics.BLOCK_PROCESSING, processingVariant, workflowEstimates[1], workflowEstimates[3]));
+            if (heapBudget < workflowEstimates[1]) {
+                fail(PipelineMetrics.BLOCK_PROCESSING + scope, workflowEstimates[1], noOfPartitions, estimates);
+            }
+        }
+
+        long noOfPairs = workflowEstimates[3];
+        long mergingMemory = 0;
+        if (1 < noOfPartitions) {
+            // the coordinator merges the distinct pairs of all partitions
+            noOfPairs = getDistinctComparisons(noOfPartitions * workflowEstimates[3]);
+            mergingMemory = MERGED_PAIR * noOfPairs;
+        }
+        estimates.add(new StageEstimate(PipelineMetrics.ENTITY_MATCHING, variant, Math.max(workflowEstimates[2], mergingMemory), noOfPairs));
+        if (heapBudget < workflowEstimates[2]) {
+            fail(PipelineMetrics.ENTITY_MATCHING + scope, workflowEstimates[2], noOfPartitions, estimates);
+        }
+        if (heapBudget < mergingMemory) {
+            fail("the merging of the similarity pairs", mergingMemory, noOfPartitions, estimates);
+        }
+        if (MAX_COMPARISONS < noOfPairs) {
+            Log.error("Infeasible execution plan:\n" + new ExecutionPlan(heapBudget, noOfPartitions, estimates));
+            throw new IllegalStateException("The estimated number of similarity pairs is " + noOfPairs
+                    + ", which exceeds the maximum of " + MAX_COMPARISONS + ".");
+        }
+
+        if (clustering != null) {
+            final long clusteringMemory = getClusteringMemory(noOfPairs);
+            estimates.add(new StageEstimate(PipelineMetrics.ENTITY_CLUSTERING, ExecutionVariant.IN_MEMORY, clusteringMemory, noOfPairs));
+            if (heapBudget < clusteringMemory) {
+                fail(PipelineMetrics.ENTITY_CLUSTERING, clusteringMemory, noOfPartitions, estimates);
+            }
+        }
+
+        final ExecutionPlan plan = new ExecutionPlan(heapBudget, noOfPartitions, estimates);
+        Log.info("Execution plan:\n" + plan);
+        return plan;
+    }
+
+    /**
+     * @param blockBuilding the block building method of the workflow, which
+     * determines whether partitioning reduces the memory of Block Building
+     */
+    public void setBlockBuilding(IBlockBuilding blockBuilding) {
+        this.blockBuilding = blockBuilding;
+    }
+
+    /**
+     * Replaces the block size histogram with the sizes of the given blocks.
+     */
+    public void setBlockStatistics(List<AbstractBlock> blocks) {
+        resetBlockStatistics();
+        for (AbstractBlock block : blocks) {
+            if (block instanceof BilateralBlock) {
+                final BilateralBlock bBlock = (BilateralBlock) block;
+                addBlocks(bBlock.getIndex1Entities().length, bBlock.getIndex2Entities().length, 1);
+            } else {
+                addBlocks(((UnilateralBlock) block).getEntities().length, 0, 1);
+            }
+        }
+    }
+
+    /**
+     * Replaces the block size histogram with the sizes of the blocks of the
+     * given store, without loading them.
+     */
+    public void setBlockStatistics(IBlockStore store) {
+        resetBlockStatistics();
+        for (int i = 0; i < store.size(); i++) {
+            addBlocks(store.getInnerSize1(i), store.getInnerSize2(i), 1);
+        }
+    }
+
+    /**
+     * @param bytesPerProfile the heap usage of every entity profile along with
+     * its representation model for Entity Matching; it is 0 by default, i.e.,
+     * the profiles are not taken into account
+     */
+    public void setBytesPerProfile(long bytesPerProfile) {
+        this.bytesPerProfile = bytesPerProfile;
+    }
+
+    public void setEntityClustering(IEntityClustering clustering) {
+        this.clustering = clustering;
+    }
+
+    /**
+     * @param heapBudget the bytes that are available to every JVM; it is the
+     * maximum heap size of the current JVM by default
+     */
+    public void setHeapBudget(long heapBudget) {
+        this.heapBudget = heapBudget;
+    }
+
+    private void resetBlockStatistics() {
+        blocksMemory = 0;
+        maxBlockComparisons = 0;
+        noOfBlocks = 0;
+        totalAssignments = 0;
+        totalComparisons = 0;
+    }
+
+    static String toMegabytes(long bytes) {
+        return String.format(Locale.ROOT, "%.1f", bytes / (1024.0 * 1024.0));
+    }
+}
@@ -0,0 +1,128 @@
+/*
+* Copyright [2016-2020] [George Papadakis (gpapadis@yahoo.gr)]
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+*    http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+ */
+package org.scify.jedai.utilities.metrics;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+/**
+ * Emits a Java Flight Recorder event per step, which spans the execution of
+ * the step, so that it is aligned with the GC, allocation and CPU events of
+ * the same recording. The events are named "org.scify.jedai.Stage" and are
+ * recorded only when a recording that enables them is active, e.g., one
+ * started with -XX:StartFlightRecording. The progress counters are stored as
+ * a single text field. As it uses the jdk.jfr module, it is kept in a
+ * separate source directory, which is compiled for Java 11 only by the java11
+ * profile, i.e., only on JDK 11 or later.
+ *
+ * @author G.A.P. II
+ */
+public class JfrMetricsExporter implements IMetricsExporter {
+
+    @Name("org.scify.jedai.Stage")
+    @Label("JedAI Stage")
+    @Category({"JedAI"})
+    @Description("The execution of a workflow step")
+    @StackTrace(false)
+    static class StageEvent extends Event {
+
+        @Label("Stage")
+        String stage;
+
+        @Label("Method")
+        String method;
+
+        @Label("Configuration")
+        String configuration;
+
+        @Label("CPU Time")
+        @Timespan(Timespan.NANOSECONDS)
+        long cpuTime;
+
+        @Label("Allocated")
+        @DataAmount(DataAmount.BYTES)
+        long allocatedBytes;
+
+        @Label("Input Size")
+        long inputSize;
+
+        @Label("Input Comparisons")
+        long inputComparisons;
+
+        @Label("Output Size")
+        long outputSize;
+
+        @Label("Output Comparisons")
+        long outputComparisons;
+
+        @Label("Counters")
+        String counters;
+    }
+
+    private final Map<StageMetrics, StageEvent> activeEvents;
+
+    public JfrMetricsExporter() {
+        activeEvents = new ConcurrentHashMap<>();
+    }
+
+    @Override
+    public void stageFinished(StageMetrics stage) {
+        final StageEvent event = activeEvents.remove(stage);
+        if (event == null) {
+            return;
+        }
+
+        event.end();
+        if (event.shouldCommit()) {
+            event.stage = stage.getStageName();
+            event.method = stage.getMethodName();
+            event.configuration = stage.getConfiguration();
+            event.cpuTime = stage.getCpuTime();
+            event.allocatedBytes = stage.getAllocatedBytes();
+            event.inputSize = stage.getInputSize();
+            event.inputComparisons = stage.getInputComparisons();
+            event.outputSize = stage.getOutputSize();
+            event.outputComparisons = stage.getOutputComparisons();
+
+            final StringBuilder sb = new StringBuilder();
+            for (ProgressCounter counter : stage.getCounters()) {
+                if (0 < sb.length()) {
+                    sb.append(", ");
+                }
+                sb.append(counter.getName()).append('=').append(counter.sum());
+            }
+            event.counters = sb.toString();
+            event.commit();
+        }
+    }
+
+    @Override
+    public void stageStarted(StageMetrics stage) {
+        final StageEvent event = new StageEvent();
+        if (event.isEnabled()) {
+            event.begin();
+            activeEvents.put(stage, event);
+        }
+    }
+}
@@ -0,0 +1,135 @@
+package org.scify.jedai.blockbuilding;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
+
+import gnu.trove.map.hash.TObjectIntHashMap;
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.BiFunction;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.scify.jedai.datamodel.AbstractBlock;
+import org.scify.jedai.datamodel.AttributeClusters;
+import org.scify.jedai.datamodel.BilateralBlock;
+import org.scify.jedai.datamodel.EntityProfile;
+import org.scify.jedai.datamodel.UnilateralBlock;
+import org.scify.jedai.datareader.entityreader.EntitySerializationReader;
+
+/**
+ * Verifies that the suffix array of {@link SuffixArraysBlocking} and {@link
+ * ExtendedSuffixArraysBlocking} yields the same blocks as materializing every suffix or substring
+ * as a blocking key, which is still done with schema clusters. A single schema cluster covers all
+ * attributes, so that both paths use the same keys.
+ */
+class SuffixArraysBlockingTest {
+  private static final int[] MAXIMUM_BLOCK_SIZES = {1, 2, 3, 10, 53, Integer.MAX_VALUE};
+  private static final int[] MINIMUM_SUFFIX_LENGTHS = {0, 1, 2, 3, 6, 20};
+
+  private static List<EntityProfile> profilesD1;
+  private static List<EntityProfile> profilesD2;
+  private static List<EntityProfile> dirtyProfiles;
+
+  @BeforeAll
+  static void readProfiles() {
+    dirtyProfiles = readProfiles("dirtyErDatasets", "restaurantProfiles", 300);
+    profilesD1 = readProfiles("cleanCleanErDatasets", "abtProfiles", 150);
+    profilesD2 = readProfiles("cleanCleanErDatasets", "buyProfiles", 150);
+  }
+
+  private static List<EntityProfile> readProfiles(String directory, String file, int size) {
+    String path = "data" + File.separator + directory + File.separator + file;
+    List<EntityProfile> profiles = new EntitySerializationReader(path).getEntityProfiles();
+    return new ArrayList<>(profiles.subList(0, size));
+  }
+
+  /** @return the blocks as sorted strings of their sorted entity ids */
+  private static List<String> toSortedStrings(List<AbstractBlock> blocks) {
+    List<String> result = new ArrayList<>();
+    for (AbstractBlock block : blocks) {
+      // the schema clusters do not discard the blocks of a single entity
+      if (block.getNoOfComparisons() == 0) {
+        continue;
+      }
+      if (block instanceof BilateralBlock) {
+        BilateralBlock bBlock = (BilateralBlock) block;
+        result.add(
+            toString(bBlock.getIndex1Entities()) + "|" + toString(bBlock.getIndex2Entities()));
+      } else {
+        result.add(toString(((UnilateralBlock) block).getEntities()));
+      }
+    }
+    Collections.sort(result);
+    return result;
+  }
+
+  private static String toString(int[] entities) {
+    int[] sorted = entities.clone();
+    Arrays.sort(sorted);
+    return Arrays.toString(sorted);
+  }
+
+  private static void assertSameBlocks(
+      BiFunction<Integer, Integer, SuffixArraysBlocking> method, boolean cleanCleanER) {
+    List<EntityProfile> d1 = cleanCleanER ? profilesD1 : dirtyProfiles;
+    List<EntityProfile> d2 = cleanCleanER ? profilesD2 : null;
+    AttributeClusters singleCluster =
+        new AttributeClusters(new float[] {1.0f}, new TObjectIntHashMap<>());
+    AttributeClusters[] schemaClusters =
+        cleanCleanER
+            ? new AttributeClusters[] {singleCluster, singleCluster}
+            : new AttributeClusters[] {singleCluster};
+
+    boolean anyBlocks = false;
+    for (int maximumBlockSize : MAXIMUM_BLOCK_SIZES) {
+      for (int minimumSuffixLength : MINIMUM_SUFFIX_LENGTHS) {
+        List<AbstractBlock> referenceBlocks =
+            method.apply(maximumBlockSize, minimumSuffixLength).getBlocks(d1, d2, schemaClusters);
+        // only getBlocks without schema clusters purges the blocks that exceed the maximum size
+        referenceBlocks.removeIf(block -> maximumBlockSize < block.getTotalBlockAssignments());
+        List<String> expected = toSortedStrings(referenceBlocks);
+        List<String> actual =
+            toSortedStrings(method.apply(maximumBlockSize, minimumSuffixLength).getBlocks(d1, d2));
+        assertThat(
+            "maximumBlockSize=" + maximumBlockSize + ", minimumSuffixLength=" + minimumSuffixLength,
+            actual,
+            is(expected));
+        anyBlocks |= !actual.isEmpty();
+      }
+    }
+    assertThat(anyBlocks, is(true));
+  }
+
+  @Test
+  void testSuffixArraysDirtyER() {
+    assertSameBlocks(SuffixArraysBlocking::new, false);
+  }
+
+  @Test
+  void testSuffixArraysCleanCleanER() {
+    assertSameBlocks(SuffixArraysBlocking::new, true);
+  }
+
+  @Test
+  void testExtendedSuffixArraysDirtyER() {
+    assertSameBlocks(ExtendedSuffixArraysBlocking::new, false);
+  }
+
+  @Test
+  void testExtendedSuffixArraysCleanCleanER() {
+    assertSameBlocks(ExtendedSuffixArraysBlocking::new, true);
+  }
+
+  @Test
+  void testBlockSizeLimit() {
+    for (AbstractBlock block : new SuffixArraysBlocking(3, 2).getBlocks(dirtyProfiles)) {
+      assertThat(block.getTotalBlockAssignments() <= 3, is(true));
+    }
+    assertThat(new SuffixArraysBlocking(1, 2).getBlocks(dirtyProfiles).isEmpty(), is(true));
+    assertThat(new SuffixArraysBlocking(2, 2).getBlocks(dirtyProfiles).isEmpty(), is(not(true)));
+  }
+}
@@ -0,0 +1,130 @@
+package org.scify.jedai.datareader.entityreader;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.scify.jedai.datamodel.Attribute;
+import org.scify.jedai.datamodel.EntityProfile;
+
+/** Verifies the functionality of {@link EntityDBReader} against an in-memory H2 database. */
+class EntityDBReaderTest {
+  private static final int NO_OF_ROWS = 100;
+  private static final String DB_URL = "h2:mem:entitydbreadertest;DB_CLOSE_DELAY=-1";
+  private static final String PASSWORD = "";
+  private static final String USER = "sa";
+
+  /** Keeps the in-memory database alive until {@link #dropTable()}. */
+  private Connection connection;
+
+  @BeforeEach
+  void createTable() throws SQLException {
+    connection = DriverManager.getConnection("jdbc:" + DB_URL, USER, PASSWORD);
+    try (Statement stmt = connection.createStatement()) {
+      stmt.execute(
+          "CREATE TABLE people (id INT PRIMARY KEY, name VARCHAR(32), city VARCHAR(32), "
+              + "price DECIMAL(10, 2))");
+    }
+    try (PreparedStatement stmt =
+        connection.prepareStatement("INSERT INTO people VALUES (?, ?, ?, ?)")) {
+      for (int i = 0; i < NO_OF_ROWS; i++) {
+        stmt.setInt(1, i);
+        stmt.setString(2, "name" + i);
+        // every third row has no city, which should not become an attribute
+        stmt.setString(3, i % 3 == 0 ? null : "city" + (i % 7));
+        stmt.setBigDecimal(4, new BigDecimal(i + ".50"));
+        stmt.executeUpdate();
+      }
+    }
+  }
+
+  @AfterEach
+  void dropTable() throws SQLException {
+    try (Statement stmt = connection.createStatement()) {
+      stmt.execute("DROP TABLE people");
+    }
+    connection.close();
+  }
+
+  @Test
+  void testGetEntityProfiles() {
+    List<EntityProfile> profiles = newReader().getEntityProfiles();
+    assertThat(profiles.size(), is(NO_OF_ROWS));
+    for (EntityProfile profile : profiles) {
+      int id = Integer.parseInt(profile.getEntityUrl());
+      assertThat(profile.getProfileSize(), is(id % 3 == 0 ? 2 : 3));
+    }
+  }
+
+  @Test
+  void testReadEntityProfilesStreamsEveryRow() {
+    List<EntityProfile> streamed = new ArrayList<>();
+    assertThat(newReader().readEntityProfiles(streamed::add), is(true));
+    assertThat(new HashSet<>(streamed), is(new HashSet<>(newReader().getEntityProfiles())));
+    assertThat(streamed.size(), is(NO_OF_ROWS));
+  }
+
+  @Test
+  void testSetColumnsSelectsOnlyTheGivenColumns() {
+    EntityDBReader reader = newReader();
+    reader.setColumns("name", new String[] {"city"});
+    List<EntityProfile> profiles = reader.getEntityProfiles();
+    assertThat(profiles.size(), is(NO_OF_ROWS));
+    for (EntityProfile profile : profiles) {
+      int id = Integer.parseInt(profile.getEntityUrl().substring("name".length()));
+      assertThat(profile.getProfileSize(), is(id % 3 == 0 ? 0 : 1));
+      for (Attribute attribute : profile.getAttributes()) {
+        assertThat(attribute.getName(), is("CITY"));
+        assertThat(attribute.getValue(), is("city" + (id % 7)));
+      }
+    }
+  }
+
+  @Test
+  void testSetPartitioningReadsEveryRowOnce() {
+    List<EntityProfile> expected = newReader().getEntityProfiles();
+    for (int noOfPartitions : new int[] {2, 3, 7, NO_OF_ROWS + 1}) {
+      EntityDBReader reader = newReader();
+      reader.setPartitioning("id", noOfPartitions);
+      reader.setFetchSize(8);
+      List<EntityProfile> profiles = reader.getEntityProfiles();
+      assertThat(profiles.size(), is(NO_OF_ROWS));
+      assertThat(new HashSet<>(profiles), is(new HashSet<>(expected)));
+
+      List<EntityProfile> streamed = new ArrayList<>();
+      reader = newReader();
+      reader.setPartitioning("id", noOfPartitions);
+      assertThat(reader.readEntityProfiles(streamed::add), is(true));
+      assertThat(streamed.size(), is(NO_OF_ROWS));
+      assertThat(new HashSet<>(streamed), is(new HashSet<>(expected)));
+    }
+  }
+
+  @Test
+  void testSetPartitioningRejectsNonIntegerKeys() {
+    EntityDBReader reader = newReader();
+    reader.setPartitioning("price", 4);
+    assertThat(reader.getEntityProfiles(), is(nullValue()));
+  }
+
+  private EntityDBReader newReader() {
+    EntityDBReader reader = new EntityDBReader(DB_URL);
+    reader.setTable("people");
+    reader.setUser(USER);
+    reader.setPassword(PASSWORD);
+    reader.setSSL(false);
+    return reader;
+  }
+}
@@ -0,0 +1,108 @@
+package org.scify.jedai.datareader.entityreader;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+
+import java.io.IOException;
+import java.net.URISyntaxException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.scify.jedai.datamodel.EntityProfile;
+
+/** Verifies the functionality of {@link EntityRDFReader}. */
+class EntityRDFReaderTest {
+  static final String NAMESPACE = "http://example.org/";
+  static final String SAME_AS = "http://www.w3.org/2002/07/owl#sameAs";
+
+  /** @return the path of the N-Triples test file, whose subjects are interleaved */
+  static String getEntitiesFile() throws URISyntaxException {
+    return Paths.get(EntityRDFReaderTest.class.getResource("entities.nt").toURI()).toString();
+  }
+
+  /** @return the profiles of the test file in the order of their first triple */
+  static List<EntityProfile> getExpectedProfiles(String urlPrefix) {
+    EntityProfile carol = new EntityProfile(urlPrefix + "e3");
+    carol.addAttribute(NAMESPACE + "name", "Carol");
+    carol.addAttribute(NAMESPACE + "knows", NAMESPACE + "e1");
+    carol.addAttribute(NAMESPACE + "city", "Athens");
+
+    EntityProfile alice = new EntityProfile(urlPrefix + "e1");
+    alice.addAttribute(NAMESPACE + "name", "Alice");
+    alice.addAttribute(NAMESPACE + "city", "Athens");
+    alice.addAttribute(NAMESPACE + "age", "30");
+
+    EntityProfile bob = new EntityProfile(urlPrefix + "e2");
+    bob.addAttribute(NAMESPACE + "name", "Bob");
+    bob.addAttribute(NAMESPACE + "city", "Patras");
+
+    // the empty literal adds no attribute
+    EntityProfile empty = new EntityProfile(urlPrefix + "e4");
+
+    List<EntityProfile> profiles = new ArrayList<>();
+    profiles.add(carol);
+    profiles.add(alice);
+    profiles.add(bob);
+    profiles.add(empty);
+    return profiles;
+  }
+
+  @Test
+  void testGetEntityProfiles() throws URISyntaxException {
+    EntityRDFReader reader = new EntityRDFReader(getEntitiesFile());
+    reader.setAttributesToExclude(new String[] {SAME_AS});
+    List<EntityProfile> profiles = reader.getEntityProfiles();
+    assertThat(profiles, is(getExpectedProfiles(NAMESPACE)));
+    assertThat(profiles.get(3).getProfileSize(), is(0));
+  }
+
+  @Test
+  void testExcludedAttributes() throws URISyntaxException {
+    EntityRDFReader reader = new EntityRDFReader(getEntitiesFile());
+    List<EntityProfile> profiles = reader.getEntityProfiles();
+    assertThat(profiles.size(), is(4));
+    // the default exclusion uses the prefixed name, which does not match the full URI
+    assertThat(profiles.get(2).getProfileSize(), is(3));
+  }
+
+  @Test
+  void testReadEntityProfilesWithPrefixOmission() throws URISyntaxException {
+    EntityRDFReader reader = new EntityRDFReader(getEntitiesFile());
+    reader.setAttributesToExclude(new String[] {SAME_AS});
+    reader.setPrefixOmission(NAMESPACE);
+    List<EntityProfile> streamed = new ArrayList<>();
+    assertThat(reader.readEntityProfiles(streamed::add), is(true));
+    assertThat(streamed, is(getExpectedProfiles("")));
+  }
+
+  @Test
+  void testGroupedBySubject(@TempDir Path directory) throws IOException, URISyntaxException {
+    Path sortedFile = directory.resolve("sorted.nt");
+    List<String> triples = Files.readAllLines(Paths.get(getEntitiesFile()), StandardCharsets.UTF_8);
+    Collections.sort(triples);
+    Files.write(sortedFile, triples, StandardCharsets.UTF_8);
+
+    List<EntityProfile> expected = getExpectedProfiles(NAMESPACE);
+    expected.sort(Comparator.comparing(EntityProfile::getEntityUrl));
+    EntityRDFReader reader = new EntityRDFReader(sortedFile.toString());
+    reader.setAttributesToExclude(new String[] {SAME_AS});
+    reader.setGroupedBySubject(true);
+    List<EntityProfile> streamed = new ArrayList<>();
+    assertThat(reader.readEntityProfiles(streamed::add), is(true));
+    assertThat(streamed, is(expected));
+  }
+
+  @Test
+  void testMissingFile(@TempDir Path directory) {
+    EntityRDFReader reader = new EntityRDFReader(directory.resolve("missing.nt").toString());
+    assertThat(reader.getEntityProfiles(), is(nullValue()));
+  }
+}
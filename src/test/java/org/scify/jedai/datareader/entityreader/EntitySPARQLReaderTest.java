@@ -0,0 +1,99 @@
+package org.scify.jedai.datareader.entityreader;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.scify.jedai.datareader.entityreader.EntityRDFReaderTest.NAMESPACE;
+import static org.scify.jedai.datareader.entityreader.EntityRDFReaderTest.SAME_AS;
+
+import java.net.URISyntaxException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.apache.jena.query.Dataset;
+import org.apache.jena.query.Query;
+import org.apache.jena.query.QueryExecution;
+import org.apache.jena.query.QueryExecutionFactory;
+import org.apache.jena.riot.RDFDataMgr;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.scify.jedai.datamodel.EntityProfile;
+
+/**
+ * Verifies that {@link EntitySPARQLReader} pages through an in-memory dataset, which replaces the
+ * remote endpoint, and produces the profiles of its triples.
+ */
+class EntitySPARQLReaderTest {
+  private static Dataset dataset;
+
+  /** Queries the in-memory dataset and counts the executed queries. */
+  private static class LocalSPARQLReader extends EntitySPARQLReader {
+    private final AtomicInteger noOfQueries = new AtomicInteger();
+
+    LocalSPARQLReader(int pageSize, int noOfFetchers) {
+      super("local");
+      setAttributesToExclude(new String[] {SAME_AS});
+      setNoOfFetchers(noOfFetchers);
+      setPageSize(pageSize);
+    }
+
+    @Override
+    protected QueryExecution getQueryExecution(Query query) {
+      noOfQueries.incrementAndGet();
+      return QueryExecutionFactory.create(query, dataset);
+    }
+  }
+
+  @BeforeAll
+  static void loadDataset() throws URISyntaxException {
+    // the eleven lines of the file contain ten distinct triples
+    dataset = RDFDataMgr.loadDataset(EntityRDFReaderTest.getEntitiesFile());
+  }
+
+  /** @return the expected profiles, which are emitted in the order of their subjects */
+  private static List<EntityProfile> getExpectedProfiles() {
+    List<EntityProfile> profiles = EntityRDFReaderTest.getExpectedProfiles(NAMESPACE);
+    profiles.sort(Comparator.comparing(EntityProfile::getEntityUrl));
+    return profiles;
+  }
+
+  @Test
+  void testReadPages() {
+    // the profiles of e1 and e3 span two pages
+    LocalSPARQLReader reader = new LocalSPARQLReader(3, 1);
+    List<EntityProfile> profiles = reader.getEntityProfiles();
+    assertThat(profiles, is(getExpectedProfiles()));
+    assertThat(reader.noOfQueries.get(), is(4));
+  }
+
+  @Test
+  void testReadFullLastPage() {
+    // the last page is full, so an empty page is requested, too
+    LocalSPARQLReader reader = new LocalSPARQLReader(5, 1);
+    List<EntityProfile> streamed = new ArrayList<>();
+    assertThat(reader.readEntityProfiles(streamed::add), is(true));
+    assertThat(streamed, is(getExpectedProfiles()));
+    assertThat(reader.noOfQueries.get(), is(3));
+  }
+
+  @Test
+  void testReadPagesWithParallelFetchers() {
+    for (int pageSize = 1; pageSize <= 11; pageSize++) {
+      for (int noOfFetchers = 2; noOfFetchers <= 4; noOfFetchers++) {
+        LocalSPARQLReader reader = new LocalSPARQLReader(pageSize, noOfFetchers);
+        assertThat(reader.getEntityProfiles(), is(getExpectedProfiles()));
+      }
+    }
+  }
+
+  @Test
+  void testReadWithoutPages() {
+    LocalSPARQLReader reader = new LocalSPARQLReader(0, 1);
+    List<EntityProfile> profiles = reader.getEntityProfiles();
+    assertThat(profiles.size(), is(4));
+    // a single unordered query indexes the profiles by subject
+    profiles.sort(Comparator.comparing(EntityProfile::getEntityUrl));
+    assertThat(profiles, is(getExpectedProfiles()));
+    assertThat(reader.noOfQueries.get(), is(1));
+  }
+}
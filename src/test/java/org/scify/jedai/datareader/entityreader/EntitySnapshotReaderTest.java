@@ -0,0 +1,102 @@
+package org.scify.jedai.datareader.entityreader;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.scify.jedai.datamodel.EntityProfile;
+
+/** Verifies that {@link EntitySnapshotReader} reads what {@link EntitySnapshotWriter} stores. */
+class EntitySnapshotReaderTest {
+  private static final int PROFILES_PER_BLOCK = 7;
+
+  @Test
+  void testRoundTrip(@TempDir Path directory) {
+    List<EntityProfile> profiles = generateProfiles(new Random(11), 100);
+    String path = write(profiles, directory);
+
+    EntitySnapshotReader reader = new EntitySnapshotReader(path);
+    assertThat(reader.getEntityProfiles(), is(profiles));
+    assertThat(reader.getNoOfProfiles(), is(profiles.size()));
+    int noOfBlocks = (profiles.size() + PROFILES_PER_BLOCK - 1) / PROFILES_PER_BLOCK;
+    assertThat(reader.getNoOfBlocks(), is(noOfBlocks));
+  }
+
+  @Test
+  void testRandomAccess(@TempDir Path directory) {
+    List<EntityProfile> profiles = generateProfiles(new Random(12), 50);
+    String path = write(profiles, directory);
+
+    EntitySnapshotReader reader = new EntitySnapshotReader(path);
+    for (int i = profiles.size() - 1; 0 <= i; i--) {
+      assertThat(reader.getEntityProfile(i), is(profiles.get(i)));
+    }
+    for (int blockId = 0; blockId < reader.getNoOfBlocks(); blockId++) {
+      int blockEnd = Math.min(profiles.size(), (blockId + 1) * PROFILES_PER_BLOCK);
+      assertThat(
+          reader.getBlockProfiles(blockId),
+          is(profiles.subList(blockId * PROFILES_PER_BLOCK, blockEnd)));
+    }
+    assertThat(reader.getEntityProfile(profiles.size()), is(nullValue()));
+  }
+
+  @Test
+  void testRoundTripOfEmptySnapshot(@TempDir Path directory) {
+    String path = write(Collections.emptyList(), directory);
+    EntitySnapshotReader reader = new EntitySnapshotReader(path);
+    assertThat(reader.getEntityProfiles().isEmpty(), is(true));
+    assertThat(reader.getNoOfProfiles(), is(0));
+  }
+
+  @Test
+  void testInvalidSnapshot(@TempDir Path directory) throws IOException {
+    Path path = directory.resolve("invalid.snapshot");
+    Files.write(path, "not a snapshot, but longer than its header".getBytes(StandardCharsets.UTF_8));
+    assertThat(new EntitySnapshotReader(path.toString()).getEntityProfiles(), is(nullValue()));
+  }
+
+  /**
+   * Generates profiles with shared and distinct attribute names, multi-byte characters, empty
+   * values and profiles, as well as values that exceed the buffer of the writer.
+   */
+  private static List<EntityProfile> generateProfiles(Random random, int noOfProfiles) {
+    List<EntityProfile> profiles = new ArrayList<>();
+    for (int i = 0; i < noOfProfiles; i++) {
+      EntityProfile profile = new EntityProfile("http://example.org/entity/" + i);
+      int noOfAttributes = i % 10 == 0 ? 0 : 1 + random.nextInt(5);
+      for (int j = 0; j < noOfAttributes; j++) {
+        profile.addAttribute("name" + random.nextInt(8), "value " + random.nextInt(1000) + " αβγ €");
+      }
+      if (i % 13 == 1) {
+        profile.addAttribute("attribute" + i, "");
+      }
+      if (i % 17 == 2) {
+        StringBuilder longValue = new StringBuilder();
+        while (longValue.length() < 100_000) {
+          longValue.append("long é value ");
+        }
+        profile.addAttribute("description", longValue.toString());
+      }
+      profiles.add(profile);
+    }
+    return profiles;
+  }
+
+  private static String write(List<EntityProfile> profiles, Path directory) {
+    String path = directory.resolve("profiles.snapshot").toString();
+    EntitySnapshotWriter writer = new EntitySnapshotWriter(path);
+    writer.setProfilesPerBlock(PROFILES_PER_BLOCK);
+    writer.storeEntityProfiles(profiles);
+    return path;
+  }
+}
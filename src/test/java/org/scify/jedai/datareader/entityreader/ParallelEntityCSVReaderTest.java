@@ -0,0 +1,178 @@
+package org.scify.jedai.datareader.entityreader;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.notNullValue;
+import static org.hamcrest.Matchers.nullValue;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Random;
+import java.util.Spliterator;
+import java.util.stream.Collectors;
+import java.util.stream.StreamSupport;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.scify.jedai.datamodel.EntityProfile;
+
+/**
+ * Verifies that {@link ParallelEntityCSVReader} produces the same entity profiles as {@link
+ * EntityCSVReader}, regardless of where the chunk boundaries fall.
+ */
+class ParallelEntityCSVReaderTest {
+  private static final int NO_OF_ATTRIBUTES = 4;
+  private static final int NO_OF_RECORDS = 200;
+
+  /**
+   * Separators, quotes and line breaks, but neither backslashes, which are escape characters for
+   * opencsv, nor multi-byte characters, which {@link EntityCSVReader} decodes with the platform
+   * charset.
+   */
+  private static final String SYMBOLS = "ab ,;\"\n";
+
+  @Test
+  void testReadQuotedFields(@TempDir Path directory) throws IOException {
+    Path file = directory.resolve("entities.csv");
+    String content =
+        "id,name,description\n"
+            + "1,\"Smith, John\",\"a \"\"quoted\"\" word\"\n"
+            + "2,Café,\"two\nlines\"\r\n"
+            + "3,,plain\n";
+    Files.write(file, content.getBytes(StandardCharsets.UTF_8));
+
+    for (long chunkSize : new long[] {1, 7, 1024}) {
+      ParallelEntityCSVReader reader = new ParallelEntityCSVReader(file.toString());
+      reader.setAttributeNamesInFirstRow(true);
+      reader.setIdIndex(0);
+      reader.setChunkSize(chunkSize);
+      List<EntityProfile> profiles = reader.getEntityProfiles();
+      assertThat(profiles.size(), is(3));
+      assertThat(profiles.get(0).getEntityUrl(), is("1"));
+      assertThat(profiles.get(0).toString(), is(profile("1", "Smith, John", "a \"quoted\" word")));
+      assertThat(profiles.get(1).toString(), is(profile("2", "Café", "two\nlines")));
+      assertThat(profiles.get(2).getProfileSize(), is(1));
+    }
+  }
+
+  @Test
+  void testGetEntityProfilesEqualsSequentialReader(@TempDir Path directory) throws IOException {
+    Random random = new Random(29);
+    for (int file = 0; file < 10; file++) {
+      char separator = file % 2 == 0 ? ',' : ';';
+      Path path = directory.resolve("entities" + file + ".csv");
+      Files.write(path, generateFile(random, separator).getBytes(StandardCharsets.UTF_8));
+      for (boolean attributeNamesInFirstRow : new boolean[] {false, true}) {
+        EntityCSVReader sequentialReader = new EntityCSVReader(path.toString());
+        configure(sequentialReader, separator, attributeNamesInFirstRow);
+        List<EntityProfile> expected = sequentialReader.getEntityProfiles();
+        // without attribute names, the header is read as an entity profile, too
+        assertThat(expected.size(), is(NO_OF_RECORDS + (attributeNamesInFirstRow ? 0 : 1)));
+
+        for (long chunkSize : new long[] {1, 13, 97, 4096, 1 << 20}) {
+          ParallelEntityCSVReader reader = new ParallelEntityCSVReader(path.toString());
+          configure(reader, separator, attributeNamesInFirstRow);
+          reader.setChunkSize(chunkSize);
+          reader.setNoOfThreads(1 + random.nextInt(4));
+          assertThat("chunk size " + chunkSize, reader.getEntityProfiles(), is(expected));
+        }
+      }
+    }
+  }
+
+  @Test
+  void testSpliteratorStreamsEveryProfileInOrder(@TempDir Path directory) throws IOException {
+    Path path = directory.resolve("entities.csv");
+    Files.write(path, generateFile(new Random(30), ',').getBytes(StandardCharsets.UTF_8));
+    EntityCSVReader sequentialReader = new EntityCSVReader(path.toString());
+    configure(sequentialReader, ',', true);
+    List<EntityProfile> expected = sequentialReader.getEntityProfiles();
+
+    ParallelEntityCSVReader reader = new ParallelEntityCSVReader(path.toString());
+    configure(reader, ',', true);
+    reader.setChunkSize(64);
+    reader.setNoOfThreads(3);
+    Spliterator<EntityProfile> spliterator = reader.getEntityProfilesSpliterator();
+    assertThat(spliterator, is(notNullValue()));
+    List<EntityProfile> streamed =
+        StreamSupport.stream(spliterator, false).collect(Collectors.toList());
+    assertThat(streamed, is(expected));
+  }
+
+  @Test
+  void testInvalidInputReturnsNull(@TempDir Path directory) throws IOException {
+    Path empty = Files.createFile(directory.resolve("empty.csv"));
+    assertThat(new ParallelEntityCSVReader(empty.toString()).getEntityProfiles(), is(nullValue()));
+
+    Path path = directory.resolve("entities.csv");
+    Files.write(path, "a,b\nc,d\n".getBytes(StandardCharsets.UTF_8));
+    ParallelEntityCSVReader reader = new ParallelEntityCSVReader(path.toString());
+    reader.setIdIndex(2);
+    assertThat(reader.getEntityProfilesIterator(), is(nullValue()));
+
+    reader = new ParallelEntityCSVReader(path.toString());
+    reader.setSeparator('é');
+    assertThat(reader.getEntityProfilesIterator(), is(nullValue()));
+
+    reader = new ParallelEntityCSVReader(path.toString());
+    Iterator<EntityProfile> iterator = reader.getEntityProfilesIterator();
+    assertThat(iterator.next().getEntityUrl(), is("id1"));
+    assertThat(iterator.next().getEntityUrl(), is("id2"));
+    assertThat(iterator.hasNext(), is(false));
+  }
+
+  private static void configure(
+      EntityCSVReader reader, char separator, boolean attributeNamesInFirstRow) {
+    reader.setSeparator(separator);
+    reader.setAttributeNamesInFirstRow(attributeNamesInFirstRow);
+    reader.setAttributesToExclude(new int[] {2});
+    if (attributeNamesInFirstRow) {
+      reader.setIdIndex(0);
+    }
+  }
+
+  /**
+   * Generates records with distinct ids in the first column, quoting every field that contains a
+   * separator, a quote or a line break, so that records span several lines.
+   */
+  private static String generateFile(Random random, char separator) {
+    StringBuilder sb = new StringBuilder();
+    List<String> header = new ArrayList<>();
+    for (int i = 0; i < NO_OF_ATTRIBUTES; i++) {
+      header.add("attr" + i);
+    }
+    sb.append(String.join(String.valueOf(separator), header)).append('\n');
+
+    for (int record = 0; record < NO_OF_RECORDS; record++) {
+      sb.append("e").append(record);
+      for (int i = 1; i < NO_OF_ATTRIBUTES; i++) {
+        StringBuilder value = new StringBuilder();
+        int length = random.nextInt(12);
+        for (int j = 0; j < length; j++) {
+          value.append(SYMBOLS.charAt(random.nextInt(SYMBOLS.length())));
+        }
+        sb.append(separator).append(quote(value.toString(), separator));
+      }
+      sb.append('\n');
+    }
+    return sb.toString();
+  }
+
+  private static String profile(String id, String name, String description) {
+    EntityProfile profile = new EntityProfile(id);
+    profile.addAttribute("name", name);
+    profile.addAttribute("description", description);
+    return profile.toString();
+  }
+
+  private static String quote(String value, char separator) {
+    if (value.indexOf(separator) < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0) {
+      return value;
+    }
+    return '"' + value.replace("\"", "\"\"") + '"';
+  }
+}
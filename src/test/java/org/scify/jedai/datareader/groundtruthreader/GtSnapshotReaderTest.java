@@ -0,0 +1,47 @@
+package org.scify.jedai.datareader.groundtruthreader;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+
+import java.nio.file.Path;
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.scify.jedai.datamodel.IdDuplicates;
+
+/** Verifies that {@link GtSnapshotReader} reads back what {@link GtSnapshotWriter} stores. */
+class GtSnapshotReaderTest {
+  private static final int PAIRS_PER_BLOCK = 5;
+
+  @Test
+  void testRoundTrip(@TempDir Path directory) {
+    Random random = new Random(21);
+    Set<IdDuplicates> duplicates = new HashSet<>();
+    // zero ids, repeated first ids and extreme ids
+    duplicates.add(new IdDuplicates(0, 0));
+    duplicates.add(new IdDuplicates(0, 9));
+    duplicates.add(new IdDuplicates(Integer.MAX_VALUE, 0));
+    duplicates.add(new IdDuplicates(Integer.MAX_VALUE, Integer.MAX_VALUE));
+    while (duplicates.size() < 500) {
+      int id1 = random.nextInt(100);
+      int id2 = random.nextBoolean() ? id1 + random.nextInt(3) : random.nextInt(100_000);
+      duplicates.add(new IdDuplicates(id1, id2));
+    }
+    assertThat(readBack(duplicates, directory), is(duplicates));
+  }
+
+  @Test
+  void testRoundTripOfEmptySnapshot(@TempDir Path directory) {
+    assertThat(readBack(new HashSet<>(), directory).isEmpty(), is(true));
+  }
+
+  private static Set<IdDuplicates> readBack(Set<IdDuplicates> duplicates, Path directory) {
+    String path = directory.resolve("duplicates.snapshot").toString();
+    GtSnapshotWriter writer = new GtSnapshotWriter(path);
+    writer.setPairsPerBlock(PAIRS_PER_BLOCK);
+    writer.storeDuplicatePairs(duplicates);
+    return new GtSnapshotReader(path).getDuplicatePairs(null, null);
+  }
+}
@@ -0,0 +1,136 @@
+package org.scify.jedai.entityclustering;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.containsInAnyOrder;
+import static org.hamcrest.Matchers.greaterThanOrEqualTo;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+import org.scify.jedai.entityclustering.CorrelationClustering.SparseLocalSearch;
+
+/** Verifies the sparse local search of {@link CorrelationClustering}. */
+class CorrelationClusteringTest {
+
+  @Test
+  void testMoveIntoClusterEmptiedInTheSameRound() {
+    // clusters {0, 1}, {2, 3}, {4}, {5}, {6, 7}: 0 and 1 leave their cluster for 4 and 5,
+    // respectively, while 2 targets the cluster of 0 and 1, which is empty when 2 moves
+    int[][] edges = {{0, 4, 2}, {1, 5, 2}, {0, 2, 1}, {1, 2, 1}};
+    SparseLocalSearch localSearch = newLocalSearch(8, edges, new int[] {0, 0, 2, 2, 4, 5, 6, 6});
+    int[] targets = getBestMoves(localSearch, 8);
+    assertThat(targets, is(new int[] {4, 5, 0, 8, -1, -1, 8, 8}));
+
+    int objective = getObjective(localSearch, 8, edges);
+    assertThat(localSearch.applyMoves(targets), is(4));
+    assertThat(getObjective(localSearch, 8, edges), is(objective + 5));
+    // 6 gets a new singleton cluster instead of joining 2 in the reused cluster
+    assertThat(localSearch.getCluster(6), is(not(localSearch.getCluster(2))));
+    assertConsistentState(localSearch, 8);
+  }
+
+  @Test
+  void testEveryRoundIncreasesTheObjective() {
+    Random random = new Random(28);
+    for (int graph = 0; graph < 500; graph++) {
+      int noOfVertices = 2 + random.nextInt(40);
+      List<int[]> edgeList = new ArrayList<>();
+      for (int v1 = 0; v1 < noOfVertices; v1++) {
+        for (int v2 = v1 + 1; v2 < noOfVertices; v2++) {
+          if (random.nextInt(4) == 0) {
+            edgeList.add(new int[] {v1, v2, 1 + random.nextInt(2)});
+          }
+        }
+      }
+      int[][] edges = edgeList.toArray(new int[0][]);
+      int[] clusterOf = new int[noOfVertices];
+      Arrays.setAll(clusterOf, v -> random.nextInt(1 + v)); // some clusters are empty
+      for (int v = 0; v < noOfVertices; v++) {
+        clusterOf[v] = clusterOf[clusterOf[v]];
+      }
+
+      SparseLocalSearch localSearch = newLocalSearch(noOfVertices, edges, clusterOf);
+      int objective = getObjective(localSearch, noOfVertices, edges);
+      for (int round = 0; round < 100; round++) {
+        int noOfMoves = localSearch.applyMoves(getBestMoves(localSearch, noOfVertices));
+        assertConsistentState(localSearch, noOfVertices);
+        int newObjective = getObjective(localSearch, noOfVertices, edges);
+        assertThat(newObjective, is(greaterThanOrEqualTo(objective + noOfMoves)));
+        objective = newObjective;
+        if (noOfMoves == 0) {
+          break;
+        }
+      }
+    }
+  }
+
+  /** The stack should contain every empty cluster exactly once, and no other cluster. */
+  private static void assertConsistentState(SparseLocalSearch localSearch, int noOfVertices) {
+    int[] clusterSize = new int[noOfVertices];
+    for (int v = 0; v < noOfVertices; v++) {
+      clusterSize[localSearch.getCluster(v)]++;
+    }
+    List<Integer> emptyClusters = new ArrayList<>();
+    for (int c = 0; c < noOfVertices; c++) {
+      assertThat(localSearch.getClusterSize(c), is(clusterSize[c]));
+      if (clusterSize[c] == 0) {
+        emptyClusters.add(c);
+      }
+    }
+    List<Integer> stack = new ArrayList<>();
+    Arrays.stream(localSearch.getEmptyClusters()).forEach(stack::add);
+    assertThat(stack, containsInAnyOrder(emptyClusters.toArray()));
+  }
+
+  private static int[] getBestMoves(SparseLocalSearch localSearch, int noOfVertices) {
+    int[] edgeWeight = new int[noOfVertices];
+    int[] touchedClusters = new int[noOfVertices];
+    int[] targets = new int[noOfVertices];
+    for (int v = 0; v < noOfVertices; v++) {
+      targets[v] = localSearch.getBestMove(v, edgeWeight, touchedClusters);
+    }
+    return targets;
+  }
+
+  /** The total weight of the intra-cluster edges minus the number of intra-cluster pairs. */
+  private static int getObjective(SparseLocalSearch localSearch, int noOfVertices, int[][] edges) {
+    int objective = 0;
+    for (int[] edge : edges) {
+      if (localSearch.getCluster(edge[0]) == localSearch.getCluster(edge[1])) {
+        objective += edge[2];
+      }
+    }
+    for (int c = 0; c < noOfVertices; c++) {
+      int size = localSearch.getClusterSize(c);
+      objective -= size * (size - 1) / 2;
+    }
+    return objective;
+  }
+
+  /** Builds the adjacency lists of the given {vertex1, vertex2, weight} edges. */
+  private static SparseLocalSearch newLocalSearch(
+      int noOfVertices, int[][] edges, int[] clusterOf) {
+    int[] adjacencyStart = new int[noOfVertices + 1];
+    for (int[] edge : edges) {
+      adjacencyStart[edge[0] + 1]++;
+      adjacencyStart[edge[1] + 1]++;
+    }
+    for (int v = 1; v <= noOfVertices; v++) {
+      adjacencyStart[v] += adjacencyStart[v - 1];
+    }
+    int[] neighbors = new int[adjacencyStart[noOfVertices]];
+    byte[] weights = new byte[adjacencyStart[noOfVertices]];
+    int[] nextPosition = Arrays.copyOf(adjacencyStart, noOfVertices);
+    for (int[] edge : edges) {
+      neighbors[nextPosition[edge[0]]] = edge[1];
+      weights[nextPosition[edge[0]]++] = (byte) edge[2];
+      neighbors[nextPosition[edge[1]]] = edge[0];
+      weights[nextPosition[edge[1]]++] = (byte) edge[2];
+    }
+    return new SparseLocalSearch(adjacencyStart, neighbors, weights, clusterOf.clone());
+  }
+}
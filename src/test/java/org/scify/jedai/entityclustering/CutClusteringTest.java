@@ -0,0 +1,88 @@
+package org.scify.jedai.entityclustering;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+import org.junit.jupiter.api.Test;
+import org.scify.jedai.datamodel.EquivalenceCluster;
+import org.scify.jedai.datamodel.SimilarityPairs;
+
+/**
+ * Verifies that {@link CutClustering} yields the same clusters with the decomposition of the
+ * similarity graph into connected components as with the Gomory-Hu tree of the entire graph.
+ */
+class CutClusteringTest {
+  private static final int NO_OF_ENTITIES = 60;
+  private static final int NO_OF_GRAPHS = 30;
+
+  @Test
+  void testDecompositionForDirtyER() {
+    Random random = new Random(31);
+    for (int i = 0; i < NO_OF_GRAPHS; i++) {
+      assertSameClusters(generatePairs(random, false), 0.5f * random.nextFloat());
+    }
+  }
+
+  @Test
+  void testDecompositionForCleanCleanER() {
+    Random random = new Random(32);
+    for (int i = 0; i < NO_OF_GRAPHS; i++) {
+      assertSameClusters(generatePairs(random, true), 0.5f * random.nextFloat());
+    }
+  }
+
+  private static void assertSameClusters(SimilarityPairs simPairs, float ac) {
+    for (float threshold : new float[] {0.1f, 0.5f}) {
+      CutClustering reference = new CutClustering(ac, threshold, false);
+      CutClustering decomposition = new CutClustering(ac, threshold, true);
+      Set<String> expected = describe(reference.getDuplicates(simPairs));
+      Set<String> clusters = describe(decomposition.getDuplicates(simPairs));
+      assertThat("Acap=" + ac + ", threshold=" + threshold, clusters, is(expected));
+    }
+  }
+
+  private static Set<String> describe(EquivalenceCluster[] clusters) {
+    Set<String> descriptions = new HashSet<>();
+    for (EquivalenceCluster cluster : clusters) {
+      int[] entityIds1 = cluster.getEntityIdsD1().toArray();
+      int[] entityIds2 = cluster.getEntityIdsD2().toArray();
+      Arrays.sort(entityIds1);
+      Arrays.sort(entityIds2);
+      descriptions.add(Arrays.toString(entityIds1) + Arrays.toString(entityIds2));
+    }
+    return descriptions;
+  }
+
+  /**
+   * Generates a sparse similarity graph with several connected components, some of which are
+   * single edges, and distinct similarities, so that every minimum cut is unique.
+   */
+  private static SimilarityPairs generatePairs(Random random, boolean cleanCleanER) {
+    int noOfPairs = NO_OF_ENTITIES + random.nextInt(NO_OF_ENTITIES);
+    SimilarityPairs simPairs = new SimilarityPairs(cleanCleanER, noOfPairs);
+    Set<Long> pairs = new HashSet<>();
+    while (pairs.size() < noOfPairs) {
+      // the entities are grouped, so that the edges rarely connect different groups
+      int group = random.nextInt(NO_OF_ENTITIES / 6) * 6;
+      int entityId1 = group + random.nextInt(6);
+      int entityId2 =
+          random.nextInt(10) == 0 ? random.nextInt(NO_OF_ENTITIES) : group + random.nextInt(6);
+      if (!cleanCleanER && entityId1 == entityId2) {
+        continue;
+      }
+      if (!cleanCleanER && entityId2 < entityId1) {
+        int temp = entityId1;
+        entityId1 = entityId2;
+        entityId2 = temp;
+      }
+      if (pairs.add(((long) entityId1 << 32) | entityId2)) {
+        simPairs.addComparison(entityId1, entityId2, random.nextFloat());
+      }
+    }
+    return simPairs;
+  }
+}
@@ -0,0 +1,114 @@
+package org.scify.jedai.utilities;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.containsInAnyOrder;
+import static org.hamcrest.Matchers.is;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.scify.jedai.datamodel.EntityProfile;
+import org.scify.jedai.datamodel.EquivalenceCluster;
+import org.scify.jedai.datamodel.IdDuplicates;
+import org.scify.jedai.utilities.datastructures.UnilateralDuplicatePropagation;
+
+/** Verifies the functionality of {@link ClustersPerformance} for Dirty ER. */
+class ClustersPerformanceTest {
+  private static final int NO_OF_ENTITIES = 8;
+
+  @Test
+  void testPrintDetailedResultsWithDisjointClusters(@TempDir Path directory) throws IOException {
+    // clusters {0, 1, 2}, {3, 4}, {5, 6}, with the ground truth (0, 1), (0, 2), (1, 2), (3, 7)
+    EquivalenceCluster[] clusters = {cluster(0, 1, 2), cluster(3, 4), cluster(5, 6)};
+    List<String> rows = printDetailedResults(clusters, directory);
+    assertThat(
+        rows,
+        containsInAnyOrder(
+            "e0,e1,TP", "e0,e2,TP", "e1,e2,TP", "e3,e4,FP", "e5,e6,FP", "e3,e7,FN"));
+  }
+
+  @Test
+  void testPrintDetailedResultsWithOverlappingClusters(@TempDir Path directory)
+      throws IOException {
+    EquivalenceCluster[] clusters = {cluster(0, 1), cluster(1, 2, 3)};
+    List<String> rows = printDetailedResults(clusters, directory);
+    assertThat(
+        rows,
+        containsInAnyOrder(
+            "e0,e1,TP", "e1,e2,TP", "e1,e3,FP", "e2,e3,FP", "e0,e2,FN", "e3,e7,FN"));
+  }
+
+  @Test
+  void testSetStatisticsMatchesDetailedResults(@TempDir Path directory) throws IOException {
+    EquivalenceCluster[][] clusterings = {
+      {cluster(0, 1, 2), cluster(3, 4), cluster(5, 6)},
+      {cluster(0, 1), cluster(1, 2, 3)},
+      {cluster(0, 1, 2, 3, 4, 5, 6, 7)}
+    };
+    for (EquivalenceCluster[] clusters : clusterings) {
+      ClustersPerformance detailed = new ClustersPerformance(clusters, groundTruth());
+      detailed.printDetailedResults(
+          profiles(), profiles(), directory.resolve("results.csv").toString());
+
+      ClustersPerformance statistics = new ClustersPerformance(clusters, groundTruth());
+      statistics.setStatistics();
+      assertThat(statistics.getTotalMatches(), is(detailed.getTotalMatches()));
+      assertThat(statistics.getDetectedDuplicates(), is(detailed.getDetectedDuplicates()));
+      assertThat(statistics.getPrecision(), is(detailed.getPrecision()));
+      assertThat(statistics.getRecall(), is(detailed.getRecall()));
+    }
+  }
+
+  private static EquivalenceCluster cluster(int... entityIds) {
+    EquivalenceCluster cluster = new EquivalenceCluster();
+    for (int entityId : entityIds) {
+      cluster.addEntityIdD1(entityId);
+    }
+    return cluster;
+  }
+
+  private static UnilateralDuplicatePropagation groundTruth() {
+    Set<IdDuplicates> duplicates = new HashSet<>();
+    duplicates.add(new IdDuplicates(0, 1));
+    duplicates.add(new IdDuplicates(0, 2));
+    duplicates.add(new IdDuplicates(1, 2));
+    duplicates.add(new IdDuplicates(3, 7));
+    return new UnilateralDuplicatePropagation(duplicates);
+  }
+
+  /** Returns the URLs and the type of every pair in the detailed results. */
+  private static List<String> printDetailedResults(EquivalenceCluster[] clusters, Path directory)
+      throws IOException {
+    File outputFile = directory.resolve("results.csv").toFile();
+    new ClustersPerformance(clusters, groundTruth())
+        .printDetailedResults(profiles(), profiles(), outputFile.getPath());
+
+    List<String> rows = new ArrayList<>();
+    for (String line : Files.readAllLines(outputFile.toPath(), StandardCharsets.UTF_8)) {
+      if (line.contains("\t:\t")) { // the effectiveness measures
+        continue;
+      }
+      String[] fields = line.split(",", 4);
+      rows.add(fields[0] + "," + fields[1] + "," + fields[2]);
+    }
+    return rows;
+  }
+
+  private static List<EntityProfile> profiles() {
+    List<EntityProfile> profiles = new ArrayList<>();
+    for (int i = 0; i < NO_OF_ENTITIES; i++) {
+      EntityProfile profile = new EntityProfile("e" + i);
+      profile.addAttribute("name", "entity" + i);
+      profiles.add(profile);
+    }
+    return profiles;
+  }
+}
@@ -0,0 +1,174 @@
+package org.scify.jedai.utilities.datastructures;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.notNullValue;
+import static org.hamcrest.Matchers.nullValue;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Collectors;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.scify.jedai.blockprocessing.IBlockProcessing;
+import org.scify.jedai.blockprocessing.blockcleaning.BlockFiltering;
+import org.scify.jedai.blockprocessing.blockcleaning.ComparisonsBasedBlockPurging;
+import org.scify.jedai.blockprocessing.blockcleaning.SizeBasedBlockPurging;
+import org.scify.jedai.datamodel.AbstractBlock;
+import org.scify.jedai.datamodel.BilateralBlock;
+import org.scify.jedai.datamodel.UnilateralBlock;
+
+/**
+ * Verifies the functionality of {@link DiskBlockStore}, i.e., its file format and the streaming
+ * block processing over it.
+ */
+class DiskBlockStoreTest {
+  /** Small enough to split the data file into many segments, but larger than any block. */
+  private static final int SEGMENT_SIZE = 1024;
+
+  @Test
+  void testRoundTripOfUnilateralBlocks(@TempDir Path directory) throws IOException {
+    assertRoundTrip(generateBlocks(new Random(1), false), directory);
+  }
+
+  @Test
+  void testRoundTripOfBilateralBlocks(@TempDir Path directory) throws IOException {
+    assertRoundTrip(generateBlocks(new Random(2), true), directory);
+  }
+
+  @Test
+  void testRoundTripOfUnsortedAndExtremeIds(@TempDir Path directory) throws IOException {
+    // the differences of consecutive ids are negative or overflow, but their order is preserved
+    List<AbstractBlock> blocks = new ArrayList<>();
+    blocks.add(new UnilateralBlock(0.5f, new int[] {Integer.MAX_VALUE, 0, 127, 128, 16384, 3}));
+    blocks.add(new UnilateralBlock(new int[] {7, 5}));
+    blocks.add(new UnilateralBlock(2.5f, new int[] {0, Integer.MAX_VALUE - 1, 1}));
+    assertRoundTrip(blocks, directory);
+  }
+
+  @Test
+  void testOpenRejectsInvalidIndex(@TempDir Path directory) throws IOException {
+    String path = directory.resolve("blocks").toString();
+    try (DiskBlockStore.Writer writer = new DiskBlockStore.Writer(path, SEGMENT_SIZE)) {
+      generateBlocks(new Random(3), false).forEach(writer);
+    }
+    try (RandomAccessFile index = new RandomAccessFile(path + DiskBlockStore.INDEX_SUFFIX, "rw")) {
+      index.writeInt(0); // overwrites the magic number
+    }
+    assertThat(DiskBlockStore.open(path), is(nullValue()));
+  }
+
+  @Test
+  void testRefineBlocksOverStoreEqualsRefineBlocksOverList(@TempDir Path directory)
+      throws IOException {
+    for (boolean cleanCleanER : new boolean[] {false, true}) {
+      List<AbstractBlock> blocks = generateBlocks(new Random(cleanCleanER ? 5 : 4), cleanCleanER);
+      IBlockProcessing[] methods = {
+        new BlockFiltering(0.5f),
+        new ComparisonsBasedBlockPurging(cleanCleanER),
+        new SizeBasedBlockPurging(0.2f)
+      };
+      for (IBlockProcessing method : methods) {
+        List<String> expected = describe(method.refineBlocks(copy(blocks)));
+        assertThat(method.getMethodName(), expected.isEmpty(), is(false));
+
+        String path = directory.resolve(method.getMethodName() + cleanCleanER).toString();
+        try (DiskBlockStore.Writer writer = new DiskBlockStore.Writer(path, SEGMENT_SIZE)) {
+          blocks.forEach(writer);
+        }
+        List<AbstractBlock> refined = new ArrayList<>();
+        try (DiskBlockStore store = DiskBlockStore.open(path)) {
+          method.refineBlocks(store, refined::add);
+        }
+        assertThat(method.getMethodName(), sorted(describe(refined)), is(sorted(expected)));
+      }
+    }
+  }
+
+  private static void assertRoundTrip(List<AbstractBlock> blocks, Path directory)
+      throws IOException {
+    String path = directory.resolve("blocks").toString();
+    try (DiskBlockStore.Writer writer = new DiskBlockStore.Writer(path, SEGMENT_SIZE)) {
+      blocks.forEach(writer);
+    }
+
+    InMemoryBlockStore expected = new InMemoryBlockStore(copy(blocks));
+    try (DiskBlockStore store = DiskBlockStore.open(path)) {
+      assertThat(store, is(notNullValue()));
+      assertThat(store.size(), is(expected.size()));
+      assertThat(store.isCleanCleanER(), is(expected.isCleanCleanER()));
+      assertThat(store.getNoOfEntitiesD1(), is(expected.getNoOfEntitiesD1()));
+      assertThat(store.getNoOfEntitiesD2(), is(expected.getNoOfEntitiesD2()));
+      assertThat(store.getTotalAssignments(), is(expected.getTotalAssignments()));
+      assertThat(store.getTotalComparisons(), is(expected.getTotalComparisons()));
+
+      long previousComparisons = 0;
+      for (int i = 0; i < store.size(); i++) {
+        assertThat(store.getInnerSize1(i), is(expected.getInnerSize1(i)));
+        assertThat(store.getInnerSize2(i), is(expected.getInnerSize2(i)));
+        assertThat(store.getNoOfComparisons(i), is(expected.getNoOfComparisons(i)));
+        assertThat(describe(store.getBlock(i)), is(describe(expected.getBlock(i))));
+        assertThat(previousComparisons <= store.getNoOfComparisons(i), is(true));
+        previousComparisons = store.getNoOfComparisons(i);
+      }
+      assertThat(describe(store.getBlocks()), is(describe(expected.getBlocks())));
+
+      List<AbstractBlock> iterated = new ArrayList<>();
+      store.forEach(iterated::add);
+      assertThat(describe(iterated), is(describe(expected.getBlocks())));
+    }
+  }
+
+  /** Copies the blocks, as some block processing methods modify the given list. */
+  private static List<AbstractBlock> copy(List<AbstractBlock> blocks) {
+    return new ArrayList<>(blocks);
+  }
+
+  private static String describe(AbstractBlock block) {
+    if (block instanceof BilateralBlock) {
+      BilateralBlock bilateralBlock = (BilateralBlock) block;
+      return Arrays.toString(bilateralBlock.getIndex1Entities())
+          + Arrays.toString(bilateralBlock.getIndex2Entities())
+          + block.getEntropy();
+    }
+    return Arrays.toString(((UnilateralBlock) block).getEntities()) + block.getEntropy();
+  }
+
+  private static List<String> describe(List<AbstractBlock> blocks) {
+    return blocks.stream().map(DiskBlockStoreTest::describe).collect(Collectors.toList());
+  }
+
+  /**
+   * Generates blocks with sorted, distinct entity ids, whose sizes follow a skewed distribution
+   * with many ties, like the blocks of a block building method.
+   */
+  private static List<AbstractBlock> generateBlocks(Random random, boolean cleanCleanER) {
+    List<AbstractBlock> blocks = new ArrayList<>();
+    for (int i = 0; i < 500; i++) {
+      float entropy = random.nextInt(4) / 2.0f;
+      int[] entities1 = generateIds(random, 1 + (int) (2 / (random.nextDouble() + 0.02)));
+      if (cleanCleanER) {
+        int[] entities2 = generateIds(random, 1 + (int) (2 / (random.nextDouble() + 0.02)));
+        blocks.add(new BilateralBlock(entropy, entities1, entities2));
+      } else if (1 < entities1.length) {
+        blocks.add(new UnilateralBlock(entropy, entities1));
+      }
+    }
+    return blocks;
+  }
+
+  private static int[] generateIds(Random random, int size) {
+    return random.ints(0, 5000).distinct().limit(size).sorted().toArray();
+  }
+
+  private static List<String> sorted(List<String> values) {
+    List<String> sortedValues = new ArrayList<>(values);
+    sortedValues.sort(null);
+    return sortedValues;
+  }
+}
@@ -0,0 +1,143 @@
+package org.scify.jedai.utilities.datastructures;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import org.junit.jupiter.api.Test;
+import org.scify.jedai.datamodel.IdDuplicates;
+
+/** Verifies the functionality of {@link DuplicatePairsIndex} against a set of pairs. */
+class DuplicatePairsIndexTest {
+  private static final int NO_OF_ENTITIES = 300;
+
+  @Test
+  void testEmptyGroundTruth() {
+    for (boolean symmetric : new boolean[] {false, true}) {
+      DuplicatePairsIndex index = new DuplicatePairsIndex(new HashSet<>(), symmetric);
+      assertThat(index.isSymmetric(), is(symmetric));
+      assertThat(index.getNoOfPairs(), is(0));
+      assertThat(index.contains(0, 0), is(false));
+      assertThat(index.contains(0, 1), is(false));
+      assertThat(index.getMatchesStart(0), is(index.getMatchesEnd(0)));
+    }
+  }
+
+  @Test
+  void testCleanCleanERIsNotSymmetric() {
+    Random random = new Random(46);
+    for (int i = 0; i < 20; i++) {
+      Set<IdDuplicates> duplicates = generateDuplicates(random, 1 + random.nextInt(500), false);
+      DuplicatePairsIndex index = new DuplicatePairsIndex(duplicates, false);
+      assertThat(index.getNoOfPairs(), is(duplicates.size()));
+      for (int id1 = 0; id1 < NO_OF_ENTITIES; id1++) {
+        for (int id2 = 0; id2 < NO_OF_ENTITIES; id2++) {
+          boolean expected = duplicates.contains(new IdDuplicates(id1, id2));
+          assertThat(id1 + "," + id2, index.contains(id1, id2), is(expected));
+        }
+        assertThat(getMatches(index, id1), is(getMatches(duplicates, id1, false)));
+      }
+      assertOutOfRangeIds(index);
+    }
+  }
+
+  @Test
+  void testDirtyERIsSymmetric() {
+    Random random = new Random(47);
+    for (int i = 0; i < 20; i++) {
+      // both orientations of some pairs are given, but they count once
+      Set<IdDuplicates> duplicates = generateDuplicates(random, 1 + random.nextInt(500), true);
+      Set<IdDuplicates> normalized = new HashSet<>();
+      for (IdDuplicates pair : duplicates) {
+        int id1 = Math.min(pair.getEntityId1(), pair.getEntityId2());
+        int id2 = Math.max(pair.getEntityId1(), pair.getEntityId2());
+        normalized.add(new IdDuplicates(id1, id2));
+      }
+
+      DuplicatePairsIndex index = new DuplicatePairsIndex(duplicates, true);
+      assertThat(index.getNoOfPairs(), is(normalized.size()));
+      for (int id1 = 0; id1 < NO_OF_ENTITIES; id1++) {
+        for (int id2 = 0; id2 < NO_OF_ENTITIES; id2++) {
+          boolean expected =
+              normalized.contains(new IdDuplicates(Math.min(id1, id2), Math.max(id1, id2)));
+          assertThat(id1 + "," + id2, index.contains(id1, id2), is(expected));
+        }
+        assertThat(getMatches(index, id1), is(getMatches(normalized, id1, true)));
+      }
+      assertOutOfRangeIds(index);
+    }
+  }
+
+  @Test
+  void testGroundTruthIndexAgreesWithDuplicatePropagation() {
+    Random random = new Random(48);
+    Set<IdDuplicates> duplicates = generateDuplicates(random, 200, false);
+    AbstractDuplicatePropagation[] propagations = {
+      new BilateralDuplicatePropagation(duplicates), new UnilateralDuplicatePropagation(duplicates)
+    };
+    for (AbstractDuplicatePropagation propagation : propagations) {
+      DuplicatePairsIndex index = propagation.getDuplicatesIndex();
+      assertThat(index.isSymmetric(), is(propagation instanceof UnilateralDuplicatePropagation));
+      assertThat(propagation.getExistingDuplicates(), is(index.getNoOfPairs()));
+      for (IdDuplicates pair : duplicates) {
+        assertThat(index.contains(pair.getEntityId1(), pair.getEntityId2()), is(true));
+      }
+    }
+  }
+
+  private static void assertOutOfRangeIds(DuplicatePairsIndex index) {
+    for (int entityId : new int[] {-1, Integer.MIN_VALUE, NO_OF_ENTITIES, Integer.MAX_VALUE}) {
+      assertThat(index.contains(entityId, 0), is(false));
+      assertThat(index.contains(0, entityId), is(false));
+      assertThat(index.getMatchesStart(entityId), is(index.getMatchesEnd(entityId)));
+    }
+  }
+
+  /**
+   * Generates pairs of entity ids, with hubs that match many entities; for Dirty ER, the ids of a
+   * pair are distinct and may appear in either order.
+   */
+  private static Set<IdDuplicates> generateDuplicates(Random random, int size, boolean dirtyER) {
+    Set<IdDuplicates> duplicates = new HashSet<>();
+    while (duplicates.size() < size) {
+      int id1 = random.nextBoolean() ? random.nextInt(5) : random.nextInt(NO_OF_ENTITIES);
+      int id2 = random.nextInt(NO_OF_ENTITIES);
+      if (dirtyER && id1 == id2) {
+        continue;
+      }
+      duplicates.add(new IdDuplicates(id1, id2));
+      if (dirtyER && random.nextInt(4) == 0) {
+        duplicates.add(new IdDuplicates(id2, id1));
+      }
+    }
+    return duplicates;
+  }
+
+  private static List<Integer> getMatches(DuplicatePairsIndex index, int entityId) {
+    List<Integer> matches = new ArrayList<>();
+    for (int i = index.getMatchesStart(entityId); i < index.getMatchesEnd(entityId); i++) {
+      matches.add(index.getMatch(i));
+    }
+    Collections.sort(matches);
+    return matches;
+  }
+
+  private static List<Integer> getMatches(
+      Set<IdDuplicates> duplicates, int entityId, boolean symmetric) {
+    List<Integer> matches = new ArrayList<>();
+    for (IdDuplicates pair : duplicates) {
+      if (pair.getEntityId1() == entityId) {
+        matches.add(pair.getEntityId2());
+      } else if (symmetric && pair.getEntityId2() == entityId) {
+        matches.add(pair.getEntityId1());
+      }
+    }
+    Collections.sort(matches);
+    return matches;
+  }
+}
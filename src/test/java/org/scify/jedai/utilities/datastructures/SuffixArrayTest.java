@@ -0,0 +1,86 @@
+package org.scify.jedai.utilities.datastructures;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.stream.IntStream;
+import org.junit.jupiter.api.Test;
+
+/** Verifies the functionality of {@link SuffixArray} against sorting the suffixes directly. */
+class SuffixArrayTest {
+  private static final int NO_OF_TEXTS = 300;
+
+  @Test
+  void testGetSuffixArrayOfEmptyAndShortTexts() {
+    assertThat(SuffixArray.getSuffixArray(new int[0], 0), is(new int[0]));
+    assertThat(SuffixArray.getSuffixArray(new int[] {5}, 5), is(new int[] {0}));
+    assertThat(SuffixArray.getLcpArray(new int[0], new int[0]), is(new int[0]));
+    assertThat(SuffixArray.getLcpArray(new int[] {5}, new int[] {0}), is(new int[0]));
+  }
+
+  @Test
+  void testGetSuffixArrayOfPeriodicTexts() {
+    // runs of a single symbol and short periods produce the deepest recursion of SA-IS
+    for (int length : new int[] {9, 10, 11, 64, 1000}) {
+      for (int period = 1; period <= 4; period++) {
+        int[] text = new int[length];
+        for (int i = 0; i < length; i++) {
+          text[i] = i % period;
+        }
+        assertSuffixArray(text, period - 1);
+      }
+    }
+  }
+
+  @Test
+  void testGetSuffixArrayOfRandomTexts() {
+    Random random = new Random(42);
+    for (int i = 0; i < NO_OF_TEXTS; i++) {
+      // both tiny alphabets, with long common prefixes, and large ones, with short ones
+      int maxSymbol = i % 3 == 0 ? 1 : random.nextInt(i % 3 == 1 ? 4 : 1000);
+      int[] text = new int[random.nextInt(2000)];
+      for (int j = 0; j < text.length; j++) {
+        text[j] = random.nextInt(maxSymbol + 1);
+      }
+      assertSuffixArray(text, maxSymbol);
+    }
+  }
+
+  private static void assertSuffixArray(int[] text, int maxSymbol) {
+    int[] suffixArray = SuffixArray.getSuffixArray(text, maxSymbol);
+    int[] expectedSuffixArray =
+        IntStream.range(0, text.length)
+            .boxed()
+            .sorted((suffix1, suffix2) -> compareSuffixes(text, suffix1, suffix2))
+            .mapToInt(Integer::intValue)
+            .toArray();
+    assertThat(Arrays.toString(text), suffixArray, is(expectedSuffixArray));
+
+    int[] expectedLcp = new int[Math.max(0, text.length - 1)];
+    for (int i = 0; i < expectedLcp.length; i++) {
+      expectedLcp[i] = getCommonPrefix(text, expectedSuffixArray[i], expectedSuffixArray[i + 1]);
+    }
+    assertThat(SuffixArray.getLcpArray(text, suffixArray), is(expectedLcp));
+  }
+
+  private static int compareSuffixes(int[] text, int suffix1, int suffix2) {
+    int commonPrefix = getCommonPrefix(text, suffix1, suffix2);
+    if (suffix1 + commonPrefix == text.length || suffix2 + commonPrefix == text.length) {
+      // a proper prefix precedes the longer suffix
+      return Integer.compare(text.length - suffix1, text.length - suffix2);
+    }
+    return Integer.compare(text[suffix1 + commonPrefix], text[suffix2 + commonPrefix]);
+  }
+
+  private static int getCommonPrefix(int[] text, int suffix1, int suffix2) {
+    int length = 0;
+    while (suffix1 + length < text.length
+        && suffix2 + length < text.length
+        && text[suffix1 + length] == text[suffix2 + length]) {
+      length++;
+    }
+    return length;
+  }
+}
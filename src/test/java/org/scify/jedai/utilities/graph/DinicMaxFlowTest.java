@@ -0,0 +1,105 @@
+package org.scify.jedai.utilities.graph;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.closeTo;
+import static org.hamcrest.Matchers.is;
+
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Queue;
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+
+/** Verifies {@link DinicMaxFlow} against the Edmonds-Karp algorithm over a capacity matrix. */
+class DinicMaxFlowTest {
+  private static final double EPSILON = 1e-9;
+
+  @Test
+  void testMaxFlowAndMinimalSourceSide() {
+    Random random = new Random(41);
+    for (int graph = 0; graph < 200; graph++) {
+      int noOfVertices = 2 + random.nextInt(20);
+      int noOfEdges = random.nextInt(3 * noOfVertices);
+      int[] sources = new int[noOfEdges];
+      int[] targets = new int[noOfEdges];
+      double[] capacities = new double[noOfEdges];
+      double[][] matrix = new double[noOfVertices][noOfVertices];
+      for (int e = 0; e < noOfEdges; e++) {
+        sources[e] = random.nextInt(noOfVertices);
+        targets[e] = random.nextInt(noOfVertices);
+        // integral capacities produce ties between cuts, too
+        capacities[e] = random.nextBoolean() ? random.nextInt(4) : random.nextDouble();
+        if (sources[e] != targets[e]) {
+          matrix[sources[e]][targets[e]] += capacities[e];
+          matrix[targets[e]][sources[e]] += capacities[e];
+        }
+      }
+
+      DinicMaxFlow network =
+          new DinicMaxFlow(noOfVertices, sources, targets, capacities, noOfEdges);
+      assertThat(network.getNoOfVertices(), is(noOfVertices));
+      // every network is reused for several flows, as by Gusfield's algorithm
+      for (int flow = 0; flow < 3; flow++) {
+        int source = random.nextInt(noOfVertices);
+        int sink = (source + 1 + random.nextInt(noOfVertices - 1)) % noOfVertices;
+        boolean[] expectedSourceSide = new boolean[noOfVertices];
+        double expectedFlow = getMaxFlow(matrix, source, sink, expectedSourceSide);
+
+        assertThat(network.getMaxFlow(source, sink), is(closeTo(expectedFlow, EPSILON)));
+        boolean[] sourceSide = new boolean[noOfVertices];
+        for (int v = 0; v < noOfVertices; v++) {
+          sourceSide[v] = network.onSourceSide(v);
+        }
+        assertThat(Arrays.toString(sourceSide), is(Arrays.toString(expectedSourceSide)));
+      }
+    }
+  }
+
+  /**
+   * Computes the maximum flow with the Edmonds-Karp algorithm and marks the vertices that are
+   * reachable from the source in the final residual network.
+   */
+  private static double getMaxFlow(
+      double[][] capacities, int source, int sink, boolean[] sourceSide) {
+    int n = capacities.length;
+    double[][] residual = new double[n][];
+    for (int v = 0; v < n; v++) {
+      residual[v] = capacities[v].clone();
+    }
+
+    double flow = 0;
+    while (true) {
+      int[] parents = new int[n];
+      Arrays.fill(parents, -1);
+      parents[source] = source;
+      Queue<Integer> queue = new ArrayDeque<>();
+      queue.add(source);
+      while (!queue.isEmpty()) {
+        int v = queue.poll();
+        for (int u = 0; u < n; u++) {
+          if (parents[u] == -1 && EPSILON < residual[v][u]) {
+            parents[u] = v;
+            queue.add(u);
+          }
+        }
+      }
+
+      if (parents[sink] == -1) {
+        for (int v = 0; v < n; v++) {
+          sourceSide[v] = parents[v] != -1;
+        }
+        return flow;
+      }
+
+      double bottleneck = Double.MAX_VALUE;
+      for (int v = sink; v != source; v = parents[v]) {
+        bottleneck = Math.min(bottleneck, residual[parents[v]][v]);
+      }
+      for (int v = sink; v != source; v = parents[v]) {
+        residual[parents[v]][v] -= bottleneck;
+        residual[v][parents[v]] += bottleneck;
+      }
+      flow += bottleneck;
+    }
+  }
+}
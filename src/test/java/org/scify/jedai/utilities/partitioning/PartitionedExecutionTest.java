@@ -0,0 +1,149 @@
+package org.scify.jedai.utilities.partitioning;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.closeTo;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.notNullValue;
+import static org.hamcrest.Matchers.nullValue;
+
+import java.io.File;
+import java.io.InvalidObjectException;
+import java.io.ObjectInputStream;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.scify.jedai.blockbuilding.StandardBlocking;
+import org.scify.jedai.blockprocessing.blockcleaning.BlockFiltering;
+import org.scify.jedai.datamodel.AbstractBlock;
+import org.scify.jedai.datamodel.EntityProfile;
+import org.scify.jedai.datamodel.SimilarityPairs;
+import org.scify.jedai.datareader.entityreader.EntitySerializationReader;
+import org.scify.jedai.entitymatching.GroupLinkage;
+import org.scify.jedai.entitymatching.ProfileMatcher;
+import org.scify.jedai.utilities.enumerations.EntityMatchingMethod;
+import org.scify.jedai.utilities.enumerations.RepresentationModel;
+import org.scify.jedai.utilities.enumerations.SimilarityMetric;
+
+/**
+ * Verifies that {@link PartitionedExecution} produces the same similarity pairs as a single-JVM
+ * execution, running every partition in a separate worker JVM.
+ */
+class PartitionedExecutionTest {
+  private static final String PROFILES =
+      "data" + File.separator + "dirtyErDatasets" + File.separator + "restaurantProfiles";
+  private static final double SIMILARITY_ERROR = 1e-6;
+
+  private static List<EntityProfile> profiles;
+
+  @BeforeAll
+  static void readProfiles() {
+    profiles = new EntitySerializationReader(PROFILES).getEntityProfiles();
+  }
+
+  @Test
+  void testMergedPairsEqualSingleJvmProfileMatcher(@TempDir Path directory) {
+    List<EntityProfile> subset = profiles.subList(0, 400);
+    List<AbstractBlock> blocks = new StandardBlocking().getBlocks(subset);
+    Map<Long, Float> expected = toMap(new ProfileMatcher(subset).executeComparisons(blocks));
+
+    // fewer concurrent workers than partitions, so that finished workers free their slots
+    PartitionedExecution execution = new PartitionedExecution(3, directory.toString());
+    execution.setBlockBuilding(new StandardBlocking());
+    execution.setMaxConcurrentWorkers(2);
+    SimilarityPairs simPairs = execution.executeComparisons(subset, null);
+    assertThat(simPairs, is(notNullValue()));
+    assertSameSimilarities(toMap(simPairs), expected);
+    assertThat(execution.getPartitionStatistics().length, is(3));
+    assertThat(execution.getTotalExecutedComparisons() >= expected.size(), is(true));
+  }
+
+  @Test
+  void testWorkersApplyTheSimilarityThresholdOfGroupLinkage(@TempDir Path directory) {
+    List<EntityProfile> subset = profiles.subList(0, 150);
+    List<AbstractBlock> blocks = new StandardBlocking().getBlocks(subset);
+    float threshold = 0.5f;
+    Map<Long, Float> expected =
+        toMap(
+            new GroupLinkage(
+                    threshold,
+                    subset,
+                    RepresentationModel.TOKEN_UNIGRAMS,
+                    SimilarityMetric.COSINE_SIMILARITY)
+                .executeComparisons(blocks));
+    Map<Long, Float> withDefaultThreshold =
+        toMap(
+            new GroupLinkage(
+                    GroupLinkage.DEFAULT_SIMILARITY_THRESHOLD,
+                    subset,
+                    RepresentationModel.TOKEN_UNIGRAMS,
+                    SimilarityMetric.COSINE_SIMILARITY)
+                .executeComparisons(blocks));
+    assertThat(expected, is(not(withDefaultThreshold)));
+
+    PartitionedExecution execution = new PartitionedExecution(2, directory.toString());
+    execution.setBlockBuilding(new StandardBlocking());
+    execution.setEntityMatching(
+        EntityMatchingMethod.GROUP_LINKAGE,
+        RepresentationModel.TOKEN_UNIGRAMS,
+        SimilarityMetric.COSINE_SIMILARITY,
+        threshold);
+    assertSameSimilarities(toMap(execution.executeComparisons(subset, null)), expected);
+  }
+
+  @Test
+  void testFailingWorkerReturnsNull(@TempDir Path directory) {
+    List<EntityProfile> subset = profiles.subList(0, 50);
+
+    // the task file cannot be deserialized by the workers
+    PartitionedExecution execution = new PartitionedExecution(2, directory.toString());
+    execution.setBlockBuilding(new StandardBlocking());
+    execution.addBlockProcessing(new UnreadableBlockFiltering());
+    assertThat(execution.executeComparisons(subset, null), is(nullValue()));
+    assertThat(execution.getDuplicates(null), is(nullValue()));
+
+    // the worker JVMs cannot start
+    execution = new PartitionedExecution(2, directory.toString());
+    execution.setBlockBuilding(new StandardBlocking());
+    execution.addJvmOption("-XX:+ThisOptionDoesNotExist");
+    assertThat(execution.executeComparisons(subset, null), is(nullValue()));
+  }
+
+  /**
+   * The similarities may differ in the last bit, because the workers read the profiles from
+   * snapshots, which may change the order in which the attributes are aggregated.
+   */
+  private static void assertSameSimilarities(Map<Long, Float> actual, Map<Long, Float> expected) {
+    assertThat(actual.keySet(), is(expected.keySet()));
+    for (Map.Entry<Long, Float> pair : expected.entrySet()) {
+      assertThat(
+          (double) actual.get(pair.getKey()), is(closeTo(pair.getValue(), SIMILARITY_ERROR)));
+    }
+  }
+
+  /** Maps every distinct pair, with the smallest id first, to its similarity. */
+  private static Map<Long, Float> toMap(SimilarityPairs simPairs) {
+    Map<Long, Float> pairs = new TreeMap<>();
+    for (int i = 0; i < simPairs.getNoOfComparisons(); i++) {
+      int entityId1 = simPairs.getEntityIds1()[i];
+      int entityId2 = simPairs.getEntityIds2()[i];
+      long key =
+          ((long) Math.min(entityId1, entityId2) << 32) | Math.max(entityId1, entityId2);
+      pairs.put(key, simPairs.getSimilarities()[i]);
+    }
+    return pairs;
+  }
+
+  /** A block processing method that fails when a worker reads the task file. */
+  static class UnreadableBlockFiltering extends BlockFiltering {
+    private static final long serialVersionUID = 1L;
+
+    private void readObject(ObjectInputStream input) throws InvalidObjectException {
+      throw new InvalidObjectException("The task file of the test is not readable");
+    }
+  }
+}
@@ -0,0 +1,138 @@
+package org.scify.jedai.utilities.planning;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.is;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import org.junit.jupiter.api.Test;
+import org.scify.jedai.blockbuilding.ExtendedSuffixArraysBlocking;
+import org.scify.jedai.blockbuilding.HashedQGramsBlocking;
+import org.scify.jedai.blockbuilding.IBlockBuilding;
+import org.scify.jedai.blockbuilding.NativeLSHMinHashBlocking;
+import org.scify.jedai.blockbuilding.NativeLSHSuperBitBlocking;
+import org.scify.jedai.blockbuilding.SortedNeighborhoodBlocking;
+import org.scify.jedai.blockbuilding.StandardBlocking;
+import org.scify.jedai.blockbuilding.SuffixArraysBlocking;
+import org.scify.jedai.blockprocessing.blockcleaning.BlockFiltering;
+import org.scify.jedai.entityclustering.ConnectedComponentsClustering;
+import org.scify.jedai.utilities.enumerations.ExecutionVariant;
+import org.scify.jedai.utilities.metrics.PipelineMetrics;
+
+/**
+ * Verifies the variants that {@link ExecutionPlanner} chooses for a Dirty ER workflow with 10,000
+ * entities and 10,000 blocks of two entities, whose blocks occupy 640,000 bytes and whose Block
+ * Building needs twice as much.
+ */
+class ExecutionPlannerTest {
+  private static final int NO_OF_BLOCKS = 10_000;
+  private static final int NO_OF_ENTITIES = 10_000;
+
+  private static ExecutionPlanner getPlanner(IBlockBuilding blockBuilding, long heapBudget) {
+    final ExecutionPlanner planner = new ExecutionPlanner(NO_OF_ENTITIES, 0);
+    planner.addBlocks(2, 0, NO_OF_BLOCKS);
+    planner.setBlockBuilding(blockBuilding);
+    planner.setHeapBudget(heapBudget);
+    return planner;
+  }
+
+  @Test
+  void testInMemoryPlan() {
+    final ExecutionPlanner planner = getPlanner(new StandardBlocking(), 10_000_000);
+    planner.addBlockProcessing(new BlockFiltering(0.5f));
+    planner.setEntityClustering(new ConnectedComponentsClustering());
+
+    final ExecutionPlan plan = planner.plan();
+    assertThat(plan.getNoOfPartitions(), is(1));
+    assertThat(plan.isPartitioned(), is(false));
+    assertThat(plan.isUsingDiskBlockStore(), is(false));
+    assertThat(plan.getEstimates().size(), is(4));
+    for (ExecutionPlan.StageEstimate estimate : plan.getEstimates()) {
+      assertThat(estimate.getVariant(), is(ExecutionVariant.IN_MEMORY));
+    }
+    assertThat(plan.getEstimate(PipelineMetrics.BLOCK_BUILDING).getPeakMemory(), is(1_280_000L));
+    assertThat(plan.getEstimate(PipelineMetrics.BLOCK_PROCESSING).getPeakMemory(), is(1_360_000L));
+    assertThat(plan.getEstimate(PipelineMetrics.ENTITY_MATCHING).getPeakMemory(), is(760_000L));
+    assertThat(plan.getEstimate(PipelineMetrics.ENTITY_MATCHING).getComparisons(), is(10_000L));
+  }
+
+  @Test
+  void testDiskBlockStorePlan() {
+    // Block Filtering does not fit into the budget, unless it streams the blocks
+    final ExecutionPlanner planner = getPlanner(new StandardBlocking(), 1_300_000);
+    planner.addBlockProcessing(new BlockFiltering(0.5f));
+
+    final ExecutionPlan plan = planner.plan();
+    assertThat(plan.getNoOfPartitions(), is(1));
+    assertThat(plan.isUsingDiskBlockStore(), is(true));
+    assertThat(
+        plan.getEstimate(PipelineMetrics.BLOCK_BUILDING).getVariant(),
+        is(ExecutionVariant.IN_MEMORY));
+    assertThat(
+        plan.getEstimate(PipelineMetrics.BLOCK_PROCESSING).getVariant(),
+        is(ExecutionVariant.DISK_BLOCK_STORE));
+    assertThat(plan.getEstimate(PipelineMetrics.BLOCK_PROCESSING).getPeakMemory(), is(120_032L));
+    assertThat(
+        plan.getEstimate(PipelineMetrics.ENTITY_MATCHING).getVariant(),
+        is(ExecutionVariant.IN_MEMORY));
+  }
+
+  @Test
+  void testPartitionedPlan() {
+    final ExecutionPlan plan = getPlanner(new StandardBlocking(), 700_000).plan();
+    assertThat(plan.getNoOfPartitions(), is(2));
+    assertThat(plan.isPartitioned(), is(true));
+    assertThat(plan.isUsingDiskBlockStore(), is(false));
+    assertThat(
+        plan.getEstimate(PipelineMetrics.BLOCK_BUILDING).getVariant(),
+        is(ExecutionVariant.PARTITIONED));
+    assertThat(plan.getEstimate(PipelineMetrics.BLOCK_BUILDING).getPeakMemory(), is(640_000L));
+    assertThat(
+        plan.getEstimate(PipelineMetrics.ENTITY_MATCHING).getVariant(),
+        is(ExecutionVariant.PARTITIONED));
+    // the merging of the 10,000 pairs in the coordinator dominates the workers
+    assertThat(plan.getEstimate(PipelineMetrics.ENTITY_MATCHING).getPeakMemory(), is(460_000L));
+    assertThat(plan.getEstimate(PipelineMetrics.ENTITY_MATCHING).getComparisons(), is(10_000L));
+  }
+
+  @Test
+  void testFailFastWithoutKeyPartitions() {
+    final IBlockBuilding[] methods = {
+      null,
+      new SortedNeighborhoodBlocking(),
+      new HashedQGramsBlocking(),
+      new SuffixArraysBlocking(),
+      new ExtendedSuffixArraysBlocking(),
+      new NativeLSHMinHashBlocking(),
+      new NativeLSHSuperBitBlocking()
+    };
+    for (IBlockBuilding method : methods) {
+      // every worker would still build all blocks, so partitioning cannot help
+      final ExecutionPlanner planner = getPlanner(method, 700_000);
+      final IllegalStateException exception =
+          assertThrows(IllegalStateException.class, planner::plan);
+      assertThat(exception.getMessage(), containsString(PipelineMetrics.BLOCK_BUILDING + " is"));
+    }
+  }
+
+  @Test
+  void testFailFastWithTinyBudget() {
+    final IllegalStateException exception =
+        assertThrows(
+            IllegalStateException.class, getPlanner(new StandardBlocking(), 1_000)::plan);
+    assertThat(
+        exception.getMessage(), containsString(PipelineMetrics.BLOCK_BUILDING + " per partition"));
+  }
+
+  @Test
+  void testFailFastWithTooManyComparisons() {
+    final ExecutionPlanner planner = new ExecutionPlanner(200_000, 0);
+    planner.addBlocks(100_000, 0, 1);
+    planner.setBlockBuilding(new StandardBlocking());
+    planner.setHeapBudget(1L << 40);
+
+    final IllegalStateException exception =
+        assertThrows(IllegalStateException.class, planner::plan);
+    assertThat(exception.getMessage(), containsString("similarity pairs"));
+  }
+}
@@ -16,16 +16,9 @@
 package org.scify.jedai.version3;
 
 import org.scify.jedai.blockbuilding.IBlockBuilding;
-import org.scify.jedai.utilities.datastructures.AbstractDuplicatePropagation;
 import org.scify.jedai.blockprocessing.IBlockProcessing;
-import org.scify.jedai.utilities.datastructures.UnilateralDuplicatePropagation;
 import org.scify.jedai.datamodel.AbstractBlock;
-import org.scify.jedai.datamodel.EntityProfile;
 import org.scify.jedai.datamodel.SimilarityPairs;
-import org.scify.jedai.datareader.entityreader.IEntityReader;
-import org.scify.jedai.datareader.entityreader.EntitySerializationReader;
-import org.scify.jedai.datareader.groundtruthreader.GtSerializationReader;
-import org.scify.jedai.datareader.groundtruthreader.IGroundTruthReader;
 import org.scify.jedai.utilities.enumerations.RepresentationModel;
 import org.scify.jedai.utilities.enumerations.SimilarityMetric;
 import java.util.List;
@@ -38,8 +31,8 @@ import org.scify.jedai.datamodel.EquivalenceCluster;
 import org.scify.jedai.entityclustering.ConnectedComponentsClustering;
 import org.scify.jedai.entitymatching.IEntityMatching;
 import org.scify.jedai.entitymatching.ProfileMatcher;
-import org.scify.jedai.utilities.BlocksPerformance;
-import org.scify.jedai.utilities.ClustersPerformance;
+import org.scify.jedai.utilities.BenchmarkRunner;
+import org.scify.jedai.utilities.SyntheticDatasetGenerator;
 import org.scify.jedai.utilities.enumerations.WeightingScheme;
 
 /**
@@ -51,56 +44,44 @@ public class ScalabilityBlockingBasedWorkflow {
     public static void main(String[] args) {
         BasicConfigurator.configure();
 
-        String mainDir = "/home/gap2/data/JedAIdata/datasets/syntheticDatasets/";
-        String[] datasets = {"10K", "50K", "100K", "200K", "300K", "1M", "2M"};
-
-        int datasetId = Integer.parseInt(args[0]);
-        String currentDataset = mainDir + datasets[datasetId] + "profiles";
-        String currentGroundtruth = mainDir + datasets[datasetId] + "IdDuplicates";
-
-        System.out.println("Current datase\t:\t" + currentDataset);
-
-        IEntityReader eReader = new EntitySerializationReader(currentDataset);
-        List<EntityProfile> profiles = eReader.getEntityProfiles();
-        System.out.println("Input Entity Profiles\t:\t" + profiles.size());
-
-        IGroundTruthReader gtReader = new GtSerializationReader(currentGroundtruth);
-        final AbstractDuplicatePropagation duplicatePropagation = new UnilateralDuplicatePropagation(gtReader.getDuplicatePairs(eReader.getEntityProfiles()));
-        System.out.println("Existing Duplicates\t:\t" + duplicatePropagation.getDuplicates().size());
-
-        long time1 = System.currentTimeMillis();
-
-        IBlockBuilding blockBuildingMethod = new StandardBlocking();
-        List<AbstractBlock> blocks = blockBuildingMethod.getBlocks(profiles, null);
-        System.out.println("Original blocks\t:\t" + blocks.size());
-
-        IBlockProcessing blockCleaningMethod1 = new ComparisonsBasedBlockPurging(false);
-        blocks = blockCleaningMethod1.refineBlocks(blocks);
-
-        IBlockProcessing blockCleaningMethod2 = new BlockFiltering();
-        blocks = blockCleaningMethod2.refineBlocks(blocks);
-
-        IBlockProcessing comparisonCleaningMethod = new CardinalityNodePruning(WeightingScheme.ARCS);
-        blocks = comparisonCleaningMethod.refineBlocks(blocks);
-
-        long time2 = System.currentTimeMillis();
-
-        IEntityMatching pm = new ProfileMatcher(profiles, RepresentationModel.CHARACTER_BIGRAMS, SimilarityMetric.COSINE_SIMILARITY);
-        SimilarityPairs simPairs = pm.executeComparisons(blocks);
-
-        ConnectedComponentsClustering ccc = new ConnectedComponentsClustering();
-        EquivalenceCluster[] entityClusters = ccc.getDuplicates(simPairs);
-
-        long time3 = System.currentTimeMillis();
-
-        BlocksPerformance blStats = new BlocksPerformance(blocks, duplicatePropagation);
-        blStats.setStatistics();
-        blStats.printStatistics(time2 - time1, "", "");
-
-        ClustersPerformance clp = new ClustersPerformance(entityClusters, duplicatePropagation);
-        clp.setStatistics();
-        clp.printStatistics(time3 - time1, "", "");
-        
-        System.out.println("Running time\t:\t" + (time3-time1));
+        int[] datasets = {10000, 50000, 100000, 200000, 300000, 1000000, 2000000};
+        if (0 < args.length) {
+            datasets = new int[]{datasets[Integer.parseInt(args[0])]};
+        }
+        String outputFile = 1 < args.length ? args[1] : "scalabilityBlockingBasedWorkflow.csv";
+
+        SyntheticDatasetGenerator generator = new SyntheticDatasetGenerator(datasets[0]);
+        BenchmarkRunner runner = new BenchmarkRunner(generator, outputFile);
+        runner.run(datasets, null, (currentRunner, profiles, profilesD2) -> {
+            System.out.println("Input Entity Profiles\t:\t" + profiles.size());
+            System.out.println("Existing Duplicates\t:\t" + currentRunner.getDuplicatePropagation().getExistingDuplicates());
+
+            IBlockBuilding blockBuildingMethod = new StandardBlocking();
+            List<AbstractBlock> blocks = currentRunner.measureStage("Block Building", () -> blockBuildingMethod.getBlocks(profiles, null));
+            currentRunner.evaluateBlocks(blocks);
+            System.out.println("Original blocks\t:\t" + blocks.size());
+
+            IBlockProcessing blockCleaningMethod1 = new ComparisonsBasedBlockPurging(false);
+            final List<AbstractBlock> purgedBlocks = currentRunner.measureStage("Block Purging", () -> blockCleaningMethod1.refineBlocks(blocks));
+            currentRunner.evaluateBlocks(purgedBlocks);
+
+            IBlockProcessing blockCleaningMethod2 = new BlockFiltering();
+            final List<AbstractBlock> filteredBlocks = currentRunner.measureStage("Block Filtering", () -> blockCleaningMethod2.refineBlocks(purgedBlocks));
+            currentRunner.evaluateBlocks(filteredBlocks);
+
+            IBlockProcessing comparisonCleaningMethod = new CardinalityNodePruning(WeightingScheme.ARCS);
+            final List<AbstractBlock> prunedBlocks = currentRunner.measureStage("Comparison Cleaning", () -> comparisonCleaningMethod.refineBlocks(filteredBlocks));
+            currentRunner.evaluateBlocks(prunedBlocks);
+
+            SimilarityPairs simPairs = currentRunner.measureStage("Entity Matching", () -> {
+                IEntityMatching pm = new ProfileMatcher(profiles, RepresentationModel.CHARACTER_BIGRAMS, SimilarityMetric.COSINE_SIMILARITY);
+                return pm.executeComparisons(prunedBlocks);
+            });
+            currentRunner.evaluateSimilarityPairs(simPairs);
+
+            ConnectedComponentsClustering ccc = new ConnectedComponentsClustering();
+            EquivalenceCluster[] entityClusters = currentRunner.measureStage("Entity Clustering", () -> ccc.getDuplicates(simPairs));
+            currentRunner.evaluateClusters(entityClusters);
+        });
     }
 }
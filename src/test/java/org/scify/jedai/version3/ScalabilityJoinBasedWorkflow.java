@@ -17,18 +17,13 @@ package org.scify.jedai.version3;
 
 import org.apache.log4j.BasicConfigurator;
 import org.scify.jedai.datamodel.*;
-import org.scify.jedai.datareader.entityreader.EntitySerializationReader;
-import org.scify.jedai.datareader.entityreader.IEntityReader;
-import org.scify.jedai.datareader.groundtruthreader.GtSerializationReader;
-import org.scify.jedai.datareader.groundtruthreader.IGroundTruthReader;
 import org.scify.jedai.entityclustering.ConnectedComponentsClustering;
 import org.scify.jedai.similarityjoins.tokenbased.PPJoin;
-import org.scify.jedai.utilities.ClustersPerformance;
-import org.scify.jedai.utilities.datastructures.UnilateralDuplicatePropagation;
+import org.scify.jedai.utilities.BenchmarkRunner;
+import org.scify.jedai.utilities.SyntheticDatasetGenerator;
 
 import java.util.ArrayList;
 import java.util.List;
-import java.util.Set;
 
 /**
  *
@@ -36,9 +31,7 @@ import java.util.Set;
  */
 public class ScalabilityJoinBasedWorkflow {
 
-    static List<EntityProfile> getFlatProfiles(String filePath) {
-        final IEntityReader eReader = new EntitySerializationReader(filePath);//;
-        final List<EntityProfile> profiles = eReader.getEntityProfiles();
+    static List<EntityProfile> getFlatProfiles(List<EntityProfile> profiles) {
         System.out.println("\n\nInput Entity Profiles\t:\t" + profiles.size());
 
         final List<EntityProfile> flatProfiles = new ArrayList<>();
@@ -67,41 +60,29 @@ public class ScalabilityJoinBasedWorkflow {
     }
 
     public static void main(String[] args) {
-        int datasetId = Integer.parseInt(args[0]);
-//        String mainDir = "/home/gpapadakis/data/gridRandomConf/";
-//        String mainDir = "/home/gap2/data/JedAIdata/datasets/syntheticDatasets/";
-        String mainDir = "/home/gman/SparkER/data/Experiments/syntheticData/";
-        String[] syntheticDatasets = {"10K", "50K", "100K", "200K", "300K", "1M", "2M"};
-
-//        for (int datasetId = 0; datasetId < syntheticDatasets.length; datasetId++) {
         BasicConfigurator.configure();
 
-        String datasetDir = syntheticDatasets[datasetId] + "profiles";
-        String groundtruthDir = syntheticDatasets[datasetId] + "IdDuplicates";
-
-        final List<EntityProfile> profiles = getFlatProfiles(mainDir + datasetDir);//inReader.getEntityProfiles();
-        System.out.println("Profiles\t:\t" + profiles.size());
-
-        final IGroundTruthReader gtReader = new GtSerializationReader(mainDir + groundtruthDir);
-        final Set<IdDuplicates> duplicatePairs = gtReader.getDuplicatePairs(null);
-        System.out.println("Duplicate pairs\t:\t" + duplicatePairs.size());
-
-        long time1 = System.currentTimeMillis();
-
-        float simThreshold = 0.40f;
-        PPJoin ppjoin = new PPJoin(simThreshold);
-        SimilarityPairs simPairs = ppjoin.executeFiltering("all", profiles);
-
-        ConnectedComponentsClustering cc = new ConnectedComponentsClustering(simThreshold);
-        EquivalenceCluster[] entityClusters = cc.getDuplicates(simPairs);
-
-        long time2 = System.currentTimeMillis();
-
-        ClustersPerformance clp = new ClustersPerformance(entityClusters, new UnilateralDuplicatePropagation(duplicatePairs));
-        clp.setStatistics();
-        clp.printStatistics(time2 - time1, "", "");
-
-        System.out.println("Running time\t:\t" + (time2 - time1));
-//        }
+        int[] syntheticDatasets = {10000, 50000, 100000, 200000, 300000, 1000000, 2000000};
+        if (0 < args.length) {
+            syntheticDatasets = new int[]{syntheticDatasets[Integer.parseInt(args[0])]};
+        }
+        String outputFile = 1 < args.length ? args[1] : "scalabilityJoinBasedWorkflow.csv";
+
+        SyntheticDatasetGenerator generator = new SyntheticDatasetGenerator(syntheticDatasets[0]);
+        BenchmarkRunner runner = new BenchmarkRunner(generator, outputFile);
+        runner.run(syntheticDatasets, null, (currentRunner, generatedProfiles, profilesD2) -> {
+            final List<EntityProfile> profiles = currentRunner.measureStage("Profile Flattening", () -> getFlatProfiles(generatedProfiles));
+            System.out.println("Profiles\t:\t" + profiles.size());
+            System.out.println("Duplicate pairs\t:\t" + currentRunner.getDuplicatePropagation().getExistingDuplicates());
+
+            float simThreshold = 0.40f;
+            PPJoin ppjoin = new PPJoin(simThreshold);
+            SimilarityPairs simPairs = currentRunner.measureStage("Similarity Join", () -> ppjoin.executeFiltering("all", profiles));
+            currentRunner.evaluateSimilarityPairs(simPairs);
+
+            ConnectedComponentsClustering cc = new ConnectedComponentsClustering(simThreshold);
+            EquivalenceCluster[] entityClusters = currentRunner.measureStage("Entity Clustering", () -> cc.getDuplicates(simPairs));
+            currentRunner.evaluateClusters(entityClusters);
+        });
     }
 }